@@ -0,0 +1,154 @@
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Provider;
+import database.DatabaseModule;
+import database.UnitOfWork;
+import database.daos.OrderDao;
+import database.daos.TradeDao;
+import database.entities.TradeEntity;
+import database.entities.TradeOrderEntity;
+import database.entities.TradeOrderStatus;
+import database.entities.TradeOrderType;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import services.strategies.tradingstrategies.TradingStrategy;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Measures the lookups that run on every tick, the open trades of a strategy and the pending orders, on a ledger with
+ * a long history. It inserts the closed trades of several strategies, each with an entry and an exit order, and a few
+ * open trades with a pending entry order, then logs the query plans of the lookups and how long they take.
+ * The inserted trades are deleted at the end. It should still be run on a scratch database, not the one that trades.
+ * The arguments are the number of closed trades and the number of times each lookup is run, by default 1000000 and 100.
+ */
+@Slf4j
+public class DaoQueryBenchmarkApplication {
+
+    private static final String STRATEGY = "Benchmark";
+    private static final int STRATEGIES = 10;
+    private static final int OPEN_TRADES = 10;
+    // trades saved in one unit of work
+    private static final int CHUNK_SIZE = 10_000;
+
+    public static void main(String[] args) {
+        int closedTrades = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+
+        Injector injector = Guice.createInjector(new DatabaseModule());
+        UnitOfWork unitOfWork = injector.getInstance(UnitOfWork.class);
+        Provider<EntityManager> entityManagerProvider = injector.getProvider(EntityManager.class);
+        // straight to the database, not through the journal
+        TradeDao tradeDao = new TradeDao(entityManagerProvider);
+        OrderDao orderDao = new OrderDao(entityManagerProvider);
+
+        try {
+            long start = System.nanoTime();
+            for (int saved = 0; saved < closedTrades; saved += CHUNK_SIZE) {
+                int from = saved;
+                int to = Math.min(closedTrades, saved + CHUNK_SIZE);
+                unitOfWork.run(() -> tradeDao.saveAll(getTrades(from, to, false)));
+            }
+            unitOfWork.run(() -> tradeDao.saveAll(getTrades(closedTrades, closedTrades + OPEN_TRADES, true)));
+            log.info("Inserted " + (closedTrades + OPEN_TRADES) + " trades in " + millis(System.nanoTime() - start));
+
+            unitOfWork.run(() -> {
+                // fresh statistics, so the planner sees the rows that were just inserted
+                execute(entityManagerProvider.get(), "ANALYZE trade");
+                execute(entityManagerProvider.get(), "ANALYZE trade_order");
+                logPlan(entityManagerProvider.get(), "Open trades", "SELECT * FROM trade t LEFT JOIN trade_order o ON o.trade_id = t.id " +
+                        "WHERE t.entry_strategy = '" + STRATEGY + "-0' AND t.profit IS NULL");
+                logPlan(entityManagerProvider.get(), "Pending orders", "SELECT * FROM trade_order o JOIN trade t ON t.id = o.trade_id " +
+                        "WHERE o.status = 'PENDING'");
+            });
+
+            measure("Open trades", iterations, () -> unitOfWork.call(() -> tradeDao.findOpenTradesByStrategy(STRATEGY + "-0")));
+            measure("Pending orders", iterations, () -> unitOfWork.call(orderDao::findPendingOrders));
+        } finally {
+            unitOfWork.run(() -> {
+                EntityManager entityManager = entityManagerProvider.get();
+                entityManager.getTransaction().begin();
+                execute(entityManager, "DELETE FROM trade_order WHERE trade_id IN (SELECT id FROM trade WHERE entry_strategy LIKE '" + STRATEGY + "-%')");
+                execute(entityManager, "DELETE FROM trade WHERE entry_strategy LIKE '" + STRATEGY + "-%'");
+                entityManager.getTransaction().commit();
+            });
+        }
+    }
+
+    /**
+     * Trades numbered from to to, spread over the benchmark strategies. The open ones all belong to the first.
+     */
+    private static List<TradeEntity> getTrades(int from, int to, boolean open) {
+        LocalDateTime time = LocalDateTime.of(2020, 1, 1, 0, 0);
+        List<TradeEntity> trades = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            TradeEntity trade = new TradeEntity();
+            trade.setEntryStrategy(STRATEGY + "-" + (open ? 0 : i % STRATEGIES));
+            trade.setExitStrategy("TrailingStop");
+            trade.setPeriodLength(Duration.ofHours(1));
+            trade.addOrder(getOrder(i * 2, TradeOrderType.ENTRY, open ? TradeOrderStatus.PENDING : TradeOrderStatus.EXECUTED, time.plusHours(i)));
+            if (!open) {
+                trade.addOrder(getOrder(i * 2 + 1, TradeOrderType.EXIT, TradeOrderStatus.EXECUTED, time.plusHours(i).plusMinutes(30)));
+                trade.setProfit(BigDecimal.ONE);
+            }
+            trades.add(trade);
+        }
+        return trades;
+    }
+
+    private static TradeOrderEntity getOrder(int orderReference, TradeOrderType type, TradeOrderStatus status, LocalDateTime time) {
+        TradeOrderEntity order = new TradeOrderEntity();
+        order.setOrderReference(orderReference);
+        order.setOrderTransaction("BENCHMARK-" + orderReference);
+        order.setAssetCode("XBTUSD");
+        order.setTradingSignal(TradeOrderType.ENTRY.equals(type) ? TradingStrategy.TradingSignal.BUY : TradingStrategy.TradingSignal.SELL);
+        order.setStatus(status);
+        order.setType(type);
+        order.setVolume(BigDecimal.ONE);
+        order.setVolumeExec(TradeOrderStatus.EXECUTED.equals(status) ? BigDecimal.ONE : null);
+        order.setPrice(BigDecimal.TEN);
+        order.setCost(BigDecimal.TEN);
+        order.setFee(BigDecimal.ZERO);
+        order.setTime(time);
+        return order;
+    }
+
+    private static void measure(String lookup, int iterations, Supplier<List<?>> query) {
+        long[] durations = new long[iterations];
+        int rows = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            rows = query.get().size();
+            durations[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(durations);
+        log.info(lookup + ": " + rows + " rows, p50: " + millis(durations[iterations / 2])
+                + " p99: " + millis(durations[(int) Math.ceil(iterations * 0.99) - 1]) + " max: " + millis(durations[iterations - 1]));
+    }
+
+    private static void logPlan(EntityManager entityManager, String lookup, String sql) {
+        List<?> plan = entityManager.createNativeQuery("EXPLAIN " + sql).getResultList();
+        log.info(lookup + " plan:\n" + String.join("\n", plan.stream().map(String::valueOf).toArray(String[]::new)));
+    }
+
+    private static void execute(EntityManager entityManager, String sql) {
+        boolean transaction = !entityManager.getTransaction().isActive();
+        if (transaction) {
+            entityManager.getTransaction().begin();
+        }
+        entityManager.createNativeQuery(sql).executeUpdate();
+        if (transaction) {
+            entityManager.getTransaction().commit();
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2fms", nanos / 1e6);
+    }
+}
@@ -0,0 +1,153 @@
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.name.Names;
+import com.google.inject.util.Modules;
+import database.entities.TradeEntity;
+import lombok.extern.slf4j.Slf4j;
+import properties.TradeProperties;
+import services.ClockModule;
+import services.backtest.BacktestModule;
+import services.httpclients.HttpClientModule;
+import services.httpclients.kraken.KrakenClient;
+import services.httpclients.kraken.simulator.KrakenSimulator;
+import services.httpclients.kraken.simulator.KrakenSimulatorSettings;
+import services.strategies.TradingStrategiesModule;
+import services.strategies.tradingstrategies.ThreeEmaCrossoverStrategy;
+import services.strategies.tradingstrategies.TradingStrategy;
+import services.trades.OrderService;
+import services.trades.TradeService;
+import valueobjects.price.PriceScale;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Load test of the path from a tick to an order against the {@link KrakenSimulator}, so it can be measured without
+ * trading on the real exchange. Every worker runs the same steps as the live algorithm on every tick: get the ticker,
+ * sync the pending orders and then open a trade or close the one it has open, with its own client, trade service and
+ * in memory ledger. The throughput and the tick to order latencies are logged at the end.
+ * The arguments are the number of workers, the ticks per worker and the latency of the simulator in milliseconds,
+ * ex. "8 1000 20". By default 4 workers run 500 ticks each with no latency.
+ */
+@Slf4j
+public class KrakenLoadTestApplication {
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        int workers = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        long latency = args.length > 2 ? Long.parseLong(args[2]) : 0;
+
+        KrakenSimulatorSettings settings = KrakenSimulatorSettings.builder()
+                .latency(Duration.ofMillis(latency))
+                .latencyJitter(Duration.ofMillis(latency / 2))
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try (KrakenSimulator simulator = KrakenSimulator.start(settings)) {
+            long start = System.nanoTime();
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                Injector injector = createInjector(simulator, settings);
+                results.add(executor.submit(() -> runWorker(injector, ticks)));
+            }
+
+            long[] latencies = new long[0];
+            for (Future<long[]> result : results) {
+                long[] workerLatencies = result.get();
+                int offset = latencies.length;
+                latencies = Arrays.copyOf(latencies, offset + workerLatencies.length);
+                System.arraycopy(workerLatencies, 0, latencies, offset, workerLatencies.length);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            Arrays.sort(latencies);
+
+            log.info(workers + " workers ran " + latencies.length + " ticks in " + String.format("%.2f", seconds) + "s: "
+                    + String.format("%.1f", latencies.length / seconds) + " ticks/s, "
+                    + String.format("%.1f", simulator.getExecutedOrders() / seconds) + " orders/s");
+            log.info("Tick to order latency p50: " + millis(percentile(latencies, 0.5))
+                    + " p99: " + millis(percentile(latencies, 0.99)) + " max: " + millis(percentile(latencies, 1)));
+            log.info("Simulator requests: " + simulator.getRequests() + " executed orders: " + simulator.getExecutedOrders()
+                    + " injected errors: " + simulator.getInjectedErrors());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Every worker gets its own services and ledger, all of them trading on the account of the simulator.
+     */
+    private static Injector createInjector(KrakenSimulator simulator, KrakenSimulatorSettings settings) {
+        // the simulator does not check the signature but the client needs a valid base64 secret to sign
+        String secret = Base64.getEncoder().encodeToString("kraken-simulator".getBytes());
+        TradeProperties tradeProperties = new TradeProperties(settings.getPair(), settings.getPairCode(),
+                settings.getQuoteAsset(), settings.getBaseAsset(), new BigDecimal("0.01"), false, "1:1", null);
+
+        return Guice.createInjector(Modules.override(new HttpClientModule(), new BacktestModule(), new TradingStrategiesModule())
+                // the workers trade in real time like the live application
+                .with(new ClockModule(), new AbstractModule() {
+                    @Override
+                    protected void configure() {
+                        bind(TradeProperties.class).toInstance(tradeProperties);
+                        bind(String.class).annotatedWith(Names.named("KrakenApiUrl")).toInstance(simulator.getUrl());
+                        bind(String.class).annotatedWith(Names.named("ApiPublicKey")).toInstance("simulator");
+                        bind(String.class).annotatedWith(Names.named("ApiPrivateKey")).toInstance(secret);
+                    }
+                }));
+    }
+
+    /**
+     * Returns the time each tick took from getting the ticker to posting its order, in nanoseconds.
+     */
+    private static long[] runWorker(Injector injector, int ticks) {
+        KrakenClient krakenClient = injector.getInstance(KrakenClient.class);
+        OrderService orderService = injector.getInstance(OrderService.class);
+        TradeService tradeService = injector.getInstance(TradeService.class);
+        TradingStrategy strategy = injector.getInstance(ThreeEmaCrossoverStrategy.class);
+        TradeProperties tradeProperties = injector.getInstance(TradeProperties.class);
+        String pairCode = tradeProperties.getDetailAssetCode();
+        PriceScale scale = PriceScale.of(tradeProperties.getPriceScale());
+
+        long[] latencies = new long[ticks];
+        int completed = 0;
+        for (int i = 0; i < ticks; i++) {
+            long start = System.nanoTime();
+            try {
+                long price = krakenClient.getTickerInfo().map(response -> scale.toFixed(response.getResult().get(pairCode).getCurrentPrice()))
+                        .orElseThrow(() -> new IllegalStateException("Api query to get the ticker failed. Tick skipped."));
+                orderService.syncPendingOrders();
+
+                // open a trade when there is none and close it once its entry order is executed
+                List<TradeEntity> openTrades = tradeService.getOpenTradesByStrategy(strategy.name());
+                if (openTrades.isEmpty()) {
+                    tradeService.openTrade(price, TradingStrategy.TradingSignal.BUY, strategy);
+                } else {
+                    openTrades.stream()
+                            .filter(trade -> trade.getEntryOrder().getVolumeExec() != null && trade.getExitOrder().isEmpty())
+                            .findFirst()
+                            .ifPresent(trade -> tradeService.closeTrade(price, trade));
+                }
+                latencies[completed++] = System.nanoTime() - start;
+            } catch (IllegalStateException e) {
+                log.warn(e.getMessage());
+            }
+        }
+        return Arrays.copyOf(latencies, completed);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2fms", nanos / 1e6);
+    }
+}
@@ -4,50 +4,79 @@ import com.google.inject.Key;
 import com.google.inject.TypeLiteral;
 import com.google.inject.util.Types;
 import database.DatabaseModule;
+import database.UnitOfWork;
+import database.journal.TradeJournal;
 import lombok.extern.slf4j.Slf4j;
-import properties.PropertiesService;
 import properties.TradeProperties;
 import services.BannerService;
+import services.ClockModule;
 import services.httpclients.HttpClientModule;
-import services.httpclients.kraken.KrakenClient;
 import services.httpclients.kraken.KrakenModule;
-import services.httpclients.kraken.response.ticker.TickerPairResponse;
-import services.httpclients.kraken.response.trades.TradeDetails;
-import services.httpclients.kraken.response.trades.TradesResponse;
+import services.indicators.IndicatorRegistry;
+import services.marketdata.MarketDataHub;
 import services.strategies.TradingStrategiesModule;
 import services.strategies.exitstrategies.ExitStrategy;
+import services.strategies.exitstrategies.TrailingStopTracker;
 import services.strategies.tradingstrategies.TradingStrategy;
+import services.trades.OpenTradeRegistry;
 import services.trades.OrderService;
 import services.trades.TradeService;
-import valueobjects.timeframe.Tick;
 import valueobjects.timeframe.Timeframe;
 
-import java.math.BigDecimal;
 import java.util.*;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
 public class MoneyMakerApplication {
 
-    private static KrakenClient krakenClient;
+    private static final long TRAILING_STOP_CHECKPOINT_MINUTES = 1;
+
     private static OrderService orderService;
     private static TradeService tradeService;
     private static TradeProperties tradeProperties;
+    private static IndicatorRegistry indicatorRegistry;
 
     public static void main(String[] args) {
         new BannerService().printBanner();
 
-        Injector injector = Guice.createInjector(new HttpClientModule(), new KrakenModule(), new DatabaseModule(), new TradingStrategiesModule());
-        krakenClient = injector.getInstance(KrakenClient.class);
+        Injector injector = Guice.createInjector(new HttpClientModule(), new KrakenModule(), new ClockModule(), new DatabaseModule(), new TradingStrategiesModule());
         orderService = injector.getInstance(OrderService.class);
         tradeService = injector.getInstance(TradeService.class);
-        tradeProperties = injector.getInstance(PropertiesService.class).loadProperties(TradeProperties.class).orElseThrow();
+        indicatorRegistry = injector.getInstance(IndicatorRegistry.class);
+        MarketDataHub marketDataHub = injector.getInstance(MarketDataHub.class);
+        tradeProperties = injector.getInstance(TradeProperties.class);
+        UnitOfWork unitOfWork = injector.getInstance(UnitOfWork.class);
+        TrailingStopTracker trailingStopTracker = injector.getInstance(TrailingStopTracker.class);
+        TradeJournal tradeJournal = injector.getInstance(TradeJournal.class);
+        // store the trailing stops that moved and what the journal still has before the process stops,
+        // the rest is replayed on the next start
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            unitOfWork.run(trailingStopTracker::checkpoint);
+            tradeJournal.close();
+        }));
+        // the open trades are read from the database once, the ticks find them in memory from then on
+        unitOfWork.run(injector.getInstance(OpenTradeRegistry.class)::load);
 
         ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+        // the trailing stops move on the ticks but are stored on their own thread, so storing them never holds up a tick
+        ScheduledExecutorService checkpointScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "trailing-stop-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checkpointScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                unitOfWork.run(trailingStopTracker::checkpoint);
+            } catch (Exception e) {
+                log.error("Failed to store the trailing stops: " + e.getMessage(), e);
+            }
+        }, TRAILING_STOP_CHECKPOINT_MINUTES, TRAILING_STOP_CHECKPOINT_MINUTES, TimeUnit.MINUTES);
+        // the indicator series of a strategy are kept for as long as it is subscribed to the prices
+        marketDataHub.onUnsubscribe(indicatorRegistry::release);
 
         // Pick up only the trading strategies that are enabled
         List<TradingStrategy> enabledTradingStrategies = loadServices(TradingStrategy.class, injector).stream()
@@ -65,24 +94,20 @@ public class MoneyMakerApplication {
                     ));
             log.info(tradingStrategy.name() + ": Found exit strategy with name " + exitStrategy.name());
 
-            // initialize timeframe with previous trades
-            Timeframe timeframe = getInitialStrategyTimeframe(krakenClient, tradingStrategy, tradeProperties.getDetailAssetCode());
-            log.info(tradingStrategy.name() + ": Initialized trading timeframe.");
-
-            BiConsumer<Timeframe, TickerPairResponse> algorithm = tradingAlgorithm(tradingStrategy, exitStrategy);
+            Consumer<Timeframe> algorithm = tradingAlgorithm(tradingStrategy, exitStrategy);
             log.info(tradingStrategy.name() + ": Initialized algorithm.");
 
-            // scheduler to run the strategy on the specified period
-            scheduler.scheduleAtFixedRate(() -> krakenClient.getTickerInfo().ifPresent(tickerPairResponse -> {
-                try {
-                    algorithm.accept(timeframe, tickerPairResponse);
-                } catch (Exception e) {
-                    log.error(tradingStrategy.name() + e.getMessage(), e);
-                }
-            }), 2, tradingStrategy.periodLength().getSeconds(), TimeUnit.SECONDS);
+            // the hub polls the asset once for all the strategies and hands each one the prices of its own period,
+            // the same series to all the strategies with the same period
+            marketDataHub.subscribe(tradingStrategy.name(), tradeProperties.getAssetCode(), tradingStrategy.periodLength(),
+                    tradingStrategy.timeframeSize(),
+                    // every evaluation uses its own entity manager, so the entities it loaded are released at the end
+                    timeframe -> unitOfWork.run(() -> algorithm.accept(timeframe)));
             log.info(tradingStrategy.name() + ": Trading session started! Looking for a good ticker to trade: " + tradeProperties.getAssetCode());
         });
 
+        marketDataHub.start(scheduler);
+
         if (enabledTradingStrategies.isEmpty()) {
             log.error("No trading strategies found enabled. You can enable strategies in the application.properties. See ya!");
         }
@@ -95,53 +120,34 @@ public class MoneyMakerApplication {
      * 2. Try to close open trades with the specified exit strategy.
      * 3. Try to open new trades with the specified entry strategy.
      */
-    private static BiConsumer<Timeframe, TickerPairResponse> tradingAlgorithm(TradingStrategy tradingStrategy, ExitStrategy exitStrategy) {
-        return (timeframe, tickerPairResponse) -> {
-            BigDecimal currentPrice = tickerPairResponse.getResult().get(tradeProperties.getDetailAssetCode()).getCurrentPrice();
-            boolean isPriceChanged = timeframe.getTicks().isEmpty() || !timeframe.getTicks().getLast().getValue().equals(currentPrice);
-
-            // only run the strategy on price change. no point running it for the same price twice.
-            if (isPriceChanged) {
-                timeframe.addTick(currentPrice);
-
-                // only run when the timeframe we are interested in is full with prices.
-                if (timeframe.isFull()) {
-
-                    // STEP1: first update our pending orders. this will update our database with the current state of our pending orders.
-                    // if they have been executed it will change their status and enrich them with all the details of the fulfilled order.
-                    orderService.syncPendingOrders();
-
-                    // STEP2: go through all open trades by this strategy and try to exit to gain some money
-                    tradeService.getOpenTradesByStrategy(tradingStrategy.name()).forEach(trade ->
-                            exitStrategy.strategy().apply(trade.getId(), timeframe).ifPresent(closeTradeSignal ->
-                                    // close the trade with a new order
-                                    tradeService.closeTrade(currentPrice, trade))
-                    );
-
-                    // STEP3: open new trades based on the trading strategy
-                    tradingStrategy.strategy().apply(timeframe)
-                            .ifPresent(signal -> tradeService.openTrade(currentPrice, signal, tradingStrategy));
-                }
+    private static Consumer<Timeframe> tradingAlgorithm(TradingStrategy tradingStrategy, ExitStrategy exitStrategy) {
+        return timeframe -> {
+            // the hub only hands over the prices when the price changed. prices are fixed point, see PriceScale
+            long currentPrice = timeframe.lastPrice();
+
+            // only run when the timeframe has as many prices as we are interested in. it is shared with the other
+            // strategies of the same period so it can hold more.
+            if (timeframe.size() >= tradingStrategy.timeframeSize()) {
+
+                // STEP1: first update our pending orders. this will update our database with the current state of our pending orders.
+                // if they have been executed it will change their status and enrich them with all the details of the fulfilled order.
+                orderService.syncPendingOrders();
+
+                // STEP2: go through all open trades by this strategy and try to exit to gain some money
+                // trades are told apart by their entry order, the ones the journal has not stored yet have no id
+                tradeService.getOpenTradesByStrategy(tradingStrategy.name())
+                        .forEach(trade -> exitStrategy.strategy().apply(trade.getEntryOrder().getOrderReference(), timeframe).ifPresent(closeTradeSignal ->
+                                // close the trade with a new order
+                                tradeService.closeTrade(currentPrice, trade))
+                        );
+
+                // STEP3: open new trades based on the trading strategy
+                tradingStrategy.strategy().apply(timeframe)
+                        .ifPresent(signal -> tradeService.openTrade(currentPrice, signal, tradingStrategy));
             }
         };
     }
 
-    // Generates a time frame with the current history/data of the asset pair.
-    private static Timeframe getInitialStrategyTimeframe(KrakenClient krakenClient, TradingStrategy tradingStrategy, String assetDetailCode) {
-        Timeframe timeframe = new Timeframe(tradingStrategy.timeframeSize());
-        Optional<TradesResponse> tradesResponse = krakenClient.getHistoricData(tradingStrategy.periodLength());
-        tradesResponse.ifPresent(response -> {
-            List<TradeDetails> tradeDetails = response.getResult().getTradeDetails(assetDetailCode);
-            tradeDetails.stream().sorted(Comparator.comparing(TradeDetails::getTime))
-                    .collect(Collectors.toList())
-                    .forEach(detail -> {
-                        Tick ticker = new Tick(detail.getTime(), detail.getPrice());
-                        timeframe.addTick(ticker);
-                    });
-        });
-        return timeframe;
-    }
-
     public static <T> Set<T> loadServices(Class<T> type, Injector injector) {
         final TypeLiteral<Set<T>> lit = setOf(type);
         final Key<Set<T>> key = Key.get(lit);
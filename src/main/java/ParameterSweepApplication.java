@@ -0,0 +1,46 @@
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import lombok.extern.slf4j.Slf4j;
+import properties.GoldenCrossStrategyProperties;
+import properties.ThreeEmaCrossoverStrategyProperties;
+import services.backtest.BacktestModule;
+import services.backtest.ParameterRange;
+import services.backtest.ParameterSweep;
+import services.backtest.SweepCombination;
+import services.backtest.SweepResult;
+import services.httpclients.HttpClientModule;
+import services.strategies.TradingStrategiesModule;
+import valueobjects.timeframe.Tick;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Backtests ranges of strategy parameters on the historic dataset of the {@link StrategyTesterHistoricDataApplication}
+ * and prints the combinations ranked by profit. The parameters not in the ranges are taken from the application
+ * properties.
+ */
+@Slf4j
+public class ParameterSweepApplication {
+
+    public static void main(String[] args) throws IOException {
+        Injector injector = Guice.createInjector(new HttpClientModule(), new BacktestModule(), new TradingStrategiesModule());
+        List<BigDecimal> distances = List.of(new BigDecimal("0.01"), new BigDecimal("0.015"), new BigDecimal("0.02"), new BigDecimal("0.03"));
+
+        // select the parameter ranges here
+        List<SweepCombination> combinations = new ArrayList<>();
+        combinations.addAll(SweepCombination.goldenCross(injector.getInstance(GoldenCrossStrategyProperties.class),
+                ParameterRange.of(10, 60, 10), ParameterRange.of(50, 200, 25), distances));
+        combinations.addAll(SweepCombination.threeEmaCrossover(injector.getInstance(ThreeEmaCrossoverStrategyProperties.class),
+                ParameterRange.of(5, 13, 4), ParameterRange.of(15, 30, 5), ParameterRange.of(45, 65, 10), distances));
+
+        List<Tick> priceHistory = StrategyTesterHistoricDataApplication.getHistoricTicks().ticks();
+        log.info("Running " + combinations.size() + " combinations on " + priceHistory.size() + " ticks.");
+
+        long start = System.currentTimeMillis();
+        List<SweepResult> results = new ParameterSweep(priceHistory).run(combinations);
+        log.info("Finished in " + (System.currentTimeMillis() - start) + "ms\n" + ParameterSweep.toTable(results));
+    }
+}
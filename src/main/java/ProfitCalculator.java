@@ -1,36 +1,48 @@
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import database.DatabaseModule;
-import database.entities.TradeEntity;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.Query;
+import database.UnitOfWork;
+import database.daos.TradeDao;
+import properties.TradeProperties;
+import services.ClockModule;
+import services.analytics.PerformanceAccumulator;
+import services.backtest.MonteCarloSimulation;
 import services.httpclients.HttpClientModule;
 import services.httpclients.kraken.KrakenModule;
 import services.strategies.TradingStrategiesModule;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.List;
-import java.util.stream.Collectors;
 
+/**
+ * Prints the performance of the closed trades in the database and what the initial investment would be now if every
+ * trade had been made with the whole balance. The fee paid on each trade, as a share of the balance, can be given as
+ * argument and defaults to 0.005.
+ */
 public class ProfitCalculator {
     public static void main(String[] args) {
-        Injector injector = Guice.createInjector(new HttpClientModule(), new KrakenModule(), new DatabaseModule(), new TradingStrategiesModule());
-        EntityManager entityManager = injector.getInstance(EntityManager.class);
+        Injector injector = Guice.createInjector(new HttpClientModule(), new KrakenModule(), new ClockModule(), new DatabaseModule(), new TradingStrategiesModule());
+        injector.getInstance(UnitOfWork.class).run(() -> printPerformance(injector, args));
+    }
 
-        String hql = "FROM TradeEntity t";
-        Query query = entityManager.createQuery(hql);
-        List<TradeEntity> trades = ((List<TradeEntity>) query.getResultList()).stream().filter(trade -> trade.getProfit() != null).collect(Collectors.toList());
+    private static void printPerformance(Injector injector, String[] args) {
+        TradeDao tradeDao = injector.getInstance(TradeDao.class);
 
         BigDecimal initialInvestment = new BigDecimal("1000");
-        BigDecimal feePercentage = new BigDecimal("0.005");
+        double feePercentage = args.length > 0 ? Double.parseDouble(args[0]) : 0.005;
 
-        for (TradeEntity trade : trades) {
-            initialInvestment = initialInvestment.add(initialInvestment.multiply(trade.getProfit().divide(BigDecimal.valueOf(100L), RoundingMode.HALF_EVEN)));
-            BigDecimal fee = initialInvestment.multiply(feePercentage);
-            initialInvestment = initialInvestment.subtract(fee);
-        }
+        // the trades are streamed in the order they closed, only their profit is read
+        PerformanceAccumulator performance = new PerformanceAccumulator(feePercentage);
+        tradeDao.forEachClosedTradeProfit(profit -> performance.add(profit.doubleValue()));
 
-        System.out.println(initialInvestment);
+        System.out.println(performance);
+        System.out.println(initialInvestment.multiply(BigDecimal.valueOf(performance.getEquity())));
+
+        // distribution of the result if the same trades had happened in a different order
+        double[] returns = MonteCarloSimulation.returnsFromProfits(tradeDao.findClosedTradeProfits());
+        if (returns.length > 0) {
+            MonteCarloSimulation monteCarloSimulation = new MonteCarloSimulation(returns,
+                    injector.getInstance(TradeProperties.class).getAccountRisk(), MonteCarloSimulation.DEFAULT_RUIN_LEVEL);
+            System.out.println(monteCarloSimulation.run(100_000, MonteCarloSimulation.Resampling.BOOTSTRAP, 42));
+        }
     }
 }
@@ -1,45 +1,36 @@
 import com.google.inject.Guice;
 import com.google.inject.Injector;
-import database.DatabaseModule;
-import database.entities.TradeEntity;
 import database.entities.TradeOrderEntity;
-import database.entities.TradeOrderStatus;
 import lombok.extern.slf4j.Slf4j;
+import services.backtest.BacktestEngine;
+import services.backtest.BacktestModule;
+import services.backtest.BacktestResult;
 import services.httpclients.HttpClientModule;
-import services.httpclients.kraken.KrakenClient;
-import services.httpclients.kraken.KrakenModule;
-import services.httpclients.kraken.response.trades.TradeDetails;
-import services.httpclients.kraken.response.trades.TradesResponse;
+import services.marketdata.KrakenCandleFeed;
 import services.strategies.TradingStrategiesModule;
 import services.strategies.exitstrategies.ExitStrategy;
 import services.strategies.exitstrategies.TrailingStopExitStrategy;
 import services.strategies.tradingstrategies.ThreeEmaCrossoverStrategy;
 import services.strategies.tradingstrategies.TradingStrategy;
-import services.trades.TradeService;
 import valueobjects.timeframe.Tick;
-import valueobjects.timeframe.Timeframe;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.Comparator;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
- * Goes through the specified timeframe from historic data from the api and saves trades it would execute in a live env.
+ * Replays the recent candles from the api through the strategy one at a time, the same way the live system gets its
+ * ticks, and logs the trades it would execute in a live env. The trades are kept in memory.
+ * The candle intervals can be given in minutes as arguments, ex. "1440 60 15", and are replayed back to back, see
+ * {@link KrakenCandleFeed}. By default the candles of the strategy period are used.
  */
 @Slf4j
 public class StrategyTesterCurrentDataApplication {
 
     public static void main(String[] args) {
-        int timeframeSize = 250;
-        String assetCode = "XBTGBP";
-        String assetDetailCode = "XXBTZGBP";
-
-        Injector injector = Guice.createInjector(new HttpClientModule(), new KrakenModule(), new DatabaseModule(), new TradingStrategiesModule());
-        KrakenClient krakenClient = injector.getInstance(KrakenClient.class);
-        TradeService tradeService = injector.getInstance(TradeService.class);
+        Injector injector = Guice.createInjector(new HttpClientModule(), new BacktestModule(), new TradingStrategiesModule());
+        BacktestEngine backtestEngine = injector.getInstance(BacktestEngine.class);
 
         // select a strategy here
         TradingStrategy strategy = injector.getInstance(ThreeEmaCrossoverStrategy.class);
@@ -47,81 +38,18 @@ public class StrategyTesterCurrentDataApplication {
         // select exit strategy here
         ExitStrategy exitStrategy = injector.getInstance(TrailingStopExitStrategy.class);
 
-        Timeframe timeframe = new Timeframe(timeframeSize);
-
-        // initialize timeframe with previous trades
-        Optional<TradesResponse> tradesResponse = krakenClient.getHistoricData(strategy.periodLength());
-        tradesResponse.ifPresent(response -> {
-            List<TradeDetails> tradeDetails = response.getResult().getTradeDetails(assetDetailCode);
-            tradeDetails.stream().sorted(Comparator.comparing(TradeDetails::getTime))
-                    .collect(Collectors.toList())
-                    .forEach(detail -> {
-                        Tick ticker = new Tick(detail.getTime(), detail.getPrice());
-                        timeframe.addTick(ticker);
-                    });
-        });
-        log.info(strategy.name() + ": Initialized trading timeframe.");
-
-        // skip as many items as your strategy needs based on its period
-        int skipItems = 55;
-        for (int i = skipItems; i < timeframeSize - 1; i++) {
-            Timeframe subframe = timeframe.subframe(i);
-            Tick currentTick = subframe.getTicks().getLast();
-
-            // check open trades and close if exit strategy says so
-            tradeService.getOpenTradesByStrategy(strategy.name()).forEach(trade -> {
-                exitStrategy.strategy().apply(trade.getId(), subframe).ifPresent(closeTradeSignal -> {
-                    log.info("Exiting the following order with these details!!");
-                    log.info("    TradeId: " + trade.getId());
-                    log.info("    ExitSignal: " + closeTradeSignal);
-                    log.info("    ExitPrice: " + currentTick.getValue());
-                    log.info("    ExitTime: " + currentTick.getTime().toString());
-
-                    TradeOrderEntity exitOrder = new TradeOrderEntity();
-                    exitOrder.setOrderReference(1234);
-                    exitOrder.setTradingSignal(closeTradeSignal);
-                    exitOrder.setPrice(currentTick.getValue());
-                    exitOrder.setVolume(BigDecimal.TEN);
-                    exitOrder.setTime(currentTick.getTime());
-                    exitOrder.setStatus(TradeOrderStatus.PENDING);
-                    exitOrder.setAssetCode(assetCode);
-                    exitOrder.setCost(BigDecimal.ZERO);
-
-                    trade.addOrder(exitOrder);
-
-                    BigDecimal margin = trade.getEntryOrder().getTradingSignal().equals(TradingStrategy.TradingSignal.BUY)
-                            ? currentTick.getValue().subtract(trade.getEntryOrder().getPrice())
-                            : trade.getEntryOrder().getPrice().subtract(currentTick.getValue());
-                    BigDecimal divisor = currentTick.getValue().add(trade.getEntryOrder().getPrice()).divide(BigDecimal.valueOf(2), 10, RoundingMode.HALF_EVEN);
-                    trade.setProfit(margin.divide(divisor, 10, RoundingMode.HALF_EVEN).multiply(BigDecimal.valueOf(100)));
-
-                    tradeService.save(trade);
-                });
-            });
-
-
-            strategy.strategy().apply(subframe)
-                    // react to the specified trading signal
-                    .ifPresent(signal -> {
-
-                        TradeOrderEntity entryOrder = new TradeOrderEntity();
-                        entryOrder.setOrderReference(1234);
-                        entryOrder.setTradingSignal(signal);
-                        entryOrder.setPrice(currentTick.getValue());
-                        entryOrder.setStatus(TradeOrderStatus.PENDING);
-                        entryOrder.setVolume(BigDecimal.TEN);
-                        entryOrder.setTime(currentTick.getTime());
-                        entryOrder.setAssetCode(assetCode);
-                        entryOrder.setCost(BigDecimal.ZERO);
-
-                        TradeEntity trade = new TradeEntity();
-                        trade.setEntryStrategy(strategy.name());
-                        trade.setExitStrategy(exitStrategy.name());
-                        trade.setPeriodLength(strategy.periodLength());
-                        trade.addOrder(entryOrder);
-
-                        tradeService.save(trade);
-                    });
-        }
+        List<Duration> intervals = args.length > 0
+                ? Arrays.stream(args).map(minutes -> Duration.ofMinutes(Long.parseLong(minutes))).collect(Collectors.toList())
+                : List.of(strategy.periodLength());
+        List<Tick> ticks = injector.getInstance(KrakenCandleFeed.class).getCandles(intervals);
+        log.info(strategy.name() + ": Loaded " + ticks.size() + " candles of " + intervals + ".");
+
+        BacktestResult result = backtestEngine.run(strategy, exitStrategy, ticks);
+        result.getClosedTrades().forEach(trade -> log.info("    TradeId: " + trade.getId()
+                + " Entry: " + trade.getEntryOrder().getTime() + " " + trade.getEntryOrder().getPrice()
+                + " Exit: " + trade.getExitOrder().map(TradeOrderEntity::getTime).orElse(null)
+                + " " + trade.getExitOrder().map(TradeOrderEntity::getPrice).orElse(null)
+                + " Profit: " + trade.getProfit()));
+        log.info(result.toString());
     }
 }
@@ -0,0 +1,44 @@
+import lombok.extern.slf4j.Slf4j;
+import services.marketdata.CsvColumnMapping;
+import services.marketdata.CsvTickReader;
+import services.marketdata.TickStore;
+import services.marketdata.TickStoreImporter;
+import valueobjects.price.PriceScale;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Converts a historic dataset csv to the binary format of the {@link TickStore}. See {@link CsvTickReader} for the
+ * csv files it can read, ex. gzipped files.
+ * Arguments: csv file, output file and optionally the number of decimals kept from the prices (8 by default) and the
+ * format of the csv: "cryptodatadownload" for files from cryptodatadownload.com or the indexes of the time and the
+ * price columns separated by a comma ex. "0,1" (the default).
+ */
+@Slf4j
+public class TickStoreImportApplication {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            log.error("Usage: TickStoreImportApplication <csv file> <output file> [price scale] [cryptodatadownload|<time column>,<price column>]");
+            return;
+        }
+        Path csv = Path.of(args[0]);
+        Path output = Path.of(args[1]);
+        PriceScale scale = args.length > 2 ? PriceScale.of(Integer.parseInt(args[2])) : PriceScale.DEFAULT;
+        CsvColumnMapping mapping = args.length > 3 ? getColumnMapping(args[3]) : CsvColumnMapping.TIME_PRICE;
+
+        TickStoreImporter importer = new TickStoreImporter(scale);
+        importer.addCsv(csv, mapping);
+        importer.write(output);
+        log.info("Imported " + importer.size() + " ticks from " + csv + " to " + output);
+    }
+
+    private static CsvColumnMapping getColumnMapping(String format) {
+        if ("cryptodatadownload".equalsIgnoreCase(format)) {
+            return CsvColumnMapping.CRYPTO_DATA_DOWNLOAD;
+        }
+        String[] columns = format.split(",");
+        return CsvColumnMapping.of(Integer.parseInt(columns[0]), Integer.parseInt(columns[1]));
+    }
+}
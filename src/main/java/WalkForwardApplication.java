@@ -0,0 +1,52 @@
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import lombok.extern.slf4j.Slf4j;
+import properties.GoldenCrossStrategyProperties;
+import properties.ThreeEmaCrossoverStrategyProperties;
+import services.backtest.BacktestModule;
+import services.backtest.ParameterRange;
+import services.backtest.SweepCombination;
+import services.backtest.WalkForward;
+import services.backtest.WalkForwardResult;
+import services.httpclients.HttpClientModule;
+import services.strategies.TradingStrategiesModule;
+import valueobjects.timeframe.Tick;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Walk forward optimization of the strategy parameters on the historic dataset of the
+ * {@link StrategyTesterHistoricDataApplication}. The parameters are optimized on every in sample window and tested on
+ * the out of sample window after it, then the out of sample results are printed for each window.
+ * The window sizes are given in ticks as arguments and default to 90 days in sample and 30 days out of sample of
+ * the hourly dataset.
+ */
+@Slf4j
+public class WalkForwardApplication {
+
+    public static void main(String[] args) throws IOException {
+        int inSampleSize = args.length > 0 ? Integer.parseInt(args[0]) : 90 * 24;
+        int outOfSampleSize = args.length > 1 ? Integer.parseInt(args[1]) : 30 * 24;
+
+        Injector injector = Guice.createInjector(new HttpClientModule(), new BacktestModule(), new TradingStrategiesModule());
+        List<BigDecimal> distances = List.of(new BigDecimal("0.01"), new BigDecimal("0.015"), new BigDecimal("0.02"), new BigDecimal("0.03"));
+
+        // select the parameter ranges here
+        List<SweepCombination> combinations = new ArrayList<>();
+        combinations.addAll(SweepCombination.goldenCross(injector.getInstance(GoldenCrossStrategyProperties.class),
+                ParameterRange.of(10, 60, 10), ParameterRange.of(50, 200, 25), distances));
+        combinations.addAll(SweepCombination.threeEmaCrossover(injector.getInstance(ThreeEmaCrossoverStrategyProperties.class),
+                ParameterRange.of(5, 13, 4), ParameterRange.of(15, 30, 5), ParameterRange.of(45, 65, 10), distances));
+
+        List<Tick> priceHistory = StrategyTesterHistoricDataApplication.getHistoricTicks().ticks();
+        WalkForward walkForward = new WalkForward(priceHistory, inSampleSize, outOfSampleSize);
+        log.info("Running " + combinations.size() + " combinations on " + walkForward.windows() + " windows of " + priceHistory.size() + " ticks.");
+
+        long start = System.currentTimeMillis();
+        WalkForwardResult result = walkForward.run(combinations);
+        log.info("Finished in " + (System.currentTimeMillis() - start) + "ms\n" + result.toTable());
+    }
+}
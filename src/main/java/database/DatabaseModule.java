@@ -2,29 +2,49 @@ package database;
 
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import database.daos.AbstractDao;
+import database.daos.JournaledOrderDao;
+import database.daos.JournaledTradeDao;
+import database.daos.OrderDao;
+import database.daos.TradeDao;
+import database.upgrades.AddIdGeneratorTable;
+import database.upgrades.AddOrderReferenceIndex;
+import database.upgrades.AddTradeIndexes;
+import database.upgrades.AddTrailingStopToTrade;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.Persistence;
+import lombok.extern.slf4j.Slf4j;
 import org.alfasoftware.morf.guicesupport.MorfModule;
 import org.alfasoftware.morf.jdbc.ConnectionResourcesBean;
 import org.alfasoftware.morf.jdbc.DatabaseDataSetProducer;
 import org.alfasoftware.morf.metadata.Schema;
+import org.alfasoftware.morf.metadata.SchemaHomology;
 import org.alfasoftware.morf.upgrade.Deployment;
+import org.alfasoftware.morf.upgrade.NoUpgradePathExistsException;
+import org.alfasoftware.morf.upgrade.Upgrade;
 import org.alfasoftware.morf.upgrade.UpgradeStep;
+import org.alfasoftware.morf.upgrade.ViewDeploymentValidator;
 
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
+@Slf4j
 public class DatabaseModule extends MorfModule {
 
-    private static final ThreadLocal<EntityManager> ENTITY_MANAGER_CACHE = new ThreadLocal<>();
+    private static final int DEFAULT_POOL_SIZE = 10;
 
     private final String DB_HOST_NAME = System.getenv("DB_HOST_NAME");
     private final String DB_PORT = System.getenv("DB_PORT");
     private final String DB_USER_NAME = System.getenv("DB_USER_NAME");
     private final String DB_USER_PASSWORD = System.getenv("DB_USER_PASSWORD");
+    private final String DB_POOL_SIZE = System.getenv("DB_POOL_SIZE");
+    private final String TRADE_JOURNAL_FILE = System.getenv("TRADE_JOURNAL_FILE");
 
     @Provides
     @Singleton
@@ -40,6 +60,14 @@ public class DatabaseModule extends MorfModule {
         return connectionResources;
     }
 
+    /**
+     * Connections are taken from a HikariCP pool of DB_POOL_SIZE connections, 10 by default, so units of work running
+     * at the same time do not wait for each other's connection.
+     * Inserts and updates are sent in JDBC batches of {@link AbstractDao#BATCH_SIZE}, grouped by table, and the driver
+     * rewrites a batch of inserts into one multi row insert. The ids come from the id_generator table with the
+     * pooled-lo optimizer: every read of the table reserves the next block of ids, so the ids of a batch are known
+     * before it is inserted.
+     */
     @Provides
     @Singleton
     public EntityManagerFactory provideEntityManagerFactory() {
@@ -50,29 +78,54 @@ public class DatabaseModule extends MorfModule {
         properties.put("hibernate.connection.url", connectionResourcesBean.getJdbcUrl());
         properties.put("hibernate.connection.username", connectionResourcesBean.getUserName());
         properties.put("hibernate.connection.password", connectionResourcesBean.getPassword());
-        properties.put("hibernate.connection.pool_size", "1");
+        properties.put("hibernate.connection.provider_class", "org.hibernate.hikaricp.internal.HikariCPConnectionProvider");
+        properties.put("hibernate.hikari.poolName", "money-maker");
+        properties.put("hibernate.hikari.maximumPoolSize", String.valueOf(getPoolSize()));
+        properties.put("hibernate.hikari.minimumIdle", "1");
+        properties.put("hibernate.hikari.dataSource.reWriteBatchedInserts", "true");
+        properties.put("hibernate.jdbc.batch_size", String.valueOf(AbstractDao.BATCH_SIZE));
+        properties.put("hibernate.order_inserts", "true");
+        properties.put("hibernate.order_updates", "true");
+        properties.put("hibernate.id.optimizer.pooled.preferred", "pooled-lo");
         properties.put("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
         properties.put("hibernate.hbm2ddl.auto", "validate");
         return Persistence.createEntityManagerFactory("db-manager", properties);
     }
 
+    /**
+     * The entity manager of the current {@link UnitOfWork}. The DAOs get it through a provider on every call.
+     */
     @Provides
-    public EntityManager provideEntityManager(EntityManagerFactory entityManagerFactory) {
-        EntityManager entityManager = ENTITY_MANAGER_CACHE.get();
-        if (entityManager == null) {
-            ENTITY_MANAGER_CACHE.set(entityManager = entityManagerFactory.createEntityManager());
-        }
-        return entityManager;
+    public EntityManager provideEntityManager(UnitOfWork unitOfWork) {
+        return unitOfWork.getEntityManager();
+    }
+
+    /**
+     * The write behind journal of the trades, see {@link database.journal.TradeJournal}. It is kept in the working
+     * directory unless TRADE_JOURNAL_FILE is set.
+     */
+    @Provides
+    @Named("TradeJournalFile")
+    public Path provideTradeJournalFile() {
+        return Path.of(TRADE_JOURNAL_FILE == null || TRADE_JOURNAL_FILE.isBlank() ? "trade-journal.jsonl" : TRADE_JOURNAL_FILE);
     }
 
     @Override
     protected void configure() {
         super.configure();
+        // trades and orders are saved through the journal, off the thread that trades
+        bind(TradeDao.class).to(JournaledTradeDao.class);
+        bind(OrderDao.class).to(JournaledOrderDao.class);
+
         // Define the target database schema
         Schema targetSchema = new MoneyMakerDatabaseSchema();
 
-        // No initial upgrades
+        // Upgrades applied to the schema after its first version
         Collection<Class<? extends UpgradeStep>> upgradeSteps = new HashSet<>();
+        upgradeSteps.add(AddTrailingStopToTrade.class);
+        upgradeSteps.add(AddIdGeneratorTable.class);
+        upgradeSteps.add(AddTradeIndexes.class);
+        upgradeSteps.add(AddOrderReferenceIndex.class);
 
         ConnectionResourcesBean connectionResources = provideDatabaseConnectionDetails();
 
@@ -80,11 +133,36 @@ public class DatabaseModule extends MorfModule {
         if (isCurrentDatabaseEmpty(connectionResources)) {
             Deployment.deploySchema(targetSchema, upgradeSteps, connectionResources);
         } else {
-            // TODO: fix NoUpgradePathExistsException: No upgrade path exists
-            // Upgrade.performUpgrade(targetSchema, upgradeSteps, connectionResources, new ViewDeploymentValidator.AlwaysValidate());
+            upgradeSchema(targetSchema, upgradeSteps, connectionResources);
         }
     }
 
+    /**
+     * Applies the upgrade steps that are not in the upgrade audit of the database yet. Morf only finds a path when the
+     * database is the target schema without those steps, so every change to {@link MoneyMakerDatabaseSchema} needs an
+     * upgrade step, or a database deployed before it cannot be upgraded. The exception does not say what differs, so
+     * the differences are logged before the startup stops. The ones no pending step explains are the cause.
+     */
+    private void upgradeSchema(Schema targetSchema, Collection<Class<? extends UpgradeStep>> upgradeSteps, ConnectionResourcesBean connectionResources) {
+        try {
+            Upgrade.performUpgrade(targetSchema, upgradeSteps, connectionResources, new ViewDeploymentValidator.AlwaysValidate());
+        } catch (NoUpgradePathExistsException e) {
+            DatabaseDataSetProducer databaseDataSetProducer = new DatabaseDataSetProducer(connectionResources);
+            databaseDataSetProducer.open();
+            try {
+                new SchemaHomology(difference -> log.error("Database schema differs from the target schema: " + difference), "database", "target")
+                        .schemasMatch(databaseDataSetProducer.getSchema(), targetSchema, Set.of());
+            } finally {
+                databaseDataSetProducer.close();
+            }
+            throw e;
+        }
+    }
+
+    private int getPoolSize() {
+        return DB_POOL_SIZE == null || DB_POOL_SIZE.isBlank() ? DEFAULT_POOL_SIZE : Integer.parseInt(DB_POOL_SIZE);
+    }
+
     private boolean isCurrentDatabaseEmpty(ConnectionResourcesBean connectionResources) {
         DatabaseDataSetProducer databaseDataSetProducer = new DatabaseDataSetProducer(connectionResources);
         databaseDataSetProducer.open();
@@ -6,6 +6,7 @@ import java.util.List;
 
 import static org.alfasoftware.morf.metadata.DataType.*;
 import static org.alfasoftware.morf.metadata.SchemaUtils.column;
+import static org.alfasoftware.morf.metadata.SchemaUtils.index;
 import static org.alfasoftware.morf.metadata.SchemaUtils.table;
 import static org.alfasoftware.morf.upgrade.db.DatabaseUpgradeTableContribution.deployedViewsTable;
 import static org.alfasoftware.morf.upgrade.db.DatabaseUpgradeTableContribution.upgradeAuditTable;
@@ -18,6 +19,11 @@ public class MoneyMakerDatabaseSchema extends TableSetSchema {
         super(List.of(
                         deployedViewsTable(),
                         upgradeAuditTable(),
+                        // next id to hand out for each table, see AddIdGeneratorTable
+                        table("id_generator").columns(
+                                column("sequence_name", STRING, 100).primaryKey(),
+                                column("next_val", BIG_INTEGER)
+                        ),
                         table("trade").columns(
                                 column("id", BIG_INTEGER).autoNumbered(1),
                                 // strategy name of the strategy used for this trade
@@ -27,7 +33,12 @@ public class MoneyMakerDatabaseSchema extends TableSetSchema {
                                 // strategy id of the exit_strategy table with more details about the exit strategy to be used for this trade
                                 column("exit_strategy", STRING, 100),
                                 // how much we made from this trade
-                                column("profit", DECIMAL, 100, 10).nullable()
+                                column("profit", DECIMAL, 100, 10).nullable(),
+                                // current level of the trailing stop for trades that exit with one
+                                column("trailing_stop", DECIMAL, 100, 10).nullable()
+                        ).indexes(
+                                // open trades of a strategy, see AddTradeIndexes
+                                index("trade_entry_strategy").columns("entry_strategy", "profit")
                         ),
                         table("trade_order").columns(
                                 column("id", BIG_INTEGER).autoNumbered(1),
@@ -50,6 +61,13 @@ public class MoneyMakerDatabaseSchema extends TableSetSchema {
                                 column("type", STRING, 19),
                                 column("volume", DECIMAL, 100, 10),
                                 column("volume_exec", DECIMAL, 100, 10).nullable()
+                        ).indexes(
+                                // orders of a trade
+                                index("trade_order_trade_id").columns("trade_id"),
+                                // pending orders
+                                index("trade_order_status").columns("status"),
+                                // trades the journal stored, by the reference of their entry order. see AddOrderReferenceIndex
+                                index("trade_order_order_reference").columns("order_reference")
                         )
                 )
         );
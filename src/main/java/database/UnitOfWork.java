@@ -0,0 +1,68 @@
+package database;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.function.Supplier;
+
+/**
+ * Scope of the {@link EntityManager} the DAOs use. Every unit of work opens its own entity manager on the thread that
+ * runs it and closes it at the end, so the entities loaded during it are released and each unit takes a connection
+ * from the pool only while it uses it. This way units running on different threads, ex. different strategies and the
+ * order sync, do not share an entity manager.
+ * A unit started inside another one on the same thread joins it and uses the same entity manager.
+ */
+@Singleton
+public class UnitOfWork {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ThreadLocal<EntityManager> current = new ThreadLocal<>();
+
+    @Inject
+    public UnitOfWork(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public void run(Runnable work) {
+        call(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public <T> T call(Supplier<T> work) {
+        if (current.get() != null) {
+            return work.get();
+        }
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        current.set(entityManager);
+        try {
+            return work.get();
+        } finally {
+            current.remove();
+            // a transaction is only left open when the work failed half way
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            entityManager.close();
+        }
+    }
+
+    /**
+     * The entity manager of the unit of work running on this thread.
+     */
+    public EntityManager getEntityManager() {
+        EntityManager entityManager = current.get();
+        if (entityManager == null) {
+            throw new IllegalStateException("The database can only be used inside a unit of work. See UnitOfWork.run().");
+        }
+        return entityManager;
+    }
+
+    public boolean isActive() {
+        return current.get() != null;
+    }
+}
@@ -1,28 +1,66 @@
 package database.daos;
 
+import com.google.inject.Provider;
 import jakarta.persistence.EntityManager;
 
 import java.lang.reflect.ParameterizedType;
 import java.math.BigInteger;
+import java.util.Collection;
 import java.util.Optional;
 
 public class AbstractDao<T> implements DataAccessObject<T> {
 
-    protected final EntityManager entityManager;
+    // rows sent to the database in one JDBC batch, see DatabaseModule
+    public static final int BATCH_SIZE = 50;
 
-    public AbstractDao(EntityManager entityManager) {
-        this.entityManager = entityManager;
+    // the entity manager of the current unit of work, see UnitOfWork
+    private final Provider<EntityManager> entityManagerProvider;
+
+    public AbstractDao(Provider<EntityManager> entityManagerProvider) {
+        this.entityManagerProvider = entityManagerProvider;
+    }
+
+    protected EntityManager entityManager() {
+        return entityManagerProvider.get();
     }
 
     @Override
     public void save(T value) {
+        EntityManager entityManager = entityManager();
         entityManager.getTransaction().begin();
         entityManager.persist(value);
         entityManager.getTransaction().commit();
     }
 
+    /**
+     * Persists the values in transactions of {@link #BATCH_SIZE}, so each commit sends its rows in one JDBC batch.
+     * The entity manager is cleared after each commit to keep it from growing with the saved values, which leaves
+     * them detached.
+     */
+    @Override
+    public void saveAll(Collection<T> values) {
+        EntityManager entityManager = entityManager();
+        int pending = 0;
+        for (T value : values) {
+            if (pending == 0) {
+                entityManager.getTransaction().begin();
+            }
+            entityManager.persist(value);
+            if (++pending == BATCH_SIZE) {
+                entityManager.getTransaction().commit();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+        if (pending > 0) {
+            entityManager.getTransaction().commit();
+            entityManager.clear();
+        }
+    }
+
     @Override
     public Optional<T> findById(BigInteger id) {
+        EntityManager entityManager = entityManager();
         entityManager.getTransaction().begin();
         T result = entityManager.find((Class<T>) ((ParameterizedType) getClass()
                 .getGenericSuperclass()).getActualTypeArguments()[0], id);
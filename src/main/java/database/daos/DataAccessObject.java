@@ -1,11 +1,19 @@
 package database.daos;
 
 import java.math.BigInteger;
+import java.util.Collection;
 import java.util.Optional;
 
 public interface DataAccessObject<T> {
 
     void save(T value);
 
+    /**
+     * Saves the values in order. Implementations can store them in fewer round trips than saving them one by one.
+     */
+    default void saveAll(Collection<T> values) {
+        values.forEach(this::save);
+    }
+
     Optional<T> findById(BigInteger id);
 }
@@ -0,0 +1,53 @@
+package database.daos;
+
+import com.google.inject.Inject;
+import database.entities.TradeOrderEntity;
+import database.entities.TradeOrderStatus;
+
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Orders kept in memory instead of the database. Like in the database orders are stored with their trade, so they
+ * live in the {@link InMemoryTradeDao} ledger.
+ */
+public class InMemoryOrderDao extends OrderDao {
+
+    private final InMemoryTradeDao tradeDao;
+
+    @Inject
+    public InMemoryOrderDao(InMemoryTradeDao tradeDao) {
+        super(null);
+        this.tradeDao = tradeDao;
+    }
+
+    @Override
+    public void save(TradeOrderEntity order) {
+        tradeDao.save(order.getTrade());
+    }
+
+    // there is no round trip to save
+    @Override
+    public void saveAll(Collection<TradeOrderEntity> orders) {
+        orders.forEach(this::save);
+    }
+
+    @Override
+    public Optional<TradeOrderEntity> findById(BigInteger id) {
+        return tradeDao.findAll().stream()
+                .flatMap(trade -> trade.getOrders().stream())
+                .filter(order -> id.equals(order.getId()))
+                .findFirst();
+    }
+
+    @Override
+    public List<TradeOrderEntity> findPendingOrders() {
+        return tradeDao.findAll().stream()
+                .flatMap(trade -> trade.getOrders().stream())
+                .filter(order -> TradeOrderStatus.PENDING.equals(order.getStatus()))
+                .collect(Collectors.toList());
+    }
+}
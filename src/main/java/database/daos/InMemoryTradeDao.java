@@ -0,0 +1,115 @@
+package database.daos;
+
+import database.entities.TradeEntity;
+import database.entities.TradeOrderEntity;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Trade ledger kept in memory instead of the database. Used by the backtests so simulating thousands of trades does
+ * not need a database round trip for each one. Ids are generated the same way the database would, in the order the
+ * trades and orders are saved.
+ * Open trades are indexed by their entry strategy, so finding them does not go through all the trades ever saved.
+ * Not thread safe, every backtest should have its own ledger.
+ */
+public class InMemoryTradeDao extends TradeDao {
+
+    private final Map<BigInteger, TradeEntity> trades = new LinkedHashMap<>();
+    private final Map<String, Set<TradeEntity>> openTrades = new HashMap<>();
+    private long tradeSequence;
+    private long orderSequence;
+
+    public InMemoryTradeDao() {
+        super(null);
+    }
+
+    @Override
+    public void save(TradeEntity trade) {
+        if (trade.getId() == null) {
+            trade.setId(BigInteger.valueOf(++tradeSequence));
+        }
+        for (TradeOrderEntity order : trade.getOrders()) {
+            if (order.getId() == null) {
+                order.setId(BigInteger.valueOf(++orderSequence));
+            }
+        }
+        trades.put(trade.getId(), trade);
+
+        Set<TradeEntity> strategyOpenTrades = openTrades.computeIfAbsent(trade.getEntryStrategy(), strategy -> new LinkedHashSet<>());
+        if (trade.getProfit() == null) {
+            strategyOpenTrades.add(trade);
+        } else {
+            strategyOpenTrades.remove(trade);
+        }
+    }
+
+    // there is no round trip to save
+    @Override
+    public void saveAll(Collection<TradeEntity> trades) {
+        trades.forEach(this::save);
+    }
+
+    @Override
+    public Optional<TradeEntity> findById(BigInteger id) {
+        return Optional.ofNullable(trades.get(id));
+    }
+
+    /**
+     * Returns a copy of the open trades, so trades can be closed and saved while going through them.
+     */
+    @Override
+    public List<TradeEntity> findOpenTradesByStrategy(String strategyName) {
+        Set<TradeEntity> strategyOpenTrades = openTrades.get(strategyName);
+        return strategyOpenTrades == null || strategyOpenTrades.isEmpty() ? List.of() : new ArrayList<>(strategyOpenTrades);
+    }
+
+    @Override
+    public List<TradeEntity> findOpenTrades() {
+        List<TradeEntity> trades = new ArrayList<>();
+        openTrades.values().forEach(trades::addAll);
+        return trades;
+    }
+
+    @Override
+    public void updateTrailingStop(BigInteger id, BigDecimal trailingStop) {
+        findById(id).ifPresent(trade -> trade.setTrailingStop(trailingStop));
+    }
+
+    @Override
+    public List<BigDecimal> findClosedTradeProfits() {
+        List<BigDecimal> profits = new ArrayList<>();
+        for (TradeEntity trade : trades.values()) {
+            if (trade.getProfit() != null) {
+                profits.add(trade.getProfit());
+            }
+        }
+        return profits;
+    }
+
+    @Override
+    public void forEachClosedTradeProfit(Consumer<BigDecimal> consumer) {
+        trades.values().stream()
+                .filter(trade -> trade.getProfit() != null && trade.getExitOrder().isPresent())
+                .sorted(Comparator.comparing((TradeEntity trade) -> trade.getExitOrder().get().getTime()).thenComparing(TradeEntity::getId))
+                .forEach(trade -> consumer.accept(trade.getProfit()));
+    }
+
+    /**
+     * All the trades saved so far in the order they were first saved.
+     */
+    public Collection<TradeEntity> findAll() {
+        return trades.values();
+    }
+}
@@ -0,0 +1,70 @@
+package database.daos;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import database.entities.TradeOrderEntity;
+import database.entities.TradeOrderStatus;
+import database.journal.TradeJournal;
+import jakarta.persistence.EntityManager;
+
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Orders stored through the {@link TradeJournal}. Like in the database orders are stored with their trade and the
+ * orders read from the database are detached with it, see {@link JournaledTradeDao}.
+ */
+public class JournaledOrderDao extends OrderDao {
+
+    private final JournaledTradeDao tradeDao;
+    private final TradeJournal journal;
+
+    @Inject
+    public JournaledOrderDao(Provider<EntityManager> entityManagerProvider, JournaledTradeDao tradeDao, TradeJournal journal) {
+        super(entityManagerProvider);
+        this.tradeDao = tradeDao;
+        this.journal = journal;
+    }
+
+    @Override
+    public void save(TradeOrderEntity order) {
+        journal.append(order.getTrade());
+    }
+
+    // the journal writer already stores the entries in batches
+    @Override
+    public void saveAll(Collection<TradeOrderEntity> orders) {
+        orders.forEach(this::save);
+    }
+
+    @Override
+    public Optional<TradeOrderEntity> findById(BigInteger id) {
+        return journal.getPendingTrades().stream()
+                .flatMap(trade -> trade.getOrders().stream())
+                .filter(order -> id.equals(order.getId()))
+                .findFirst()
+                .or(() -> super.findById(id).map(order -> {
+                    tradeDao.detach(order.getTrade());
+                    return order;
+                }));
+    }
+
+    @Override
+    public List<TradeOrderEntity> findPendingOrders() {
+        // the journaled state of an order is newer than the one in the database
+        Map<Integer, TradeOrderEntity> orders = new LinkedHashMap<>();
+        super.findPendingOrders().forEach(order -> {
+            tradeDao.detach(order.getTrade());
+            orders.put(order.getOrderReference(), order);
+        });
+        journal.getPendingTrades().stream()
+                .flatMap(trade -> trade.getOrders().stream())
+                .forEach(order -> orders.put(order.getOrderReference(), order));
+        return orders.values().stream().filter(order -> TradeOrderStatus.PENDING.equals(order.getStatus())).collect(Collectors.toList());
+    }
+}
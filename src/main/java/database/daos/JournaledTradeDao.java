@@ -0,0 +1,99 @@
+package database.daos;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import database.entities.TradeEntity;
+import database.journal.GeneratedIds;
+import database.journal.TradeJournal;
+import jakarta.persistence.EntityManager;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Trades stored through the {@link TradeJournal}. Saving returns as soon as the trade is journaled and the database is
+ * updated behind it, so reads also look at the trades the journal has not stored yet.
+ * The trades read from the database are detached with their orders. Changes to them are only stored when they are
+ * saved, never by the commit of the next query.
+ */
+public class JournaledTradeDao extends TradeDao {
+
+    private final TradeJournal journal;
+
+    @Inject
+    public JournaledTradeDao(Provider<EntityManager> entityManagerProvider, TradeJournal journal) {
+        super(entityManagerProvider);
+        this.journal = journal;
+    }
+
+    @Override
+    public void save(TradeEntity trade) {
+        journal.append(trade);
+    }
+
+    // the journal writer already stores the entries in batches
+    @Override
+    public void saveAll(Collection<TradeEntity> trades) {
+        trades.forEach(this::save);
+    }
+
+    @Override
+    public Optional<TradeEntity> findById(BigInteger id) {
+        return journal.getPendingTrade(id).or(() -> super.findById(id).map(this::detach));
+    }
+
+    @Override
+    public List<TradeEntity> findOpenTradesByStrategy(String strategyName) {
+        return withPendingTrades(super.findOpenTradesByStrategy(strategyName), trade -> strategyName.equals(trade.getEntryStrategy()));
+    }
+
+    @Override
+    public List<TradeEntity> findOpenTrades() {
+        return withPendingTrades(super.findOpenTrades(), trade -> true);
+    }
+
+    @Override
+    public void onGeneratedIds(Consumer<GeneratedIds> listener) {
+        journal.addGeneratedIdsListener(listener);
+    }
+
+    @Override
+    public void updateTrailingStop(BigInteger id, BigDecimal trailingStop) {
+        journal.appendTrailingStop(id, trailingStop);
+    }
+
+    /**
+     * Replaces the stored open trades with their journaled state, which is newer, and adds the journaled trades that
+     * match the filter. The trades the journal has closed are left out.
+     */
+    private List<TradeEntity> withPendingTrades(List<TradeEntity> storedTrades, Predicate<TradeEntity> filter) {
+        Map<Integer, TradeEntity> trades = new LinkedHashMap<>();
+        storedTrades.forEach(trade -> trades.put(getEntryOrderReference(detach(trade)), trade));
+        journal.getPendingTrades().stream()
+                .filter(filter)
+                .forEach(trade -> trades.put(getEntryOrderReference(trade), trade));
+        return trades.values().stream().filter(trade -> trade.getProfit() == null).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Loads the orders of the trade and detaches it from the entity manager together with them.
+     */
+    TradeEntity detach(TradeEntity trade) {
+        trade.getOrders().size();
+        entityManager().detach(trade);
+        return trade;
+    }
+
+    static int getEntryOrderReference(TradeEntity trade) {
+        return trade.getEntryOrder().getOrderReference();
+    }
+}
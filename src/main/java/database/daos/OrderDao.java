@@ -1,23 +1,27 @@
 package database.daos;
 
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import database.entities.TradeOrderEntity;
 import database.entities.TradeOrderStatus;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.Query;
 
 import java.util.List;
 
 public class OrderDao extends AbstractDao<TradeOrderEntity> {
 
     @Inject
-    public OrderDao(EntityManager entityManager) {
-        super(entityManager);
+    public OrderDao(Provider<EntityManager> entityManagerProvider) {
+        super(entityManagerProvider);
     }
 
+    /**
+     * Finds the pending orders with their trade in one query, through the trade_order_status index.
+     */
     public List<TradeOrderEntity> findPendingOrders() {
-        String hql = "FROM TradeOrderEntity t WHERE t.status=" + TradeOrderStatus.PENDING;
-        Query query = entityManager.createQuery(hql);
-        return (List<TradeOrderEntity>) query.getResultList();
+        String hql = "SELECT t FROM TradeOrderEntity t JOIN FETCH t.trade WHERE t.status= :status";
+        return entityManager().createQuery(hql, TradeOrderEntity.class)
+                .setParameter("status", TradeOrderStatus.PENDING)
+                .getResultList();
     }
 }
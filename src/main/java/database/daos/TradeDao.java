@@ -1,24 +1,105 @@
 package database.daos;
 
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import database.entities.TradeEntity;
+import database.entities.TradeOrderType;
+import database.journal.GeneratedIds;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.Query;
+import jakarta.persistence.EntityTransaction;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class TradeDao extends AbstractDao<TradeEntity> {
+
+    // rows fetched from the database at a time when streaming
+    private static final int FETCH_SIZE = 1000;
+
     @Inject
-    public TradeDao(EntityManager entityManager) {
-        super(entityManager);
+    public TradeDao(Provider<EntityManager> entityManagerProvider) {
+        super(entityManagerProvider);
     }
 
+    /**
+     * Finds the open trades with their orders in one query. The trades are found with the trade_entry_strategy index
+     * and their orders with trade_order_trade_id, see {@link database.upgrades.AddTradeIndexes}.
+     */
     public List<TradeEntity> findOpenTradesByStrategy(String strategyName) {
-        String hql = "FROM TradeEntity t " +
+        String hql = "SELECT t FROM TradeEntity t LEFT JOIN FETCH t.orders " +
                 "WHERE t.entryStrategy= :strategyName AND " +
                 "t.profit is NULL";
-        Query query = entityManager.createQuery(hql);
-        query.setParameter("strategyName", strategyName);
-        return (List<TradeEntity>) query.getResultList();
+        return entityManager().createQuery(hql, TradeEntity.class)
+                .setParameter("strategyName", strategyName)
+                .getResultList();
+    }
+
+    /**
+     * Finds the open trades of all the strategies with their orders in one query.
+     */
+    public List<TradeEntity> findOpenTrades() {
+        return entityManager().createQuery("SELECT t FROM TradeEntity t LEFT JOIN FETCH t.orders WHERE t.profit is NULL", TradeEntity.class)
+                .getResultList();
+    }
+
+    /**
+     * Registers a listener for the ids generated for trades that were saved without them. The database generates them
+     * on save here, so the listener is never called. A DAO that stores the trades later calls it once they are stored.
+     */
+    public void onGeneratedIds(Consumer<GeneratedIds> listener) {
+    }
+
+    /**
+     * Updates only the trailing stop of the trade without loading it.
+     */
+    public void updateTrailingStop(BigInteger id, BigDecimal trailingStop) {
+        EntityManager entityManager = entityManager();
+        entityManager.getTransaction().begin();
+        entityManager.createQuery("UPDATE TradeEntity t SET t.trailingStop = :trailingStop WHERE t.id = :id")
+                .setParameter("trailingStop", trailingStop)
+                .setParameter("id", id)
+                .executeUpdate();
+        entityManager.getTransaction().commit();
+    }
+
+    /**
+     * Profits of the closed trades in the order they were opened, without loading the trades and their orders.
+     */
+    public List<BigDecimal> findClosedTradeProfits() {
+        return entityManager().createQuery("SELECT t.profit FROM TradeEntity t WHERE t.profit IS NOT NULL ORDER BY t.id", BigDecimal.class)
+                .getResultList();
+    }
+
+    /**
+     * Goes through the profits of the closed trades in the order they were closed. The profits are streamed from the
+     * database a batch at a time, so neither the trades and their orders nor the whole list of profits are loaded.
+     * Postgres only streams inside a transaction, otherwise the driver reads all the rows first. The transaction of the
+     * caller is used when there is one, otherwise the profits are read in their own.
+     */
+    public void forEachClosedTradeProfit(Consumer<BigDecimal> consumer) {
+        EntityTransaction transaction = entityManager().getTransaction();
+        boolean ownTransaction = !transaction.isActive();
+        if (ownTransaction) {
+            transaction.begin();
+        }
+        try (Stream<BigDecimal> profits = entityManager().createQuery("SELECT t.profit FROM TradeEntity t JOIN t.orders o " +
+                        "WHERE t.profit IS NOT NULL AND o.type = :type ORDER BY o.time, t.id", BigDecimal.class)
+                .setParameter("type", TradeOrderType.EXIT)
+                .setHint("org.hibernate.fetchSize", FETCH_SIZE)
+                .setHint("org.hibernate.readOnly", true)
+                .getResultStream()) {
+            profits.forEach(consumer);
+        } catch (RuntimeException e) {
+            if (ownTransaction && transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+        if (ownTransaction) {
+            transaction.commit();
+        }
     }
 }
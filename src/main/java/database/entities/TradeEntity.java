@@ -17,7 +17,10 @@ import java.util.Optional;
 @Table(name = "trade")
 public class TradeEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // ids are taken from the id_generator table 50 at a time, so inserts can be batched. see DatabaseModule
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "trade_id")
+    @TableGenerator(name = "trade_id", table = "id_generator", pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "trade", allocationSize = 50)
     @Column(name = "id", unique = true, nullable = false)
     private BigInteger id;
 
@@ -36,6 +39,10 @@ public class TradeEntity {
     @Column(name = "profit")
     private BigDecimal profit;
 
+    // current level of the trailing stop for trades that exit with one
+    @Column(name = "trailing_stop")
+    private BigDecimal trailingStop;
+
     public Duration getPeriodLength() {
         return Duration.parse(periodLength);
     }
@@ -20,7 +20,10 @@ import java.time.LocalDateTime;
 public class TradeOrderEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // ids are taken from the id_generator table 50 at a time, so inserts can be batched. see DatabaseModule
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "trade_order_id")
+    @TableGenerator(name = "trade_order_id", table = "id_generator", pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "trade_order", allocationSize = 50)
     @Column(name = "id", unique = true, nullable = false)
     private BigInteger id;
 
@@ -86,4 +89,15 @@ public class TradeOrderEntity {
     public void setTime(LocalDateTime time) {
         this.time = BigInteger.valueOf(TimeService.getMilliSeconds(time));
     }
+
+    /**
+     * The time as it is stored, in milliseconds. {@link #getTime()} drops the milliseconds.
+     */
+    public Long getTimeMilliSeconds() {
+        return time == null ? null : time.longValue();
+    }
+
+    public void setTimeMilliSeconds(Long time) {
+        this.time = time == null ? null : BigInteger.valueOf(time);
+    }
 }
@@ -0,0 +1,21 @@
+package database.journal;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigInteger;
+import java.util.Map;
+
+/**
+ * Ids the database generated for a journaled trade and its orders once the {@link TradeJournal} stored them. The trade
+ * is identified by the reference of its entry order and the orders by their reference, since the journaled instances
+ * have no ids to be found by.
+ */
+@Getter
+@AllArgsConstructor
+public class GeneratedIds {
+
+    private final int entryOrderReference;
+    private final BigInteger tradeId;
+    private final Map<Integer, BigInteger> orderIdsByReference;
+}
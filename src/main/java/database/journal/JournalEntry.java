@@ -0,0 +1,30 @@
+package database.journal;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * One line of the {@link JournalFile}: either the whole trade or a move of the trailing stop of a stored trade.
+ * The sequence gives the order the entries are written to the database in.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+class JournalEntry {
+
+    private final long sequence;
+    private final TradeSnapshot trade;
+    private final BigInteger tradeId;
+    private final BigDecimal trailingStop;
+
+    static JournalEntry trade(long sequence, TradeSnapshot trade) {
+        return new JournalEntry(sequence, trade, null, null);
+    }
+
+    static JournalEntry trailingStop(long sequence, BigInteger tradeId, BigDecimal trailingStop) {
+        return new JournalEntry(sequence, null, tradeId, trailingStop);
+    }
+}
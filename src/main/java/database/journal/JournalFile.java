@@ -0,0 +1,111 @@
+package database.journal;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append only file of the {@link TradeJournal}, one json entry per line. Every append is forced to the disk before it
+ * returns, so an entry that was appended survives a crash.
+ * The sequence of the last entry stored in the database is kept in a checkpoint file next to the journal. Entries up
+ * to the checkpoint are skipped when the journal is read and the file is truncated once everything is stored.
+ * Not thread safe, the journal synchronizes the access to it.
+ */
+@Slf4j
+class JournalFile implements Closeable {
+
+    private final Path path;
+    private final Path checkpointPath;
+    private final Gson gson = new Gson();
+    private final FileChannel channel;
+
+    JournalFile(Path path) throws IOException {
+        this.path = path;
+        this.checkpointPath = path.resolveSibling(path.getFileName() + ".checkpoint");
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        // end a line that was cut by a crash, so the next entry starts on its own line
+        if (channel.size() > 0) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, channel.size() - 1);
+            if (last.get(0) != '\n') {
+                channel.write(ByteBuffer.wrap(new byte[]{'\n'}));
+            }
+        }
+    }
+
+    void append(JournalEntry entry) throws IOException {
+        ByteBuffer line = ByteBuffer.wrap((gson.toJson(entry) + "\n").getBytes(StandardCharsets.UTF_8));
+        while (line.hasRemaining()) {
+            channel.write(line);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * The entries after the checkpoint in the order they were appended. A line that was only half written when the
+     * process died is skipped, its entry was never acknowledged.
+     */
+    List<JournalEntry> readUnflushed() throws IOException {
+        long checkpoint = readCheckpoint();
+        List<JournalEntry> entries = new ArrayList<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                JournalEntry entry = gson.fromJson(line, JournalEntry.class);
+                if (entry != null && entry.getSequence() > checkpoint) {
+                    entries.add(entry);
+                }
+            } catch (JsonParseException e) {
+                log.warn("Skipped a broken trade journal entry: " + line);
+            }
+        }
+        return entries;
+    }
+
+    long readCheckpoint() throws IOException {
+        return Files.exists(checkpointPath) ? Long.parseLong(Files.readString(checkpointPath).trim()) : 0;
+    }
+
+    /**
+     * Stores the sequence of the last entry written to the database. The file is replaced in one move so a crash
+     * leaves either the old or the new checkpoint.
+     */
+    void checkpoint(long sequence) throws IOException {
+        Path temporary = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+        Files.writeString(temporary, String.valueOf(sequence));
+        Files.move(temporary, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Empties the journal. Only call it when every entry is before the checkpoint.
+     */
+    void truncate() throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(false);
+    }
+
+    long size() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,377 @@
+package database.journal;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import database.UnitOfWork;
+import database.entities.TradeEntity;
+import database.entities.TradeOrderEntity;
+import database.entities.TradeOrderType;
+import jakarta.persistence.EntityManager;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Write behind journal of the trades. A trade is acknowledged as soon as it is appended to the {@link JournalFile},
+ * then a writer thread stores the journaled trades in the database in batches. This keeps the database commits off
+ * the thread that evaluates the strategies, so a slow database does not delay the next tick.
+ * <p>
+ * The writer stores the entries one batch at a time in the order they were journaled, so the changes of a trade are
+ * always stored in the order they were made. A batch that fails because the database can not be reached, or is out of
+ * resources, is retried until it is stored. Any other failure is retried {@link #MAX_ATTEMPTS} times, then the entries
+ * of the batch are stored one at a time and the ones that still fail are set aside in a dead letter journal next to the
+ * journal, ex. trade-journal.jsonl.dead, to be looked into by hand. This way a bad entry does not hold up the entries
+ * that come after it forever.
+ * The entries that were not stored when the process stopped are written again on the next start. Storing an entry
+ * twice gives the same result, since the trade is found by its id or by the reference of its entry order.
+ * <p>
+ * Until they are stored the trades are kept in memory, so the DAOs can return them to the reads that come after.
+ * Once a trade is stored the ids the database generated are handed to the generated ids listeners after the commit.
+ * The journal does not set them on the journaled trade itself, the thread that trades can be changing it at the same
+ * time. The owner of the instance does it on its own thread instead, ex. the open trade registry.
+ */
+@Slf4j
+@Singleton
+public class TradeJournal implements AutoCloseable {
+
+    public static final int BATCH_SIZE = 100;
+    public static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MILLIS = 1000;
+    // SQL states of the errors that go away on their own: connection exceptions, transaction rollbacks (ex. deadlocks),
+    // insufficient resources and operator intervention (ex. the database is restarting)
+    private static final Set<String> TRANSIENT_SQL_STATE_CLASSES = Set.of("08", "40", "53", "57");
+
+    private final UnitOfWork unitOfWork;
+    private final JournalFile file;
+    // entries that could not be stored, only written by the writer
+    private final JournalFile deadLetters;
+    private final BlockingQueue<JournalEntry> queue = new LinkedBlockingQueue<>();
+    // latest journaled state of the trades that are not stored yet by the reference of their entry order.
+    // the sequence, the file and this map are guarded by this journal
+    private final Map<Integer, PendingTrade> pendingTrades = new HashMap<>();
+    private long sequence;
+    private final List<Consumer<GeneratedIds>> generatedIdsListeners = new CopyOnWriteArrayList<>();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    @Inject
+    public TradeJournal(UnitOfWork unitOfWork, @Named("TradeJournalFile") Path path) {
+        this.unitOfWork = unitOfWork;
+        try {
+            this.file = new JournalFile(path);
+            this.deadLetters = new JournalFile(path.resolveSibling(path.getFileName() + ".dead"));
+            this.sequence = file.readCheckpoint();
+            List<JournalEntry> unflushed = file.readUnflushed();
+            for (JournalEntry entry : unflushed) {
+                sequence = Math.max(sequence, entry.getSequence());
+                if (entry.getTrade() != null) {
+                    pendingTrades.put(entry.getTrade().getEntryOrderReference(), new PendingTrade(entry.getTrade().toEntity(), entry.getSequence()));
+                }
+                queue.add(entry);
+            }
+            if (!unflushed.isEmpty()) {
+                log.info("Replaying " + unflushed.size() + " trade journal entries that were not stored in the database.");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Trade journal could not be opened: " + path, e);
+        }
+
+        // a daemon so applications that only read do not wait for it. the entries it did not store are replayed
+        this.writer = new Thread(this::storeBatches, "trade-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Journals the current state of the trade and its orders. When this returns the trade will be stored even if the
+     * process stops before the writer gets to it.
+     */
+    public synchronized void append(TradeEntity trade) {
+        TradeSnapshot snapshot = TradeSnapshot.of(trade);
+        JournalEntry entry = JournalEntry.trade(sequence + 1, snapshot);
+        journal(entry);
+        pendingTrades.put(snapshot.getEntryOrderReference(), new PendingTrade(trade, entry.getSequence()));
+    }
+
+    /**
+     * Journals a move of the trailing stop of a stored trade. It goes through the journal, rather than straight to
+     * the database, so it is stored in order with the other changes of the trade.
+     */
+    public synchronized void appendTrailingStop(BigInteger tradeId, BigDecimal trailingStop) {
+        journal(JournalEntry.trailingStop(sequence + 1, tradeId, trailingStop));
+    }
+
+    /**
+     * The trades with changes that are not stored yet, as they were last journaled.
+     */
+    public synchronized List<TradeEntity> getPendingTrades() {
+        return pendingTrades.values().stream().map(PendingTrade::getTrade).collect(Collectors.toList());
+    }
+
+    public synchronized Optional<TradeEntity> getPendingTrade(BigInteger id) {
+        return pendingTrades.values().stream().map(PendingTrade::getTrade)
+                .filter(trade -> id.equals(trade.getId()))
+                .findFirst();
+    }
+
+    /**
+     * Registers a listener called by the writer with the ids generated for every trade it stores, after the commit.
+     * It runs on the writer thread, so it should only hand the ids over to the thread that uses the trade.
+     */
+    public void addGeneratedIdsListener(Consumer<GeneratedIds> listener) {
+        generatedIdsListeners.add(listener);
+    }
+
+    /**
+     * Number of entries waiting for the writer.
+     */
+    public int getBacklog() {
+        return queue.size();
+    }
+
+    /**
+     * Stops the writer once it has stored the entries that were journaled before. Entries it could not store stay
+     * in the journal for the next start.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            try {
+                file.close();
+                deadLetters.close();
+            } catch (IOException e) {
+                log.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    private void journal(JournalEntry entry) {
+        try {
+            file.append(entry);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Trade could not be journaled.", e);
+        }
+        sequence = entry.getSequence();
+        queue.add(entry);
+    }
+
+    private void storeBatches() {
+        List<JournalEntry> batch = new ArrayList<>();
+        // failed attempts of the current batch that were not transient
+        int attempts = 0;
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    JournalEntry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, BATCH_SIZE - 1);
+                }
+                if (attempts < MAX_ATTEMPTS) {
+                    storeBatch(batch);
+                } else {
+                    storeOneByOne(batch);
+                }
+                attempts = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                if (!isTransient(e)) {
+                    attempts++;
+                }
+                log.error("Trade journal could not store " + batch.size() + " entries, retrying: " + e.getMessage(), e);
+                if (!running) {
+                    // the entries stay in the journal and are stored on the next start
+                    return;
+                }
+                try {
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void storeBatch(List<JournalEntry> batch) {
+        Map<Integer, TradeEntity> storedTrades = new HashMap<>();
+        unitOfWork.run(() -> storedTrades.putAll(store(batch)));
+        stored(batch.get(batch.size() - 1).getSequence());
+        batch.clear();
+        storedTrades.forEach(this::notifyGeneratedIds);
+    }
+
+    /**
+     * Stores the entries of a batch that keeps failing one at a time and sets aside the ones that fail for a reason
+     * other than a transient one. A transient failure stops it, the entries left are retried one at a time.
+     */
+    private void storeOneByOne(List<JournalEntry> batch) {
+        while (!batch.isEmpty()) {
+            JournalEntry entry = batch.get(0);
+            try {
+                storeBatch(new ArrayList<>(List.of(entry)));
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    throw e;
+                }
+                deadLetter(entry, e);
+                stored(entry.getSequence());
+            }
+            batch.remove(0);
+        }
+    }
+
+    private void deadLetter(JournalEntry entry, RuntimeException e) {
+        log.error("Trade journal entry " + entry.getSequence() + " could not be stored and was moved to the dead letter journal: " + e.getMessage(), e);
+        try {
+            deadLetters.append(entry);
+        } catch (IOException ioException) {
+            // it stays in the journal until the checkpoint moves past it
+            throw new UncheckedIOException("Trade journal entry " + entry.getSequence() + " could not be moved to the dead letter journal.", ioException);
+        }
+    }
+
+    /**
+     * Whether the failure goes away on its own, ex. the database can not be reached. These are retried until they
+     * are stored, any other failure will fail again.
+     */
+    static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientException || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+            if (cause instanceof SQLException) {
+                String sqlState = ((SQLException) cause).getSQLState();
+                if (sqlState != null && sqlState.length() >= 2 && TRANSIENT_SQL_STATE_CLASSES.contains(sqlState.substring(0, 2))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stores the batch in one transaction and returns the stored trades by the reference of their entry order.
+     * The stored trades of the batch are looked up before anything is persisted, so no query flushes the inserts
+     * halfway and they go to the database in JDBC batches on the commit.
+     */
+    private Map<Integer, TradeEntity> store(List<JournalEntry> batch) {
+        EntityManager entityManager = unitOfWork.getEntityManager();
+        entityManager.getTransaction().begin();
+        // trades of this batch by entry order reference, so new trades are not looked up again before the commit
+        Map<Integer, TradeEntity> trades = findStoredTrades(entityManager, batch);
+        for (JournalEntry entry : batch) {
+            if (entry.getTrade() != null) {
+                TradeSnapshot snapshot = entry.getTrade();
+                TradeEntity trade = trades.get(snapshot.getEntryOrderReference());
+                if (trade == null) {
+                    trade = new TradeEntity();
+                    snapshot.applyTo(trade);
+                    entityManager.persist(trade);
+                } else {
+                    snapshot.applyTo(trade).forEach(entityManager::persist);
+                }
+                trades.put(snapshot.getEntryOrderReference(), trade);
+            } else {
+                TradeEntity trade = trades.values().stream().filter(stored -> entry.getTradeId().equals(stored.getId())).findFirst()
+                        .orElseGet(() -> entityManager.find(TradeEntity.class, entry.getTradeId()));
+                Optional.ofNullable(trade)
+                        .ifPresentOrElse(stored -> stored.setTrailingStop(entry.getTrailingStop()),
+                                () -> log.warn("Trailing stop of trade " + entry.getTradeId() + " was journaled but the trade was not found."));
+            }
+        }
+        entityManager.getTransaction().commit();
+        return trades;
+    }
+
+    /**
+     * Finds the trades of the batch that are already in the database with one query, by the reference of their entry
+     * order. A trade that has an id is always found this way too, since its entry order was stored with it.
+     */
+    private Map<Integer, TradeEntity> findStoredTrades(EntityManager entityManager, List<JournalEntry> batch) {
+        Set<Integer> references = batch.stream()
+                .filter(entry -> entry.getTrade() != null)
+                .map(entry -> entry.getTrade().getEntryOrderReference())
+                .collect(Collectors.toSet());
+        Map<Integer, TradeEntity> trades = new HashMap<>();
+        if (references.isEmpty()) {
+            return trades;
+        }
+        entityManager.createQuery("SELECT o FROM TradeOrderEntity o JOIN FETCH o.trade WHERE o.orderReference IN :orderReferences AND o.type = :type", TradeOrderEntity.class)
+                .setParameter("orderReferences", references)
+                .setParameter("type", TradeOrderType.ENTRY)
+                .getResultStream()
+                .forEach(order -> trades.put(order.getOrderReference(), order.getTrade()));
+        return trades;
+    }
+
+    /**
+     * Moves the checkpoint after a batch is stored. The trades with no newer entries are dropped from memory, from
+     * now on they are read from the database.
+     */
+    private synchronized void stored(long storedSequence) {
+        pendingTrades.values().removeIf(pendingTrade -> pendingTrade.getSequence() <= storedSequence);
+        try {
+            file.checkpoint(storedSequence);
+            if (storedSequence == sequence) {
+                file.truncate();
+            }
+        } catch (IOException e) {
+            // the entries after the old checkpoint are stored again on the next start, which changes nothing
+            log.error("Trade journal checkpoint failed: " + e.getMessage(), e);
+        }
+    }
+
+    // the stored trade belongs to the entity manager of the writer, so it is read here and only its ids are handed over
+    private void notifyGeneratedIds(int entryOrderReference, TradeEntity storedTrade) {
+        Map<Integer, BigInteger> orderIds = new HashMap<>();
+        storedTrade.getOrders().forEach(order -> orderIds.put(order.getOrderReference(), order.getId()));
+        GeneratedIds generatedIds = new GeneratedIds(entryOrderReference, storedTrade.getId(), orderIds);
+        generatedIdsListeners.forEach(listener -> {
+            try {
+                listener.accept(generatedIds);
+            } catch (RuntimeException e) {
+                log.error("Generated ids of trade " + storedTrade.getId() + " could not be handed over: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class PendingTrade {
+        private final TradeEntity trade;
+        private final long sequence;
+    }
+}
@@ -0,0 +1,138 @@
+package database.journal;
+
+import database.entities.TradeEntity;
+import database.entities.TradeOrderEntity;
+import database.entities.TradeOrderStatus;
+import database.entities.TradeOrderType;
+import lombok.Getter;
+import services.strategies.tradingstrategies.TradingStrategy;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Copy of a trade and its orders as they were when the trade was journaled. The writer applies it to the database
+ * later, while the entity it was taken from keeps changing on the thread that trades.
+ * Trades only get their id from the database, so until then a trade is found by the reference of its entry order.
+ */
+@Getter
+class TradeSnapshot {
+
+    private BigInteger id;
+    private String entryStrategy;
+    private String exitStrategy;
+    private String periodLength;
+    private BigDecimal profit;
+    private BigDecimal trailingStop;
+    private List<OrderSnapshot> orders;
+
+    static TradeSnapshot of(TradeEntity trade) {
+        TradeSnapshot snapshot = new TradeSnapshot();
+        snapshot.id = trade.getId();
+        snapshot.entryStrategy = trade.getEntryStrategy();
+        snapshot.exitStrategy = trade.getExitStrategy();
+        snapshot.periodLength = trade.getPeriodLength().toString();
+        snapshot.profit = trade.getProfit();
+        snapshot.trailingStop = trade.getTrailingStop();
+        snapshot.orders = trade.getOrders().stream().map(OrderSnapshot::of).collect(Collectors.toList());
+        return snapshot;
+    }
+
+    int getEntryOrderReference() {
+        return orders.stream().filter(order -> TradeOrderType.ENTRY.equals(order.type)).findFirst()
+                .orElseThrow(() -> new IllegalStateException("Trade snapshot was journaled without an entry order."))
+                .orderReference;
+    }
+
+    TradeEntity toEntity() {
+        TradeEntity trade = new TradeEntity();
+        trade.setId(id);
+        applyTo(trade);
+        return trade;
+    }
+
+    /**
+     * Copies the snapshot on the trade and returns the orders that were not on the trade yet.
+     * The trailing stop is only set when the trade has none, after that it moves with its own journal entries.
+     * Otherwise a snapshot taken before the stop moved would set it back.
+     */
+    List<TradeOrderEntity> applyTo(TradeEntity trade) {
+        trade.setEntryStrategy(entryStrategy);
+        trade.setExitStrategy(exitStrategy);
+        trade.setPeriodLength(Duration.parse(periodLength));
+        trade.setProfit(profit);
+        if (trade.getTrailingStop() == null) {
+            trade.setTrailingStop(trailingStop);
+        }
+
+        List<TradeOrderEntity> newOrders = new ArrayList<>();
+        for (OrderSnapshot orderSnapshot : orders) {
+            TradeOrderEntity order = trade.getOrders().stream()
+                    .filter(tradeOrder -> tradeOrder.getOrderReference() == orderSnapshot.orderReference)
+                    .findFirst()
+                    .orElseGet(() -> {
+                        TradeOrderEntity newOrder = new TradeOrderEntity();
+                        newOrder.setId(orderSnapshot.id);
+                        trade.addOrder(newOrder);
+                        newOrders.add(newOrder);
+                        return newOrder;
+                    });
+            orderSnapshot.applyTo(order);
+        }
+        return newOrders;
+    }
+
+    @Getter
+    static class OrderSnapshot {
+        private BigInteger id;
+        private int orderReference;
+        private String orderTransaction;
+        private String assetCode;
+        private TradingStrategy.TradingSignal tradingSignal;
+        private TradeOrderStatus status;
+        private TradeOrderType type;
+        private BigDecimal volume;
+        private BigDecimal volumeExec;
+        private BigDecimal price;
+        private BigDecimal cost;
+        private BigDecimal fee;
+        private Long time;
+
+        static OrderSnapshot of(TradeOrderEntity order) {
+            OrderSnapshot snapshot = new OrderSnapshot();
+            snapshot.id = order.getId();
+            snapshot.orderReference = order.getOrderReference();
+            snapshot.orderTransaction = order.getOrderTransaction();
+            snapshot.assetCode = order.getAssetCode();
+            snapshot.tradingSignal = order.getTradingSignal();
+            snapshot.status = order.getStatus();
+            snapshot.type = order.getType();
+            snapshot.volume = order.getVolume();
+            snapshot.volumeExec = order.getVolumeExec();
+            snapshot.price = order.getPrice();
+            snapshot.cost = order.getCost();
+            snapshot.fee = order.getFee();
+            snapshot.time = order.getTimeMilliSeconds();
+            return snapshot;
+        }
+
+        private void applyTo(TradeOrderEntity order) {
+            order.setOrderReference(orderReference);
+            order.setOrderTransaction(orderTransaction);
+            order.setAssetCode(assetCode);
+            order.setTradingSignal(tradingSignal);
+            order.setStatus(status);
+            order.setType(type);
+            order.setVolume(volume);
+            order.setVolumeExec(volumeExec);
+            order.setPrice(price);
+            order.setCost(cost);
+            order.setFee(fee);
+            order.setTimeMilliSeconds(time);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package database.upgrades;
+
+import org.alfasoftware.morf.metadata.DataType;
+import org.alfasoftware.morf.sql.element.MathsField;
+import org.alfasoftware.morf.sql.element.MathsOperator;
+import org.alfasoftware.morf.upgrade.DataEditor;
+import org.alfasoftware.morf.upgrade.SchemaEditor;
+import org.alfasoftware.morf.upgrade.Sequence;
+import org.alfasoftware.morf.upgrade.UUID;
+import org.alfasoftware.morf.upgrade.UpgradeStep;
+
+import static org.alfasoftware.morf.metadata.SchemaUtils.column;
+import static org.alfasoftware.morf.metadata.SchemaUtils.table;
+import static org.alfasoftware.morf.sql.SqlUtils.field;
+import static org.alfasoftware.morf.sql.SqlUtils.insert;
+import static org.alfasoftware.morf.sql.SqlUtils.literal;
+import static org.alfasoftware.morf.sql.SqlUtils.select;
+import static org.alfasoftware.morf.sql.SqlUtils.tableRef;
+import static org.alfasoftware.morf.sql.element.Function.coalesce;
+import static org.alfasoftware.morf.sql.element.Function.max;
+
+/**
+ * Adds the table the trade and order ids are generated from, so Hibernate can reserve ids in blocks and batch the
+ * inserts. The identity columns would make it insert the rows one at a time to read their ids back.
+ * This version of Morf has no sequences, so each sequence is a row of the table. The rows start after the highest id
+ * already in use.
+ */
+@Sequence(1666137600)
+@UUID("3b8e2f14-7c5d-4a96-b0e1-9d42c6a7f508")
+public class AddIdGeneratorTable implements UpgradeStep {
+
+    @Override
+    public String getJiraId() {
+        return "MM-2";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Add id_generator table for the trade and trade_order ids";
+    }
+
+    @Override
+    public void execute(SchemaEditor schema, DataEditor data) {
+        schema.addTable(table("id_generator").columns(
+                column("sequence_name", DataType.STRING, 100).primaryKey(),
+                column("next_val", DataType.BIG_INTEGER)
+        ));
+
+        for (String tableName : new String[]{"trade", "trade_order"}) {
+            data.executeStatement(insert().into(tableRef("id_generator")).from(
+                    select(literal(tableName).as("sequence_name"),
+                            new MathsField(coalesce(max(field("id")), literal(0)), MathsOperator.PLUS, literal(1)).as("next_val"))
+                            .from(tableRef(tableName))
+            ));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package database.upgrades;
+
+import org.alfasoftware.morf.upgrade.DataEditor;
+import org.alfasoftware.morf.upgrade.SchemaEditor;
+import org.alfasoftware.morf.upgrade.Sequence;
+import org.alfasoftware.morf.upgrade.UUID;
+import org.alfasoftware.morf.upgrade.UpgradeStep;
+
+import static org.alfasoftware.morf.metadata.SchemaUtils.index;
+
+/**
+ * Indexes the orders by their reference. The trade journal looks up the trades of every batch it stores by the
+ * reference of their entry order, which otherwise scans the whole history of orders.
+ */
+@Sequence(1666310400)
+@UUID("e61f9a3c-2b7d-4c80-9f15-5a8d03c4b7e2")
+public class AddOrderReferenceIndex implements UpgradeStep {
+
+    @Override
+    public String getJiraId() {
+        return "MM-4";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Add index for the order reference lookups";
+    }
+
+    @Override
+    public void execute(SchemaEditor schema, DataEditor data) {
+        schema.addIndex("trade_order", index("trade_order_order_reference").columns("order_reference"));
+    }
+}
@@ -0,0 +1,36 @@
+package database.upgrades;
+
+import org.alfasoftware.morf.upgrade.DataEditor;
+import org.alfasoftware.morf.upgrade.SchemaEditor;
+import org.alfasoftware.morf.upgrade.Sequence;
+import org.alfasoftware.morf.upgrade.UUID;
+import org.alfasoftware.morf.upgrade.UpgradeStep;
+
+import static org.alfasoftware.morf.metadata.SchemaUtils.index;
+
+/**
+ * Indexes the queries that run on every tick, which otherwise scan the whole history of trades and orders:
+ * the open trades of a strategy, the orders of a trade and the pending orders.
+ * The trade index also has the profit, so the open trades are found in the index without reading the closed ones.
+ */
+@Sequence(1666224000)
+@UUID("a4d7c0e2-15f9-4b38-8c6e-72b9e3f1d046")
+public class AddTradeIndexes implements UpgradeStep {
+
+    @Override
+    public String getJiraId() {
+        return "MM-3";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Add indexes for the open trade and pending order lookups";
+    }
+
+    @Override
+    public void execute(SchemaEditor schema, DataEditor data) {
+        schema.addIndex("trade", index("trade_entry_strategy").columns("entry_strategy", "profit"));
+        schema.addIndex("trade_order", index("trade_order_trade_id").columns("trade_id"));
+        schema.addIndex("trade_order", index("trade_order_status").columns("status"));
+    }
+}
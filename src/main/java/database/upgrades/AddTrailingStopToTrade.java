@@ -0,0 +1,33 @@
+package database.upgrades;
+
+import org.alfasoftware.morf.metadata.DataType;
+import org.alfasoftware.morf.upgrade.DataEditor;
+import org.alfasoftware.morf.upgrade.SchemaEditor;
+import org.alfasoftware.morf.upgrade.Sequence;
+import org.alfasoftware.morf.upgrade.UUID;
+import org.alfasoftware.morf.upgrade.UpgradeStep;
+
+import static org.alfasoftware.morf.metadata.SchemaUtils.column;
+
+/**
+ * Stores the current trailing stop level of a trade so it is not lost on restart.
+ */
+@Sequence(1665360000)
+@UUID("6f1c3a52-8e0b-4d37-9a51-2c4f7d0e9b13")
+public class AddTrailingStopToTrade implements UpgradeStep {
+
+    @Override
+    public String getJiraId() {
+        return "MM-1";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Add trailing_stop column to the trade table";
+    }
+
+    @Override
+    public void execute(SchemaEditor schema, DataEditor data) {
+        schema.addColumn("trade", column("trailing_stop", DataType.DECIMAL, 100, 10).nullable());
+    }
+}
@@ -0,0 +1,56 @@
+package properties;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+
+/**
+ * Provides the properties objects loaded from the application properties, so services can have them injected
+ * directly instead of loading them through the {@link PropertiesService}.
+ * A different set of properties can be used by overriding this module, ex. when backtesting different strategy
+ * parameters side by side.
+ * Every module that needs the properties can install it, the properties are only bound once.
+ */
+public class PropertiesModule extends AbstractModule {
+
+    @Provides
+    @Singleton
+    public TradeProperties provideTradeProperties(PropertiesService propertiesService) {
+        return load(propertiesService, TradeProperties.class);
+    }
+
+    @Provides
+    @Singleton
+    public GoldenCrossStrategyProperties provideGoldenCrossStrategyProperties(PropertiesService propertiesService) {
+        return load(propertiesService, GoldenCrossStrategyProperties.class);
+    }
+
+    @Provides
+    @Singleton
+    public ThreeEmaCrossoverStrategyProperties provideThreeEmaCrossoverStrategyProperties(PropertiesService propertiesService) {
+        return load(propertiesService, ThreeEmaCrossoverStrategyProperties.class);
+    }
+
+    @Provides
+    @Singleton
+    public TrailingStopExitStrategyProperties provideTrailingStopExitStrategyProperties(PropertiesService propertiesService) {
+        return load(propertiesService, TrailingStopExitStrategyProperties.class);
+    }
+
+    // all instances are equal so Guice installs the module once no matter how many modules install it
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof PropertiesModule;
+    }
+
+    @Override
+    public int hashCode() {
+        return PropertiesModule.class.hashCode();
+    }
+
+    private <T> T load(PropertiesService propertiesService, Class<T> propertiesClass) {
+        return propertiesService.loadProperties(propertiesClass).orElseThrow(() ->
+                new IllegalStateException("Trade config must be setup before the system starts trading.")
+        );
+    }
+}
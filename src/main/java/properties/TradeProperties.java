@@ -1,7 +1,9 @@
 package properties;
 
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import valueobjects.price.PriceScale;
 
 import java.math.BigDecimal;
 
@@ -21,6 +23,13 @@ public class TradeProperties {
     private BigDecimal accountRisk;
     private Boolean paperTrading;
     private String leverage;
+    // number of decimals kept when prices are converted to fixed point longs
+    @Getter(AccessLevel.NONE)
+    private Integer priceScale;
+
+    public int getPriceScale() {
+        return priceScale == null ? PriceScale.DEFAULT_SCALE : priceScale;
+    }
 
     public boolean usesLeverage() {
         return !this.leverage.split(LEVERAGE_SEPARATOR)[0].equals("1");
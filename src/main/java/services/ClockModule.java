@@ -0,0 +1,16 @@
+package services;
+
+import com.google.inject.AbstractModule;
+
+import java.time.Clock;
+
+/**
+ * Binds the clock used to time the ticks, the orders and the trades. Trading live happens in real time, in the time
+ * zone of the host like the times already stored in the database. A backtest overrides it with the {@link ReplayClock}.
+ */
+public class ClockModule extends AbstractModule {
+    @Override
+    protected void configure() {
+        bind(Clock.class).toInstance(Clock.systemDefaultZone());
+    }
+}
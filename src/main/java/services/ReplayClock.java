@@ -0,0 +1,58 @@
+package services;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Clock driven by the data being replayed instead of the wall clock. The replay moves it to the time of every event
+ * before handing the event to the strategies, so everything that asks the clock for the time sees the time of the
+ * event, the same as it would see the wall clock in a live session, and the replay can run as fast as it wants.
+ * Always in UTC, like the {@link TimeService}.
+ */
+public class ReplayClock extends Clock {
+
+    // epoch milliseconds of the current event. volatile so a replay can be watched from another thread
+    private volatile long millis;
+
+    public ReplayClock() {
+        this(0);
+    }
+
+    public ReplayClock(long millis) {
+        this.millis = millis;
+    }
+
+    public void set(long millis) {
+        this.millis = millis;
+    }
+
+    public void set(LocalDateTime time) {
+        set(TimeService.getMilliSeconds(time));
+    }
+
+    @Override
+    public long millis() {
+        return millis;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    /**
+     * Returns a fixed clock at the current time in the given zone. The replay only moves this clock.
+     */
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return Clock.fixed(instant(), zone);
+    }
+}
@@ -25,6 +25,10 @@ public class TimeService {
         return LocalDateTime.ofInstant(Instant.ofEpochSecond(seconds.longValue()), ZoneId.of("UTC"));
     }
 
+    public static LocalDateTime getLocalDateTimeSecond(long seconds) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(seconds), ZoneId.of("UTC"));
+    }
+
     public static long getMilliSeconds(LocalDateTime dateTime) {
         return dateTime.atZone(ZoneId.of("UTC")).toInstant().toEpochMilli();
     }
@@ -0,0 +1,134 @@
+package services.analytics;
+
+/**
+ * Performance metrics of closed trades calculated in a single pass. Every trade is added once, in the order the
+ * trades closed, and all the metrics are up to date after each one, so the trades never have to be kept in memory.
+ * The profits are the percentages stored on the trades, ex. 2.5 for a 2.5% profit.
+ * <p>
+ * The ratios are per trade and not annualized: the Sharpe ratio is the mean profit over the standard deviation of the
+ * profits and the Sortino ratio the mean profit over the downside deviation, the root mean square of the losses.
+ * The variance is kept with Welford's algorithm so it stays accurate over millions of trades.
+ * Not thread safe.
+ */
+public class PerformanceAccumulator {
+
+    // share of the equity paid as fee on every trade when compounding
+    private final double feeRate;
+
+    private long trades;
+    private long winningTrades;
+    private double grossProfit;
+    private double grossLoss;
+    private double mean;
+    private double squaredDifferences;
+    private double squaredLosses;
+    // cumulative profit in percentage points and its highest value so far
+    private double totalProfit;
+    private double peak;
+    private double maxDrawdown;
+    // multiple of the starting equity when every trade is compounded on the whole equity
+    private double equity = 1;
+
+    public PerformanceAccumulator() {
+        this(0);
+    }
+
+    public PerformanceAccumulator(double feeRate) {
+        this.feeRate = feeRate;
+    }
+
+    public void add(double profit) {
+        trades++;
+        if (profit > 0) {
+            winningTrades++;
+            grossProfit += profit;
+        } else {
+            grossLoss -= profit;
+            squaredLosses += profit * profit;
+        }
+
+        double delta = profit - mean;
+        mean += delta / trades;
+        squaredDifferences += delta * (profit - mean);
+
+        totalProfit += profit;
+        peak = Math.max(peak, totalProfit);
+        maxDrawdown = Math.max(maxDrawdown, peak - totalProfit);
+
+        equity *= 1 + profit / 100;
+        equity -= equity * feeRate;
+    }
+
+    public long getTrades() {
+        return trades;
+    }
+
+    public long getWinningTrades() {
+        return winningTrades;
+    }
+
+    /**
+     * Share of the trades with a profit, between 0 and 1.
+     */
+    public double getWinRate() {
+        return trades == 0 ? 0 : (double) winningTrades / trades;
+    }
+
+    /**
+     * Sum of the profit percentages, the same as {@link services.backtest.BacktestResult#getTotalProfit()}.
+     */
+    public double getTotalProfit() {
+        return totalProfit;
+    }
+
+    /**
+     * Average profit of a trade, which is also win rate * average win - loss rate * average loss.
+     */
+    public double getExpectancy() {
+        return mean;
+    }
+
+    /**
+     * Gross profit over gross loss. Infinite when there are profits and no losses.
+     */
+    public double getProfitFactor() {
+        return grossLoss == 0 ? (grossProfit == 0 ? 0 : Double.POSITIVE_INFINITY) : grossProfit / grossLoss;
+    }
+
+    public double getStandardDeviation() {
+        return trades < 2 ? 0 : Math.sqrt(squaredDifferences / (trades - 1));
+    }
+
+    public double getSharpeRatio() {
+        double standardDeviation = getStandardDeviation();
+        return standardDeviation == 0 ? 0 : mean / standardDeviation;
+    }
+
+    public double getSortinoRatio() {
+        double downsideDeviation = trades == 0 ? 0 : Math.sqrt(squaredLosses / trades);
+        return downsideDeviation == 0 ? 0 : mean / downsideDeviation;
+    }
+
+    /**
+     * Biggest drop of the cumulative profit from a previous peak, in percentage points like
+     * {@link services.backtest.BacktestResult#getMaxDrawdown()}.
+     */
+    public double getMaxDrawdown() {
+        return maxDrawdown;
+    }
+
+    /**
+     * Multiple of the starting equity after compounding every trade on the whole equity and paying the fee.
+     */
+    public double getEquity() {
+        return equity;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d trades, win rate %.2f%%, total profit %.2f%%, expectancy %.4f%%, profit factor %.2f, "
+                        + "sharpe %.3f, sortino %.3f, max drawdown %.2f%%, compounded equity %.4f",
+                trades, getWinRate() * 100, totalProfit, getExpectancy(), getProfitFactor(),
+                getSharpeRatio(), getSortinoRatio(), maxDrawdown, equity);
+    }
+}
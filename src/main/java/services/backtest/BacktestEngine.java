@@ -0,0 +1,87 @@
+package services.backtest;
+
+import com.google.inject.Inject;
+import database.entities.TradeEntity;
+import properties.TradeProperties;
+import services.ReplayClock;
+import services.analytics.PerformanceAccumulator;
+import services.strategies.exitstrategies.ExitStrategy;
+import services.strategies.tradingstrategies.TradingStrategy;
+import services.trades.TradeService;
+import valueobjects.price.PriceScale;
+import valueobjects.timeframe.Tick;
+import valueobjects.timeframe.Timeframe;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Runs a strategy over historic ticks the same way the live system does: on every tick the open trades of the
+ * strategy are checked against the exit strategy and then the strategy is asked for a new trading signal.
+ * Orders are filled by the {@link SimulatedOrderExecutor} at the price of the tick and the {@link ReplayClock} is moved
+ * to the time of every tick before the strategies see it, so they run on event time instead of the wall clock.
+ * Use it with the {@link BacktestModule} so the trades are kept in memory and never reach the database.
+ */
+public class BacktestEngine {
+
+    private final TradeService tradeService;
+    private final SimulatedOrderExecutor orderExecutor;
+    private final ReplayClock clock;
+    // scale of the timeframe the strategies see. ticks in another scale are converted as they are replayed
+    private final PriceScale scale;
+
+    @Inject
+    public BacktestEngine(TradeService tradeService, SimulatedOrderExecutor orderExecutor, ReplayClock clock, TradeProperties tradeProperties) {
+        this.tradeService = tradeService;
+        this.orderExecutor = orderExecutor;
+        this.clock = clock;
+        this.scale = PriceScale.of(tradeProperties.getPriceScale());
+    }
+
+    /**
+     * Runs the strategy on the ticks, sorted from oldest to newest. The first ticks only fill the timeframe of the
+     * strategy, no trades are made until it is full.
+     */
+    public BacktestResult run(TradingStrategy strategy, ExitStrategy exitStrategy, Iterator<Tick> ticks) {
+        long start = System.nanoTime();
+        int timeframeSize = strategy.timeframeSize();
+        Timeframe timeframe = new Timeframe(timeframeSize, scale);
+        while (ticks.hasNext() && timeframe.size() < timeframeSize) {
+            Tick tick = ticks.next();
+            clock.set(tick.getTime());
+            timeframe.addTick(tick);
+        }
+
+        int processedTicks = 0;
+        List<TradeEntity> closedTrades = new ArrayList<>();
+        PerformanceAccumulator performance = new PerformanceAccumulator();
+        while (ticks.hasNext()) {
+            Tick tick = ticks.next();
+            clock.set(tick.getTime());
+            timeframe.addTick(tick);
+            processedTicks++;
+
+            // check open trades and close if exit strategy says so
+            for (TradeEntity trade : tradeService.getOpenTradesByStrategy(strategy.name())) {
+                exitStrategy.strategy().apply(trade.getEntryOrder().getOrderReference(), timeframe).ifPresent(closeTradeSignal -> {
+                    TradeEntity closedTrade = orderExecutor.closeTrade(trade, closeTradeSignal, tick);
+                    closedTrades.add(closedTrade);
+                    performance.add(closedTrade.getProfit().doubleValue());
+                });
+            }
+
+            strategy.strategy().apply(timeframe).ifPresent(signal ->
+                    orderExecutor.openTrade(strategy, exitStrategy.name(), signal, tick)
+            );
+        }
+
+        int openTrades = tradeService.getOpenTradesByStrategy(strategy.name()).size();
+        return new BacktestResult(strategy.name(), processedTicks, closedTrades, openTrades, Duration.ofNanos(System.nanoTime() - start), performance);
+    }
+
+    public BacktestResult run(TradingStrategy strategy, ExitStrategy exitStrategy, Iterable<Tick> ticks) {
+        return run(strategy, exitStrategy, ticks.iterator());
+    }
+}
@@ -0,0 +1,39 @@
+package services.backtest;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Singleton;
+import com.google.inject.name.Names;
+import com.google.inject.util.Modules;
+import database.daos.InMemoryOrderDao;
+import database.daos.InMemoryTradeDao;
+import database.daos.OrderDao;
+import database.daos.TradeDao;
+import properties.PropertiesModule;
+import services.ClockModule;
+import services.ReplayClock;
+
+import java.time.Clock;
+
+/**
+ * Replaces the database module when testing strategies on historic data. Trades and orders are kept in an in memory
+ * ledger, so a backtest needs no database and makes no round trips for every simulated tick.
+ * Use it instead of the DatabaseModule, the KrakenModule and the ClockModule; a backtest never talks to the api so no api keys are needed.
+ * The time is the time of the tick being replayed, see {@link ReplayClock}, instead of the real time of the {@link ClockModule}.
+ */
+public class BacktestModule extends AbstractModule {
+
+    @Override
+    protected void configure() {
+        install(new PropertiesModule());
+
+        bind(InMemoryTradeDao.class).in(Singleton.class);
+        bind(TradeDao.class).to(InMemoryTradeDao.class);
+        bind(OrderDao.class).to(InMemoryOrderDao.class);
+
+        bind(ReplayClock.class).in(Singleton.class);
+        install(Modules.override(new ClockModule()).with(binder -> binder.bind(Clock.class).to(ReplayClock.class)));
+
+        bind(String.class).annotatedWith(Names.named("ApiPublicKey")).toInstance("");
+        bind(String.class).annotatedWith(Names.named("ApiPrivateKey")).toInstance("");
+    }
+}
@@ -0,0 +1,62 @@
+package services.backtest;
+
+import database.entities.TradeEntity;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import services.analytics.PerformanceAccumulator;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outcome of running a strategy through a {@link BacktestEngine}.
+ */
+@Getter
+@AllArgsConstructor
+public class BacktestResult {
+
+    private final String strategyName;
+    // number of ticks the strategy was applied on, not including the ones used to initialize the timeframe
+    private final int ticks;
+    private final List<TradeEntity> closedTrades;
+    // trades still open when the data ran out
+    private final int openTrades;
+    private final Duration elapsed;
+    // metrics of the closed trades, kept up to date while the backtest was running
+    private final PerformanceAccumulator performance;
+
+    /**
+     * Sum of the profit percentages of the closed trades.
+     */
+    public BigDecimal getTotalProfit() {
+        return closedTrades.stream().map(TradeEntity::getProfit).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    /**
+     * Biggest drop of the cumulative profit from a previous peak, in the same percentage points as the total profit.
+     * The trades are taken in the order they closed.
+     */
+    public BigDecimal getMaxDrawdown() {
+        BigDecimal profit = BigDecimal.ZERO;
+        BigDecimal peak = BigDecimal.ZERO;
+        BigDecimal maxDrawdown = BigDecimal.ZERO;
+        for (TradeEntity trade : closedTrades) {
+            profit = profit.add(trade.getProfit());
+            peak = peak.max(profit);
+            maxDrawdown = maxDrawdown.max(peak.subtract(profit));
+        }
+        return maxDrawdown;
+    }
+
+    public long getWinningTrades() {
+        return closedTrades.stream().filter(trade -> trade.getProfit().signum() > 0).count();
+    }
+
+    @Override
+    public String toString() {
+        return strategyName + ": " + closedTrades.size() + " closed trades (" + getWinningTrades() + " winning), "
+                + openTrades + " open, total profit " + getTotalProfit().stripTrailingZeros().toPlainString() + "% over "
+                + ticks + " ticks in " + elapsed.toMillis() + "ms";
+    }
+}
@@ -0,0 +1,73 @@
+package services.backtest;
+
+import java.util.Arrays;
+
+/**
+ * Distributions of the paths of a {@link MonteCarloSimulation}. Equities are multiples of the starting equity and
+ * drawdowns are the share of the peak equity lost.
+ */
+public class MonteCarloResult {
+
+    private static final double[] PERCENTILES = {5, 25, 50, 75, 95};
+
+    private final double[] finalEquities;
+    private final double[] maxDrawdowns;
+    private final int ruinedPaths;
+
+    public MonteCarloResult(double[] finalEquities, double[] maxDrawdowns, int ruinedPaths) {
+        this.finalEquities = finalEquities;
+        this.maxDrawdowns = maxDrawdowns;
+        this.ruinedPaths = ruinedPaths;
+        Arrays.parallelSort(this.finalEquities);
+        Arrays.parallelSort(this.maxDrawdowns);
+    }
+
+    public int getPaths() {
+        return finalEquities.length;
+    }
+
+    /**
+     * Final equity that the given percentage of the paths ended at or below.
+     */
+    public double getFinalEquity(double percentile) {
+        return percentile(finalEquities, percentile);
+    }
+
+    public double getMeanFinalEquity() {
+        return Arrays.stream(finalEquities).average().orElse(1);
+    }
+
+    /**
+     * Max drawdown that the given percentage of the paths stayed at or below.
+     */
+    public double getMaxDrawdown(double percentile) {
+        return percentile(maxDrawdowns, percentile);
+    }
+
+    /**
+     * Share of the paths that reached the ruin level.
+     */
+    public double getRiskOfRuin() {
+        return (double) ruinedPaths / finalEquities.length;
+    }
+
+    private static double percentile(double[] sorted, double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100 but was: " + percentile);
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(rank - 1, 0)];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder table = new StringBuilder(String.format("%-12s %14s %14s%n", "Percentile", "Final equity", "Max drawdown"));
+        for (double percentile : PERCENTILES) {
+            table.append(String.format("%-12.0f %13.2f%% %13.2f%%%n", percentile,
+                    (getFinalEquity(percentile) - 1) * 100, getMaxDrawdown(percentile) * 100));
+        }
+        table.append(String.format("Mean final equity %.2f%%, risk of ruin %.2f%% over %d paths%n",
+                (getMeanFinalEquity() - 1) * 100, getRiskOfRuin() * 100, getPaths()));
+        return table.toString();
+    }
+}
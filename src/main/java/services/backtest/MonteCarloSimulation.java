@@ -0,0 +1,138 @@
+package services.backtest;
+
+import database.entities.TradeEntity;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Monte Carlo resampling of the returns of closed trades, to see how much of a backtest result comes from the order
+ * the trades happened in. Every path goes through the trades in a new order, shuffled or drawn with replacement, and
+ * risks the account risk share of the current equity on each of them, so a trade with a profit of r percent changes
+ * the equity by (1 + accountRisk * r / 100). A path is ruined when its equity falls to the ruin level or below.
+ * <p>
+ * The paths are split in fixed size batches that run in parallel. Every batch gets its own {@link SplittableRandom}
+ * split from the seed in batch order, so the result only depends on the seed and not on the number of threads.
+ * The returns are kept in a primitive array and every batch reuses one array for its paths.
+ */
+public class MonteCarloSimulation {
+
+    public static final double DEFAULT_RUIN_LEVEL = 0.5;
+    private static final int BATCH_SIZE = 1024;
+
+    public enum Resampling {
+        // every path has the same trades in a different order, so only the drawdowns change
+        SHUFFLE,
+        // every path draws as many trades as there are with replacement
+        BOOTSTRAP
+    }
+
+    private final double[] returns;
+    private final double accountRisk;
+    private final double ruinLevel;
+    private final int parallelism;
+
+    /**
+     * @param returns     returns of the trades as a fraction of the position, ex. 0.02 for a 2% profit
+     * @param accountRisk share of the equity used by each trade
+     * @param ruinLevel   share of the starting equity at which a path is ruined
+     */
+    public MonteCarloSimulation(double[] returns, BigDecimal accountRisk, double ruinLevel) {
+        this(returns, accountRisk, ruinLevel, Runtime.getRuntime().availableProcessors());
+    }
+
+    public MonteCarloSimulation(double[] returns, BigDecimal accountRisk, double ruinLevel, int parallelism) {
+        if (returns.length == 0) {
+            throw new IllegalArgumentException("Monte Carlo simulation needs at least one trade");
+        }
+        this.returns = returns.clone();
+        this.accountRisk = accountRisk.doubleValue();
+        this.ruinLevel = ruinLevel;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Returns of the closed trades, ex. the ones of a {@link BacktestResult}. Trades without a profit are left out.
+     */
+    public static double[] returns(List<TradeEntity> trades) {
+        return trades.stream().filter(trade -> trade.getProfit() != null)
+                .mapToDouble(trade -> trade.getProfit().doubleValue() / 100).toArray();
+    }
+
+    /**
+     * Returns from the profit percentages stored in the trade table.
+     */
+    public static double[] returnsFromProfits(List<BigDecimal> profits) {
+        return profits.stream().mapToDouble(profit -> profit.doubleValue() / 100).toArray();
+    }
+
+    public MonteCarloResult run(int paths, Resampling resampling, long seed) {
+        double[] finalEquities = new double[paths];
+        double[] maxDrawdowns = new double[paths];
+        SplittableRandom random = new SplittableRandom(seed);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<Integer>> tasks = new ArrayList<>();
+            for (int from = 0; from < paths; from += BATCH_SIZE) {
+                int batchFrom = from;
+                int batchTo = Math.min(from + BATCH_SIZE, paths);
+                // split here and not in the tasks so every batch gets the same generator whatever thread runs it
+                SplittableRandom batchRandom = random.split();
+                tasks.add(pool.submit(() -> runBatch(batchFrom, batchTo, resampling, batchRandom, finalEquities, maxDrawdowns)));
+            }
+            int ruinedPaths = tasks.stream().mapToInt(ForkJoinTask::join).sum();
+            return new MonteCarloResult(finalEquities, maxDrawdowns, ruinedPaths);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Runs the paths from the first index to the last one, excluded, writes their final equity and max drawdown and
+     * returns the number of ruined paths.
+     */
+    private int runBatch(int from, int to, Resampling resampling, SplittableRandom random, double[] finalEquities, double[] maxDrawdowns) {
+        double[] path = returns.clone();
+        int trades = path.length;
+        int ruinedPaths = 0;
+        for (int i = from; i < to; i++) {
+            if (resampling == Resampling.SHUFFLE) {
+                for (int j = trades - 1; j > 0; j--) {
+                    int k = random.nextInt(j + 1);
+                    double swap = path[j];
+                    path[j] = path[k];
+                    path[k] = swap;
+                }
+            } else {
+                for (int j = 0; j < trades; j++) {
+                    path[j] = returns[random.nextInt(trades)];
+                }
+            }
+
+            double equity = 1;
+            double peak = 1;
+            double maxDrawdown = 0;
+            boolean ruined = false;
+            for (int j = 0; j < trades; j++) {
+                equity *= 1 + accountRisk * path[j];
+                if (equity > peak) {
+                    peak = equity;
+                } else if (1 - equity / peak > maxDrawdown) {
+                    maxDrawdown = 1 - equity / peak;
+                }
+                ruined |= equity <= ruinLevel;
+            }
+            finalEquities[i] = equity;
+            maxDrawdowns[i] = maxDrawdown;
+            if (ruined) {
+                ruinedPaths++;
+            }
+        }
+        return ruinedPaths;
+    }
+}
@@ -0,0 +1,37 @@
+package services.backtest;
+
+import lombok.Getter;
+
+import java.util.stream.IntStream;
+
+/**
+ * Inclusive range of integer values for a strategy parameter, ex. the periods of a moving average.
+ */
+@Getter
+public class ParameterRange {
+
+    private final int from;
+    private final int to;
+    private final int step;
+
+    private ParameterRange(int from, int to, int step) {
+        if (step < 1 || from > to) {
+            throw new IllegalArgumentException("Invalid parameter range from " + from + " to " + to + " with step " + step);
+        }
+        this.from = from;
+        this.to = to;
+        this.step = step;
+    }
+
+    public static ParameterRange of(int from, int to, int step) {
+        return new ParameterRange(from, to, step);
+    }
+
+    public static ParameterRange of(int value) {
+        return new ParameterRange(value, value, 1);
+    }
+
+    public int[] values() {
+        return IntStream.iterate(from, value -> value <= to, value -> value + step).toArray();
+    }
+}
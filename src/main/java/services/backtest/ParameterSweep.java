@@ -0,0 +1,97 @@
+package services.backtest;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.util.Modules;
+import lombok.extern.slf4j.Slf4j;
+import services.httpclients.HttpClientModule;
+import services.strategies.TradingStrategiesModule;
+import services.strategies.exitstrategies.TrailingStopExitStrategy;
+import valueobjects.timeframe.Tick;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+
+/**
+ * Backtests every combination of strategy parameters on the same price history and ranks them by profit.
+ * The combinations are evaluated in parallel on a work stealing pool with a thread per core. The price history is
+ * loaded once and shared read only (ex. a {@link valueobjects.timeframe.PriceHistory} or a view of a
+ * {@link services.marketdata.TickStore}); every combination gets its own injector, so it has its own strategy, indicators
+ * and in memory trade ledger and nothing else is shared between threads.
+ */
+@Slf4j
+public class ParameterSweep {
+
+    private final List<Tick> priceHistory;
+    private final int parallelism;
+
+    public ParameterSweep(List<Tick> priceHistory) {
+        this(priceHistory, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParameterSweep(List<Tick> priceHistory, int parallelism) {
+        this.priceHistory = priceHistory;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Evaluates the combinations and returns their results from the most to the least profitable.
+     */
+    public List<SweepResult> run(List<SweepCombination> combinations) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<SweepResult>> tasks = combinations.stream()
+                    .map(combination -> pool.submit(() -> evaluate(combination)))
+                    .collect(Collectors.toList());
+            return tasks.stream()
+                    .map(ForkJoinTask::join)
+                    .sorted(Comparator.comparing((SweepResult sweepResult) -> sweepResult.getResult().getTotalProfit()).reversed())
+                    .collect(Collectors.toList());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    SweepResult evaluate(SweepCombination combination) {
+        Injector injector = createInjector(combination);
+        BacktestResult result = injector.getInstance(BacktestEngine.class).run(
+                injector.getInstance(combination.getStrategyClass()),
+                injector.getInstance(TrailingStopExitStrategy.class),
+                priceHistory
+        );
+        log.debug(combination.getDescription() + ": " + result);
+        return new SweepResult(combination, result);
+    }
+
+    /**
+     * Injector for backtesting the combination, with its own in memory ledger and the properties of the combination.
+     */
+    static Injector createInjector(SweepCombination combination) {
+        return Guice.createInjector(Modules.override(
+                new HttpClientModule(), new BacktestModule(), new TradingStrategiesModule()
+        ).with(combination.getPropertiesModule()));
+    }
+
+    /**
+     * Formats the results as a table with a row for each combination, in the order they are given.
+     */
+    public static String toTable(List<SweepResult> results) {
+        StringBuilder table = new StringBuilder(String.format("%-5s %-50s %12s %12s %8s %8s%n",
+                "Rank", "Parameters", "Profit %", "Drawdown %", "Trades", "Winning"));
+        int rank = 1;
+        for (SweepResult sweepResult : results) {
+            BacktestResult result = sweepResult.getResult();
+            table.append(String.format("%-5d %-50s %12.2f %12.2f %8d %8d%n",
+                    rank++,
+                    sweepResult.getCombination().getDescription(),
+                    result.getTotalProfit(),
+                    result.getMaxDrawdown(),
+                    result.getClosedTrades().size(),
+                    result.getWinningTrades()));
+        }
+        return table.toString();
+    }
+}
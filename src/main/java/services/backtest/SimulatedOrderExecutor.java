@@ -0,0 +1,96 @@
+package services.backtest;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import database.entities.TradeEntity;
+import database.entities.TradeOrderEntity;
+import database.entities.TradeOrderStatus;
+import database.entities.TradeOrderType;
+import properties.TradeProperties;
+import services.strategies.exitstrategies.TrailingStopExitStrategy;
+import services.strategies.exitstrategies.TrailingStopTracker;
+import services.strategies.tradingstrategies.TradingStrategy;
+import services.trades.TradeService;
+import valueobjects.timeframe.Tick;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes orders the moment they are placed at the price of the current tick, instead of posting them to the api and
+ * waiting for them to be filled. Trades are saved through the {@link TradeService} the same way the live system does,
+ * so with the in memory ledger of the {@link BacktestModule} nothing reaches the database.
+ */
+@Singleton
+public class SimulatedOrderExecutor {
+
+    // the volume is not used by the simulation since the profit of a trade is a percentage of its entry price
+    private static final BigDecimal VOLUME = BigDecimal.TEN;
+
+    private final TradeService tradeService;
+    private final TrailingStopTracker trailingStopTracker;
+    private final String assetCode;
+    // open trades are told apart by the reference of their entry order
+    private final AtomicInteger orderReferences = new AtomicInteger();
+
+    @Inject
+    public SimulatedOrderExecutor(TradeService tradeService, TrailingStopTracker trailingStopTracker, TradeProperties tradeProperties) {
+        this.tradeService = tradeService;
+        this.trailingStopTracker = trailingStopTracker;
+        this.assetCode = tradeProperties.getAssetCode();
+    }
+
+    /**
+     * Opens a new trade with an executed entry order at the price of the tick.
+     */
+    public TradeEntity openTrade(TradingStrategy strategy, String exitStrategyName, TradingStrategy.TradingSignal signal, Tick tick) {
+        TradeEntity trade = new TradeEntity();
+        trade.setEntryStrategy(strategy.name());
+        trade.setExitStrategy(exitStrategyName);
+        trade.setPeriodLength(strategy.periodLength());
+        trade.addOrder(getExecutedOrder(TradeOrderType.ENTRY, signal, tick));
+
+        tradeService.save(trade);
+        // the entry order is executed straight away so the trailing stop can start trailing
+        if (TrailingStopExitStrategy.NAME.equals(exitStrategyName)) {
+            trailingStopTracker.open(trade);
+        }
+        return trade;
+    }
+
+    /**
+     * Closes the trade with an executed exit order at the price of the tick. The profit of the trade is the
+     * percentage of the price difference between the entry and the exit over the average of the 2 prices.
+     */
+    public TradeEntity closeTrade(TradeEntity trade, TradingStrategy.TradingSignal signal, Tick tick) {
+        trade.addOrder(getExecutedOrder(TradeOrderType.EXIT, signal, tick));
+
+        BigDecimal entryPrice = trade.getEntryOrder().getPrice();
+        BigDecimal exitPrice = tick.getValue();
+        BigDecimal margin = TradingStrategy.TradingSignal.BUY.equals(trade.getEntryOrder().getTradingSignal())
+                ? exitPrice.subtract(entryPrice)
+                : entryPrice.subtract(exitPrice);
+        BigDecimal divisor = exitPrice.add(entryPrice).divide(BigDecimal.valueOf(2), 10, RoundingMode.HALF_EVEN);
+        trade.setProfit(margin.divide(divisor, 10, RoundingMode.HALF_EVEN).multiply(BigDecimal.valueOf(100)));
+
+        tradeService.save(trade);
+        trailingStopTracker.close(trade.getEntryOrder().getOrderReference());
+        return trade;
+    }
+
+    private TradeOrderEntity getExecutedOrder(TradeOrderType type, TradingStrategy.TradingSignal signal, Tick tick) {
+        TradeOrderEntity order = new TradeOrderEntity();
+        order.setOrderReference(orderReferences.incrementAndGet());
+        order.setType(type);
+        order.setTradingSignal(signal);
+        order.setPrice(tick.getValue());
+        order.setStatus(TradeOrderStatus.EXECUTED);
+        order.setVolume(VOLUME);
+        order.setVolumeExec(VOLUME);
+        order.setTime(tick.getTime());
+        order.setAssetCode(assetCode);
+        order.setCost(BigDecimal.ZERO);
+        return order;
+    }
+}
@@ -0,0 +1,101 @@
+package services.backtest;
+
+import com.google.inject.AbstractModule;
+import lombok.Getter;
+import properties.GoldenCrossStrategyProperties;
+import properties.ThreeEmaCrossoverStrategyProperties;
+import properties.TrailingStopExitStrategyProperties;
+import services.strategies.tradingstrategies.GoldenCrossStrategy;
+import services.strategies.tradingstrategies.ThreeEmaCrossoverStrategy;
+import services.strategies.tradingstrategies.TradingStrategy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One set of parameters evaluated by a {@link ParameterSweep}. The properties of the combination are bound by its
+ * module, which overrides the properties loaded from the application properties.
+ */
+@Getter
+public class SweepCombination {
+
+    private final String description;
+    private final Class<? extends TradingStrategy> strategyClass;
+    private final AbstractModule propertiesModule;
+
+    private SweepCombination(String description, Class<? extends TradingStrategy> strategyClass, AbstractModule propertiesModule) {
+        this.description = description;
+        this.strategyClass = strategyClass;
+        this.propertiesModule = propertiesModule;
+    }
+
+    /**
+     * Every combination of the short and long periods and the trailing stop distances. Combinations where the short
+     * period is not shorter than the long one are skipped. Everything else is taken from the template properties.
+     */
+    public static List<SweepCombination> goldenCross(GoldenCrossStrategyProperties template, ParameterRange shortPeriods,
+                                                     ParameterRange longPeriods, List<BigDecimal> distances) {
+        List<SweepCombination> combinations = new ArrayList<>();
+        for (int shortPeriod : shortPeriods.values()) {
+            for (int longPeriod : longPeriods.values()) {
+                if (shortPeriod >= longPeriod) {
+                    continue;
+                }
+                GoldenCrossStrategyProperties properties = new GoldenCrossStrategyProperties(template.getPeriodLength().toString(),
+                        shortPeriod, longPeriod, true, template.getExitStrategy(), Math.max(template.getTimeframeSize(), longPeriod));
+                distances.forEach(distance -> combinations.add(goldenCross(properties, distance)));
+            }
+        }
+        return combinations;
+    }
+
+    /**
+     * Every combination of the short, medium and long periods and the trailing stop distances. Combinations where the
+     * periods are not in increasing order are skipped. Everything else is taken from the template properties.
+     */
+    public static List<SweepCombination> threeEmaCrossover(ThreeEmaCrossoverStrategyProperties template, ParameterRange shortPeriods,
+                                                           ParameterRange mediumPeriods, ParameterRange longPeriods, List<BigDecimal> distances) {
+        List<SweepCombination> combinations = new ArrayList<>();
+        for (int shortPeriod : shortPeriods.values()) {
+            for (int mediumPeriod : mediumPeriods.values()) {
+                for (int longPeriod : longPeriods.values()) {
+                    if (shortPeriod >= mediumPeriod || mediumPeriod >= longPeriod) {
+                        continue;
+                    }
+                    ThreeEmaCrossoverStrategyProperties properties = new ThreeEmaCrossoverStrategyProperties(template.getPeriodLength().toString(),
+                            shortPeriod, mediumPeriod, longPeriod, true, template.getExitStrategy(), Math.max(template.getTimeframeSize(), longPeriod));
+                    distances.forEach(distance -> combinations.add(threeEmaCrossover(properties, distance)));
+                }
+            }
+        }
+        return combinations;
+    }
+
+    private static SweepCombination goldenCross(GoldenCrossStrategyProperties properties, BigDecimal distance) {
+        return new SweepCombination(
+                "short=" + properties.getShortPeriod() + " long=" + properties.getLongPeriod() + " distance=" + distance.toPlainString(),
+                GoldenCrossStrategy.class,
+                new AbstractModule() {
+                    @Override
+                    protected void configure() {
+                        bind(GoldenCrossStrategyProperties.class).toInstance(properties);
+                        bind(TrailingStopExitStrategyProperties.class).toInstance(new TrailingStopExitStrategyProperties(distance));
+                    }
+                });
+    }
+
+    private static SweepCombination threeEmaCrossover(ThreeEmaCrossoverStrategyProperties properties, BigDecimal distance) {
+        return new SweepCombination(
+                "short=" + properties.getShortPeriod() + " medium=" + properties.getMediumPeriod() + " long=" + properties.getLongPeriod()
+                        + " distance=" + distance.toPlainString(),
+                ThreeEmaCrossoverStrategy.class,
+                new AbstractModule() {
+                    @Override
+                    protected void configure() {
+                        bind(ThreeEmaCrossoverStrategyProperties.class).toInstance(properties);
+                        bind(TrailingStopExitStrategyProperties.class).toInstance(new TrailingStopExitStrategyProperties(distance));
+                    }
+                });
+    }
+}
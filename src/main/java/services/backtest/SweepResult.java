@@ -0,0 +1,14 @@
+package services.backtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of one {@link SweepCombination} of a {@link ParameterSweep}.
+ */
+@Getter
+@AllArgsConstructor
+public class SweepResult {
+    private final SweepCombination combination;
+    private final BacktestResult result;
+}
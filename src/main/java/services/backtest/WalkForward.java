@@ -0,0 +1,114 @@
+package services.backtest;
+
+import com.google.inject.Injector;
+import lombok.extern.slf4j.Slf4j;
+import services.strategies.exitstrategies.TrailingStopExitStrategy;
+import services.strategies.tradingstrategies.TradingStrategy;
+import valueobjects.timeframe.Tick;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+
+/**
+ * Walk forward optimization of strategy and exit strategy parameters. The price history is split into rolling windows:
+ * every combination is backtested on the in sample part of a window and the most profitable one is then backtested on
+ * the out of sample ticks that follow it, which it has never seen. The next window moves forward by the out of sample
+ * size, so the out of sample parts follow each other and their trades make one equity curve.
+ * <p>
+ * The windows run in parallel and so do the combinations inside each window, all on the same work stealing pool.
+ * Every backtest gets its own injector like in the {@link ParameterSweep}, and ties are broken by the order of the
+ * combinations, so the same history and combinations always give the same result.
+ */
+@Slf4j
+public class WalkForward {
+
+    private final List<Tick> priceHistory;
+    private final int inSampleSize;
+    private final int outOfSampleSize;
+    private final int parallelism;
+
+    public WalkForward(List<Tick> priceHistory, int inSampleSize, int outOfSampleSize) {
+        this(priceHistory, inSampleSize, outOfSampleSize, Runtime.getRuntime().availableProcessors());
+    }
+
+    public WalkForward(List<Tick> priceHistory, int inSampleSize, int outOfSampleSize, int parallelism) {
+        if (inSampleSize < 1 || outOfSampleSize < 1) {
+            throw new IllegalArgumentException("Walk forward window sizes must be positive but were: " + inSampleSize + " and " + outOfSampleSize);
+        }
+        if (priceHistory.size() <= inSampleSize) {
+            throw new IllegalArgumentException("Walk forward needs more than " + inSampleSize + " ticks but got: " + priceHistory.size());
+        }
+        this.priceHistory = priceHistory;
+        this.inSampleSize = inSampleSize;
+        this.outOfSampleSize = outOfSampleSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Number of windows the price history is split into. The out of sample part of the last window can be shorter
+     * than the others.
+     */
+    public int windows() {
+        return (priceHistory.size() - inSampleSize + outOfSampleSize - 1) / outOfSampleSize;
+    }
+
+    public WalkForwardResult run(List<SweepCombination> combinations) {
+        if (combinations.isEmpty()) {
+            throw new IllegalArgumentException("Walk forward needs at least one combination");
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<WalkForwardWindow>> tasks = new ArrayList<>();
+            for (int window = 0; window < windows(); window++) {
+                int index = window;
+                tasks.add(pool.submit(() -> runWindow(index, combinations)));
+            }
+            return new WalkForwardResult(tasks.stream().map(ForkJoinTask::join).collect(Collectors.toList()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    WalkForwardWindow runWindow(int index, List<SweepCombination> combinations) {
+        int inSampleStart = index * outOfSampleSize;
+        int outOfSampleStart = inSampleStart + inSampleSize;
+        int outOfSampleEnd = Math.min(outOfSampleStart + outOfSampleSize, priceHistory.size());
+        List<Tick> inSample = priceHistory.subList(inSampleStart, outOfSampleStart);
+
+        // runs inside the pool, so the combinations are forked to the other threads
+        List<ForkJoinTask<SweepResult>> tasks = combinations.stream()
+                .map(combination -> ForkJoinTask.adapt(() -> new SweepResult(combination, backtest(combination, inSample, 0, inSample.size()))))
+                .collect(Collectors.toList());
+        ForkJoinTask.invokeAll(tasks);
+
+        SweepResult best = tasks.get(0).join();
+        for (ForkJoinTask<SweepResult> task : tasks) {
+            if (task.join().getResult().getTotalProfit().compareTo(best.getResult().getTotalProfit()) > 0) {
+                best = task.join();
+            }
+        }
+
+        BacktestResult outOfSample = backtest(best.getCombination(), priceHistory, outOfSampleStart, outOfSampleEnd);
+        log.debug("Window " + index + " selected " + best.getCombination().getDescription() + ": " + outOfSample);
+        return new WalkForwardWindow(index, priceHistory.get(inSampleStart).getTime(), priceHistory.get(outOfSampleStart).getTime(),
+                priceHistory.get(outOfSampleEnd - 1).getTime(), best, outOfSample);
+    }
+
+    /**
+     * Backtests the combination on the ticks from the start to the end index. The strategy trades from the start
+     * index; the ticks it needs to fill its timeframe are taken from before it when there are any.
+     */
+    private static BacktestResult backtest(SweepCombination combination, List<Tick> ticks, int fromIndex, int toIndex) {
+        Injector injector = ParameterSweep.createInjector(combination);
+        TradingStrategy strategy = injector.getInstance(combination.getStrategyClass());
+        int warmUpStart = Math.max(0, fromIndex - strategy.timeframeSize());
+        return injector.getInstance(BacktestEngine.class).run(
+                strategy,
+                injector.getInstance(TrailingStopExitStrategy.class),
+                ticks.subList(warmUpStart, toIndex)
+        );
+    }
+}
@@ -0,0 +1,83 @@
+package services.backtest;
+
+import database.entities.TradeEntity;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a {@link WalkForward}, with the windows from the oldest to the newest.
+ */
+@Getter
+@AllArgsConstructor
+public class WalkForwardResult {
+
+    private final List<WalkForwardWindow> windows;
+
+    /**
+     * The out of sample trades of all the windows stitched together, with the cumulative profit after each of them
+     * in the order they closed. Trades still open at the end of their window are not part of it.
+     */
+    public List<EquityPoint> getEquityCurve() {
+        List<EquityPoint> equityCurve = new ArrayList<>();
+        BigDecimal profit = BigDecimal.ZERO;
+        for (WalkForwardWindow window : windows) {
+            for (TradeEntity trade : window.getOutOfSample().getClosedTrades()) {
+                profit = profit.add(trade.getProfit());
+                equityCurve.add(new EquityPoint(trade.getExitOrder().orElseThrow().getTime(), profit));
+            }
+        }
+        return equityCurve;
+    }
+
+    /**
+     * Sum of the profit percentages of the out of sample trades.
+     */
+    public BigDecimal getTotalProfit() {
+        return windows.stream().map(window -> window.getOutOfSample().getTotalProfit()).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    /**
+     * Biggest drop of the equity curve from a previous peak, in the same percentage points as the total profit.
+     */
+    public BigDecimal getMaxDrawdown() {
+        BigDecimal peak = BigDecimal.ZERO;
+        BigDecimal maxDrawdown = BigDecimal.ZERO;
+        for (EquityPoint point : getEquityCurve()) {
+            peak = peak.max(point.getProfit());
+            maxDrawdown = maxDrawdown.max(peak.subtract(point.getProfit()));
+        }
+        return maxDrawdown;
+    }
+
+    /**
+     * Formats the windows as a table with the selected combination and its in and out of sample profit.
+     */
+    public String toTable() {
+        StringBuilder table = new StringBuilder(String.format("%-6s %-17s %-17s %-50s %12s %12s %8s%n",
+                "Window", "Out of sample", "Until", "Parameters", "In sample %", "Out sample %", "Trades"));
+        for (WalkForwardWindow window : windows) {
+            table.append(String.format("%-6d %-17s %-17s %-50s %12.2f %12.2f %8d%n",
+                    window.getIndex(),
+                    window.getOutOfSampleStart(),
+                    window.getOutOfSampleEnd(),
+                    window.getInSample().getCombination().getDescription(),
+                    window.getInSample().getResult().getTotalProfit(),
+                    window.getOutOfSample().getTotalProfit(),
+                    window.getOutOfSample().getClosedTrades().size()));
+        }
+        table.append(String.format("Total out of sample profit %.2f%%, max drawdown %.2f%%%n", getTotalProfit(), getMaxDrawdown()));
+        return table.toString();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class EquityPoint {
+        private final LocalDateTime time;
+        private final BigDecimal profit;
+    }
+}
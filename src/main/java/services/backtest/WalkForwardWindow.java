@@ -0,0 +1,22 @@
+package services.backtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One window of a {@link WalkForward}: the combination that was the most profitable in sample and how it did on the
+ * out of sample ticks after it.
+ */
+@Getter
+@AllArgsConstructor
+public class WalkForwardWindow {
+    private final int index;
+    private final LocalDateTime inSampleStart;
+    private final LocalDateTime outOfSampleStart;
+    // time of the last out of sample tick
+    private final LocalDateTime outOfSampleEnd;
+    private final SweepResult inSample;
+    private final BacktestResult outOfSample;
+}
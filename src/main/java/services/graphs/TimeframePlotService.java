@@ -3,13 +3,14 @@ package services.graphs;
 import com.github.sh0nk.matplotlib4j.Plot;
 import com.github.sh0nk.matplotlib4j.PythonExecutionException;
 import lombok.extern.slf4j.Slf4j;
+import valueobjects.timeframe.Tick;
 import valueobjects.timeframe.Timeframe;
 
 import java.io.IOException;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Slf4j
 public class TimeframePlotService {
@@ -18,8 +19,13 @@ public class TimeframePlotService {
         Plot plt = Plot.create();
 
         timeFrames.forEach((key, timeframe) -> {
-            List<Double> x = timeframe.getTicks().stream().map(tick -> (double) tick.getTime().atZone(ZoneId.systemDefault()).toEpochSecond()).collect(Collectors.toList());
-            List<Double> y = x.stream().map(xi -> timeframe.getTicks().stream().filter(tick -> tick.getTime().atZone(ZoneId.systemDefault()).toEpochSecond() == xi).findFirst().get().getValue().doubleValue()).collect(Collectors.toList());
+            List<Double> x = new ArrayList<>(timeframe.size());
+            List<Double> y = new ArrayList<>(timeframe.size());
+            for (int i = 0; i < timeframe.size(); i++) {
+                Tick tick = timeframe.get(i);
+                x.add((double) tick.getTime().atZone(ZoneId.systemDefault()).toEpochSecond());
+                y.add(tick.getScale().toDouble(tick.getPrice()));
+            }
 
             plt.plot().add(x, y).label(key);
         });
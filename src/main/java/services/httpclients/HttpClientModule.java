@@ -4,6 +4,7 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
+import com.google.inject.name.Named;
 import services.httpclients.kraken.deserializers.BalanceDeserializer;
 import services.httpclients.kraken.deserializers.OrderInfoResultDeserializer;
 import services.httpclients.kraken.deserializers.RecentTradesDeserializer;
@@ -15,6 +16,8 @@ import java.net.http.HttpClient;
 
 public class HttpClientModule extends AbstractModule {
 
+    public static final String KRAKEN_API_URL = "https://api.kraken.com";
+
     @Provides
     public HttpClient provideHttpClient() {
         return HttpClient.newHttpClient();
@@ -32,4 +35,14 @@ public class HttpClientModule extends AbstractModule {
         return gsonBuilder.create();
     }
 
+    /**
+     * Always the real api. The signed private requests go to this url, so it can not be changed from outside the code.
+     * Tests and load tests that run against a KrakenSimulator override the KrakenApiUrl binding instead.
+     */
+    @Provides
+    @Named("KrakenApiUrl")
+    public String provideKrakenApiUrl() {
+        return KRAKEN_API_URL;
+    }
+
 }
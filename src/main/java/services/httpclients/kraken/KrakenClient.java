@@ -2,7 +2,7 @@ package services.httpclients.kraken;
 
 import com.google.gson.Gson;
 import com.google.inject.Inject;
-import properties.PropertiesService;
+import com.google.inject.name.Named;
 import properties.TradeProperties;
 import services.httpclients.AbstractClient;
 import services.httpclients.kraken.postrequestobjects.addorder.AddOrderPostRequestBody;
@@ -21,30 +21,40 @@ import java.net.http.HttpClient;
 import java.time.Duration;
 import java.util.Optional;
 
+/**
+ * Client of the Kraken REST api. Responses that come back with errors and no result are logged and returned empty,
+ * the same as requests that failed to be sent.
+ */
 public class KrakenClient extends AbstractClient {
 
     private final KrakenAuthentication krakenAuthentication;
     private final TradeProperties tradeProperties;
+    // the real api unless pointed somewhere else, ex. at the KrakenSimulator
+    private final String apiUrl;
 
     @Inject
-    public KrakenClient(KrakenAuthentication krakenAuthentication, HttpClient httpClient, Gson gson, PropertiesService propertiesService) {
+    public KrakenClient(KrakenAuthentication krakenAuthentication, HttpClient httpClient, Gson gson, TradeProperties tradeProperties,
+                        @Named("KrakenApiUrl") String apiUrl) {
         super(httpClient, gson);
         this.krakenAuthentication = krakenAuthentication;
-        this.tradeProperties = propertiesService.loadProperties(TradeProperties.class).orElseThrow(
-                () -> new IllegalStateException("Trade config must be setup before the system starts trading.")
-        );
+        this.tradeProperties = tradeProperties;
+        this.apiUrl = apiUrl;
     }
 
     @Override
     protected String getURI() {
-        return "https://api.kraken.com";
+        return apiUrl;
     }
 
     // https://docs.kraken.com/rest/#tag/Market-Data/operation/getTickerInformation
     public Optional<TickerPairResponse> getTickerInfo() {
-        Optional<TickerPairResponse> tickerPairResponse = getRequest("/0/public/Ticker?pair=" + tradeProperties.getAssetCode()).flatMap(request -> super.send(request, TickerPairResponse.class));
+        return getTickerInfo(tradeProperties.getAssetCode());
+    }
+
+    public Optional<TickerPairResponse> getTickerInfo(String assetCode) {
+        Optional<TickerPairResponse> tickerPairResponse = getRequest("/0/public/Ticker?pair=" + assetCode).flatMap(request -> super.send(request, TickerPairResponse.class));
         tickerPairResponse.ifPresent(response -> logErrors(response.getError()));
-        return tickerPairResponse;
+        return tickerPairResponse.filter(response -> response.getResult() != null);
     }
 
     // https://docs.kraken.com/rest/#tag/User-Data/operation/getAccountBalance
@@ -52,8 +62,10 @@ public class KrakenClient extends AbstractClient {
         String path = "/0/private/Balance";
         String nonce = krakenAuthentication.getNonce();
         String data = "nonce=" + nonce;
-        return postRequest(data, path, krakenAuthentication.getSecurityHeaders(path, nonce, data))
+        Optional<BalanceResponse> balanceResponse = postRequest(data, path, krakenAuthentication.getSecurityHeaders(path, nonce, data))
                 .flatMap(request -> super.send(request, BalanceResponse.class));
+        balanceResponse.ifPresent(response -> logErrors(response.getError()));
+        return balanceResponse.filter(response -> response.getResult() != null);
     }
 
     // https://docs.kraken.com/rest/#tag/User-Data/operation/getTradeBalance
@@ -61,8 +73,10 @@ public class KrakenClient extends AbstractClient {
         String path = "/0/private/TradeBalance";
         String nonce = krakenAuthentication.getNonce();
         String data = "nonce=" + nonce + "&asset=ZGBP";
-        return postRequest(data, path, krakenAuthentication.getSecurityHeaders(path, nonce, data))
+        Optional<AccountBalanceResponse> accountBalanceResponse = postRequest(data, path, krakenAuthentication.getSecurityHeaders(path, nonce, data))
                 .flatMap(request -> super.send(request, AccountBalanceResponse.class));
+        accountBalanceResponse.ifPresent(response -> logErrors(response.getError()));
+        return accountBalanceResponse.filter(response -> response.getResult() != null);
     }
 
     // https://docs.kraken.com/rest/#tag/Market-Data/operation/getOHLCData
@@ -77,14 +91,18 @@ public class KrakenClient extends AbstractClient {
      * https://docs.kraken.com/rest/#tag/Market-Data/operation/getOHLCData
      */
     public Optional<TradesResponse> getHistoricData(Duration period) {
+        return getHistoricData(tradeProperties.getAssetCode(), period);
+    }
+
+    public Optional<TradesResponse> getHistoricData(String assetCode, Duration period) {
         String intervalParam = Optional.ofNullable(period)
                 .map(periodDuration -> "&interval=" + (periodDuration.toMinutes() > 0 ? periodDuration.toMinutes() : "1"))
                 .orElse("");
-        String requestUrl = "/0/public/OHLC?pair=" + tradeProperties.getAssetCode() + intervalParam;
+        String requestUrl = "/0/public/OHLC?pair=" + assetCode + intervalParam;
 
         Optional<TradesResponse> tradesResponse = getRequest(requestUrl).flatMap(request -> super.send(request, TradesResponse.class));
         tradesResponse.ifPresent(response -> logErrors(response.getError()));
-        return tradesResponse;
+        return tradesResponse.filter(response -> response.getResult() != null);
     }
 
     /**
@@ -110,7 +128,7 @@ public class KrakenClient extends AbstractClient {
         Optional<AddOrderResponse> addOrderResponse = postRequest(data, path, krakenAuthentication.getSecurityHeaders(path, nonce, data))
                 .flatMap(request -> super.send(request, AddOrderResponse.class));
         addOrderResponse.ifPresent(response -> logErrors(response.getError()));
-        return addOrderResponse;
+        return addOrderResponse.filter(response -> response.getResult() != null);
     }
 
     /**
@@ -127,6 +145,6 @@ public class KrakenClient extends AbstractClient {
         Optional<OrderInfoResponse> orderInfoResponse = postRequest(data, path, krakenAuthentication.getSecurityHeaders(path, nonce, data))
                 .flatMap(request -> super.send(request, OrderInfoResponse.class));
         orderInfoResponse.ifPresent(response -> logErrors(response.getError()));
-        return orderInfoResponse;
+        return orderInfoResponse.filter(response -> response.getResult() != null);
     }
 }
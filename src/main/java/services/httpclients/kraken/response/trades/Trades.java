@@ -22,7 +22,16 @@ public class Trades {
     }
 
     public List<TradeDetails> getTradeDetails(String assetCode) {
-        return assetsMap.get(assetCode).stream()
+        return toTradeDetails(assetsMap.get(assetCode));
+    }
+
+    // the details of the only pair requested, whatever code the api gave to it
+    public List<TradeDetails> getTradeDetails() {
+        return assetsMap.values().stream().findFirst().map(Trades::toTradeDetails).orElse(List.of());
+    }
+
+    private static List<TradeDetails> toTradeDetails(List<List<Object>> assetDetails) {
+        return assetDetails.stream()
                 .map(details -> new TradeDetails((String) details.get(4), (String) details.get(6), (Double) details.get(0)))
                 .collect(Collectors.toList());
     }
@@ -0,0 +1,396 @@
+package services.httpclients.kraken.simulator;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fake Kraken REST api to run the client against without touching the real exchange, ex. in tests and load tests.
+ * It answers the endpoints the {@link services.httpclients.kraken.KrakenClient} uses with the same json as the real
+ * api: Ticker, OHLC, Balance, TradeBalance, AddOrder and QueryOrders. Point the client at {@link #getUrl()} by
+ * overriding the KrakenApiUrl binding, like the KrakenLoadTestApplication does.
+ * <p>
+ * Every ticker request moves the price of the {@link SimulatedOrderBook}. Market orders are matched against the book
+ * straight away, pay the taker fee and change the balances of the account, so a QueryOrders right after an AddOrder
+ * finds the order closed. Orders of the size of the account are checked for funds unless they use leverage; margin
+ * is not simulated. Orders sent with validate=true are checked and not executed, like on the real api.
+ * <p>
+ * Responses can be delayed and a share of the requests answered with an error, see {@link KrakenSimulatorSettings}.
+ * The market and the injected errors come from the seed of the settings, so a run with one client is repeatable.
+ */
+@Slf4j
+public class KrakenSimulator implements AutoCloseable {
+
+    private static final int[] INTERVALS = {1, 5, 15, 30, 60, 240, 1440, 10080, 21600};
+    private static final int AMOUNT_SCALE = 8;
+
+    private final KrakenSimulatorSettings settings;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Gson gson = new Gson();
+    // latency and injected errors, separate from the market so the errors do not change the prices
+    private final SplittableRandom networkRandom;
+    private final SimulatedOrderBook orderBook;
+    // the account and the orders are guarded by this simulator
+    private final Map<String, BigDecimal> balances = new HashMap<>();
+    private final Map<String, Map<String, Object>> orders = new HashMap<>();
+    private long orderSequence;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+
+    static {
+        // the server writes the headers and the body of a response separately, with Nagle's algorithm on every small
+        // response waits for the delayed ack of the client and the simulator adds ~40ms of latency of its own
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private KrakenSimulator(KrakenSimulatorSettings settings, int port) throws IOException {
+        this.settings = settings;
+        SplittableRandom random = new SplittableRandom(settings.getSeed());
+        this.orderBook = new SimulatedOrderBook(settings, random.split());
+        this.networkRandom = random.split();
+        balances.put(settings.getBaseAsset(), settings.getBaseBalance());
+        balances.put(settings.getQuoteAsset(), settings.getQuoteBalance());
+
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "kraken-simulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/0/", this::handle);
+        server.start();
+        log.info("Kraken simulator listening on " + getUrl());
+    }
+
+    /**
+     * Starts a simulator on a free port of the loopback address.
+     */
+    public static KrakenSimulator start(KrakenSimulatorSettings settings) throws IOException {
+        return start(settings, 0);
+    }
+
+    public static KrakenSimulator start(KrakenSimulatorSettings settings, int port) throws IOException {
+        return new KrakenSimulator(settings, port);
+    }
+
+    public String getUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    public synchronized BigDecimal getBalance(String asset) {
+        return balances.getOrDefault(asset, BigDecimal.ZERO);
+    }
+
+    public synchronized BigDecimal getPrice() {
+        return orderBook.getPrice();
+    }
+
+    public synchronized int getExecutedOrders() {
+        return orders.size();
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getInjectedErrors() {
+        return injectedErrors.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requests.incrementAndGet();
+            delay();
+
+            String path = exchange.getRequestURI().getPath();
+            Map<String, String> parameters = parse(path.startsWith("/0/private/")
+                    ? readBody(exchange.getRequestBody())
+                    : exchange.getRequestURI().getRawQuery());
+
+            Map<String, Object> response;
+            if (path.startsWith("/0/private/") && !exchange.getRequestHeaders().containsKey("API-Sign")) {
+                response = error("EAPI:Invalid key");
+            } else if (injectError()) {
+                injectedErrors.incrementAndGet();
+                response = error("EService:Unavailable");
+            } else {
+                response = respond(path, parameters);
+            }
+            write(exchange, response);
+        } catch (RuntimeException e) {
+            log.error(e.getMessage(), e);
+            write(exchange, error("EGeneral:Internal error"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Map<String, Object> respond(String path, Map<String, String> parameters) {
+        if (path.startsWith("/0/public/") && !isPair(parameters.get("pair"))) {
+            return error("EQuery:Unknown asset pair");
+        }
+        switch (path) {
+            case "/0/public/Ticker":
+                return result(Map.of(settings.getPairCode(), ticker()));
+            case "/0/public/OHLC":
+                return ohlc(Integer.parseInt(parameters.getOrDefault("interval", "1")));
+            case "/0/private/Balance":
+                return result(balance());
+            case "/0/private/TradeBalance":
+                return result(tradeBalance());
+            case "/0/private/AddOrder":
+                return addOrder(parameters);
+            case "/0/private/QueryOrders":
+                return queryOrders(parameters.getOrDefault("txid", ""));
+            default:
+                return error("EGeneral:Unknown method");
+        }
+    }
+
+    private synchronized Map<String, Object> ticker() {
+        BigDecimal price = orderBook.move();
+        Map<String, Object> ticker = new LinkedHashMap<>();
+        ticker.put("a", List.of(orderBook.getBestAsk().toPlainString(), "1", "1.000"));
+        ticker.put("b", List.of(orderBook.getBestBid().toPlainString(), "1", "1.000"));
+        ticker.put("c", List.of(price.toPlainString(), "0.00100000"));
+        ticker.put("v", List.of("100.00000000", "100.00000000"));
+        ticker.put("p", List.of(price.toPlainString(), price.toPlainString()));
+        ticker.put("t", List.of(1000, 1000));
+        ticker.put("l", List.of(price.toPlainString(), price.toPlainString()));
+        ticker.put("h", List.of(price.toPlainString(), price.toPlainString()));
+        ticker.put("o", price.toPlainString());
+        return ticker;
+    }
+
+    /**
+     * Candles that end at the current price. They are generated backwards from it with a random walk of their own,
+     * seeded by the interval so the same interval gives the same shape.
+     */
+    private Map<String, Object> ohlc(int interval) {
+        if (Arrays.stream(INTERVALS).noneMatch(valid -> valid == interval)) {
+            return error("EGeneral:Invalid arguments");
+        }
+        SplittableRandom random = new SplittableRandom(settings.getSeed() * 31 + interval);
+        double volatility = settings.getVolatility() * Math.sqrt(interval);
+        long intervalSeconds = interval * 60L;
+        long lastTime = Instant.now().getEpochSecond() / intervalSeconds * intervalSeconds;
+
+        List<List<Object>> candles = new ArrayList<>();
+        double close = getPrice().doubleValue();
+        for (int i = 0; i < settings.getCandles(); i++) {
+            double open = close / (1 + gaussian(random) * volatility);
+            double high = Math.max(open, close) * (1 + Math.abs(gaussian(random)) * volatility / 2);
+            double low = Math.min(open, close) * (1 - Math.abs(gaussian(random)) * volatility / 2);
+            candles.add(0, List.of(lastTime - i * intervalSeconds, price(open), price(high), price(low), price(close),
+                    price((open + close) / 2), "1.00000000", 10));
+            close = open;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put(settings.getPairCode(), candles);
+        result.put("last", lastTime);
+        return result(result);
+    }
+
+    private synchronized Map<String, Object> balance() {
+        Map<String, Object> balance = new LinkedHashMap<>();
+        balances.forEach((asset, amount) -> balance.put(asset, amount.toPlainString()));
+        return balance;
+    }
+
+    private synchronized Map<String, Object> tradeBalance() {
+        String equivalentBalance = getBalance(settings.getQuoteAsset())
+                .add(getBalance(settings.getBaseAsset()).multiply(orderBook.getPrice()))
+                .setScale(4, RoundingMode.HALF_EVEN).toPlainString();
+        return Map.of("eb", equivalentBalance, "tb", equivalentBalance, "e", equivalentBalance, "m", "0.0000", "n", "0.0000");
+    }
+
+    private synchronized Map<String, Object> addOrder(Map<String, String> parameters) {
+        if (!isPair(parameters.get("pair"))) {
+            return error("EQuery:Unknown asset pair");
+        }
+        if (!"market".equals(parameters.get("ordertype"))) {
+            return error("EGeneral:Invalid arguments:ordertype");
+        }
+        boolean buy = "buy".equals(parameters.get("type"));
+        if (!buy && !"sell".equals(parameters.get("type"))) {
+            return error("EGeneral:Invalid arguments:type");
+        }
+        BigDecimal volume;
+        try {
+            volume = new BigDecimal(parameters.getOrDefault("volume", "0"));
+        } catch (NumberFormatException e) {
+            return error("EGeneral:Invalid arguments:volume");
+        }
+        if (volume.signum() <= 0) {
+            return error("EGeneral:Invalid arguments:volume");
+        }
+
+        String baseAsset = settings.getBaseAsset();
+        String quoteAsset = settings.getQuoteAsset();
+        boolean leverage = parameters.containsKey("leverage") && !parameters.get("leverage").startsWith("1:");
+        if (!leverage) {
+            boolean insufficientFunds = buy
+                    ? volume.multiply(orderBook.getBestAsk()).multiply(BigDecimal.ONE.add(settings.getFeeRate())).compareTo(getBalance(quoteAsset)) > 0
+                    : volume.compareTo(getBalance(baseAsset)) > 0;
+            if (insufficientFunds) {
+                return error("EOrder:Insufficient funds");
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("descr", Map.of("order", parameters.get("type") + " " + volume.toPlainString() + " " + settings.getPair() + " @ market"));
+        if (Boolean.parseBoolean(parameters.get("validate"))) {
+            return result(result);
+        }
+
+        SimulatedOrderBook.Fill fill = orderBook.marketOrder(buy, volume);
+        BigDecimal fee = fill.getCost().multiply(settings.getFeeRate()).setScale(AMOUNT_SCALE, RoundingMode.HALF_EVEN);
+        if (buy) {
+            balances.merge(baseAsset, fill.getVolumeExec(), BigDecimal::add);
+            balances.merge(quoteAsset, fill.getCost().add(fee).negate(), BigDecimal::add);
+        } else {
+            balances.merge(baseAsset, fill.getVolumeExec().negate(), BigDecimal::add);
+            balances.merge(quoteAsset, fill.getCost().subtract(fee), BigDecimal::add);
+        }
+
+        String transactionId = String.format("OSIMUL-%08d", ++orderSequence);
+        Map<String, Object> order = new LinkedHashMap<>();
+        order.put("userref", parameters.getOrDefault("userref", "0"));
+        order.put("status", "closed");
+        order.put("opentm", Instant.now().toEpochMilli() / 1000.0);
+        order.put("closetm", Instant.now().toEpochMilli() / 1000.0);
+        order.put("descr", Map.of("pair", settings.getPair(), "type", parameters.get("type"), "ordertype", "market"));
+        order.put("vol", volume.toPlainString());
+        order.put("vol_exec", fill.getVolumeExec().toPlainString());
+        order.put("cost", fill.getCost().toPlainString());
+        order.put("fee", fee.toPlainString());
+        order.put("price", fill.getAveragePrice().toPlainString());
+        orders.put(transactionId, order);
+
+        result.put("txid", List.of(transactionId));
+        return result(result);
+    }
+
+    private synchronized Map<String, Object> queryOrders(String transactionIds) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (String transactionId : transactionIds.split(",")) {
+            Map<String, Object> order = orders.get(transactionId);
+            if (order == null) {
+                return error("EOrder:Invalid order");
+            }
+            result.put(transactionId, order);
+        }
+        return result(result);
+    }
+
+    private boolean isPair(String pair) {
+        return settings.getPair().equals(pair) || settings.getPairCode().equals(pair);
+    }
+
+    private void delay() {
+        long delay = settings.getLatency().toNanos();
+        long jitter = settings.getLatencyJitter().toNanos();
+        if (jitter > 0) {
+            synchronized (networkRandom) {
+                delay += networkRandom.nextLong(jitter);
+            }
+        }
+        if (delay > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private boolean injectError() {
+        if (settings.getErrorRate() <= 0) {
+            return false;
+        }
+        synchronized (networkRandom) {
+            return networkRandom.nextDouble() < settings.getErrorRate();
+        }
+    }
+
+    private String price(double price) {
+        return BigDecimal.valueOf(price).setScale(settings.getTickSize().scale(), RoundingMode.HALF_EVEN).toPlainString();
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    private static Map<String, Object> result(Object result) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("error", List.of());
+        response.put("result", result);
+        return response;
+    }
+
+    private static Map<String, Object> error(String error) {
+        return Map.of("error", List.of(error));
+    }
+
+    private static Map<String, String> parse(String form) {
+        Map<String, String> parameters = new HashMap<>();
+        if (form == null || form.isEmpty()) {
+            return parameters;
+        }
+        for (String parameter : form.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                parameters.put(URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    private static String readBody(InputStream body) throws IOException {
+        return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private void write(HttpExchange exchange, Map<String, Object> response) throws IOException {
+        byte[] json = gson.toJson(response).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, json.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(json);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package services.httpclients.kraken.simulator;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * Market, account and network behaviour of a {@link KrakenSimulator}. The defaults are a GBP account trading bitcoin
+ * with the asset codes of the application properties, no latency and no errors.
+ */
+@Getter
+@Builder
+public class KrakenSimulatorSettings {
+
+    // pair as the client asks for it and the code the api answers with
+    @Builder.Default
+    private final String pair = "XBTGBP";
+    @Builder.Default
+    private final String pairCode = "XXBTZGBP";
+    @Builder.Default
+    private final String baseAsset = "XXBT";
+    @Builder.Default
+    private final String quoteAsset = "ZGBP";
+
+    @Builder.Default
+    private final BigDecimal baseBalance = BigDecimal.ONE;
+    @Builder.Default
+    private final BigDecimal quoteBalance = new BigDecimal("30000");
+
+    @Builder.Default
+    private final BigDecimal initialPrice = new BigDecimal("30000");
+    // standard deviation of the relative price change on every ticker request
+    @Builder.Default
+    private final double volatility = 0.001;
+    // distance between the best bid and ask as a share of the price
+    @Builder.Default
+    private final double spread = 0.0002;
+    // price levels on each side of the book, each one the tick size further from the price than the previous one
+    @Builder.Default
+    private final int levels = 20;
+    @Builder.Default
+    private final BigDecimal tickSize = new BigDecimal("0.1");
+    @Builder.Default
+    private final BigDecimal levelVolume = new BigDecimal("0.5");
+    // taker fee as a share of the cost of the order
+    @Builder.Default
+    private final BigDecimal feeRate = new BigDecimal("0.0026");
+
+    // number of candles returned by the OHLC endpoint, the same as the real api
+    @Builder.Default
+    private final int candles = 720;
+
+    // every response is delayed by the latency plus a random part up to the jitter
+    @Builder.Default
+    private final Duration latency = Duration.ZERO;
+    @Builder.Default
+    private final Duration latencyJitter = Duration.ZERO;
+    // share of the requests answered with an error instead of a result, between 0 and 1
+    @Builder.Default
+    private final double errorRate = 0;
+
+    @Builder.Default
+    private final long seed = 42;
+}
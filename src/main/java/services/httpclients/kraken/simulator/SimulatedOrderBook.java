@@ -0,0 +1,116 @@
+package services.httpclients.kraken.simulator;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+/**
+ * Order book of the {@link KrakenSimulator}. The price follows a random walk and every move rebuilds the book around
+ * it with the same volume on every level, so the liquidity taken by market orders comes back on the next move.
+ * Market orders are matched against the best levels first and are only partly filled when the book runs out.
+ * Not thread safe, the simulator synchronizes the access to it.
+ */
+class SimulatedOrderBook {
+
+    private static final int VOLUME_SCALE = 8;
+
+    private final KrakenSimulatorSettings settings;
+    private final SplittableRandom random;
+    // price level to the volume left on it
+    private final NavigableMap<BigDecimal, BigDecimal> asks = new TreeMap<>();
+    private final NavigableMap<BigDecimal, BigDecimal> bids = new TreeMap<>();
+    private BigDecimal price;
+    // price of the last fill
+    private BigDecimal lastPrice;
+
+    SimulatedOrderBook(KrakenSimulatorSettings settings, SplittableRandom random) {
+        this.settings = settings;
+        this.random = random;
+        this.price = settings.getInitialPrice();
+        this.lastPrice = price;
+        rebuild();
+    }
+
+    /**
+     * Moves the price by a normally distributed step and rebuilds the book around the new price.
+     */
+    BigDecimal move() {
+        double change = 1 + nextGaussian() * settings.getVolatility();
+        price = round(price.multiply(BigDecimal.valueOf(change)));
+        lastPrice = price;
+        rebuild();
+        return price;
+    }
+
+    Fill marketOrder(boolean buy, BigDecimal volume) {
+        NavigableMap<BigDecimal, BigDecimal> book = buy ? asks : bids.descendingMap();
+        BigDecimal remaining = volume;
+        BigDecimal cost = BigDecimal.ZERO;
+        while (remaining.signum() > 0 && !book.isEmpty()) {
+            Map.Entry<BigDecimal, BigDecimal> level = book.firstEntry();
+            BigDecimal matched = remaining.min(level.getValue());
+            cost = cost.add(matched.multiply(level.getKey()));
+            remaining = remaining.subtract(matched);
+            lastPrice = level.getKey();
+            if (matched.compareTo(level.getValue()) == 0) {
+                book.pollFirstEntry();
+            } else {
+                book.put(level.getKey(), level.getValue().subtract(matched));
+            }
+        }
+        BigDecimal volumeExec = volume.subtract(remaining);
+        BigDecimal averagePrice = volumeExec.signum() == 0 ? BigDecimal.ZERO : cost.divide(volumeExec, settings.getTickSize().scale() + 2, RoundingMode.HALF_EVEN);
+        return new Fill(volumeExec, averagePrice, cost.setScale(VOLUME_SCALE, RoundingMode.HALF_EVEN));
+    }
+
+    BigDecimal getPrice() {
+        return price;
+    }
+
+    BigDecimal getLastPrice() {
+        return lastPrice;
+    }
+
+    BigDecimal getBestAsk() {
+        return asks.isEmpty() ? price : asks.firstKey();
+    }
+
+    BigDecimal getBestBid() {
+        return bids.isEmpty() ? price : bids.lastKey();
+    }
+
+    double nextGaussian() {
+        // Box-Muller, SplittableRandom has no gaussian of its own
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    private void rebuild() {
+        asks.clear();
+        bids.clear();
+        BigDecimal halfSpread = round(price.multiply(BigDecimal.valueOf(settings.getSpread() / 2))).max(settings.getTickSize());
+        for (int level = 0; level < settings.getLevels(); level++) {
+            BigDecimal distance = halfSpread.add(settings.getTickSize().multiply(BigDecimal.valueOf(level)));
+            asks.put(price.add(distance), settings.getLevelVolume());
+            bids.put(price.subtract(distance), settings.getLevelVolume());
+        }
+    }
+
+    private BigDecimal round(BigDecimal value) {
+        BigDecimal tickSize = settings.getTickSize();
+        return value.divide(tickSize, 0, RoundingMode.HALF_EVEN).multiply(tickSize);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class Fill {
+        private final BigDecimal volumeExec;
+        private final BigDecimal averagePrice;
+        private final BigDecimal cost;
+    }
+}
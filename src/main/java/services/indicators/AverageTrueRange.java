@@ -0,0 +1,63 @@
+package services.indicators;
+
+/**
+ * Streaming average true range. The true range of a period is the biggest of
+ * High - Low, |High - PreviousClose| and |Low - PreviousClose|
+ * and it is smoothed with {@link WildersMovingAverage}. The first period has no previous close so its true range is
+ * High - Low.
+ * <p>
+ * The ticker only gives us one price per period, so {@link #update(long)} uses it as high, low and close, which makes
+ * the true range the absolute change from the previous price.
+ */
+public class AverageTrueRange implements StreamingIndicator {
+
+    public static final int DEFAULT_PERIOD = 14;
+
+    private final WildersMovingAverage average;
+    private long previousClose;
+    private boolean hasPreviousClose;
+
+    public AverageTrueRange() {
+        this(DEFAULT_PERIOD);
+    }
+
+    public AverageTrueRange(int period) {
+        this.average = new WildersMovingAverage(period);
+    }
+
+    @Override
+    public long update(long price) {
+        return update(price, price, price);
+    }
+
+    public long update(long high, long low, long close) {
+        long trueRange = high - low;
+        if (hasPreviousClose) {
+            trueRange = Math.max(trueRange, Math.max(Math.abs(high - previousClose), Math.abs(low - previousClose)));
+        }
+        previousClose = close;
+        hasPreviousClose = true;
+        return average.update(trueRange);
+    }
+
+    @Override
+    public long value() {
+        return average.value();
+    }
+
+    @Override
+    public boolean isReady() {
+        return average.isReady();
+    }
+
+    public int getPeriod() {
+        return average.getPeriod();
+    }
+
+    @Override
+    public void reset() {
+        average.reset();
+        previousClose = 0;
+        hasPreviousClose = false;
+    }
+}
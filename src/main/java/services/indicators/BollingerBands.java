@@ -0,0 +1,108 @@
+package services.indicators;
+
+import valueobjects.price.PriceScale;
+
+/**
+ * Streaming Bollinger bands. The middle band is the simple moving average of the period and the upper and lower bands
+ * are the middle band plus and minus a multiple of the population standard deviation of the same values.
+ * {@link #value()} is the middle band.
+ * <p>
+ * The variance is kept with Welford's algorithm, extended to remove the value that leaves the window, so every update
+ * takes constant time. Only the deviation is calculated in doubles; the middle band uses the exact fixed point sum.
+ */
+public class BollingerBands implements StreamingIndicator {
+
+    public static final int DEFAULT_PERIOD = 20;
+    public static final double DEFAULT_MULTIPLIER = 2;
+
+    private final double multiplier;
+    private final long[] window;
+    private long sum;
+    private long value;
+    // index in the window where the next value will be written. this is also the oldest value when the window is full
+    private int next;
+    private int count;
+    // running mean and sum of squared differences from the mean, in units of the fixed point mantissa
+    private double mean;
+    private double squaredDifferences;
+    private long deviation;
+
+    public BollingerBands() {
+        this(DEFAULT_PERIOD, DEFAULT_MULTIPLIER);
+    }
+
+    public BollingerBands(int period, double multiplier) {
+        if (period < 1) {
+            throw new IllegalArgumentException("Bollinger bands period must be positive but was: " + period);
+        }
+        this.multiplier = multiplier;
+        this.window = new long[period];
+    }
+
+    @Override
+    public long update(long price) {
+        if (count == window.length) {
+            long evicted = window[next];
+            sum -= evicted;
+            double previousMean = mean;
+            mean += (double) (price - evicted) / count;
+            squaredDifferences += (price - evicted) * (price - mean + evicted - previousMean);
+        } else {
+            count++;
+            double delta = price - mean;
+            mean += delta / count;
+            squaredDifferences += delta * (price - mean);
+        }
+        window[next] = price;
+        next = (next + 1) % window.length;
+        sum = Math.addExact(sum, price);
+
+        value = PriceScale.divide(sum, count);
+        // rounding errors can take the sum slightly below zero when all the values are the same
+        deviation = Math.round(Math.sqrt(Math.max(squaredDifferences, 0) / count));
+        return value;
+    }
+
+    /**
+     * The middle band.
+     */
+    @Override
+    public long value() {
+        return value;
+    }
+
+    public long getUpper() {
+        return value + Math.round(multiplier * deviation);
+    }
+
+    public long getLower() {
+        return value - Math.round(multiplier * deviation);
+    }
+
+    /**
+     * Population standard deviation of the values in the window.
+     */
+    public long getStandardDeviation() {
+        return deviation;
+    }
+
+    @Override
+    public boolean isReady() {
+        return count == window.length;
+    }
+
+    public int getPeriod() {
+        return window.length;
+    }
+
+    @Override
+    public void reset() {
+        sum = 0;
+        value = 0;
+        next = 0;
+        count = 0;
+        mean = 0;
+        squaredDifferences = 0;
+        deviation = 0;
+    }
+}
@@ -0,0 +1,66 @@
+package services.indicators;
+
+import valueobjects.timeframe.Timeframe;
+
+/**
+ * Streaming version of {@link Timeframe#crossover(Timeframe)}. It remembers the sign of the difference between 2 values
+ * (ex. a short and a long moving average) from the previous update, so every new pair of values is checked for a
+ * crossover in constant time without looking at the whole series again.
+ * 1 = the first value crossed above the second one, -1 = crossed below, 0 = no crossover.
+ */
+public class CrossoverDetector {
+
+    private int signum;
+    private boolean initialized;
+
+    /**
+     * Updates the detector with the latest values and returns the crossover since the previous update.
+     * The first update only remembers the sign so it never returns a crossover.
+     */
+    public int update(long a, long b) {
+        return update(Long.compare(a, b));
+    }
+
+    /**
+     * Updates the detector with the latest values of 2 series. The first time it is called the previous values of the
+     * series are used to initialize the detector, so a crossover between the last 2 values is not missed.
+     * Both series are expected to have the same scale.
+     */
+    public int update(Timeframe a, Timeframe b) {
+        if (!initialized && a.size() > 1 && b.size() > 1) {
+            update(a.get(a.size() - 2).getPrice(), b.get(b.size() - 2).getPrice());
+        }
+        return update(a.lastPrice(), b.lastPrice());
+    }
+
+    /**
+     * Initializes the detector with a known sign instead of a pair of values. ex. we know a price starts above its stop.
+     */
+    public void initialize(int signum) {
+        this.signum = Integer.signum(signum);
+        this.initialized = true;
+    }
+
+    /**
+     * Sign of the difference between the values of the latest update.
+     */
+    public int getSignum() {
+        return signum;
+    }
+
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    public void reset() {
+        signum = 0;
+        initialized = false;
+    }
+
+    private int update(int currentSignum) {
+        int crossover = initialized && currentSignum != signum ? currentSignum : 0;
+        signum = currentSignum;
+        initialized = true;
+        return crossover;
+    }
+}
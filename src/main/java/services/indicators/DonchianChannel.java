@@ -0,0 +1,135 @@
+package services.indicators;
+
+import valueobjects.price.PriceScale;
+
+/**
+ * Streaming Donchian channel. The upper band is the highest high and the lower band the lowest low of the period and
+ * {@link #value()} is the middle between the two.
+ * <p>
+ * The highs and lows are kept in monotonic deques: a new high removes every older high that is not bigger than itself,
+ * since those can never be the highest of the period again, so the front of the deque is always the highest value and
+ * every value is added and removed once. The deques are rings of primitives sized to the period so updates do not
+ * allocate.
+ */
+public class DonchianChannel implements StreamingIndicator {
+
+    public static final int DEFAULT_PERIOD = 20;
+
+    private final int period;
+    private final MonotonicDeque highs;
+    private final MonotonicDeque lows;
+    // number of updates so far. used to know when a value in the deques has left the period
+    private long updates;
+    private long value;
+
+    public DonchianChannel() {
+        this(DEFAULT_PERIOD);
+    }
+
+    public DonchianChannel(int period) {
+        if (period < 1) {
+            throw new IllegalArgumentException("Donchian channel period must be positive but was: " + period);
+        }
+        this.period = period;
+        this.highs = new MonotonicDeque(period, 1);
+        this.lows = new MonotonicDeque(period, -1);
+    }
+
+    @Override
+    public long update(long price) {
+        return update(price, price);
+    }
+
+    public long update(long high, long low) {
+        // make room for the new values first by dropping the ones that leave the period
+        highs.evictBefore(updates + 1 - period);
+        lows.evictBefore(updates + 1 - period);
+        highs.add(updates, high);
+        lows.add(updates, low);
+        updates++;
+
+        value = PriceScale.divide(highs.first() + lows.first(), 2);
+        return value;
+    }
+
+    /**
+     * The middle band.
+     */
+    @Override
+    public long value() {
+        return value;
+    }
+
+    public long getUpper() {
+        return highs.first();
+    }
+
+    public long getLower() {
+        return lows.first();
+    }
+
+    @Override
+    public boolean isReady() {
+        return updates >= period;
+    }
+
+    public int getPeriod() {
+        return period;
+    }
+
+    @Override
+    public void reset() {
+        highs.clear();
+        lows.clear();
+        updates = 0;
+        value = 0;
+    }
+
+    /**
+     * Deque of values ordered from the most extreme to the least one, with the update each value came from.
+     * direction 1 keeps the highest value first and -1 the lowest.
+     */
+    private static class MonotonicDeque {
+        private final long[] values;
+        private final long[] updates;
+        private final int direction;
+        private int head;
+        private int size;
+
+        private MonotonicDeque(int capacity, int direction) {
+            this.values = new long[capacity];
+            this.updates = new long[capacity];
+            this.direction = direction;
+        }
+
+        private void add(long update, long value) {
+            while (size > 0 && Long.compare(values[index(size - 1)], value) * direction <= 0) {
+                size--;
+            }
+            // there is always room here since the values that left the period are evicted before every add
+            values[index(size)] = value;
+            updates[index(size)] = update;
+            size++;
+        }
+
+        private void evictBefore(long update) {
+            while (size > 0 && updates[head] < update) {
+                head = (head + 1) % values.length;
+                size--;
+            }
+        }
+
+        private long first() {
+            return size == 0 ? 0 : values[head];
+        }
+
+        private void clear() {
+            head = 0;
+            size = 0;
+        }
+
+        private int index(int position) {
+            return (head + position) % values.length;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package services.indicators;
+
+import valueobjects.price.PriceScale;
+import valueobjects.timeframe.Tick;
+
+import java.util.Collection;
+
+/**
+ * Streaming version of the exponential moving average. Only the previous EMA value is kept, so every new value
+ * updates the average in constant time.
+ * EMA = Price * SmoothingFactor + PreviousEMA * (1 - SmoothingFactor)
+ * The first value seen is used as the initial EMA.
+ * <p>
+ * Prices are fixed point longs (see {@link PriceScale}) so updating the average does not allocate. The average has
+ * the scale of the prices it is updated with.
+ */
+public class ExponentialMovingAverage implements StreamingIndicator {
+
+    private final int period;
+    private long value;
+    private int count;
+
+    public ExponentialMovingAverage(int period) {
+        if (period < 1) {
+            throw new IllegalArgumentException("Exponential moving average period must be positive but was: " + period);
+        }
+        this.period = period;
+    }
+
+    /**
+     * Adds a new value to the average and returns the updated average.
+     */
+    @Override
+    public long update(long price) {
+        value = count == 0 ? price : next(value, price, period);
+        if (count < period) {
+            count++;
+        }
+        return value;
+    }
+
+    /**
+     * Calculates the EMA that follows the specified one. The formula above is rearranged to
+     * PreviousEMA + (Price - PreviousEMA) * 2 / (period + 1)
+     * so the smoothing factor does not need to be rounded and the calculation stays in longs.
+     * Throws an ArithmeticException instead of overflowing, which can only happen with prices close to Long.MAX_VALUE / 4.
+     */
+    public static long next(long previousValue, long price, int period) {
+        return previousValue + PriceScale.divide(Math.multiplyExact(Math.subtractExact(price, previousValue), 2), period + 1);
+    }
+
+    /**
+     * Warms up the average with historic values in one go, ex. the OHLC history we get from the api when a strategy
+     * starts. The ticks are expected to be sorted from oldest to newest and have the same scale.
+     */
+    public long seed(Collection<Tick> ticks) {
+        for (Tick tick : ticks) {
+            update(tick.getPrice());
+        }
+        return value;
+    }
+
+    /**
+     * The current average. 0 if no value has been added yet.
+     */
+    @Override
+    public long value() {
+        return value;
+    }
+
+    /**
+     * True when the average has seen at least as many values as its period.
+     */
+    @Override
+    public boolean isReady() {
+        return count == period;
+    }
+
+    public int getPeriod() {
+        return period;
+    }
+
+    @Override
+    public void reset() {
+        value = 0;
+        count = 0;
+    }
+}
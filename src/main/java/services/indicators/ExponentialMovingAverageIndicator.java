@@ -1,11 +1,7 @@
 package services.indicators;
 
-import valueobjects.timeframe.Tick;
 import valueobjects.timeframe.Timeframe;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.LinkedList;
 import java.util.function.BiFunction;
 
 /**
@@ -18,33 +14,12 @@ import java.util.function.BiFunction;
 public class ExponentialMovingAverageIndicator implements BiFunction<Timeframe, Integer, Timeframe> {
     @Override
     public Timeframe apply(Timeframe timeframe, Integer period) {
-        // Smoothing Factor = 2 / (Number of time periods + 1)
-        BigDecimal smoothingFactor = BigDecimal.valueOf(2)
-                .divide(
-                        BigDecimal.valueOf(period)
-                                .add(BigDecimal.ONE), 10, RoundingMode.HALF_EVEN);
-
-        LinkedList<Tick> ticks = timeframe.getTicks();
-        Timeframe movingAverageTimeFrame = new Timeframe(timeframe.size());
-        for (int i = 0; i < ticks.size(); i++) {
-            LinkedList<Tick> periodTicks = new LinkedList<>(ticks.subList(0, i + 1));
-            movingAverageTimeFrame.addTick(exponentialMovingAverage(periodTicks, smoothingFactor));
+        // each EMA only depends on the previous one so a single pass over the timeframe is enough
+        ExponentialMovingAverage exponentialMovingAverage = new ExponentialMovingAverage(period);
+        Timeframe movingAverageTimeFrame = new Timeframe(timeframe.size(), timeframe.getScale());
+        for (int i = 0; i < timeframe.size(); i++) {
+            movingAverageTimeFrame.addTick(timeframe.getTime(i), exponentialMovingAverage.update(timeframe.getPrice(i)));
         }
         return movingAverageTimeFrame;
     }
-
-    private Tick exponentialMovingAverage(LinkedList<Tick> ticks, BigDecimal smoothingFactor) {
-        if (ticks.size() == 1) {
-            return ticks.getFirst();
-        }
-
-        LinkedList<Tick> previousTimeframe = new LinkedList<>(ticks.subList(0, ticks.size() - 1));
-        Tick previousEma = exponentialMovingAverage(previousTimeframe, smoothingFactor);
-        BigDecimal ema = (ticks.getLast().getValue().multiply(smoothingFactor)).add(
-                BigDecimal.ONE.subtract(smoothingFactor).multiply(previousEma.getValue())
-        );
-        return new Tick(ticks.getLast().getTime(), ema);
-    }
-
-
 }
@@ -0,0 +1,41 @@
+package services.indicators;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Identifies an indicator series. Strategies that ask for the same indicator with the same parameters on the same
+ * asset and period length get the same series.
+ */
+@Getter
+@EqualsAndHashCode
+public final class IndicatorKey {
+
+    public enum IndicatorType {
+        SMA, EMA
+    }
+
+    private final String assetCode;
+    private final Duration periodLength;
+    private final IndicatorType type;
+    private final List<Integer> parameters;
+
+    private IndicatorKey(String assetCode, Duration periodLength, IndicatorType type, List<Integer> parameters) {
+        this.assetCode = assetCode;
+        this.periodLength = periodLength;
+        this.type = type;
+        this.parameters = parameters;
+    }
+
+    public static IndicatorKey of(String assetCode, Duration periodLength, IndicatorType type, Integer... parameters) {
+        return new IndicatorKey(assetCode, periodLength, type, List.of(parameters));
+    }
+
+    @Override
+    public String toString() {
+        return type + parameters.toString() + " " + assetCode + " " + periodLength;
+    }
+}
@@ -0,0 +1,137 @@
+package services.indicators;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import valueobjects.timeframe.Timeframe;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shared cache of indicator series. The prices come from the {@link services.marketdata.MarketDataHub}, which keeps a
+ * single price series for each asset and period length, so when more than one strategy asks for the same series (see
+ * {@link IndicatorKey}) on the same price series, it is calculated once and the same result is returned to all of them.
+ * <p>
+ * Series are maintained incrementally. The registry remembers how many ticks had been added to the prices when it last
+ * looked (see {@link Timeframe#getTickCount()}) and only adds the ticks added since. The series is calculated from
+ * scratch only the first time or when more ticks were added since than the prices still hold.
+ * <p>
+ * Each strategy that asks for a series is registered as an owner of it. {@link #release(String)} is called when a
+ * strategy unsubscribes from the market data and removes the series nobody else is using.
+ * The returned series are shared so they must not be modified by the caller.
+ */
+@Singleton
+public class IndicatorRegistry {
+
+    // series of each price series. timeframes have no equals, so the price series are told apart by identity
+    private final Map<Timeframe, Map<IndicatorKey, Entry>> entries = new HashMap<>();
+
+    private final MovingAverageIndicator movingAverageIndicator;
+    private final ExponentialMovingAverageIndicator exponentialMovingAverageIndicator;
+
+    @Inject
+    public IndicatorRegistry(MovingAverageIndicator movingAverageIndicator, ExponentialMovingAverageIndicator exponentialMovingAverageIndicator) {
+        this.movingAverageIndicator = movingAverageIndicator;
+        this.exponentialMovingAverageIndicator = exponentialMovingAverageIndicator;
+    }
+
+    /**
+     * Returns the series for the specified key calculated on the specified prices.
+     */
+    public Timeframe get(IndicatorKey key, Timeframe prices, String owner) {
+        Entry entry = getEntry(key, prices, owner);
+        synchronized (entry) {
+            long newTicks = prices.getTickCount() - entry.sourceTickCount;
+            if (entry.series == null || newTicks > prices.size()) {
+                calculate(key, entry, prices);
+            } else {
+                for (int i = prices.size() - (int) newTicks; i < prices.size(); i++) {
+                    append(key, entry, prices.getTime(i), prices.getPrice(i));
+                }
+            }
+            entry.sourceTickCount = prices.getTickCount();
+            return entry.series;
+        }
+    }
+
+    /**
+     * Removes the owner from all the series it was using. Series without any owners left are evicted.
+     */
+    public void release(String owner) {
+        synchronized (entries) {
+            entries.values().forEach(seriesEntries -> seriesEntries.values().removeIf(entry -> {
+                entry.owners.remove(owner);
+                return entry.owners.isEmpty();
+            }));
+            entries.values().removeIf(Map::isEmpty);
+        }
+    }
+
+    /**
+     * Number of series currently cached.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.values().stream().mapToInt(Map::size).sum();
+        }
+    }
+
+    private Entry getEntry(IndicatorKey key, Timeframe prices, String owner) {
+        synchronized (entries) {
+            Entry entry = entries.computeIfAbsent(prices, series -> new HashMap<>()).computeIfAbsent(key, k -> new Entry());
+            entry.owners.add(owner);
+            return entry;
+        }
+    }
+
+    /**
+     * Calculates the whole series and the state needed to carry on with the next ticks.
+     */
+    private void calculate(IndicatorKey key, Entry entry, Timeframe prices) {
+        Integer period = key.getParameters().get(0);
+        switch (key.getType()) {
+            case SMA:
+                entry.series = movingAverageIndicator.apply(prices, period);
+                // the next average only depends on the latest ticks of the period
+                entry.movingAverage = new SimpleMovingAverage(period);
+                for (int i = Math.max(0, prices.size() - period); i < prices.size(); i++) {
+                    entry.movingAverage.update(prices.getPrice(i));
+                }
+                break;
+            case EMA:
+                entry.series = exponentialMovingAverageIndicator.apply(prices, period);
+                // the next EMA only depends on the previous one
+                entry.exponentialMovingAverage = new ExponentialMovingAverage(period);
+                if (!entry.series.isEmpty()) {
+                    entry.exponentialMovingAverage.update(entry.series.lastPrice());
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown indicator type: " + key.getType());
+        }
+    }
+
+    private void append(IndicatorKey key, Entry entry, long time, long price) {
+        switch (key.getType()) {
+            case SMA:
+                entry.series.addTick(time, entry.movingAverage.update(price));
+                break;
+            case EMA:
+                entry.series.addTick(time, entry.exponentialMovingAverage.update(price));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown indicator type: " + key.getType());
+        }
+    }
+
+    private static class Entry {
+        private final Set<String> owners = new HashSet<>();
+        private Timeframe series;
+        private SimpleMovingAverage movingAverage;
+        private ExponentialMovingAverage exponentialMovingAverage;
+        // ticks added to the prices when the series was last brought up to date
+        private long sourceTickCount;
+    }
+}
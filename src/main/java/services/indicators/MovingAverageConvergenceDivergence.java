@@ -0,0 +1,70 @@
+package services.indicators;
+
+/**
+ * Streaming moving average convergence divergence. The MACD line is the difference between a fast and a slow
+ * {@link ExponentialMovingAverage} of the price, the signal line is an EMA of the MACD line and the histogram is
+ * the difference between the two. {@link #value()} is the MACD line.
+ */
+public class MovingAverageConvergenceDivergence implements StreamingIndicator {
+
+    public static final int DEFAULT_FAST_PERIOD = 12;
+    public static final int DEFAULT_SLOW_PERIOD = 26;
+    public static final int DEFAULT_SIGNAL_PERIOD = 9;
+
+    private final ExponentialMovingAverage fastAverage;
+    private final ExponentialMovingAverage slowAverage;
+    private final ExponentialMovingAverage signal;
+    private long value;
+
+    public MovingAverageConvergenceDivergence() {
+        this(DEFAULT_FAST_PERIOD, DEFAULT_SLOW_PERIOD, DEFAULT_SIGNAL_PERIOD);
+    }
+
+    public MovingAverageConvergenceDivergence(int fastPeriod, int slowPeriod, int signalPeriod) {
+        if (fastPeriod >= slowPeriod) {
+            throw new IllegalArgumentException("MACD fast period must be shorter than the slow period but was: " + fastPeriod + " and " + slowPeriod);
+        }
+        this.fastAverage = new ExponentialMovingAverage(fastPeriod);
+        this.slowAverage = new ExponentialMovingAverage(slowPeriod);
+        this.signal = new ExponentialMovingAverage(signalPeriod);
+    }
+
+    @Override
+    public long update(long price) {
+        value = fastAverage.update(price) - slowAverage.update(price);
+        signal.update(value);
+        return value;
+    }
+
+    /**
+     * The MACD line.
+     */
+    @Override
+    public long value() {
+        return value;
+    }
+
+    public long getSignal() {
+        return signal.value();
+    }
+
+    public long getHistogram() {
+        return value - signal.value();
+    }
+
+    /**
+     * True when both the slow average and the signal line have seen a whole period.
+     */
+    @Override
+    public boolean isReady() {
+        return slowAverage.isReady() && signal.isReady();
+    }
+
+    @Override
+    public void reset() {
+        fastAverage.reset();
+        slowAverage.reset();
+        signal.reset();
+        value = 0;
+    }
+}
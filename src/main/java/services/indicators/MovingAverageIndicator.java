@@ -1,11 +1,7 @@
 package services.indicators;
 
-import valueobjects.timeframe.Tick;
 import valueobjects.timeframe.Timeframe;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.LinkedList;
 import java.util.function.BiFunction;
 
 /**
@@ -20,21 +16,12 @@ public class MovingAverageIndicator implements BiFunction<Timeframe, Integer, Ti
 
     @Override
     public Timeframe apply(Timeframe timeframe, Integer period) {
-
-        LinkedList<Tick> ticks = timeframe.getTicks();
-        Timeframe movingAverageTimeFrame = new Timeframe(timeframe.size());
-        for (int i = 0; i < ticks.size(); i++) {
-            int startingIndex = i < period ? 0 : (i + 1 - period);
-            LinkedList<Tick> periodTicks = new LinkedList<>(ticks.subList(startingIndex, i + 1));
-            movingAverageTimeFrame.addTick(movingAverage(periodTicks));
+        // a single pass over the timeframe. the streaming average keeps the running sum of the period for us.
+        SimpleMovingAverage movingAverage = new SimpleMovingAverage(period);
+        Timeframe movingAverageTimeFrame = new Timeframe(timeframe.size(), timeframe.getScale());
+        for (int i = 0; i < timeframe.size(); i++) {
+            movingAverageTimeFrame.addTick(timeframe.getTime(i), movingAverage.update(timeframe.getPrice(i)));
         }
         return movingAverageTimeFrame;
     }
-
-    private Tick movingAverage(LinkedList<Tick> ticks) {
-        BigDecimal value = ticks.stream().map(Tick::getValue)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .divide(BigDecimal.valueOf(ticks.size()), 10, RoundingMode.HALF_EVEN);
-        return new Tick(ticks.getLast().getTime(), value);
-    }
 }
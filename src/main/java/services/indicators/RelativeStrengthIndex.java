@@ -0,0 +1,84 @@
+package services.indicators;
+
+import valueobjects.price.PriceScale;
+
+/**
+ * Streaming relative strength index. The gains and losses between consecutive prices are smoothed with
+ * {@link WildersMovingAverage} and the index is
+ * RSI = 100 * AverageGain / (AverageGain + AverageLoss)
+ * which is the same as the usual 100 - 100 / (1 + RS) without dividing by a zero average loss.
+ * The value is a fixed point number between 0 and 100 in the scale the index was created with.
+ */
+public class RelativeStrengthIndex implements StreamingIndicator {
+
+    public static final int DEFAULT_PERIOD = 14;
+
+    private final PriceScale scale;
+    private final WildersMovingAverage averageGain;
+    private final WildersMovingAverage averageLoss;
+    private long previousPrice;
+    private boolean hasPreviousPrice;
+    private long value;
+
+    public RelativeStrengthIndex(PriceScale scale) {
+        this(DEFAULT_PERIOD, scale);
+    }
+
+    public RelativeStrengthIndex(int period, PriceScale scale) {
+        this.scale = scale;
+        this.averageGain = new WildersMovingAverage(period);
+        this.averageLoss = new WildersMovingAverage(period);
+    }
+
+    /**
+     * Adds a new price and returns the updated index. The first price only sets the reference for the next change so
+     * the index stays 0 until the second one.
+     */
+    @Override
+    public long update(long price) {
+        if (!hasPreviousPrice) {
+            previousPrice = price;
+            hasPreviousPrice = true;
+            return value;
+        }
+
+        long change = price - previousPrice;
+        previousPrice = price;
+        long gain = averageGain.update(Math.max(change, 0));
+        long loss = averageLoss.update(Math.max(-change, 0));
+
+        // flat prices are neither overbought nor oversold
+        value = gain + loss == 0 ? scale.toFixed(50L) : scale.fraction(gain, gain + loss) * 100;
+        return value;
+    }
+
+    @Override
+    public long value() {
+        return value;
+    }
+
+    /**
+     * True when the gains and losses of a whole period have been seen, which takes period + 1 prices.
+     */
+    @Override
+    public boolean isReady() {
+        return averageGain.isReady();
+    }
+
+    public int getPeriod() {
+        return averageGain.getPeriod();
+    }
+
+    public PriceScale getScale() {
+        return scale;
+    }
+
+    @Override
+    public void reset() {
+        averageGain.reset();
+        averageLoss.reset();
+        previousPrice = 0;
+        hasPreviousPrice = false;
+        value = 0;
+    }
+}
@@ -0,0 +1,76 @@
+package services.indicators;
+
+import valueobjects.price.PriceScale;
+
+/**
+ * Streaming version of the simple moving average. It keeps a running sum and a ring with the last values of the
+ * period, so every new value updates the average in constant time instead of summing the whole period again.
+ * While less values than the period have been seen the average is calculated on the values available.
+ * <p>
+ * Prices are fixed point longs (see {@link PriceScale}) so updating the average does not allocate. The average has
+ * the scale of the prices it is updated with.
+ * The running sum is checked for overflow. With a scale of 8 it holds a period of 10000 prices up to 9 * 10^6 each.
+ */
+public class SimpleMovingAverage implements StreamingIndicator {
+
+    private final long[] window;
+    private long sum;
+    private long value;
+    // index in the window where the next value will be written. this is also the oldest value when the window is full
+    private int next;
+    private int count;
+
+    public SimpleMovingAverage(int period) {
+        if (period < 1) {
+            throw new IllegalArgumentException("Moving average period must be positive but was: " + period);
+        }
+        this.window = new long[period];
+    }
+
+    /**
+     * Adds a new value to the average. If the period is already full the oldest value is evicted.
+     * Returns the updated average. Throws an ArithmeticException if the sum of the period overflows.
+     */
+    @Override
+    public long update(long price) {
+        if (count == window.length) {
+            sum -= window[next];
+        } else {
+            count++;
+        }
+        window[next] = price;
+        next = (next + 1) % window.length;
+        sum = Math.addExact(sum, price);
+
+        value = PriceScale.divide(sum, count);
+        return value;
+    }
+
+    /**
+     * The current average. 0 if no value has been added yet.
+     */
+    @Override
+    public long value() {
+        return value;
+    }
+
+    /**
+     * True when the average has seen enough values to cover the whole period.
+     */
+    @Override
+    public boolean isReady() {
+        return count == window.length;
+    }
+
+    public int getPeriod() {
+        return window.length;
+    }
+
+    @Override
+    public void reset() {
+        sum = 0;
+        value = 0;
+        next = 0;
+        count = 0;
+    }
+}
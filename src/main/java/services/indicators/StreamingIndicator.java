@@ -0,0 +1,26 @@
+package services.indicators;
+
+/**
+ * Indicator that is updated one price at a time. Implementations keep just enough state to calculate the next value
+ * in constant (amortized) time, so the cost of an update does not depend on how much history has been seen.
+ * Prices and values are fixed point longs (see {@link valueobjects.price.PriceScale}).
+ */
+public interface StreamingIndicator {
+
+    /**
+     * Adds a new price and returns the updated value of the indicator.
+     */
+    long update(long price);
+
+    /**
+     * The current value of the indicator. 0 if no price has been added yet.
+     */
+    long value();
+
+    /**
+     * True when the indicator has seen enough prices for its value to be meaningful.
+     */
+    boolean isReady();
+
+    void reset();
+}
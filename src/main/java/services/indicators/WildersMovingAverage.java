@@ -0,0 +1,58 @@
+package services.indicators;
+
+import valueobjects.price.PriceScale;
+
+/**
+ * Wilder's smoothing as used by the RSI and the ATR. The first value of the period is the simple average of the values
+ * seen so far, after that every new value is added as
+ * (PreviousAverage * (period - 1) + Value) / period
+ * so only the previous average is kept and every update takes constant time.
+ */
+public class WildersMovingAverage implements StreamingIndicator {
+
+    private final int period;
+    // sum of the values while the first period is filled
+    private long sum;
+    private long value;
+    private int count;
+
+    public WildersMovingAverage(int period) {
+        if (period < 1) {
+            throw new IllegalArgumentException("Wilder's moving average period must be positive but was: " + period);
+        }
+        this.period = period;
+    }
+
+    @Override
+    public long update(long price) {
+        if (count < period) {
+            count++;
+            sum = Math.addExact(sum, price);
+            value = PriceScale.divide(sum, count);
+        } else {
+            value = PriceScale.divide(Math.addExact(Math.multiplyExact(value, period - 1), price), period);
+        }
+        return value;
+    }
+
+    @Override
+    public long value() {
+        return value;
+    }
+
+    @Override
+    public boolean isReady() {
+        return count == period;
+    }
+
+    public int getPeriod() {
+        return period;
+    }
+
+    @Override
+    public void reset() {
+        sum = 0;
+        value = 0;
+        count = 0;
+    }
+}
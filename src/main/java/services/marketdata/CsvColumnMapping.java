@@ -0,0 +1,50 @@
+package services.marketdata;
+
+import lombok.Getter;
+
+/**
+ * Where the time and the price of a tick are found in the rows of a historic data csv.
+ */
+@Getter
+public class CsvColumnMapping {
+
+    /**
+     * Time in the 1st column and price in the 2nd one, the format of the datasets in our resources.
+     */
+    public static final CsvColumnMapping TIME_PRICE = CsvColumnMapping.of(0, 1);
+
+    /**
+     * Files from <a href="https://www.cryptodatadownload.com/data/bitstamp/">cryptodatadownload</a>. They start with a
+     * line with the url of the site and a line with the column names: unix,date,symbol,open,high,low,close,...
+     * The close price is used as the price of the tick.
+     */
+    public static final CsvColumnMapping CRYPTO_DATA_DOWNLOAD = CsvColumnMapping.of(0, 6).withHeaderLines(2);
+
+    private final int timeColumn;
+    private final int priceColumn;
+    private final byte delimiter;
+    // lines at the start of the file that are skipped without being parsed
+    private final int headerLines;
+
+    private CsvColumnMapping(int timeColumn, int priceColumn, byte delimiter, int headerLines) {
+        if (timeColumn < 0 || priceColumn < 0 || timeColumn == priceColumn) {
+            throw new IllegalArgumentException("Invalid csv columns. time: " + timeColumn + " price: " + priceColumn);
+        }
+        this.timeColumn = timeColumn;
+        this.priceColumn = priceColumn;
+        this.delimiter = delimiter;
+        this.headerLines = headerLines;
+    }
+
+    public static CsvColumnMapping of(int timeColumn, int priceColumn) {
+        return new CsvColumnMapping(timeColumn, priceColumn, (byte) ',', 0);
+    }
+
+    public CsvColumnMapping withDelimiter(char delimiter) {
+        return new CsvColumnMapping(timeColumn, priceColumn, (byte) delimiter, headerLines);
+    }
+
+    public CsvColumnMapping withHeaderLines(int headerLines) {
+        return new CsvColumnMapping(timeColumn, priceColumn, delimiter, headerLines);
+    }
+}
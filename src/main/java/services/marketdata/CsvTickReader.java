@@ -0,0 +1,216 @@
+package services.marketdata;
+
+import valueobjects.price.PriceScale;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams the ticks of a historic data csv without allocating anything per line. The file is read in chunks into a
+ * reusable buffer and the time and the price are parsed straight from the bytes into longs, so files of any size are
+ * read in constant memory and only the columns of the {@link CsvColumnMapping} are looked at.
+ * <p>
+ * Times can be epoch seconds or milliseconds, milliseconds are detected by their size and turned into seconds. Any
+ * fraction of a second is dropped. Prices are converted to fixed point in the scale of the reader, rounded HALF_EVEN
+ * when they have more decimals; exponents are not supported. Lines where the mapped columns are not numbers, ex. the
+ * column names, are skipped and counted.
+ * Files ending with .gz are decompressed while they are read.
+ * Not thread safe, every thread should use its own reader.
+ */
+public class CsvTickReader {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    // epoch seconds will not reach this for thousands of years so bigger times are milliseconds
+    private static final long MILLISECONDS_THRESHOLD = 100_000_000_000L;
+    private static final long MAX_BEFORE_DIGIT = (Long.MAX_VALUE - 9) / 10;
+
+    private final CsvColumnMapping mapping;
+    private final PriceScale scale;
+    private final byte[] buffer;
+    private long skippedLines;
+
+    // state of the line being parsed
+    private long line;
+    private int column;
+    private boolean empty;
+    private boolean invalid;
+    private long time;
+    private boolean hasTime;
+    private boolean timeFraction;
+    private long price;
+    private boolean hasPrice;
+    private boolean negative;
+    private boolean priceFraction;
+    private int fractionDigits;
+    // first digit after the ones kept by the scale and whether any digit after it is not zero, for rounding
+    private int roundingDigit;
+    private boolean sticky;
+
+    public CsvTickReader(CsvColumnMapping mapping, PriceScale scale) {
+        this(mapping, scale, DEFAULT_BUFFER_SIZE);
+    }
+
+    CsvTickReader(CsvColumnMapping mapping, PriceScale scale, int bufferSize) {
+        this.mapping = mapping;
+        this.scale = scale;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Reads the file and hands every tick to the consumer in the order of the file. Returns the number of ticks read.
+     */
+    public long read(Path path, TickConsumer consumer) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            return path.getFileName().toString().endsWith(".gz")
+                    ? read(new GZIPInputStream(inputStream, buffer.length), consumer)
+                    : read(inputStream, consumer);
+        }
+    }
+
+    /**
+     * Reads the stream and hands every tick to the consumer in the order of the stream. Returns the number of ticks
+     * read. The stream is not closed.
+     */
+    public long read(InputStream inputStream, TickConsumer consumer) throws IOException {
+        long ticks = 0;
+        skippedLines = 0;
+        line = 0;
+        resetLine();
+
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                byte b = buffer[i];
+                if (b == '\n') {
+                    ticks += endLine(consumer);
+                } else if (b != '\r') {
+                    parse(b);
+                }
+            }
+        }
+        // last line without a line break
+        if (!empty) {
+            ticks += endLine(consumer);
+        }
+        return ticks;
+    }
+
+    /**
+     * Lines skipped by the last read because they did not have a valid time and price. Header lines are not included.
+     */
+    public long getSkippedLines() {
+        return skippedLines;
+    }
+
+    private void parse(byte b) {
+        empty = false;
+        if (line < mapping.getHeaderLines() || invalid) {
+            return;
+        }
+        if (b == mapping.getDelimiter()) {
+            column++;
+        } else if (column == mapping.getTimeColumn()) {
+            parseTime(b);
+        } else if (column == mapping.getPriceColumn()) {
+            parsePrice(b);
+        }
+    }
+
+    private void parseTime(byte b) {
+        if (b >= '0' && b <= '9') {
+            if (timeFraction) {
+                return;
+            }
+            if (time > MAX_BEFORE_DIGIT) {
+                invalid = true;
+                return;
+            }
+            time = time * 10 + (b - '0');
+            hasTime = true;
+        } else if (b == '.' && !timeFraction) {
+            timeFraction = true;
+        } else if (b != ' ' && b != '"') {
+            invalid = true;
+        }
+    }
+
+    private void parsePrice(byte b) {
+        if (b >= '0' && b <= '9') {
+            int digit = b - '0';
+            hasPrice = true;
+            if (priceFraction && fractionDigits == scale.getScale()) {
+                // more decimals than the scale keeps
+                if (roundingDigit < 0) {
+                    roundingDigit = digit;
+                } else if (digit != 0) {
+                    sticky = true;
+                }
+                return;
+            }
+            if (price > MAX_BEFORE_DIGIT) {
+                invalid = true;
+                return;
+            }
+            price = price * 10 + digit;
+            if (priceFraction) {
+                fractionDigits++;
+            }
+        } else if (b == '.' && !priceFraction) {
+            priceFraction = true;
+        } else if (b == '-' && !hasPrice && !negative) {
+            negative = true;
+        } else if (b != ' ' && b != '"' && b != '+') {
+            invalid = true;
+        }
+    }
+
+    private int endLine(TickConsumer consumer) {
+        int ticks = 0;
+        if (line >= mapping.getHeaderLines() && !empty) {
+            if (!invalid && hasTime && hasPrice && toFixedPrice()) {
+                consumer.accept(time >= MILLISECONDS_THRESHOLD ? time / 1000 : time, negative ? -price : price);
+                ticks = 1;
+            } else {
+                skippedLines++;
+            }
+        }
+        line++;
+        resetLine();
+        return ticks;
+    }
+
+    /**
+     * Scales the digits read to the scale of the reader. Returns false if the price does not fit in a long.
+     */
+    private boolean toFixedPrice() {
+        if (roundingDigit > 5 || (roundingDigit == 5 && (sticky || (price & 1) != 0))) {
+            price++;
+        }
+        for (int i = fractionDigits; i < scale.getScale(); i++) {
+            if (price > Long.MAX_VALUE / 10) {
+                return false;
+            }
+            price *= 10;
+        }
+        return true;
+    }
+
+    private void resetLine() {
+        column = 0;
+        empty = true;
+        invalid = false;
+        time = 0;
+        hasTime = false;
+        timeFraction = false;
+        price = 0;
+        hasPrice = false;
+        negative = false;
+        priceFraction = false;
+        fractionDigits = 0;
+        roundingDigit = -1;
+        sticky = false;
+    }
+}
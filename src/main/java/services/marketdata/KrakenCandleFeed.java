@@ -0,0 +1,62 @@
+package services.marketdata;
+
+import com.google.inject.Inject;
+import properties.TradeProperties;
+import services.httpclients.kraken.KrakenClient;
+import services.httpclients.kraken.response.trades.TradeDetails;
+import services.httpclients.kraken.response.trades.TradesResponse;
+import valueobjects.price.PriceScale;
+import valueobjects.timeframe.PriceHistory;
+import valueobjects.timeframe.Tick;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Recent candles of the traded asset from the Kraken OHLC api, as ticks at the close price sorted from oldest to newest,
+ * so they can be replayed one at a time like the live ticker, ex. with the {@link services.backtest.BacktestEngine}.
+ * <p>
+ * The api only returns the latest candles of every interval, so longer intervals go further back in time. Several
+ * intervals can be replayed back to back: the oldest part of the history comes from the longest interval and every
+ * shorter interval continues from where the longer one stops having data of its own.
+ */
+public class KrakenCandleFeed {
+
+    private final KrakenClient krakenClient;
+    private final String assetDetailCode;
+    private final PriceScale scale;
+
+    @Inject
+    public KrakenCandleFeed(KrakenClient krakenClient, TradeProperties tradeProperties) {
+        this.krakenClient = krakenClient;
+        this.assetDetailCode = tradeProperties.getDetailAssetCode();
+        this.scale = PriceScale.of(tradeProperties.getPriceScale());
+    }
+
+    public PriceHistory getCandles(Duration interval) {
+        TradesResponse response = krakenClient.getHistoricData(interval).filter(tradesResponse -> tradesResponse.getResult() != null)
+                .orElseThrow(() -> new IllegalStateException("Api query to get the " + interval + " candles of " + assetDetailCode + " failed."));
+        return PriceHistory.of(response.getResult().getTradeDetails(assetDetailCode).stream()
+                .sorted(Comparator.comparing(TradeDetails::getTime))
+                .map(candle -> new Tick(candle.getTime(), candle.getPrice(), scale))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Candles of all the intervals back to back. Every interval only adds the candles older than the first candle of
+     * the shorter intervals, so there is one tick for each point in time.
+     */
+    public PriceHistory getCandles(List<Duration> intervals) {
+        List<Tick> ticks = new ArrayList<>();
+        for (Duration interval : intervals.stream().sorted().distinct().collect(Collectors.toList())) {
+            List<Tick> older = getCandles(interval).stream()
+                    .filter(tick -> ticks.isEmpty() || tick.getTime().isBefore(ticks.get(0).getTime()))
+                    .collect(Collectors.toList());
+            ticks.addAll(0, older);
+        }
+        return PriceHistory.of(ticks);
+    }
+}
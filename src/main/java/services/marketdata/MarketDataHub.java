@@ -0,0 +1,214 @@
+package services.marketdata;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import properties.TradeProperties;
+import services.httpclients.kraken.KrakenClient;
+import services.httpclients.kraken.response.ticker.TickerPair;
+import services.httpclients.kraken.response.trades.TradeDetails;
+import valueobjects.price.PriceScale;
+import valueobjects.timeframe.Tick;
+import valueobjects.timeframe.Timeframe;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Polls the ticker of each asset once and keeps a single price series for each asset and period length. Every
+ * strategy subscribed to the same asset and period length gets the same series, so the api is called once per asset
+ * instead of once per strategy, all the strategies see the same prices and the indicators calculated on the series can
+ * be shared between them (see {@link services.indicators.IndicatorRegistry}).
+ * <p>
+ * Each asset is polled on the shortest period length subscribed to it, and only when at least one of its series is due.
+ * A series is due when its period length has gone by on the clock since the previous time it was due, so a failed poll
+ * does not move the following ones, the series just takes the next response. Ex. with 2 series of 10 and 15 seconds the
+ * asset is polled every 10 seconds, the first series takes every response and the second one the responses at 20, 30,
+ * 50, 60... seconds, on average one every 15 seconds. A new price is added to the series and handed over to its
+ * subscribers only when it changed since the previous one.
+ * <p>
+ * All subscriptions should be made before the hub is started, which is when the series are created with the history of
+ * the asset.
+ */
+@Slf4j
+@Singleton
+public class MarketDataHub {
+
+    private final KrakenClient krakenClient;
+    private final PriceScale scale;
+    private final Clock clock;
+    // series of each asset by period length in seconds
+    private final Map<String, Map<Long, PriceSeries>> series = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> unsubscribeListeners = new CopyOnWriteArrayList<>();
+    private volatile boolean started;
+
+    @Inject
+    public MarketDataHub(KrakenClient krakenClient, TradeProperties tradeProperties, Clock clock) {
+        this.krakenClient = krakenClient;
+        this.scale = PriceScale.of(tradeProperties.getPriceScale());
+        this.clock = clock;
+    }
+
+    /**
+     * Subscribes to the price series of the asset with the specified period length. The series holds at least the
+     * specified number of ticks, more when other subscribers of the same series asked for more.
+     */
+    public Subscription subscribe(String name, String assetCode, Duration periodLength, int timeframeSize, Consumer<Timeframe> subscriber) {
+        if (started) {
+            throw new IllegalStateException(name + ": Subscriptions should be made before the market data hub is started.");
+        }
+        long periodSeconds = Math.max(1, periodLength.getSeconds());
+        Subscription subscription = new Subscription(name, assetCode, periodSeconds, timeframeSize, subscriber);
+        series.computeIfAbsent(assetCode, code -> new ConcurrentHashMap<>())
+                .computeIfAbsent(periodSeconds, period -> new PriceSeries(assetCode, period))
+                .subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Stops handing prices over to the subscription. A series nobody is subscribed to anymore is dropped, and the
+     * unsubscribe listeners are told so they can release whatever the subscriber was using.
+     */
+    public void unsubscribe(Subscription subscription) {
+        Optional.ofNullable(series.get(subscription.getAssetCode()))
+                .ifPresent(assetSeries -> assetSeries.computeIfPresent(subscription.getPeriodLength(), (period, priceSeries) -> {
+                    priceSeries.subscriptions.remove(subscription);
+                    return priceSeries.subscriptions.isEmpty() ? null : priceSeries;
+                }));
+        unsubscribeListeners.forEach(listener -> listener.accept(subscription.getName()));
+    }
+
+    /**
+     * Registers a listener called with the name of every subscription that is unsubscribed.
+     */
+    public void onUnsubscribe(Consumer<String> listener) {
+        unsubscribeListeners.add(listener);
+    }
+
+    /**
+     * Creates the series with the history of the asset and schedules one poller for each subscribed asset.
+     */
+    public void start(ScheduledExecutorService scheduler) {
+        started = true;
+        series.forEach((assetCode, assetSeries) -> {
+            assetSeries.values().forEach(this::initialize);
+            long pollingPeriod = getPollingPeriod(assetSeries.values());
+            // a poll can run a bit before the time it was scheduled for, a series due just after it would otherwise
+            // wait for a whole period
+            long now = clock.millis();
+            assetSeries.values().forEach(priceSeries -> {
+                priceSeries.nextDue = now;
+                priceSeries.tolerance = TimeUnit.SECONDS.toMillis(pollingPeriod) / 10;
+            });
+            scheduler.scheduleAtFixedRate(() -> poll(assetCode), 2, pollingPeriod, TimeUnit.SECONDS);
+            log.info("Polling " + assetCode + " every " + pollingPeriod + " seconds for " + assetSeries.size() + " price series.");
+        });
+    }
+
+    /**
+     * Requests the ticker of the asset and adds it to the series that are due. The api is not called when none is.
+     */
+    void poll(String assetCode) {
+        long now = clock.millis();
+        List<PriceSeries> dueSeries = Optional.ofNullable(series.get(assetCode)).stream()
+                .flatMap(assetSeries -> assetSeries.values().stream())
+                .filter(priceSeries -> priceSeries.isDue(now))
+                .collect(Collectors.toList());
+        if (dueSeries.isEmpty()) {
+            return;
+        }
+
+        krakenClient.getTickerInfo(assetCode)
+                // a single pair is requested, whatever code the api gave to it
+                .flatMap(tickerPairResponse -> tickerPairResponse.getResult().values().stream().findFirst())
+                .map(TickerPair::getCurrentPrice)
+                .map(scale::toFixed)
+                .ifPresent(price -> dueSeries.forEach(priceSeries -> priceSeries.accept(price, now)));
+    }
+
+    // the series holds as many ticks as the subscriber that needs the most
+    private void initialize(PriceSeries priceSeries) {
+        int timeframeSize = priceSeries.subscriptions.stream().mapToInt(Subscription::getTimeframeSize).max().orElse(1);
+        Timeframe prices = new Timeframe(timeframeSize, scale);
+        krakenClient.getHistoricData(priceSeries.assetCode, Duration.ofSeconds(priceSeries.periodLength))
+                .ifPresent(response -> response.getResult().getTradeDetails().stream()
+                        .sorted(Comparator.comparing(TradeDetails::getTime))
+                        .forEach(detail -> prices.addTick(new Tick(detail.getTime(), detail.getPrice(), scale))));
+        priceSeries.prices = prices;
+        log.info(priceSeries.assetCode + ": Initialized the " + priceSeries.periodLength + " seconds price series with " + prices.size() + " ticks.");
+    }
+
+    private long getPollingPeriod(Collection<PriceSeries> assetSeries) {
+        return assetSeries.stream().mapToLong(priceSeries -> priceSeries.periodLength).min().orElse(1);
+    }
+
+    private class PriceSeries {
+        private final String assetCode;
+        // in seconds
+        private final long periodLength;
+        private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+        private Timeframe prices;
+        // epoch milliseconds the series is due next, only moved by the polls that got a price
+        private long nextDue;
+        private long tolerance;
+
+        private PriceSeries(String assetCode, long periodLength) {
+            this.assetCode = assetCode;
+            this.periodLength = periodLength;
+        }
+
+        private boolean isDue(long now) {
+            return now + tolerance >= nextDue;
+        }
+
+        private void accept(long price, long now) {
+            // once every period length from the previous due time. a series that fell more than a period behind, ex.
+            // after the api was down for a while, starts again from now
+            nextDue = Math.max(nextDue + TimeUnit.SECONDS.toMillis(periodLength), now);
+            // no point running the subscribers for the same price twice
+            if (!prices.isEmpty() && prices.lastPrice() == price) {
+                return;
+            }
+            prices.addTick(price, clock);
+            subscriptions.forEach(subscription -> subscription.accept(prices));
+        }
+    }
+
+    @Getter
+    public static class Subscription {
+        private final String name;
+        private final String assetCode;
+        // in seconds
+        private final long periodLength;
+        private final int timeframeSize;
+        private final Consumer<Timeframe> subscriber;
+
+        private Subscription(String name, String assetCode, long periodLength, int timeframeSize, Consumer<Timeframe> subscriber) {
+            this.name = name;
+            this.assetCode = assetCode;
+            this.periodLength = periodLength;
+            this.timeframeSize = timeframeSize;
+            this.subscriber = subscriber;
+        }
+
+        private void accept(Timeframe prices) {
+            try {
+                subscriber.accept(prices);
+            } catch (Exception e) {
+                log.error(name + e.getMessage(), e);
+            }
+        }
+    }
+}
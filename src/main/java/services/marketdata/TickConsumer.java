@@ -0,0 +1,14 @@
+package services.marketdata;
+
+/**
+ * Receives ticks as primitives, so reading historic data does not allocate an object for every tick.
+ */
+@FunctionalInterface
+public interface TickConsumer {
+
+    /**
+     * @param epochSeconds time of the tick
+     * @param price        fixed point price in the scale of the reader
+     */
+    void accept(long epochSeconds, long price);
+}
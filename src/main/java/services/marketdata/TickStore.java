@@ -0,0 +1,135 @@
+package services.marketdata;
+
+import services.TimeService;
+import valueobjects.price.PriceScale;
+import valueobjects.timeframe.Tick;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Historic ticks stored in a binary file that is memory mapped instead of parsed. The file is written by the
+ * {@link TickStoreImporter} and has a fixed size header followed by 2 columns of longs:
+ * <pre>
+ * header  | magic (int) | version (int) | price scale (int) | reserved (int) | tick count (long) | reserved (long) |
+ * times   | epoch seconds of every tick (long) ...
+ * prices  | fixed point price of every tick (long) ...
+ * </pre>
+ * Since every value has a fixed width any tick can be read in constant time without going through the ones before it.
+ * The file is mapped read only, so every process reading the same file shares the same pages of the OS page cache.
+ */
+public class TickStore {
+
+    static final int MAGIC = 0x4D4D544B;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+
+    private final PriceScale scale;
+    private final int size;
+    private final LongBuffer times;
+    private final LongBuffer prices;
+
+    private TickStore(MappedByteBuffer buffer) {
+        int magic = buffer.getInt(0);
+        int version = buffer.getInt(4);
+        if (magic != MAGIC || version != VERSION) {
+            throw new IllegalArgumentException("Not a tick store file or unsupported version: " + version);
+        }
+        this.scale = PriceScale.of(buffer.getInt(8));
+        long count = buffer.getLong(16);
+        if (buffer.capacity() < HEADER_SIZE + count * 2 * Long.BYTES) {
+            throw new IllegalArgumentException("Tick store file is truncated. Expected " + count + " ticks.");
+        }
+        this.size = (int) count;
+        this.times = slice(buffer, HEADER_SIZE, size);
+        this.prices = slice(buffer, HEADER_SIZE + size * Long.BYTES, size);
+    }
+
+    public static TickStore open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Tick store file is too big to be mapped: " + path);
+            }
+            // the mapping stays valid after the channel is closed
+            return new TickStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public PriceScale getScale() {
+        return scale;
+    }
+
+    /**
+     * Epoch seconds of the tick at the index.
+     */
+    public long getTime(int index) {
+        return times.get(index);
+    }
+
+    /**
+     * Fixed point price of the tick at the index, in the scale of the store.
+     */
+    public long getPrice(int index) {
+        return prices.get(index);
+    }
+
+    public Tick getTick(int index) {
+        return new Tick(TimeService.getLocalDateTimeSecond(getTime(index)), getPrice(index), scale);
+    }
+
+    /**
+     * Read only view of the ticks from the index (inclusive) to the index (exclusive). Nothing is copied, the ticks
+     * are created from the mapped file when they are read, so the view can be shared by backtests running in parallel.
+     */
+    public List<Tick> ticks(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Range " + fromIndex + " to " + toIndex + " is out of bounds for " + size + " ticks.");
+        }
+        return new TickView(fromIndex, toIndex - fromIndex);
+    }
+
+    public List<Tick> ticks() {
+        return ticks(0, size);
+    }
+
+    private static LongBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer column = buffer.duplicate();
+        column.position(offset).limit(offset + length * Long.BYTES);
+        return column.slice().asLongBuffer();
+    }
+
+    private class TickView extends AbstractList<Tick> implements RandomAccess {
+        private final int offset;
+        private final int length;
+
+        private TickView(int offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public Tick get(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for " + length + " ticks.");
+            }
+            return getTick(offset + index);
+        }
+
+        @Override
+        public int size() {
+            return length;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package services.marketdata;
+
+import valueobjects.price.PriceScale;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Converts historic prices to the binary format of the {@link TickStore}. It only has to run once for every dataset,
+ * after that backtests map the binary file instead of parsing the csv again.
+ */
+public class TickStoreImporter {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final PriceScale scale;
+    private long[] times = new long[1024];
+    private long[] prices = new long[1024];
+    private int size;
+
+    public TickStoreImporter(PriceScale scale) {
+        this.scale = scale;
+    }
+
+    /**
+     * Adds a tick to the store. Ticks should be added from oldest to newest.
+     */
+    public void add(long epochSeconds, long price) {
+        if (size == times.length) {
+            times = Arrays.copyOf(times, size * 2);
+            prices = Arrays.copyOf(prices, size * 2);
+        }
+        times[size] = epochSeconds;
+        prices[size] = price;
+        size++;
+    }
+
+    /**
+     * Adds the ticks of a csv file, see {@link CsvTickReader}.
+     */
+    public void addCsv(Path path, CsvColumnMapping mapping) throws IOException {
+        new CsvTickReader(mapping, scale).read(path, this::add);
+    }
+
+    public void addCsv(InputStream inputStream, CsvColumnMapping mapping) throws IOException {
+        new CsvTickReader(mapping, scale).read(inputStream, this::add);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Writes the ticks added so far to the file, replacing it if it exists. Datasets sorted from newest to oldest, like
+     * the ones from cryptodatadownload, are reversed so the store is always sorted from oldest to newest.
+     */
+    public void write(Path path) throws IOException {
+        if (size > 1 && times[0] > times[size - 1]) {
+            reverse(times);
+            reverse(prices);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+            buffer.putInt(TickStore.MAGIC)
+                    .putInt(TickStore.VERSION)
+                    .putInt(scale.getScale())
+                    .putInt(0)
+                    .putLong(size)
+                    .putLong(0);
+            write(channel, buffer, times);
+            write(channel, buffer, prices);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private void reverse(long[] column) {
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            long value = column[i];
+            column[i] = column[j];
+            column[j] = value;
+        }
+    }
+
+    private void write(FileChannel channel, ByteBuffer buffer, long[] column) throws IOException {
+        for (int i = 0; i < size; i++) {
+            if (buffer.remaining() < Long.BYTES) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                buffer.clear();
+            }
+            buffer.putLong(column[i]);
+        }
+    }
+}
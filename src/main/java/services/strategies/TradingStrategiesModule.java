@@ -2,6 +2,7 @@ package services.strategies;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.multibindings.Multibinder;
+import properties.PropertiesModule;
 import services.strategies.exitstrategies.ExitStrategy;
 import services.strategies.exitstrategies.TrailingStopExitStrategy;
 import services.strategies.tradingstrategies.GoldenCrossStrategy;
@@ -13,6 +14,8 @@ public class TradingStrategiesModule extends AbstractModule {
     @Override
     protected void configure() {
         super.configure();
+        install(new PropertiesModule());
+
         Multibinder<TradingStrategy> tradingStrategyBinder = Multibinder.newSetBinder(binder(), TradingStrategy.class);
         tradingStrategyBinder.addBinding().to(ThreeEmaCrossoverStrategy.class);
         tradingStrategyBinder.addBinding().to(GoldenCrossStrategy.class);
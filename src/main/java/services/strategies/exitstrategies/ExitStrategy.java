@@ -3,12 +3,14 @@ package services.strategies.exitstrategies;
 import services.strategies.tradingstrategies.TradingStrategy;
 import valueobjects.timeframe.Timeframe;
 
-import java.math.BigInteger;
 import java.util.Optional;
 import java.util.function.BiFunction;
 
 public interface ExitStrategy {
     String name();
 
-    BiFunction<BigInteger, Timeframe, Optional<TradingStrategy.TradingSignal>> strategy();
+    /**
+     * Takes the reference of the entry order of the trade, which identifies the trade even before it has an id.
+     */
+    BiFunction<Integer, Timeframe, Optional<TradingStrategy.TradingSignal>> strategy();
 }
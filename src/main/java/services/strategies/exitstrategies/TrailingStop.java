@@ -0,0 +1,75 @@
+package services.strategies.exitstrategies;
+
+import lombok.Getter;
+import services.indicators.CrossoverDetector;
+import services.strategies.tradingstrategies.TradingStrategy;
+import valueobjects.price.PriceScale;
+
+/**
+ * Trailing stop of a single trade. It keeps the current stop level, so every new price updates it in constant time.
+ * If we have a buy trade the stop trails below the price and only moves up with it. If we have a sell trade the stop
+ * trails above the price and only moves down with it.
+ * Prices are fixed point longs in the specified {@link PriceScale}.
+ */
+@Getter
+public class TrailingStop {
+
+    private final TradingStrategy.TradingSignal tradeType;
+    private final PriceScale scale;
+    // percentage trailing from the price in decimal form
+    private final long distancePercentage;
+    private long level;
+    // epoch milliseconds of the latest price seen. older prices are ignored.
+    private long time;
+    private final CrossoverDetector crossoverDetector = new CrossoverDetector();
+
+    public TrailingStop(TradingStrategy.TradingSignal tradeType, PriceScale scale, long distancePercentage, long level, long time) {
+        this.tradeType = tradeType;
+        this.scale = scale;
+        this.distancePercentage = distancePercentage;
+        this.level = level;
+        this.time = time;
+        // the trade starts on the right side of its stop. above it for a buy and below it for a sell.
+        this.crossoverDetector.initialize(TradingStrategy.TradingSignal.BUY.equals(tradeType) ? 1 : -1);
+    }
+
+    /**
+     * Creates the trailing stop of a trade that was just entered at the specified price.
+     */
+    public static TrailingStop open(TradingStrategy.TradingSignal tradeType, PriceScale scale, long distancePercentage, long entryPrice, long entryTime) {
+        return new TrailingStop(tradeType, scale, distancePercentage, getDistanceFromPrice(tradeType, scale, distancePercentage, entryPrice), entryTime);
+    }
+
+    /**
+     * Moves the stop with the specified price if needed and returns true if the price crossed the stop.
+     */
+    public boolean update(long time, long price) {
+        if (time <= this.time) {
+            return false;
+        }
+        this.time = time;
+
+        long distanceFromPrice = getDistanceFromPrice(tradeType, scale, distancePercentage, price);
+        level = TradingStrategy.TradingSignal.BUY.equals(tradeType) ? Math.max(level, distanceFromPrice) : Math.min(level, distanceFromPrice);
+
+        return crossoverDetector.update(price, level) != 0;
+    }
+
+    /**
+     * Returns the appropriate trading signal to exit the trade. Basically the opposite operation.
+     * If we have an open BUY trade then sell and vice versa.
+     */
+    public TradingStrategy.TradingSignal getExitSignal() {
+        return TradingStrategy.TradingSignal.BUY.equals(tradeType) ? TradingStrategy.TradingSignal.SELL : TradingStrategy.TradingSignal.BUY;
+    }
+
+    /**
+     * Returns the distance price from the specified price based on the trade type.
+     * If we have a buy trade the trailing stop distance will be below/less and if we have a sell trade the trailing
+     * distance will be above the current price.
+     */
+    private static long getDistanceFromPrice(TradingStrategy.TradingSignal tradeType, PriceScale scale, long distancePercentage, long price) {
+        long distance = scale.multiply(distancePercentage, price);
+        return TradingStrategy.TradingSignal.BUY.equals(tradeType) ? price - distance : price + distance;
+    }
+}
@@ -0,0 +1,125 @@
+package services.strategies.exitstrategies;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import database.entities.TradeEntity;
+import database.entities.TradeOrderEntity;
+import properties.TradeProperties;
+import properties.TrailingStopExitStrategyProperties;
+import services.TimeService;
+import services.trades.TradeService;
+import valueobjects.price.PriceScale;
+import valueobjects.timeframe.Tick;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the {@link TrailingStop} of every open trade in memory. A trailing stop is created when the entry order of the
+ * trade is executed and dropped when the trade closes.
+ * The stop level is stored with the trade, so after a restart the trailing stop carries on from where it was instead
+ * of starting again from the entry price. Storing it is kept off the ticks: the initial level is stored with the
+ * trade when the entry order is executed and the levels that moved since are stored by {@link #checkpoint()}, which
+ * runs on its own schedule and when the application stops.
+ * <p>
+ * Trailing stops are kept by the reference of the entry order of their trade, like the {@link services.trades.OpenTradeRegistry}
+ * does, so a journaled trade trails its stop before it has an id. Its moved level is stored by the first checkpoint
+ * after it got one.
+ */
+@Singleton
+public class TrailingStopTracker {
+
+    private final TradeService tradeService;
+    private final PriceScale scale;
+    private final long distancePercentage;
+    // by entry order reference
+    private final Map<Integer, TrailingStop> trailingStops = new ConcurrentHashMap<>();
+    // levels that moved since they were last stored, by entry order reference
+    private final Map<Integer, Long> unsavedLevels = new ConcurrentHashMap<>();
+
+    @Inject
+    public TrailingStopTracker(TradeProperties tradeProperties, TrailingStopExitStrategyProperties properties, TradeService tradeService) {
+        this.tradeService = tradeService;
+        this.scale = PriceScale.of(tradeProperties.getPriceScale());
+        this.distancePercentage = scale.toFixed(Optional.ofNullable(properties.getDistance()).orElse(BigDecimal.valueOf(0.01)));
+    }
+
+    /**
+     * Creates the trailing stop of the trade. The entry order of the trade should be executed, so we know its price.
+     * The initial stop level is set on the trade and will be stored with it.
+     */
+    public TrailingStop open(TradeEntity trade) {
+        TrailingStop trailingStop = load(trade);
+        trailingStops.put(trade.getEntryOrder().getOrderReference(), trailingStop);
+        trade.setTrailingStop(scale.toBigDecimal(trailingStop.getLevel()));
+        return trailingStop;
+    }
+
+    /**
+     * Updates the trailing stop of the trade with the price of the tick and returns true if the price crossed the stop.
+     * The trailing stop is only loaded from the open trade the first time, ex. after a restart.
+     */
+    public boolean update(int entryOrderReference, Tick tick) {
+        TrailingStop trailingStop = trailingStops.get(entryOrderReference);
+        if (trailingStop == null) {
+            TradeEntity trade = tradeService.getByEntryOrderReference(entryOrderReference).orElseThrow(() ->
+                    new IllegalStateException(TrailingStopExitStrategy.NAME + ": open trade with entry order reference: " + entryOrderReference + " was not found!"));
+            // the entry order is not executed yet so there is no price to trail
+            if (trade.getEntryOrder().getPrice() == null) {
+                return false;
+            }
+            trailingStop = load(trade);
+            trailingStops.put(entryOrderReference, trailingStop);
+        }
+
+        long previousLevel = trailingStop.getLevel();
+        boolean isCrossover = trailingStop.update(TimeService.getMilliSeconds(tick.getTime()), scale.rescale(tick.getPrice(), tick.getScale()));
+        if (trailingStop.getLevel() != previousLevel) {
+            unsavedLevels.put(entryOrderReference, trailingStop.getLevel());
+        }
+        return isCrossover;
+    }
+
+    /**
+     * Stores the levels that moved since the previous checkpoint. A level that moves again while it is stored is
+     * stored on the next checkpoint, and so is the level of a trade that does not have an id yet.
+     */
+    public void checkpoint() {
+        unsavedLevels.forEach((entryOrderReference, level) -> {
+            Optional<TradeEntity> trade = tradeService.getByEntryOrderReference(entryOrderReference);
+            BigInteger tradeId = trade.map(TradeEntity::getId).orElse(null);
+            if (trade.isPresent() && tradeId == null) {
+                return;
+            }
+            // a trade that is not open anymore does not need its level
+            if (tradeId != null) {
+                tradeService.updateTrailingStop(tradeId, scale.toBigDecimal(level));
+            }
+            unsavedLevels.remove(entryOrderReference, level);
+        });
+    }
+
+    public Optional<TrailingStop> get(int entryOrderReference) {
+        return Optional.ofNullable(trailingStops.get(entryOrderReference));
+    }
+
+    /**
+     * Drops the trailing stop of the trade. The trade is closed so its level does not need to be stored anymore.
+     */
+    public void close(int entryOrderReference) {
+        trailingStops.remove(entryOrderReference);
+        unsavedLevels.remove(entryOrderReference);
+    }
+
+    private TrailingStop load(TradeEntity trade) {
+        TradeOrderEntity entryOrder = trade.getEntryOrder();
+        long entryTime = TimeService.getMilliSeconds(entryOrder.getTime());
+        return Optional.ofNullable(trade.getTrailingStop())
+                // carry on from the stored level
+                .map(level -> new TrailingStop(entryOrder.getTradingSignal(), scale, distancePercentage, scale.toFixed(level), entryTime))
+                .orElseGet(() -> TrailingStop.open(entryOrder.getTradingSignal(), scale, distancePercentage, scale.toFixed(entryOrder.getPrice()), entryTime));
+    }
+}
@@ -2,8 +2,10 @@ package services.strategies.tradingstrategies;
 
 import com.google.inject.Inject;
 import properties.GoldenCrossStrategyProperties;
-import properties.PropertiesService;
-import services.indicators.MovingAverageIndicator;
+import properties.TradeProperties;
+import services.indicators.CrossoverDetector;
+import services.indicators.IndicatorKey;
+import services.indicators.IndicatorRegistry;
 import valueobjects.timeframe.Timeframe;
 
 import java.time.Duration;
@@ -21,14 +23,19 @@ import java.util.function.Function;
 public class GoldenCrossStrategy implements TradingStrategy {
 
     private final GoldenCrossStrategyProperties properties;
-    private final MovingAverageIndicator movingAverageIndicator;
+    private final IndicatorRegistry indicatorRegistry;
+    private final IndicatorKey shortMovingAverageKey;
+    private final IndicatorKey longMovingAverageKey;
+    // remembers which average was on top on the previous tick
+    private final CrossoverDetector crossoverDetector = new CrossoverDetector();
 
     @Inject
-    public GoldenCrossStrategy(PropertiesService propertiesService, MovingAverageIndicator movingAverageIndicator) {
-        this.movingAverageIndicator = movingAverageIndicator;
-        this.properties = propertiesService.loadProperties(GoldenCrossStrategyProperties.class).orElseThrow(() ->
-                new IllegalStateException("Trade config must be setup before the system starts trading.")
-        );
+    public GoldenCrossStrategy(GoldenCrossStrategyProperties properties, TradeProperties tradeProperties, IndicatorRegistry indicatorRegistry) {
+        this.properties = properties;
+        this.indicatorRegistry = indicatorRegistry;
+        String assetCode = tradeProperties.getAssetCode();
+        this.shortMovingAverageKey = IndicatorKey.of(assetCode, properties.getPeriodLength(), IndicatorKey.IndicatorType.SMA, properties.getShortPeriod());
+        this.longMovingAverageKey = IndicatorKey.of(assetCode, properties.getPeriodLength(), IndicatorKey.IndicatorType.SMA, properties.getLongPeriod());
     }
 
     @Override
@@ -59,14 +66,11 @@ public class GoldenCrossStrategy implements TradingStrategy {
     @Override
     public Function<Timeframe, Optional<TradingSignal>> strategy() {
         return (timeframe) -> {
+            // shared with any other strategy using the same moving averages
+            Timeframe shortMovingAverage = indicatorRegistry.get(shortMovingAverageKey, timeframe, name());
+            Timeframe longMovingAverage = indicatorRegistry.get(longMovingAverageKey, timeframe, name());
 
-            Integer shortMovingAveragePeriod = properties.getShortPeriod();
-            Integer longMovingAveragePeriod = properties.getLongPeriod();
-
-            Timeframe shortMovingAverage = movingAverageIndicator.apply(timeframe, shortMovingAveragePeriod);
-            Timeframe longMovingAverage = movingAverageIndicator.apply(timeframe, longMovingAveragePeriod);
-
-            int crossover = shortMovingAverage.crossover(longMovingAverage);
+            int crossover = crossoverDetector.update(shortMovingAverage, longMovingAverage);
             if (crossover != 0) {
                 TradingSignal tradingSignal = crossover > 0 ? TradingSignal.BUY : TradingSignal.SELL;
                 return Optional.of(tradingSignal);
@@ -1,12 +1,13 @@
 package services.strategies.tradingstrategies;
 
 import com.google.inject.Inject;
-import properties.PropertiesService;
 import properties.ThreeEmaCrossoverStrategyProperties;
-import services.indicators.ExponentialMovingAverageIndicator;
+import properties.TradeProperties;
+import services.indicators.CrossoverDetector;
+import services.indicators.IndicatorKey;
+import services.indicators.IndicatorRegistry;
 import valueobjects.timeframe.Timeframe;
 
-import java.math.BigDecimal;
 import java.time.Duration;
 import java.util.Optional;
 import java.util.function.Function;
@@ -21,14 +22,22 @@ import java.util.function.Function;
 public class ThreeEmaCrossoverStrategy implements TradingStrategy {
 
     private final ThreeEmaCrossoverStrategyProperties properties;
-    private final ExponentialMovingAverageIndicator exponentialMovingAverageIndicator;
+    private final IndicatorRegistry indicatorRegistry;
+    private final IndicatorKey shortEmaKey;
+    private final IndicatorKey mediumEmaKey;
+    private final IndicatorKey longEmaKey;
+    // remember which EMA was on top on the previous tick
+    private final CrossoverDetector shortCrossoverDetector = new CrossoverDetector();
+    private final CrossoverDetector mediumCrossoverDetector = new CrossoverDetector();
 
     @Inject
-    public ThreeEmaCrossoverStrategy(PropertiesService propertiesService, ExponentialMovingAverageIndicator exponentialMovingAverageIndicator) {
-        this.exponentialMovingAverageIndicator = exponentialMovingAverageIndicator;
-        this.properties = propertiesService.loadProperties(ThreeEmaCrossoverStrategyProperties.class).orElseThrow(() ->
-                new IllegalStateException("Trade config must be setup before the system starts trading.")
-        );
+    public ThreeEmaCrossoverStrategy(ThreeEmaCrossoverStrategyProperties properties, TradeProperties tradeProperties, IndicatorRegistry indicatorRegistry) {
+        this.properties = properties;
+        this.indicatorRegistry = indicatorRegistry;
+        String assetCode = tradeProperties.getAssetCode();
+        this.shortEmaKey = IndicatorKey.of(assetCode, properties.getPeriodLength(), IndicatorKey.IndicatorType.EMA, properties.getShortPeriod());
+        this.mediumEmaKey = IndicatorKey.of(assetCode, properties.getPeriodLength(), IndicatorKey.IndicatorType.EMA, properties.getMediumPeriod());
+        this.longEmaKey = IndicatorKey.of(assetCode, properties.getPeriodLength(), IndicatorKey.IndicatorType.EMA, properties.getLongPeriod());
     }
 
     @Override
@@ -59,19 +68,14 @@ public class ThreeEmaCrossoverStrategy implements TradingStrategy {
     @Override
     public Function<Timeframe, Optional<TradingSignal>> strategy() {
         return (timeframe) -> {
-            // Load settings
-            Integer shortMovingAveragePeriod = properties.getShortPeriod();
-            Integer mediumMovingAveragePeriod = properties.getMediumPeriod();
-            Integer longMovingAveragePeriod = properties.getLongPeriod();
-
-            // Calculate EMAs (short, medium and long)
-            Timeframe shortEma = exponentialMovingAverageIndicator.apply(timeframe, shortMovingAveragePeriod);
-            Timeframe mediumEma = exponentialMovingAverageIndicator.apply(timeframe, mediumMovingAveragePeriod);
-            Timeframe longEma = exponentialMovingAverageIndicator.apply(timeframe, longMovingAveragePeriod);
+            // Calculate EMAs (short, medium and long). shared with any other strategy using the same EMAs
+            Timeframe shortEma = indicatorRegistry.get(shortEmaKey, timeframe, name());
+            Timeframe mediumEma = indicatorRegistry.get(mediumEmaKey, timeframe, name());
+            Timeframe longEma = indicatorRegistry.get(longEmaKey, timeframe, name());
 
             // Check for any kind of crossover between them
-            int shortCrossover = shortEma.crossover(longEma);
-            int mediumCrossover = mediumEma.crossover(longEma);
+            int shortCrossover = shortCrossoverDetector.update(shortEma, longEma);
+            int mediumCrossover = mediumCrossoverDetector.update(mediumEma, longEma);
 
             // On a crossover check if the 3 EMAs are going in the same direction and in the correct order
             // (short is highest and long is lowest)
@@ -90,12 +94,12 @@ public class ThreeEmaCrossoverStrategy implements TradingStrategy {
      * Negative(-) = the graph/price is moving down
      */
     private Optional<Integer> getOrderEmaDirection(Timeframe shortEma, Timeframe mediumEma, Timeframe longEma) {
-        BigDecimal shortEmaValue = shortEma.getTicks().getLast().getValue();
-        BigDecimal mediumEmaValue = mediumEma.getTicks().getLast().getValue();
-        BigDecimal longEmaValue = longEma.getTicks().getLast().getValue();
+        long shortEmaValue = shortEma.lastPrice();
+        long mediumEmaValue = mediumEma.lastPrice();
+        long longEmaValue = longEma.lastPrice();
 
-        int shortMedium = shortEmaValue.subtract(mediumEmaValue).signum();
-        int mediumLong = mediumEmaValue.subtract(longEmaValue).signum();
+        int shortMedium = Long.compare(shortEmaValue, mediumEmaValue);
+        int mediumLong = Long.compare(mediumEmaValue, longEmaValue);
 
         boolean isSamePrice = shortMedium == 0;
         boolean isOrdered = shortMedium == mediumLong;
@@ -0,0 +1,163 @@
+package services.trades;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import database.daos.TradeDao;
+import database.entities.TradeEntity;
+import database.entities.TradeOrderEntity;
+import database.entities.TradeOrderStatus;
+import database.journal.GeneratedIds;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/**
+ * The open trades of every strategy kept in memory, so the checks that run on every tick do not go to the database.
+ * The set of open trades only changes when a trade is opened or closed, and both go through the {@link TradeService}
+ * and the {@link OrderService}, which update the registry after every trade they save. A trade that could not be
+ * saved is not updated here either.
+ * It is loaded from the database the first time it is used, or at startup with {@link #load()}.
+ * <p>
+ * Trades are indexed by their strategy, by their id and by the reference of their entry order. A journaled trade only
+ * gets its id once the journal has stored it, see {@link database.journal.TradeJournal}. The journal writer hands the
+ * generated ids over through a queue and they are set on the trades and indexed under the lock of the registry, the
+ * next time it is used, so the thread that trades never sees a trade change under it.
+ */
+@Singleton
+public class OpenTradeRegistry {
+
+    private final TradeDao tradeDao;
+    private final Map<String, Set<TradeEntity>> tradesByStrategy = new HashMap<>();
+    private final Map<BigInteger, TradeEntity> tradesById = new HashMap<>();
+    private final Map<Integer, TradeEntity> tradesByEntryOrderReference = new HashMap<>();
+    // ids generated since the registry was last used, added by the journal writer
+    private final Queue<GeneratedIds> generatedIds = new ConcurrentLinkedQueue<>();
+    private boolean loaded;
+
+    @Inject
+    public OpenTradeRegistry(TradeDao tradeDao) {
+        this.tradeDao = tradeDao;
+        tradeDao.onGeneratedIds(generatedIds::add);
+    }
+
+    /**
+     * Loads the open trades from the database, replacing the ones in memory.
+     */
+    public synchronized void load() {
+        tradesByStrategy.clear();
+        tradesById.clear();
+        tradesByEntryOrderReference.clear();
+        tradeDao.findOpenTrades().forEach(this::add);
+        loaded = true;
+    }
+
+    /**
+     * Returns a copy of the open trades of the strategy, so trades can be closed and saved while going through them.
+     */
+    public synchronized List<TradeEntity> getOpenTradesByStrategy(String strategyName) {
+        ensureLoaded();
+        Set<TradeEntity> trades = tradesByStrategy.get(strategyName);
+        return trades == null || trades.isEmpty() ? List.of() : new ArrayList<>(trades);
+    }
+
+    public synchronized Optional<TradeEntity> getById(BigInteger id) {
+        ensureLoaded();
+        return Optional.ofNullable(tradesById.get(id));
+    }
+
+    /**
+     * Finds the open trade by the reference of its entry order, which it has from the start, before it has an id.
+     */
+    public synchronized Optional<TradeEntity> getByEntryOrderReference(int entryOrderReference) {
+        ensureLoaded();
+        return Optional.ofNullable(tradesByEntryOrderReference.get(entryOrderReference));
+    }
+
+    /**
+     * The pending orders, which are always orders of open trades. A trade is only closed once its exit order is
+     * executed.
+     */
+    public synchronized List<TradeOrderEntity> getPendingOrders() {
+        ensureLoaded();
+        return tradesByStrategy.values().stream()
+                .flatMap(Set::stream)
+                .flatMap(trade -> trade.getOrders().stream())
+                .filter(order -> TradeOrderStatus.PENDING.equals(order.getStatus()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Keeps the trade if it is open or drops it if it was closed. It should be called after the trade is saved.
+     */
+    public synchronized void update(TradeEntity trade) {
+        ensureLoaded();
+        if (trade.getProfit() == null) {
+            add(trade);
+        } else {
+            remove(trade);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            load();
+        }
+        applyGeneratedIds();
+    }
+
+    /**
+     * Sets the ids the journal generated on the open trades and their orders that have none yet, and indexes the
+     * trades by them. The ids of trades that were closed since are dropped.
+     */
+    private void applyGeneratedIds() {
+        for (GeneratedIds ids = generatedIds.poll(); ids != null; ids = generatedIds.poll()) {
+            TradeEntity trade = tradesByEntryOrderReference.get(ids.getEntryOrderReference());
+            if (trade == null) {
+                continue;
+            }
+            if (trade.getId() == null) {
+                trade.setId(ids.getTradeId());
+                tradesById.put(trade.getId(), trade);
+            }
+            // an order added after the trade was journaled gets its id with the next entry of the trade
+            Map<Integer, BigInteger> orderIds = ids.getOrderIdsByReference();
+            trade.getOrders().stream()
+                    .filter(order -> order.getId() == null && orderIds.containsKey(order.getOrderReference()))
+                    .forEach(order -> order.setId(orderIds.get(order.getOrderReference())));
+        }
+    }
+
+    private void add(TradeEntity trade) {
+        if (trade.getId() != null) {
+            // the same trade read again from the database replaces the one kept so far
+            Optional.ofNullable(tradesById.put(trade.getId(), trade))
+                    .filter(previous -> previous != trade)
+                    .ifPresent(this::removeFromStrategy);
+        }
+        tradesByEntryOrderReference.put(trade.getEntryOrder().getOrderReference(), trade);
+        tradesByStrategy.computeIfAbsent(trade.getEntryStrategy(), strategy -> new LinkedHashSet<>()).add(trade);
+    }
+
+    private void remove(TradeEntity trade) {
+        BigInteger id = trade.getId();
+        if (id != null) {
+            tradesById.remove(id);
+        }
+        tradesByEntryOrderReference.remove(trade.getEntryOrder().getOrderReference());
+        Optional.ofNullable(tradesByStrategy.get(trade.getEntryStrategy())).ifPresent(trades ->
+                trades.removeIf(openTrade -> openTrade == trade || (id != null && id.equals(openTrade.getId()))));
+    }
+
+    private void removeFromStrategy(TradeEntity trade) {
+        Optional.ofNullable(tradesByStrategy.get(trade.getEntryStrategy())).ifPresent(trades -> trades.remove(trade));
+    }
+}
@@ -4,29 +4,38 @@ import com.google.inject.Inject;
 import database.daos.OrderDao;
 import database.entities.TradeEntity;
 import database.entities.TradeOrderStatus;
+import database.entities.TradeOrderType;
 import services.httpclients.kraken.KrakenClient;
 import services.httpclients.kraken.response.OrderStatus;
 import services.httpclients.kraken.response.orderinfo.OrderInfoDetails;
+import services.strategies.exitstrategies.TrailingStopExitStrategy;
+import services.strategies.exitstrategies.TrailingStopTracker;
 
 public class OrderService {
 
     private final KrakenClient client;
     private final OrderDao orderDao;
     private final TradeService tradeService;
+    private final TrailingStopTracker trailingStopTracker;
+    private final OpenTradeRegistry openTradeRegistry;
 
     @Inject
-    public OrderService(OrderDao orderDao, KrakenClient client, TradeService tradeService) {
+    public OrderService(OrderDao orderDao, KrakenClient client, TradeService tradeService, TrailingStopTracker trailingStopTracker,
+                        OpenTradeRegistry openTradeRegistry) {
         this.orderDao = orderDao;
         this.client = client;
         this.tradeService = tradeService;
+        this.trailingStopTracker = trailingStopTracker;
+        this.openTradeRegistry = openTradeRegistry;
     }
 
     /**
-     * Goes through the pending orders in the database and fires query to the API to get the most up to date data for them.
+     * Goes through the pending orders of the open trades and fires query to the API to get the most up to date data for them.
      * If the have been executed it will update the database with the values of the order fulfillment.
+     * The pending orders are taken from the {@link OpenTradeRegistry}, so only the orders that changed go to the database.
      */
     public void syncPendingOrders() {
-        orderDao.findPendingOrders().forEach(order ->
+        openTradeRegistry.getPendingOrders().forEach(order ->
                 client.getOrderInfo(order.getOrderTransaction(), order.getOrderReference()).ifPresent(orderInfo -> {
                     OrderInfoDetails orderInfoDetails = orderInfo.getResult().getTransactionsMap().get(order.getOrderTransaction());
                     if (!OrderStatus.PENDING.equals(orderInfoDetails.getStatus()) && !OrderStatus.OPEN.equals(orderInfoDetails.getStatus())) {
@@ -36,14 +45,22 @@ public class OrderService {
                         order.setFee(orderInfoDetails.getFee());
                         order.setVolumeExec(orderInfoDetails.getVolumeExec());
 
+                        // now that we know the entry price the trade can start trailing its stop
+                        TradeEntity orderTrade = order.getTrade();
+                        if (TradeOrderType.ENTRY.equals(order.getType()) && TrailingStopExitStrategy.NAME.equals(orderTrade.getExitStrategy())) {
+                            trailingStopTracker.open(orderTrade);
+                        }
+
                         // if this was an order that closed a trade update the profit
                         tradeService.calculateTradeProfit(order.getTrade()).ifPresent(profit -> {
                             TradeEntity trade = order.getTrade();
                             trade.setProfit(profit);
                             tradeService.save(trade);
+                            trailingStopTracker.close(trade.getEntryOrder().getOrderReference());
                         });
 
                         orderDao.save(order);
+                        openTradeRegistry.update(order.getTrade());
                     }
                 }));
     }
@@ -13,10 +13,12 @@ import services.httpclients.kraken.KrakenClient;
 import services.httpclients.kraken.response.addorder.AddOrderResult;
 import services.httpclients.kraken.response.balance.BalanceResponse;
 import services.strategies.tradingstrategies.TradingStrategy;
+import valueobjects.price.PriceScale;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -29,27 +31,52 @@ import java.util.concurrent.ThreadLocalRandom;
 public class TradeService {
 
     private final TradeDao tradeDao;
+    private final OpenTradeRegistry openTradeRegistry;
     private final KrakenClient client;
     private final TradeProperties properties;
+    // scale of the fixed point prices of the asset
+    private final PriceScale scale;
+    // time of the orders. the system clock when trading live and the time of the replayed data in a replay
+    private final Clock clock;
 
     @Inject
-    public TradeService(TradeDao tradeDao, KrakenClient client, PropertiesService propertiesService) {
+    public TradeService(TradeDao tradeDao, OpenTradeRegistry openTradeRegistry, KrakenClient client, PropertiesService propertiesService, Clock clock) {
         this.tradeDao = tradeDao;
+        this.openTradeRegistry = openTradeRegistry;
         this.client = client;
         this.properties = propertiesService.loadProperties(TradeProperties.class).orElseThrow();
+        this.scale = PriceScale.of(properties.getPriceScale());
+        this.clock = clock;
     }
 
+    /**
+     * Saves the trade and then updates the {@link OpenTradeRegistry}, so it only has what was saved.
+     */
     public void save(TradeEntity trade) {
         tradeDao.save(trade);
+        openTradeRegistry.update(trade);
     }
 
     public List<TradeEntity> getOpenTradesByStrategy(String strategyName) {
-        return tradeDao.findOpenTradesByStrategy(strategyName);
-
+        return openTradeRegistry.getOpenTradesByStrategy(strategyName);
     }
 
+    /**
+     * Open trades are taken from the {@link OpenTradeRegistry}, only closed ones are read from the database.
+     */
     public Optional<TradeEntity> getById(BigInteger id) {
-        return tradeDao.findById(id);
+        return openTradeRegistry.getById(id).or(() -> tradeDao.findById(id));
+    }
+
+    /**
+     * Only open trades are found, a journaled trade is found before it has an id.
+     */
+    public Optional<TradeEntity> getByEntryOrderReference(int entryOrderReference) {
+        return openTradeRegistry.getByEntryOrderReference(entryOrderReference);
+    }
+
+    public void updateTrailingStop(BigInteger id, BigDecimal trailingStop) {
+        tradeDao.updateTrailingStop(id, trailingStop);
     }
 
     // Generates a unique 32bit integer to be used as order reference. int will always be 32bit.
@@ -76,9 +103,12 @@ public class TradeService {
      * Opens a new trade. A new trade opens with a new entry order. A new order will have a status of pending and no
      * price info at first. When the order is executed we can update the db entry.
      * This will happen next time we check our pending orders in the API.
+     * The price is a fixed point price in the scale of the asset. It is only turned into a BigDecimal here, to work out
+     * the volume of the order.
      */
-    public void openTrade(BigDecimal price, TradingStrategy.TradingSignal tradingSignal, TradingStrategy tradingStrategy) {
+    public void openTrade(long fixedPrice, TradingStrategy.TradingSignal tradingSignal, TradingStrategy tradingStrategy) {
         int orderReference = generateTradeReference();
+        BigDecimal price = scale.toBigDecimal(fixedPrice);
 
         BigDecimal volume = properties.usesLeverage()
                 ? getOpenTradeVolumeWithLeverage(price)
@@ -97,7 +127,7 @@ public class TradeService {
                                     entryOrder.setOrderTransaction(orderTransactionId);
                                     entryOrder.setTradingSignal(tradingSignal);
                                     entryOrder.setVolume(volume);
-                                    entryOrder.setTime(LocalDateTime.now());
+                                    entryOrder.setTime(LocalDateTime.now(clock));
                                     entryOrder.setStatus(TradeOrderStatus.PENDING);
                                     entryOrder.setAssetCode(properties.getAssetCode());
                                     entryOrder.setType(TradeOrderType.ENTRY);
@@ -111,7 +141,7 @@ public class TradeService {
                                     trade.setPeriodLength(tradingStrategy.periodLength());
                                     trade.addOrder(entryOrder);
 
-                                    tradeDao.save(trade);
+                                    save(trade);
                                 }, () -> log.error("Order transaction id was not returned by the api which means the order was not successful.")),
                         () -> log.error("Trade was not opened because the api request was not successful.")
                 );
@@ -160,9 +190,11 @@ public class TradeService {
     /**
      * Will post an order to complete the trade and hopefully make some money.
      * It will try to sell/buy the same volume of coin we sold/bought when we entered this trade.
+     * The price is a fixed point price in the scale of the asset.
      */
-    public void closeTrade(BigDecimal price, TradeEntity trade) {
+    public void closeTrade(long fixedPrice, TradeEntity trade) {
         int orderReference = generateTradeReference();
+        BigDecimal price = scale.toBigDecimal(fixedPrice);
 
         // close the trade by executing the opposite transaction
         TradingStrategy.TradingSignal tradingSignal = TradingStrategy.TradingSignal.BUY.equals(trade.getEntryOrder().getTradingSignal())
@@ -181,7 +213,7 @@ public class TradeService {
 
         client.postMarketOrder(orderReference, volume, tradingSignal)
                 .ifPresentOrElse(
-                        response -> Optional.ofNullable(response.getResult().getTxid())
+                        response -> Optional.ofNullable(response.getResult()).map(AddOrderResult::getTxid)
                                 // get the first transaction as there should only be 1.
                                 .flatMap(transactionList -> transactionList.stream().findFirst())
                                 .ifPresentOrElse(orderTransactionId -> {
@@ -190,7 +222,7 @@ public class TradeService {
                                     exitOrder.setOrderTransaction(orderTransactionId);
                                     exitOrder.setTradingSignal(tradingSignal);
                                     exitOrder.setVolume(volume);
-                                    exitOrder.setTime(LocalDateTime.now());
+                                    exitOrder.setTime(LocalDateTime.now(clock));
                                     exitOrder.setStatus(TradeOrderStatus.PENDING);
                                     exitOrder.setAssetCode(properties.getAssetCode());
                                     exitOrder.setType(TradeOrderType.EXIT);
@@ -200,7 +232,7 @@ public class TradeService {
 
                                     trade.addOrder(exitOrder);
 
-                                    tradeDao.save(trade);
+                                    save(trade);
                                 }, () -> log.error("Order transaction id was not returned by the api which means the order was not successful.")),
                         () -> log.error("Trade was not closed because the api request was not successful.")
                 );
@@ -0,0 +1,124 @@
+package valueobjects.price;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed point representation of prices. A price is kept as a long mantissa and the scale tells us how many of its
+ * digits are decimals. ex. with a scale of 8 the price 2.5 is stored as 250000000.
+ * This lets the hot path (indicators, timeframes, trailing stops) do price arithmetic on primitives. Prices should
+ * only be converted back to {@link BigDecimal} when they leave the system (database, api).
+ * All rounding is HALF_EVEN, the same as the BigDecimal calculations in the rest of the system.
+ */
+@Getter
+@EqualsAndHashCode
+public final class PriceScale {
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    public static final int DEFAULT_SCALE = 8;
+    public static final PriceScale DEFAULT = PriceScale.of(DEFAULT_SCALE);
+
+    private final int scale;
+    // 10^scale. the mantissa of 1
+    private final long one;
+
+    private PriceScale(int scale) {
+        this.scale = scale;
+        this.one = POWERS_OF_TEN[scale];
+    }
+
+    public static PriceScale of(int scale) {
+        if (scale < 0 || scale >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("Price scale must be between 0 and " + (POWERS_OF_TEN.length - 1) + " but was: " + scale);
+        }
+        return new PriceScale(scale);
+    }
+
+    public long toFixed(BigDecimal price) {
+        return price.setScale(scale, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    public long toFixed(double price) {
+        return Math.round(price * one);
+    }
+
+    public long toFixed(long integer) {
+        return Math.multiplyExact(integer, one);
+    }
+
+    public BigDecimal toBigDecimal(long price) {
+        return BigDecimal.valueOf(price, scale);
+    }
+
+    public double toDouble(long price) {
+        return (double) price / one;
+    }
+
+    /**
+     * Converts a fixed point value of the specified scale to this scale. Returns the same value when the scales are
+     * the same, so prices that are already in the right scale pass through without any calculation.
+     */
+    public long rescale(long price, PriceScale from) {
+        if (from.scale == scale) {
+            return price;
+        }
+        return from.scale < scale
+                ? Math.multiplyExact(price, POWERS_OF_TEN[scale - from.scale])
+                : divide(price, POWERS_OF_TEN[from.scale - scale]);
+    }
+
+    /**
+     * Multiplies two fixed point values of this scale. ex. price * percentage.
+     */
+    public long multiply(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        // the product fits in a long when the high bits are only the sign extension of the low bits
+        if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+            return divide(low, one);
+        }
+        // rare case with very big values. fall back to BigDecimal instead of overflowing.
+        return toBigDecimal(a).multiply(toBigDecimal(b)).setScale(scale, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Divides two values and returns the result as a fixed point value of this scale. ex. a ratio between 2 prices.
+     */
+    public long fraction(long numerator, long denominator) {
+        if (Math.abs(numerator) <= Long.MAX_VALUE / one) {
+            return divide(numerator * one, denominator);
+        }
+        // rare case with very big values. fall back to BigDecimal instead of overflowing.
+        return BigDecimal.valueOf(numerator).divide(BigDecimal.valueOf(denominator), scale, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Integer division rounded HALF_EVEN. Used to divide fixed point values by plain integers, ex. a sum by the count
+     * of values, without losing the rounding behaviour of BigDecimal.
+     */
+    public static long divide(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+
+        // compare the remainder with half of the divisor without overflowing
+        long absRemainder = Math.abs(remainder);
+        long absDivisor = Math.abs(divisor);
+        int half = Long.compare(absRemainder, absDivisor - absRemainder);
+        boolean roundAwayFromZero = half > 0 || (half == 0 && (quotient & 1) != 0);
+        if (roundAwayFromZero) {
+            quotient += (dividend < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return quotient;
+    }
+}
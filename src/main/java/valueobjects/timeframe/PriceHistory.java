@@ -0,0 +1,33 @@
+package valueobjects.timeframe;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Read only series of ticks sorted from oldest to newest, ex. the historic prices a backtest runs on.
+ * It can not be changed after it is created and ticks are immutable, so the same history can be shared by backtests
+ * running in parallel without copying it.
+ */
+public final class PriceHistory extends AbstractList<Tick> implements RandomAccess {
+
+    private final Tick[] ticks;
+
+    private PriceHistory(Tick[] ticks) {
+        this.ticks = ticks;
+    }
+
+    public static PriceHistory of(List<Tick> ticks) {
+        return new PriceHistory(ticks.toArray(new Tick[0]));
+    }
+
+    @Override
+    public Tick get(int index) {
+        return ticks[index];
+    }
+
+    @Override
+    public int size() {
+        return ticks.length;
+    }
+}
@@ -1,20 +1,40 @@
 package valueobjects.timeframe;
 
 import lombok.Getter;
+import valueobjects.price.PriceScale;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
  * Snapshot of state at a specific time for the given generic object.
+ * The price is a fixed point long in the scale of the tick (see {@link PriceScale}).
  */
 @Getter
 public class Tick {
     private final LocalDateTime time;
-    private final BigDecimal value;
+    private final long price;
+    private final PriceScale scale;
 
-    public Tick(LocalDateTime time, BigDecimal value) {
+    public Tick(LocalDateTime time, long price, PriceScale scale) {
         this.time = time;
-        this.value = value;
+        this.price = price;
+        this.scale = scale;
+    }
+
+    public Tick(LocalDateTime time, BigDecimal value, PriceScale scale) {
+        this(time, scale.toFixed(value), scale);
+    }
+
+    public Tick(LocalDateTime time, BigDecimal value) {
+        this(time, value, PriceScale.DEFAULT);
+    }
+
+    /**
+     * The price as a BigDecimal. It allocates on every call, so it should only be used where the price leaves the
+     * system (database, api, plots). Calculations should use {@link #getPrice()}.
+     */
+    public BigDecimal getValue() {
+        return scale.toBigDecimal(price);
     }
 }
@@ -1,58 +1,232 @@
 package valueobjects.timeframe;
 
+import valueobjects.price.PriceScale;
+
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.*;
-import java.util.concurrent.LinkedBlockingDeque;
 import java.util.stream.Collectors;
 
 /**
  * Keeps track of the specified object information over time. It holds a specified amount of ticks.
  * When a new ticker is inserted the oldest one is removed.
+ * <p>
+ * Ticks are stored in a circular buffer of 2 primitive columns, the times and the prices, so adding a price does not
+ * allocate and a full timeframe holds no objects besides its arrays. A {@link Tick} is only built when one is asked
+ * for, the hot paths read the columns with {@link #getPrice(int)} and {@link #getTime(int)}.
+ * The times are the local date times of the ticks as UTC epoch milliseconds, like {@link services.TimeService}, so
+ * they are kept to the millisecond.
+ * <p>
+ * {@link #subframe(int, int)}, {@link #last(int)} and {@link #window(int, int)} return read only views that share the
+ * storage of this timeframe. A view reflects the ticks at the time it was taken and should not be used after new ticks
+ * are added to the timeframe it was taken from.
+ * <p>
+ * All the ticks of a timeframe have the {@link PriceScale} of the timeframe, so prices can be compared as longs.
  */
 public class Timeframe {
-    private final LinkedBlockingDeque<Tick> timeFrame;
+    private final long[] times;
+    private final long[] prices;
+    private final PriceScale scale;
+    // array index of the oldest tick
+    private int head;
+    private int size;
+    // ticks added since the timeframe was created, including the ones already overwritten
+    private long tickCount;
+    // views share the arrays of the timeframe they were taken from and can not be modified
+    private final boolean readOnly;
 
     public Timeframe(int ticksLimits) {
-        timeFrame = new LinkedBlockingDeque<>(ticksLimits);
+        this(ticksLimits, PriceScale.DEFAULT);
+    }
+
+    public Timeframe(int ticksLimits, PriceScale scale) {
+        if (ticksLimits < 1) {
+            throw new IllegalArgumentException("Timeframe capacity must be positive but was: " + ticksLimits);
+        }
+        this.times = new long[ticksLimits];
+        this.prices = new long[ticksLimits];
+        this.scale = scale;
+        this.readOnly = false;
     }
 
     public Timeframe(int ticksLimits, Collection<Tick> values) {
-        List<Tick> timeSortedTickers = values.stream()
+        this(ticksLimits);
+        values.stream()
                 // sort tickers by time in case they come in in random order
                 .sorted(Comparator.comparing(Tick::getTime))
-                .collect(Collectors.toList());
-        timeFrame = new LinkedBlockingDeque<>(ticksLimits);
-        timeFrame.addAll(timeSortedTickers);
+                .collect(Collectors.toList())
+                .forEach(this::addTick);
     }
 
-    public LinkedList<Tick> addTick(BigDecimal value) {
-        Tick tick = new Tick(LocalDateTime.now(), value);
-        return addTick(tick);
+    private Timeframe(long[] times, long[] prices, PriceScale scale, int head, int size, long tickCount) {
+        this.times = times;
+        this.prices = prices;
+        this.scale = scale;
+        this.head = head;
+        this.size = size;
+        this.tickCount = tickCount;
+        this.readOnly = true;
     }
 
-    public LinkedList<Tick> addTick(Tick tick) {
-        if (timeFrame.remainingCapacity() == 0) {
-            timeFrame.poll();
-        }
-        timeFrame.add(tick);
+    /**
+     * Adds the value at the current time of the system clock, in the time zone of the host.
+     */
+    public Timeframe addTick(BigDecimal value) {
+        return addTick(value, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Adds the value at the current time of the clock. Pass the injected clock so a replay stamps the value with the
+     * time of the event being replayed.
+     */
+    public Timeframe addTick(BigDecimal value, Clock clock) {
+        return addTick(scale.toFixed(value), clock);
+    }
+
+    /**
+     * Adds the fixed point price, in the scale of this timeframe, at the current local time of the clock.
+     */
+    public Timeframe addTick(long price, Clock clock) {
+        Instant now = clock.instant();
+        long offsetMillis = clock.getZone().getRules().getOffset(now).getTotalSeconds() * 1000L;
+        return addTick(now.toEpochMilli() + offsetMillis, price);
+    }
+
+    /**
+     * Adds the tick. A tick with a different scale is converted to the scale of this timeframe first.
+     */
+    public Timeframe addTick(Tick tick) {
+        long price = scale.equals(tick.getScale()) ? tick.getPrice() : scale.rescale(tick.getPrice(), tick.getScale());
+        LocalDateTime time = tick.getTime();
+        return addTick(time.toEpochSecond(ZoneOffset.UTC) * 1000 + time.getNano() / 1_000_000, price);
+    }
 
-        return new LinkedList<>(timeFrame);
+    /**
+     * Adds the fixed point price, in the scale of this timeframe, at the specified time in UTC epoch milliseconds.
+     */
+    public Timeframe addTick(long time, long price) {
+        if (readOnly) {
+            throw new UnsupportedOperationException("Ticks can not be added to a timeframe view.");
+        }
+        int index;
+        if (size == prices.length) {
+            // overwrite the oldest tick
+            index = head;
+            head = (head + 1) % prices.length;
+        } else {
+            index = (head + size) % prices.length;
+            size++;
+        }
+        times[index] = time;
+        prices[index] = price;
+        tickCount++;
+        return this;
     }
 
+    /**
+     * Returns a copy of the ticks in this timeframe. Prefer {@link #get(int)} and {@link #last()} when only a few
+     * ticks are needed.
+     */
     public LinkedList<Tick> getTicks() {
-        return new LinkedList<>(timeFrame);
+        LinkedList<Tick> copy = new LinkedList<>();
+        for (int i = 0; i < size; i++) {
+            copy.add(get(i));
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the tick at the specified index. 0 is the oldest tick. The tick is built on every call, prefer
+     * {@link #getPrice(int)} and {@link #getTime(int)} where only the price or the time is needed.
+     */
+    public Tick get(int index) {
+        int arrayIndex = arrayIndex(index);
+        long time = times[arrayIndex];
+        LocalDateTime localDateTime = LocalDateTime.ofEpochSecond(Math.floorDiv(time, 1000), (int) Math.floorMod(time, 1000) * 1_000_000, ZoneOffset.UTC);
+        return new Tick(localDateTime, prices[arrayIndex], scale);
+    }
+
+    /**
+     * Returns the fixed point price of the tick at the specified index. 0 is the oldest tick.
+     */
+    public long getPrice(int index) {
+        return prices[arrayIndex(index)];
+    }
+
+    /**
+     * Returns the time of the tick at the specified index in UTC epoch milliseconds. 0 is the oldest tick.
+     */
+    public long getTime(int index) {
+        return times[arrayIndex(index)];
+    }
+
+    /**
+     * Returns the latest tick.
+     */
+    public Tick last() {
+        return get(lastIndex());
+    }
+
+    /**
+     * Returns the fixed point price of the latest tick.
+     */
+    public long lastPrice() {
+        return getPrice(lastIndex());
+    }
+
+    /**
+     * Returns a view of the latest ticks. The size of the view is the specified count.
+     */
+    public Timeframe last(int count) {
+        return window(size - count, size);
+    }
+
+    /**
+     * Returns a view of the ticks between the specified indexes. fromIndex is inclusive and toIndex exclusive.
+     */
+    public Timeframe window(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex + ", Size: " + size);
+        }
+        return new Timeframe(times, prices, scale, (head + fromIndex) % prices.length, toIndex - fromIndex, tickCount - (size - toIndex));
     }
 
     public int size() {
-        return getTicks().size();
+        return size;
+    }
+
+    /**
+     * Number of ticks added to the timeframe since it was created, including the ones that were overwritten since.
+     * Unlike {@link #size()} it keeps growing once the timeframe is full, so a reader that remembers it can tell how
+     * many ticks were added since it last looked.
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Maximum number of ticks the timeframe holds. A view can not grow so its capacity is its size.
+     */
+    public int capacity() {
+        return readOnly ? size : prices.length;
+    }
+
+    public PriceScale getScale() {
+        return scale;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
     }
 
     /**
      * Returns a boolean that specifies if the current timeframe is at max capacity.
      */
     public boolean isFull() {
-        return timeFrame.remainingCapacity() == 0;
+        return readOnly || size == prices.length;
     }
 
     /**
@@ -63,26 +237,27 @@ public class Timeframe {
     }
 
     /**
-     * Returns a partial timeframe based on the specified indexes.
+     * Returns a partial timeframe based on the specified indexes. The partial timeframe is a view on this timeframe.
      */
     public Timeframe subframe(int fromIndex, int toIndex) {
-        List<Tick> subTicks = this.getTicks().subList(fromIndex, toIndex);
-        return new Timeframe(subTicks.size(), subTicks);
+        return window(fromIndex, toIndex);
     }
 
+    /**
+     * Compares the last 2 prices of both timeframes and returns the direction this timeframe crossed the specified
+     * one. 1 = crossed above, -1 = crossed below, 0 = no crossover. Both timeframes are expected to have the same scale.
+     */
     public int crossover(Timeframe timeframe) {
         // Last 2 prices of the current timeframe
-        Iterator<Tick> aTickIterator = this.getTicks().descendingIterator();
-        BigDecimal currentA = aTickIterator.next().getValue();
-        BigDecimal previousA = aTickIterator.next().getValue();
+        long currentA = this.getPrice(size - 1);
+        long previousA = this.getPrice(size - 2);
 
         // Last 2 prices of the specified timeframe
-        Iterator<Tick> bTickIterator = timeframe.getTicks().descendingIterator();
-        BigDecimal currentB = bTickIterator.next().getValue();
-        BigDecimal previousB = bTickIterator.next().getValue();
+        long currentB = timeframe.getPrice(timeframe.size - 1);
+        long previousB = timeframe.getPrice(timeframe.size - 2);
 
-        int currentSignum = currentA.subtract(currentB).signum();
-        int previousSignum = previousA.subtract(previousB).signum();
+        int currentSignum = Long.compare(currentA, currentB);
+        int previousSignum = Long.compare(previousA, previousB);
 
         if (currentSignum != previousSignum) {
             return currentSignum;
@@ -90,4 +265,18 @@ public class Timeframe {
 
         return 0;
     }
+
+    private int lastIndex() {
+        if (size == 0) {
+            throw new NoSuchElementException("Timeframe is empty.");
+        }
+        return size - 1;
+    }
+
+    private int arrayIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (head + index) % prices.length;
+    }
 }
@@ -0,0 +1,81 @@
+package database;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UnitOfWorkTest {
+
+    private EntityManagerFactory entityManagerFactory;
+    private UnitOfWork unitOfWork;
+
+    @BeforeEach
+    void setUp() {
+        entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.createEntityManager()).thenAnswer(invocation -> {
+            EntityManager entityManager = mock(EntityManager.class);
+            when(entityManager.getTransaction()).thenReturn(mock(EntityTransaction.class));
+            return entityManager;
+        });
+        unitOfWork = new UnitOfWork(entityManagerFactory);
+    }
+
+    @Test
+    void closesTheEntityManagerAtTheEnd() {
+        EntityManager entityManager = unitOfWork.call(unitOfWork::getEntityManager);
+
+        verify(entityManager).close();
+        assertFalse(unitOfWork.isActive());
+    }
+
+    @Test
+    void nestedUnitsShareTheEntityManager() {
+        unitOfWork.run(() -> {
+            EntityManager entityManager = unitOfWork.getEntityManager();
+            assertSame(entityManager, unitOfWork.call(unitOfWork::getEntityManager));
+            verify(entityManager, never()).close();
+        });
+
+        verify(entityManagerFactory, times(1)).createEntityManager();
+    }
+
+    @Test
+    void everyUnitHasItsOwnEntityManager() {
+        assertNotSame(unitOfWork.call(unitOfWork::getEntityManager), unitOfWork.call(unitOfWork::getEntityManager));
+    }
+
+    @Test
+    void threadsHaveTheirOwnEntityManager() {
+        unitOfWork.run(() -> {
+            EntityManager otherThreadEntityManager = CompletableFuture.supplyAsync(() -> unitOfWork.call(unitOfWork::getEntityManager)).join();
+            assertNotSame(unitOfWork.getEntityManager(), otherThreadEntityManager);
+        });
+    }
+
+    @Test
+    void rollsBackWhenTheWorkFails() {
+        EntityManager[] entityManager = new EntityManager[1];
+
+        assertThrows(IllegalArgumentException.class, () -> unitOfWork.run(() -> {
+            entityManager[0] = unitOfWork.getEntityManager();
+            when(entityManager[0].getTransaction().isActive()).thenReturn(true);
+            throw new IllegalArgumentException();
+        }));
+
+        verify(entityManager[0].getTransaction()).rollback();
+        verify(entityManager[0]).close();
+        assertFalse(unitOfWork.isActive());
+    }
+
+    @Test
+    void getEntityManagerOutsideOfAUnit() {
+        assertThrows(IllegalStateException.class, unitOfWork::getEntityManager);
+    }
+}
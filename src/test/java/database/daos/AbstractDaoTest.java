@@ -0,0 +1,93 @@
+package database.daos;
+
+import database.entities.TradeEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class AbstractDaoTest {
+
+    private EntityManager entityManager;
+    private EntityTransaction transaction;
+    private TradeDao tradeDao;
+
+    @BeforeEach
+    void setUp() {
+        entityManager = mock(EntityManager.class);
+        transaction = mock(EntityTransaction.class);
+        when(entityManager.getTransaction()).thenReturn(transaction);
+        tradeDao = new TradeDao(() -> entityManager);
+    }
+
+    @Test
+    void saveAllCommitsABatchAtATime() {
+        List<TradeEntity> trades = IntStream.range(0, AbstractDao.BATCH_SIZE * 2 + 1)
+                .mapToObj(i -> new TradeEntity())
+                .collect(Collectors.toList());
+
+        tradeDao.saveAll(trades);
+
+        trades.forEach(trade -> verify(entityManager).persist(trade));
+        verify(transaction, times(3)).begin();
+        verify(transaction, times(3)).commit();
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    void saveAllWithNothingToSave() {
+        tradeDao.saveAll(List.of());
+
+        verify(transaction, never()).begin();
+        verify(entityManager, never()).persist(any());
+    }
+
+    @Test
+    void forEachClosedTradeProfitRollsBackOnFailure() {
+        TypedQuery<BigDecimal> query = givenProfitsQuery();
+        when(query.getResultStream()).thenThrow(new PersistenceException("connection lost"));
+        when(transaction.isActive()).thenReturn(false, true);
+
+        assertThrows(PersistenceException.class, () -> tradeDao.forEachClosedTradeProfit(profit -> {
+        }));
+
+        verify(transaction).begin();
+        verify(transaction).rollback();
+        verify(transaction, never()).commit();
+    }
+
+    @Test
+    void forEachClosedTradeProfitJoinsTheActiveTransaction() {
+        TypedQuery<BigDecimal> query = givenProfitsQuery();
+        when(query.getResultStream()).thenReturn(Stream.of(BigDecimal.ONE, BigDecimal.TEN));
+        when(transaction.isActive()).thenReturn(true);
+
+        List<BigDecimal> profits = new ArrayList<>();
+        tradeDao.forEachClosedTradeProfit(profits::add);
+
+        assertEquals(List.of(BigDecimal.ONE, BigDecimal.TEN), profits);
+        // the caller owns the transaction
+        verify(transaction, never()).begin();
+        verify(transaction, never()).commit();
+    }
+
+    @SuppressWarnings("unchecked")
+    private TypedQuery<BigDecimal> givenProfitsQuery() {
+        TypedQuery<BigDecimal> query = mock(TypedQuery.class, RETURNS_SELF);
+        when(entityManager.createQuery(anyString(), eq(BigDecimal.class))).thenReturn(query);
+        return query;
+    }
+}
@@ -0,0 +1,121 @@
+package database.daos;
+
+import database.entities.TradeEntity;
+import database.entities.TradeOrderEntity;
+import database.entities.TradeOrderType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryTradeDaoTest {
+
+    private final InMemoryTradeDao tradeDao = new InMemoryTradeDao();
+
+    @Test
+    void saveGeneratesIds() {
+        TradeEntity first = getTrade("GoldenCross");
+        TradeEntity second = getTrade("GoldenCross");
+        tradeDao.save(first);
+        tradeDao.save(second);
+
+        assertEquals(BigInteger.ONE, first.getId());
+        assertEquals(BigInteger.TWO, second.getId());
+        assertEquals(BigInteger.TWO, second.getEntryOrder().getId());
+
+        // saving again keeps the id
+        tradeDao.save(first);
+        assertEquals(BigInteger.ONE, first.getId());
+        assertSame(first, tradeDao.findById(BigInteger.ONE).orElseThrow());
+        assertEquals(2, tradeDao.findAll().size());
+    }
+
+    @Test
+    void saveAll() {
+        TradeEntity first = getTrade("GoldenCross");
+        TradeEntity second = getTrade("GoldenCross");
+        tradeDao.saveAll(List.of(first, second));
+
+        assertEquals(BigInteger.ONE, first.getId());
+        assertEquals(BigInteger.TWO, second.getId());
+        assertEquals(List.of(first, second), tradeDao.findOpenTradesByStrategy("GoldenCross"));
+    }
+
+    @Test
+    void findOpenTradesByStrategy() {
+        TradeEntity goldenCross = getTrade("GoldenCross");
+        TradeEntity threeEma = getTrade("3EmaCrossover");
+        tradeDao.save(goldenCross);
+        tradeDao.save(threeEma);
+
+        assertEquals(List.of(goldenCross), tradeDao.findOpenTradesByStrategy("GoldenCross"));
+
+        // closing a trade while going through the open trades
+        for (TradeEntity trade : tradeDao.findOpenTradesByStrategy("GoldenCross")) {
+            trade.setProfit(BigDecimal.ONE);
+            tradeDao.save(trade);
+        }
+        assertTrue(tradeDao.findOpenTradesByStrategy("GoldenCross").isEmpty());
+        assertEquals(List.of(threeEma), tradeDao.findOpenTradesByStrategy("3EmaCrossover"));
+        assertTrue(tradeDao.findOpenTradesByStrategy("Unknown").isEmpty());
+    }
+
+    @Test
+    void updateTrailingStop() {
+        TradeEntity trade = getTrade("GoldenCross");
+        tradeDao.save(trade);
+
+        tradeDao.updateTrailingStop(trade.getId(), BigDecimal.TEN);
+        assertEquals(BigDecimal.TEN, trade.getTrailingStop());
+    }
+
+    @Test
+    void forEachClosedTradeProfit() {
+        LocalDateTime time = LocalDateTime.of(2022, 1, 1, 0, 0);
+        TradeEntity first = getTrade("GoldenCross");
+        TradeEntity second = getTrade("GoldenCross");
+        TradeEntity open = getTrade("GoldenCross");
+        tradeDao.save(first);
+        tradeDao.save(second);
+        tradeDao.save(open);
+        // the second trade closes first
+        close(second, time, BigDecimal.ONE);
+        close(first, time.plusHours(1), BigDecimal.TEN);
+
+        List<BigDecimal> profits = new ArrayList<>();
+        tradeDao.forEachClosedTradeProfit(profits::add);
+
+        assertEquals(List.of(BigDecimal.ONE, BigDecimal.TEN), profits);
+        // in the order the trades were opened
+        assertEquals(List.of(BigDecimal.TEN, BigDecimal.ONE), tradeDao.findClosedTradeProfits());
+    }
+
+    private void close(TradeEntity trade, LocalDateTime time, BigDecimal profit) {
+        TradeOrderEntity exitOrder = new TradeOrderEntity();
+        exitOrder.setType(TradeOrderType.EXIT);
+        exitOrder.setTime(time);
+        trade.addOrder(exitOrder);
+        trade.setProfit(profit);
+        tradeDao.save(trade);
+    }
+
+    private TradeEntity getTrade(String strategy) {
+        TradeOrderEntity entryOrder = new TradeOrderEntity();
+        entryOrder.setType(TradeOrderType.ENTRY);
+
+        TradeEntity trade = new TradeEntity();
+        trade.setEntryStrategy(strategy);
+        trade.setExitStrategy("TrailingStop");
+        trade.setPeriodLength(Duration.ofHours(1));
+        trade.addOrder(entryOrder);
+        return trade;
+    }
+}
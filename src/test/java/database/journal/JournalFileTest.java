@@ -0,0 +1,117 @@
+package database.journal;
+
+import database.entities.TradeEntity;
+import database.entities.TradeOrderEntity;
+import database.entities.TradeOrderType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JournalFileTest {
+
+    private Path directory;
+    private Path path;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal");
+        path = directory.resolve("trade-journal.jsonl");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void readsTheEntriesInOrder() throws IOException {
+        try (JournalFile file = new JournalFile(path)) {
+            file.append(JournalEntry.trade(1, TradeSnapshot.of(trade(11))));
+            file.append(JournalEntry.trailingStop(2, BigInteger.ONE, new BigDecimal("99.5")));
+            file.append(JournalEntry.trade(3, TradeSnapshot.of(trade(12))));
+        }
+
+        try (JournalFile file = new JournalFile(path)) {
+            List<JournalEntry> entries = file.readUnflushed();
+
+            assertEquals(List.of(1L, 2L, 3L), entries.stream().map(JournalEntry::getSequence).collect(Collectors.toList()));
+            assertEquals(11, entries.get(0).getTrade().getEntryOrderReference());
+            assertEquals(new BigDecimal("99.5"), entries.get(1).getTrailingStop());
+            assertEquals(BigInteger.ONE, entries.get(1).getTradeId());
+        }
+    }
+
+    @Test
+    void skipsTheEntriesBeforeTheCheckpoint() throws IOException {
+        try (JournalFile file = new JournalFile(path)) {
+            file.append(JournalEntry.trade(1, TradeSnapshot.of(trade(11))));
+            file.append(JournalEntry.trade(2, TradeSnapshot.of(trade(12))));
+            file.checkpoint(1);
+        }
+
+        try (JournalFile file = new JournalFile(path)) {
+            assertEquals(1, file.readCheckpoint());
+            assertEquals(List.of(2L), file.readUnflushed().stream().map(JournalEntry::getSequence).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void skipsAnEntryCutByACrash() throws IOException {
+        try (JournalFile file = new JournalFile(path)) {
+            file.append(JournalEntry.trade(1, TradeSnapshot.of(trade(11))));
+        }
+        Files.write(path, "{\"sequence\":2,\"trade\":{\"entryStr".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        try (JournalFile file = new JournalFile(path)) {
+            file.append(JournalEntry.trade(3, TradeSnapshot.of(trade(13))));
+
+            assertEquals(List.of(1L, 3L), file.readUnflushed().stream().map(JournalEntry::getSequence).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void truncate() throws IOException {
+        try (JournalFile file = new JournalFile(path)) {
+            file.append(JournalEntry.trade(1, TradeSnapshot.of(trade(11))));
+            file.checkpoint(1);
+            file.truncate();
+            file.append(JournalEntry.trade(2, TradeSnapshot.of(trade(12))));
+
+            assertEquals(List.of(2L), file.readUnflushed().stream().map(JournalEntry::getSequence).collect(Collectors.toList()));
+            assertEquals(1, Files.readAllLines(path).size());
+        }
+    }
+
+    static TradeEntity trade(int entryOrderReference) {
+        TradeOrderEntity entryOrder = new TradeOrderEntity();
+        entryOrder.setOrderReference(entryOrderReference);
+        entryOrder.setType(TradeOrderType.ENTRY);
+        entryOrder.setTimeMilliSeconds(1_650_000_000_123L);
+
+        TradeEntity trade = new TradeEntity();
+        trade.setEntryStrategy("GoldenCross");
+        trade.setExitStrategy("TrailingStop");
+        trade.setPeriodLength(Duration.ofHours(1));
+        trade.addOrder(entryOrder);
+        return trade;
+    }
+}
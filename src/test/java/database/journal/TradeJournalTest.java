@@ -0,0 +1,151 @@
+package database.journal;
+
+import database.UnitOfWork;
+import database.entities.TradeEntity;
+import jakarta.persistence.PersistenceException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class TradeJournalTest {
+
+    private Path directory;
+    private Path path;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal");
+        path = directory.resolve("trade-journal.jsonl");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void storedTradesLeaveTheJournal() throws Exception {
+        // the unit of work does nothing, as if every batch was stored
+        TradeJournal journal = new TradeJournal(mock(UnitOfWork.class), path);
+        journal.append(JournalFileTest.trade(11));
+        journal.append(JournalFileTest.trade(12));
+
+        waitUntil(() -> journal.getPendingTrades().isEmpty());
+        journal.close();
+
+        assertEquals(0, Files.size(path));
+        assertEquals("2", Files.readString(directory.resolve("trade-journal.jsonl.checkpoint")));
+    }
+
+    @Test
+    void pendingTradesAreReadBeforeTheyAreStored() {
+        TradeJournal journal = new TradeJournal(failingUnitOfWork(), path);
+        TradeEntity trade = JournalFileTest.trade(11);
+        trade.setId(BigInteger.TEN);
+
+        journal.append(trade);
+
+        assertEquals(List.of(trade), journal.getPendingTrades());
+        assertSame(trade, journal.getPendingTrade(BigInteger.TEN).orElseThrow());
+        assertTrue(journal.getPendingTrade(BigInteger.ONE).isEmpty());
+        journal.close();
+    }
+
+    @Test
+    void replaysTheTradesThatWereNotStored() {
+        TradeJournal journal = new TradeJournal(failingUnitOfWork(), path);
+        journal.append(JournalFileTest.trade(11));
+        TradeEntity trade = JournalFileTest.trade(12);
+        journal.append(trade);
+        trade.setProfit(BigDecimal.ONE);
+        journal.append(trade);
+        journal.close();
+
+        TradeJournal restarted = new TradeJournal(failingUnitOfWork(), path);
+        List<TradeEntity> pendingTrades = restarted.getPendingTrades();
+        restarted.close();
+
+        assertEquals(2, pendingTrades.size());
+        TradeEntity replayed = pendingTrades.stream().filter(pendingTrade -> pendingTrade.getEntryOrder().getOrderReference() == 12)
+                .findFirst().orElseThrow();
+        // the last state of the trade
+        assertEquals(BigDecimal.ONE, replayed.getProfit());
+    }
+
+    @Test
+    void entriesThatKeepFailingAreSetAside() throws Exception {
+        TradeJournal journal = new TradeJournal(failingUnitOfWork(), path);
+        journal.append(JournalFileTest.trade(11));
+        journal.append(JournalFileTest.trade(12));
+        journal.close();
+
+        // the batch of both entries fails every attempt, then the first entry is stored on its own and the second fails
+        AtomicInteger attempts = new AtomicInteger();
+        UnitOfWork unitOfWork = mock(UnitOfWork.class);
+        doAnswer(invocation -> {
+            if (attempts.incrementAndGet() != TradeJournal.MAX_ATTEMPTS + 1) {
+                throw new IllegalStateException("constraint violation");
+            }
+            return null;
+        }).when(unitOfWork).run(any());
+        TradeJournal restarted = new TradeJournal(unitOfWork, path);
+
+        waitUntil(() -> restarted.getPendingTrades().isEmpty());
+        restarted.close();
+
+        assertEquals(TradeJournal.MAX_ATTEMPTS + 2, attempts.get());
+        assertEquals("2", Files.readString(directory.resolve("trade-journal.jsonl.checkpoint")));
+        try (JournalFile deadLetters = new JournalFile(directory.resolve("trade-journal.jsonl.dead"))) {
+            List<JournalEntry> entries = deadLetters.readUnflushed();
+            assertEquals(1, entries.size());
+            assertEquals(12, entries.get(0).getTrade().getEntryOrderReference());
+        }
+    }
+
+    @Test
+    void transientFailures() {
+        assertTrue(TradeJournal.isTransient(new PersistenceException(new SQLTransientConnectionException("timeout"))));
+        assertTrue(TradeJournal.isTransient(new PersistenceException(new SQLException("connection refused", "08001"))));
+        assertFalse(TradeJournal.isTransient(new PersistenceException(new SQLException("duplicate key", "23505"))));
+        assertFalse(TradeJournal.isTransient(new IllegalStateException("constraint violation")));
+    }
+
+    // the database can not be reached, the entries stay in the journal
+    private static UnitOfWork failingUnitOfWork() {
+        UnitOfWork unitOfWork = mock(UnitOfWork.class);
+        doThrow(new PersistenceException(new SQLTransientConnectionException("database is down"))).when(unitOfWork).run(any());
+        return unitOfWork;
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,76 @@
+package database.journal;
+
+import database.entities.TradeEntity;
+import database.entities.TradeOrderEntity;
+import database.entities.TradeOrderStatus;
+import database.entities.TradeOrderType;
+import org.junit.jupiter.api.Test;
+import services.strategies.tradingstrategies.TradingStrategy;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradeSnapshotTest {
+
+    @Test
+    void toEntity() {
+        TradeEntity trade = JournalFileTest.trade(11);
+        trade.setId(BigInteger.TEN);
+        trade.setTrailingStop(new BigDecimal("95"));
+        trade.getEntryOrder().setStatus(TradeOrderStatus.EXECUTED);
+        trade.getEntryOrder().setTradingSignal(TradingStrategy.TradingSignal.BUY);
+        trade.getEntryOrder().setPrice(new BigDecimal("100.5"));
+
+        TradeEntity copy = TradeSnapshot.of(trade).toEntity();
+
+        assertEquals(BigInteger.TEN, copy.getId());
+        assertEquals("GoldenCross", copy.getEntryStrategy());
+        assertEquals(Duration.ofHours(1), copy.getPeriodLength());
+        assertEquals(new BigDecimal("95"), copy.getTrailingStop());
+        assertEquals(1, copy.getOrders().size());
+        assertSame(copy, copy.getEntryOrder().getTrade());
+        assertEquals(11, copy.getEntryOrder().getOrderReference());
+        assertEquals(TradeOrderStatus.EXECUTED, copy.getEntryOrder().getStatus());
+        assertEquals(TradingStrategy.TradingSignal.BUY, copy.getEntryOrder().getTradingSignal());
+        assertEquals(new BigDecimal("100.5"), copy.getEntryOrder().getPrice());
+        // the milliseconds are kept
+        assertEquals(1_650_000_000_123L, copy.getEntryOrder().getTimeMilliSeconds().longValue());
+    }
+
+    @Test
+    void applyToAddsTheNewOrders() {
+        TradeEntity stored = JournalFileTest.trade(11);
+        TradeEntity trade = JournalFileTest.trade(11);
+        trade.getEntryOrder().setStatus(TradeOrderStatus.EXECUTED);
+        TradeOrderEntity exitOrder = new TradeOrderEntity();
+        exitOrder.setOrderReference(12);
+        exitOrder.setType(TradeOrderType.EXIT);
+        trade.addOrder(exitOrder);
+        trade.setProfit(BigDecimal.ONE);
+
+        List<TradeOrderEntity> newOrders = TradeSnapshot.of(trade).applyTo(stored);
+
+        assertEquals(1, newOrders.size());
+        assertEquals(12, newOrders.get(0).getOrderReference());
+        assertSame(stored, newOrders.get(0).getTrade());
+        assertEquals(2, stored.getOrders().size());
+        assertEquals(TradeOrderStatus.EXECUTED, stored.getEntryOrder().getStatus());
+        assertEquals(BigDecimal.ONE, stored.getProfit());
+    }
+
+    @Test
+    void applyToKeepsTheStoredTrailingStop() {
+        TradeEntity stored = JournalFileTest.trade(11);
+        stored.setTrailingStop(new BigDecimal("98"));
+        TradeEntity trade = JournalFileTest.trade(11);
+        trade.setTrailingStop(new BigDecimal("95"));
+
+        TradeSnapshot.of(trade).applyTo(stored);
+
+        assertEquals(new BigDecimal("98"), stored.getTrailingStop());
+    }
+}
@@ -0,0 +1,31 @@
+package services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReplayClockTest {
+
+    @Test
+    void set() {
+        ReplayClock clock = new ReplayClock();
+        assertEquals(Instant.EPOCH, clock.instant());
+
+        LocalDateTime time = LocalDateTime.of(2022, 1, 1, 10, 30, 15);
+        clock.set(time);
+
+        // the clock only moves when the replay moves it
+        assertEquals(time, LocalDateTime.now(clock));
+        assertEquals(time, LocalDateTime.now(clock));
+        assertEquals(TimeService.getMilliSeconds(time), clock.millis());
+        assertEquals(ZoneOffset.UTC, clock.getZone());
+
+        clock.set(1_000L);
+        assertEquals(Instant.ofEpochSecond(1), clock.instant());
+        assertEquals(Instant.ofEpochSecond(1), clock.withZone(ZoneOffset.ofHours(2)).instant());
+    }
+}
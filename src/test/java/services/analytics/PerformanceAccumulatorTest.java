@@ -0,0 +1,59 @@
+package services.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PerformanceAccumulatorTest {
+
+    @Test
+    void metrics() {
+        double[] profits = {2, -1, 3, -2, -1, 4};
+        PerformanceAccumulator performance = new PerformanceAccumulator();
+        Arrays.stream(profits).forEach(performance::add);
+
+        assertEquals(6, performance.getTrades());
+        assertEquals(3, performance.getWinningTrades());
+        assertEquals(0.5, performance.getWinRate(), 1e-12);
+        assertEquals(5, performance.getTotalProfit(), 1e-12);
+        assertEquals(5.0 / 6, performance.getExpectancy(), 1e-12);
+        // 9 won and 4 lost
+        assertEquals(9.0 / 4, performance.getProfitFactor(), 1e-12);
+        // cumulative 2, 1, 4, 2, 1, 5: from the peak of 4 down to 1
+        assertEquals(3, performance.getMaxDrawdown(), 1e-12);
+
+        double mean = 5.0 / 6;
+        double variance = Arrays.stream(profits).map(profit -> (profit - mean) * (profit - mean)).sum() / 5;
+        assertEquals(mean / Math.sqrt(variance), performance.getSharpeRatio(), 1e-12);
+        // losses of 1, 2 and 1 over 6 trades
+        assertEquals(mean / Math.sqrt(6.0 / 6), performance.getSortinoRatio(), 1e-12);
+        assertEquals(1.02 * 0.99 * 1.03 * 0.98 * 0.99 * 1.04, performance.getEquity(), 1e-12);
+    }
+
+    @Test
+    void fee() {
+        PerformanceAccumulator performance = new PerformanceAccumulator(0.01);
+        performance.add(10);
+        performance.add(-10);
+
+        assertEquals(1.1 * 0.99 * 0.9 * 0.99, performance.getEquity(), 1e-12);
+        // the fee only changes the compounded equity
+        assertEquals(0, performance.getTotalProfit(), 1e-12);
+    }
+
+    @Test
+    void noLosses() {
+        PerformanceAccumulator performance = new PerformanceAccumulator();
+        assertEquals(0, performance.getProfitFactor(), 0);
+        assertEquals(0, performance.getSharpeRatio(), 0);
+
+        performance.add(1);
+        performance.add(1);
+
+        assertEquals(Double.POSITIVE_INFINITY, performance.getProfitFactor(), 0);
+        assertEquals(0, performance.getSortinoRatio(), 0);
+        assertEquals(0, performance.getMaxDrawdown(), 0);
+    }
+}
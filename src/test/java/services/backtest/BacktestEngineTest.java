@@ -0,0 +1,166 @@
+package services.backtest;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import database.entities.TradeEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import services.ReplayClock;
+import services.httpclients.HttpClientModule;
+import services.strategies.exitstrategies.ExitStrategy;
+import services.strategies.exitstrategies.TrailingStopExitStrategy;
+import services.strategies.tradingstrategies.TradingStrategy;
+import valueobjects.timeframe.Tick;
+import valueobjects.timeframe.Timeframe;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class BacktestEngineTest {
+
+    private Injector injector;
+    private BacktestEngine backtestEngine;
+
+    @BeforeEach
+    void setUp() {
+        injector = Guice.createInjector(new HttpClientModule(), new BacktestModule());
+        backtestEngine = injector.getInstance(BacktestEngine.class);
+    }
+
+    @Test
+    void run() {
+        // buys when the price reaches 105 and sells when it reaches 110
+        TradingStrategy strategy = new TestStrategy(timeframe -> Optional.ofNullable(
+                timeframe.last().getValue().compareTo(BigDecimal.valueOf(105)) == 0 ? TradingStrategy.TradingSignal.BUY : null));
+        ExitStrategy exitStrategy = new TestExitStrategy((tradeId, timeframe) -> Optional.ofNullable(
+                timeframe.last().getValue().compareTo(BigDecimal.valueOf(110)) >= 0 ? TradingStrategy.TradingSignal.SELL : null));
+
+        BacktestResult result = backtestEngine.run(strategy, exitStrategy, getTicks(100, 101, 102, 105, 107, 110, 105, 103));
+
+        // the first 2 ticks only fill the timeframe
+        assertEquals(6, result.getTicks());
+        assertEquals(1, result.getClosedTrades().size());
+        assertEquals(1, result.getOpenTrades());
+
+        TradeEntity trade = result.getClosedTrades().get(0);
+        assertEquals(0, BigDecimal.valueOf(105).compareTo(trade.getEntryOrder().getPrice()));
+        assertEquals(0, BigDecimal.valueOf(110).compareTo(trade.getExitOrder().orElseThrow().getPrice()));
+        // (110 - 105) / 107.5 * 100
+        BigDecimal expectedProfit = BigDecimal.valueOf(5).divide(BigDecimal.valueOf(107.5), 10, RoundingMode.HALF_EVEN).multiply(BigDecimal.valueOf(100));
+        assertEquals(expectedProfit, trade.getProfit());
+        assertEquals(expectedProfit, result.getTotalProfit());
+        assertEquals(1, result.getWinningTrades());
+        // the metrics are ready when the run ends
+        assertEquals(1, result.getPerformance().getTrades());
+        assertEquals(expectedProfit.doubleValue(), result.getPerformance().getTotalProfit(), 1e-9);
+    }
+
+    @Test
+    void runWithTrailingStop() {
+        TradingStrategy strategy = new TestStrategy(timeframe -> Optional.ofNullable(
+                timeframe.last().getValue().compareTo(BigDecimal.valueOf(100)) == 0 ? TradingStrategy.TradingSignal.BUY : null));
+        ExitStrategy exitStrategy = injector.getInstance(TrailingStopExitStrategy.class);
+
+        // the stop trails 1.5% below the highest price, 118.2 after 120
+        BacktestResult result = backtestEngine.run(strategy, exitStrategy, getTicks(90, 95, 100, 110, 120, 119, 118));
+
+        assertEquals(1, result.getClosedTrades().size());
+        assertEquals(BigInteger.ONE, result.getClosedTrades().get(0).getId());
+        assertEquals(0, BigDecimal.valueOf(118).compareTo(result.getClosedTrades().get(0).getExitOrder().orElseThrow().getPrice()));
+        assertEquals(0, result.getOpenTrades());
+    }
+
+    @Test
+    void runsOnTheTimeOfTheTicks() {
+        Clock clock = injector.getInstance(Clock.class);
+        List<LocalDateTime> strategyTimes = new ArrayList<>();
+        TradingStrategy strategy = new TestStrategy(timeframe -> {
+            strategyTimes.add(LocalDateTime.now(clock));
+            return Optional.empty();
+        });
+        List<Tick> ticks = getTicks(100, 101, 102, 103);
+
+        backtestEngine.run(strategy, new TestExitStrategy((tradeId, timeframe) -> Optional.empty()), ticks);
+
+        // the clock is bound to the replay clock and the strategy sees the time of every tick after the timeframe is full
+        assertSame(injector.getInstance(ReplayClock.class), clock);
+        assertEquals(List.of(ticks.get(2).getTime(), ticks.get(3).getTime()), strategyTimes);
+    }
+
+    private List<Tick> getTicks(int... prices) {
+        LocalDateTime time = LocalDateTime.of(2022, 1, 1, 0, 0);
+        List<Tick> ticks = new ArrayList<>();
+        for (int i = 0; i < prices.length; i++) {
+            ticks.add(new Tick(time.plusHours(i), BigDecimal.valueOf(prices[i])));
+        }
+        return ticks;
+    }
+
+    private static class TestStrategy implements TradingStrategy {
+        private final Function<Timeframe, Optional<TradingSignal>> strategy;
+
+        private TestStrategy(Function<Timeframe, Optional<TradingSignal>> strategy) {
+            this.strategy = strategy;
+        }
+
+        @Override
+        public boolean enabled() {
+            return true;
+        }
+
+        @Override
+        public String name() {
+            return "Test";
+        }
+
+        @Override
+        public String exitStrategyName() {
+            return "Test";
+        }
+
+        @Override
+        public Duration periodLength() {
+            return Duration.ofHours(1);
+        }
+
+        @Override
+        public Integer timeframeSize() {
+            return 2;
+        }
+
+        @Override
+        public Function<Timeframe, Optional<TradingSignal>> strategy() {
+            return strategy;
+        }
+    }
+
+    private static class TestExitStrategy implements ExitStrategy {
+        private final BiFunction<Integer, Timeframe, Optional<TradingStrategy.TradingSignal>> strategy;
+
+        private TestExitStrategy(BiFunction<Integer, Timeframe, Optional<TradingStrategy.TradingSignal>> strategy) {
+            this.strategy = strategy;
+        }
+
+        @Override
+        public String name() {
+            return "Test";
+        }
+
+        @Override
+        public BiFunction<Integer, Timeframe, Optional<TradingStrategy.TradingSignal>> strategy() {
+            return strategy;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package services.backtest;
+
+import database.entities.TradeEntity;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MonteCarloSimulationTest {
+
+    private final BigDecimal accountRisk = new BigDecimal("0.5");
+
+    @Test
+    void shuffleKeepsTheFinalEquity() {
+        double[] returns = {0.1, -0.05, 0.2, -0.1, 0.03};
+        double expected = Arrays.stream(returns).map(r -> 1 + 0.5 * r).reduce(1, (a, b) -> a * b);
+
+        MonteCarloResult result = new MonteCarloSimulation(returns, accountRisk, 0.5, 2).run(5000, MonteCarloSimulation.Resampling.SHUFFLE, 1);
+
+        assertEquals(5000, result.getPaths());
+        assertEquals(expected, result.getFinalEquity(0), 1e-12);
+        assertEquals(expected, result.getFinalEquity(100), 1e-12);
+        // the worst order loses the 2 losing trades one after the other
+        assertEquals(1 - 0.975 * 0.95, result.getMaxDrawdown(100), 1e-12);
+        // and the best one has a new peak between them, so only the biggest loss counts
+        assertEquals(0.05, result.getMaxDrawdown(0), 1e-12);
+        assertEquals(0, result.getRiskOfRuin());
+    }
+
+    @Test
+    void sameSeedSameResult() {
+        double[] returns = getReturns(200);
+        MonteCarloResult first = new MonteCarloSimulation(returns, accountRisk, 0.5, 1).run(10_000, MonteCarloSimulation.Resampling.BOOTSTRAP, 7);
+        MonteCarloResult second = new MonteCarloSimulation(returns, accountRisk, 0.5, 4).run(10_000, MonteCarloSimulation.Resampling.BOOTSTRAP, 7);
+        MonteCarloResult otherSeed = new MonteCarloSimulation(returns, accountRisk, 0.5, 4).run(10_000, MonteCarloSimulation.Resampling.BOOTSTRAP, 8);
+
+        double[] percentiles = {0, 5, 50, 95, 100};
+        assertArrayEquals(Arrays.stream(percentiles).map(first::getFinalEquity).toArray(), Arrays.stream(percentiles).map(second::getFinalEquity).toArray());
+        assertArrayEquals(Arrays.stream(percentiles).map(first::getMaxDrawdown).toArray(), Arrays.stream(percentiles).map(second::getMaxDrawdown).toArray());
+        assertEquals(first.getRiskOfRuin(), second.getRiskOfRuin());
+        assertTrue(first.getMeanFinalEquity() != otherSeed.getMeanFinalEquity());
+    }
+
+    @Test
+    void bootstrapDistribution() {
+        MonteCarloResult result = new MonteCarloSimulation(getReturns(200), accountRisk, 0.5).run(20_000, MonteCarloSimulation.Resampling.BOOTSTRAP, 3);
+
+        for (int percentile = 5; percentile <= 100; percentile += 5) {
+            assertTrue(result.getFinalEquity(percentile - 5) <= result.getFinalEquity(percentile));
+            assertTrue(result.getMaxDrawdown(percentile - 5) <= result.getMaxDrawdown(percentile));
+        }
+        // bootstrapped paths do not all have the same trades
+        assertTrue(result.getFinalEquity(5) < result.getFinalEquity(95));
+        assertTrue(result.getMaxDrawdown(0) >= 0 && result.getMaxDrawdown(100) < 1);
+        assertTrue(result.toString().contains("risk of ruin"));
+    }
+
+    @Test
+    void riskOfRuin() {
+        double[] returns = {-0.2, -0.2, -0.2, 0.1};
+        assertEquals(1, new MonteCarloSimulation(returns, BigDecimal.ONE, 0.6, 2)
+                .run(100, MonteCarloSimulation.Resampling.SHUFFLE, 1).getRiskOfRuin());
+        assertEquals(0, new MonteCarloSimulation(returns, new BigDecimal("0.1"), 0.6, 2)
+                .run(100, MonteCarloSimulation.Resampling.SHUFFLE, 1).getRiskOfRuin());
+    }
+
+    @Test
+    void returns() {
+        TradeEntity open = new TradeEntity();
+        TradeEntity closed = new TradeEntity();
+        closed.setProfit(new BigDecimal("2.5"));
+
+        assertArrayEquals(new double[]{0.025}, MonteCarloSimulation.returns(List.of(open, closed)));
+        assertArrayEquals(new double[]{-0.01}, MonteCarloSimulation.returnsFromProfits(List.of(new BigDecimal("-1"))));
+        assertThrows(IllegalArgumentException.class, () -> new MonteCarloSimulation(new double[0], accountRisk, 0.5));
+    }
+
+    private double[] getReturns(int trades) {
+        Random random = new Random(42);
+        return random.doubles(trades).map(value -> (value - 0.45) / 10).toArray();
+    }
+}
@@ -0,0 +1,94 @@
+package services.backtest;
+
+import com.google.inject.Guice;
+import com.google.inject.util.Modules;
+import org.junit.jupiter.api.Test;
+import properties.GoldenCrossStrategyProperties;
+import properties.ThreeEmaCrossoverStrategyProperties;
+import services.httpclients.HttpClientModule;
+import services.strategies.TradingStrategiesModule;
+import valueobjects.timeframe.PriceHistory;
+import valueobjects.timeframe.Tick;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParameterSweepTest {
+
+    private final List<BigDecimal> distances = List.of(new BigDecimal("0.01"), new BigDecimal("0.02"));
+
+    @Test
+    void goldenCrossCombinations() {
+        GoldenCrossStrategyProperties template = new GoldenCrossStrategyProperties("PT1H", 50, 100, false, "TrailingStop", 250);
+        List<SweepCombination> combinations = SweepCombination.goldenCross(template, ParameterRange.of(10, 30, 10), ParameterRange.of(20, 30, 10), distances);
+
+        // 10-20, 10-30, 20-30 for each distance
+        assertEquals(6, combinations.size());
+        assertEquals("short=10 long=20 distance=0.01", combinations.get(0).getDescription());
+        assertEquals("short=20 long=30 distance=0.02", combinations.get(5).getDescription());
+    }
+
+    @Test
+    void threeEmaCrossoverCombinations() {
+        ThreeEmaCrossoverStrategyProperties template = new ThreeEmaCrossoverStrategyProperties("PT1H", 9, 21, 55, false, "TrailingStop", 250);
+        List<SweepCombination> combinations = SweepCombination.threeEmaCrossover(template,
+                ParameterRange.of(5, 10, 5), ParameterRange.of(10, 20, 10), ParameterRange.of(55), distances);
+
+        // 5-10-55, 5-20-55, 10-20-55 for each distance
+        assertEquals(6, combinations.size());
+        assertEquals("short=5 medium=10 long=55 distance=0.01", combinations.get(0).getDescription());
+    }
+
+    @Test
+    void runMatchesSequentialBacktests() {
+        PriceHistory priceHistory = getPriceHistory();
+        GoldenCrossStrategyProperties template = new GoldenCrossStrategyProperties("PT1H", 50, 100, false, "TrailingStop", 250);
+        List<SweepCombination> combinations = SweepCombination.goldenCross(template, ParameterRange.of(10, 30, 10), ParameterRange.of(50, 100, 50), distances);
+
+        ParameterSweep parameterSweep = new ParameterSweep(priceHistory, 4);
+        List<SweepResult> results = parameterSweep.run(combinations);
+
+        assertEquals(combinations.size(), results.size());
+        for (int i = 1; i < results.size(); i++) {
+            assertTrue(results.get(i - 1).getResult().getTotalProfit().compareTo(results.get(i).getResult().getTotalProfit()) >= 0);
+        }
+        // every combination has its own ledger and indicators so running it again on its own gives the same result
+        for (SweepResult result : results) {
+            BacktestResult sequential = parameterSweep.evaluate(result.getCombination()).getResult();
+            assertEquals(sequential.getTotalProfit(), result.getResult().getTotalProfit());
+            assertEquals(sequential.getClosedTrades().size(), result.getResult().getClosedTrades().size());
+        }
+        assertTrue(ParameterSweep.toTable(results).contains("short=10 long=50 distance=0.01"));
+    }
+
+    @Test
+    void usesTheCombinationProperties() {
+        GoldenCrossStrategyProperties template = new GoldenCrossStrategyProperties("PT1H", 50, 100, false, "TrailingStop", 250);
+        SweepCombination combination = SweepCombination.goldenCross(template, ParameterRange.of(10), ParameterRange.of(20), distances).get(0);
+
+        GoldenCrossStrategyProperties properties = Guice.createInjector(Modules.override(
+                new HttpClientModule(), new BacktestModule(), new TradingStrategiesModule()
+        ).with(combination.getPropertiesModule())).getInstance(GoldenCrossStrategyProperties.class);
+
+        assertEquals(10, properties.getShortPeriod().intValue());
+        assertEquals(20, properties.getLongPeriod().intValue());
+    }
+
+    private PriceHistory getPriceHistory() {
+        Random random = new Random(42);
+        LocalDateTime time = LocalDateTime.of(2022, 1, 1, 0, 0);
+        List<Tick> ticks = new ArrayList<>();
+        long priceInPennies = 3_000_000;
+        for (int i = 0; i < 1500; i++) {
+            priceInPennies = Math.max(100, priceInPennies + Math.round(random.nextGaussian() * 30_000));
+            ticks.add(new Tick(time.plusHours(i), BigDecimal.valueOf(priceInPennies, 2)));
+        }
+        return PriceHistory.of(ticks);
+    }
+}
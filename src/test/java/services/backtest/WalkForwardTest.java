@@ -0,0 +1,103 @@
+package services.backtest;
+
+import org.junit.jupiter.api.Test;
+import properties.GoldenCrossStrategyProperties;
+import valueobjects.timeframe.PriceHistory;
+import valueobjects.timeframe.Tick;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WalkForwardTest {
+
+    private final GoldenCrossStrategyProperties template = new GoldenCrossStrategyProperties("PT1H", 50, 100, false, "TrailingStop", 50);
+    private final List<SweepCombination> combinations = SweepCombination.goldenCross(template,
+            ParameterRange.of(5, 15, 5), ParameterRange.of(20, 40, 20), List.of(new BigDecimal("0.01"), new BigDecimal("0.02")));
+
+    @Test
+    void windows() {
+        PriceHistory priceHistory = getPriceHistory(1000);
+
+        assertEquals(4, new WalkForward(priceHistory, 600, 100).windows());
+        // the last out of sample window is shorter
+        assertEquals(5, new WalkForward(priceHistory, 550, 100).windows());
+        assertThrows(IllegalArgumentException.class, () -> new WalkForward(priceHistory, 1000, 100));
+        assertThrows(IllegalArgumentException.class, () -> new WalkForward(priceHistory, 500, 0));
+    }
+
+    @Test
+    void outOfSampleWindowsFollowEachOther() {
+        PriceHistory priceHistory = getPriceHistory(1000);
+        WalkForwardResult result = new WalkForward(priceHistory, 550, 100, 4).run(combinations);
+
+        assertEquals(5, result.getWindows().size());
+        for (int i = 0; i < result.getWindows().size(); i++) {
+            WalkForwardWindow window = result.getWindows().get(i);
+            assertEquals(i, window.getIndex());
+            assertEquals(priceHistory.get(i * 100).getTime(), window.getInSampleStart());
+            assertEquals(priceHistory.get(550 + i * 100).getTime(), window.getOutOfSampleStart());
+            assertEquals(priceHistory.get(Math.min(649 + i * 100, 999)).getTime(), window.getOutOfSampleEnd());
+            // the strategy only trades on the out of sample ticks, the ones before are used to fill its timeframe
+            assertEquals(i < 4 ? 100 : 50, window.getOutOfSample().getTicks());
+        }
+    }
+
+    @Test
+    void selectsTheMostProfitableInSampleCombination() {
+        PriceHistory priceHistory = getPriceHistory(800);
+        WalkForward walkForward = new WalkForward(priceHistory, 500, 150, 4);
+        WalkForwardWindow window = walkForward.runWindow(1, combinations);
+
+        ParameterSweep parameterSweep = new ParameterSweep(priceHistory.subList(150, 650), 1);
+        List<SweepResult> sweepResults = parameterSweep.run(combinations);
+        assertEquals(sweepResults.get(0).getResult().getTotalProfit(), window.getInSample().getResult().getTotalProfit());
+    }
+
+    @Test
+    void equityCurve() {
+        WalkForwardResult result = new WalkForward(getPriceHistory(1500), 500, 200, 4).run(combinations);
+
+        List<WalkForwardResult.EquityPoint> equityCurve = result.getEquityCurve();
+        assertEquals(result.getWindows().stream().mapToInt(window -> window.getOutOfSample().getClosedTrades().size()).sum(), equityCurve.size());
+        assertTrue(!equityCurve.isEmpty());
+        assertEquals(result.getTotalProfit(), equityCurve.get(equityCurve.size() - 1).getProfit());
+        for (int i = 1; i < equityCurve.size(); i++) {
+            assertTrue(!equityCurve.get(i).getTime().isBefore(equityCurve.get(i - 1).getTime()));
+        }
+        assertTrue(result.getMaxDrawdown().signum() >= 0);
+        assertTrue(result.toTable().contains("Total out of sample profit"));
+    }
+
+    @Test
+    void reproducible() {
+        PriceHistory priceHistory = getPriceHistory(1500);
+        WalkForwardResult first = new WalkForward(priceHistory, 500, 200, 4).run(combinations);
+        WalkForwardResult second = new WalkForward(priceHistory, 500, 200, 2).run(combinations);
+
+        assertEquals(first.getWindows().size(), second.getWindows().size());
+        for (int i = 0; i < first.getWindows().size(); i++) {
+            assertEquals(first.getWindows().get(i).getInSample().getCombination().getDescription(),
+                    second.getWindows().get(i).getInSample().getCombination().getDescription());
+            assertEquals(first.getWindows().get(i).getOutOfSample().getTotalProfit(), second.getWindows().get(i).getOutOfSample().getTotalProfit());
+        }
+    }
+
+    private PriceHistory getPriceHistory(int size) {
+        Random random = new Random(42);
+        LocalDateTime time = LocalDateTime.of(2022, 1, 1, 0, 0);
+        List<Tick> ticks = new ArrayList<>();
+        long priceInPennies = 3_000_000;
+        for (int i = 0; i < size; i++) {
+            priceInPennies = Math.max(100, priceInPennies + Math.round(random.nextGaussian() * 30_000));
+            ticks.add(new Tick(time.plusHours(i), BigDecimal.valueOf(priceInPennies, 2)));
+        }
+        return PriceHistory.of(ticks);
+    }
+}
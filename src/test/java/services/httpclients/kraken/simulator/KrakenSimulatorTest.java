@@ -0,0 +1,160 @@
+package services.httpclients.kraken.simulator;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.name.Names;
+import com.google.inject.util.Modules;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import properties.TradeProperties;
+import services.backtest.BacktestModule;
+import services.httpclients.HttpClientModule;
+import services.httpclients.kraken.KrakenClient;
+import services.httpclients.kraken.response.OrderStatus;
+import services.httpclients.kraken.response.addorder.AddOrderResponse;
+import services.httpclients.kraken.response.orderinfo.OrderInfoDetails;
+import services.httpclients.kraken.response.trades.TradeDetails;
+import services.strategies.tradingstrategies.TradingStrategy;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KrakenSimulatorTest {
+
+    private static final String PRIVATE_KEY = "kQH5HW/8p1uGOVjbgWA7FunAmGO8lsSUXNsu3eow76sz84Q18fWxnyRzBHCd3pd5nE9qa99HAZtuZuj6F1huXg==";
+
+    private KrakenSimulator simulator;
+    private KrakenClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        simulator = KrakenSimulator.start(KrakenSimulatorSettings.builder().candles(10).build());
+        client = createClient(simulator, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        simulator.close();
+    }
+
+    @Test
+    void getTickerInfo() {
+        BigDecimal price = client.getTickerInfo("XBTGBP").orElseThrow().getResult().get("XXBTZGBP").getCurrentPrice();
+
+        assertEquals(simulator.getPrice(), price);
+        assertEquals(1, simulator.getRequests());
+    }
+
+    @Test
+    void unknownPair() {
+        assertTrue(client.getTickerInfo("ETHGBP").isEmpty());
+    }
+
+    @Test
+    void getHistoricData() {
+        List<TradeDetails> candles = client.getHistoricData(Duration.ofHours(1)).orElseThrow().getResult().getTradeDetails("XXBTZGBP");
+
+        assertEquals(10, candles.size());
+        for (int i = 1; i < candles.size(); i++) {
+            assertEquals(candles.get(i - 1).getTime().plusHours(1), candles.get(i).getTime());
+        }
+        // the candles end at the current price
+        assertEquals(0, simulator.getPrice().compareTo(candles.get(candles.size() - 1).getPrice()));
+    }
+
+    @Test
+    void getAssetsBalance() {
+        assertEquals(0, new BigDecimal("30000").compareTo(client.getAssetsBalance().orElseThrow().getResult().getAssetBalance("ZGBP")));
+        assertEquals(0, BigDecimal.ONE.compareTo(client.getAssetsBalance().orElseThrow().getResult().getAssetBalance("XXBT")));
+    }
+
+    @Test
+    void getAccountBalance() {
+        BigDecimal expected = new BigDecimal("30000").add(simulator.getPrice());
+
+        assertEquals(0, expected.compareTo(client.getAccountBalance().orElseThrow().getAccountBalance()));
+    }
+
+    @Test
+    void postMarketOrder() {
+        String transactionId = client.postMarketOrder(12, new BigDecimal("0.1"), TradingStrategy.TradingSignal.BUY)
+                .map(AddOrderResponse::getResult).orElseThrow().getTxid().get(0);
+        OrderInfoDetails order = client.getOrderInfo(transactionId, 12).orElseThrow().getResult().getTransactionsMap().get(transactionId);
+
+        assertEquals(OrderStatus.CLOSED, order.getStatus());
+        assertEquals(0, new BigDecimal("0.1").compareTo(order.getVolumeExec()));
+        // bought on the ask so above the mid price
+        assertTrue(order.getPrice().compareTo(simulator.getPrice()) > 0);
+        assertEquals(0, order.getCost().multiply(new BigDecimal("0.0026")).setScale(8, RoundingMode.HALF_EVEN).compareTo(order.getFee()));
+        assertEquals(0, new BigDecimal("1.1").compareTo(simulator.getBalance("XXBT")));
+        assertEquals(0, new BigDecimal("30000").subtract(order.getCost()).subtract(order.getFee()).compareTo(simulator.getBalance("ZGBP")));
+        assertEquals(1, simulator.getExecutedOrders());
+    }
+
+    @Test
+    void postMarketOrderWithoutFunds() {
+        assertTrue(client.postMarketOrder(12, new BigDecimal("2"), TradingStrategy.TradingSignal.SELL).isEmpty());
+
+        assertEquals(0, BigDecimal.ONE.compareTo(simulator.getBalance("XXBT")));
+        assertEquals(0, simulator.getExecutedOrders());
+    }
+
+    @Test
+    void paperTradingOnlyValidatesOrders() {
+        KrakenClient paperTradingClient = createClient(simulator, true);
+
+        AddOrderResponse response = paperTradingClient.postMarketOrder(12, new BigDecimal("0.1"), TradingStrategy.TradingSignal.BUY).orElseThrow();
+
+        assertNull(response.getResult().getTxid());
+        assertEquals(0, simulator.getExecutedOrders());
+    }
+
+    @Test
+    void getOrderInfoOfUnknownOrder() {
+        assertTrue(client.getOrderInfo("OSIMUL-00000001", 12).isEmpty());
+    }
+
+    @Test
+    void injectsErrors() throws IOException {
+        try (KrakenSimulator failingSimulator = KrakenSimulator.start(KrakenSimulatorSettings.builder().errorRate(1).build())) {
+            KrakenClient failingClient = createClient(failingSimulator, false);
+
+            assertEquals(Optional.empty(), failingClient.getTickerInfo());
+            assertTrue(failingClient.postMarketOrder(12, new BigDecimal("0.1"), TradingStrategy.TradingSignal.BUY).isEmpty());
+            assertEquals(2, failingSimulator.getInjectedErrors());
+            assertEquals(0, failingSimulator.getExecutedOrders());
+        }
+    }
+
+    @Test
+    void sameSeedSamePrices() throws IOException {
+        try (KrakenSimulator other = KrakenSimulator.start(KrakenSimulatorSettings.builder().build())) {
+            KrakenClient otherClient = createClient(other, false);
+            for (int i = 0; i < 5; i++) {
+                assertEquals(client.getTickerInfo().orElseThrow().getResult().get("XXBTZGBP").getCurrentPrice(),
+                        otherClient.getTickerInfo().orElseThrow().getResult().get("XXBTZGBP").getCurrentPrice());
+            }
+        }
+    }
+
+    private static KrakenClient createClient(KrakenSimulator simulator, boolean paperTrading) {
+        TradeProperties tradeProperties = new TradeProperties("XBTGBP", "XXBTZGBP", "ZGBP", "XXBT",
+                new BigDecimal("0.01"), paperTrading, "1:1", null);
+        return Guice.createInjector(Modules.override(new HttpClientModule(), new BacktestModule()).with(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(TradeProperties.class).toInstance(tradeProperties);
+                bind(String.class).annotatedWith(Names.named("KrakenApiUrl")).toInstance(simulator.getUrl());
+                bind(String.class).annotatedWith(Names.named("ApiPublicKey")).toInstance("simulator");
+                bind(String.class).annotatedWith(Names.named("ApiPrivateKey")).toInstance(PRIVATE_KEY);
+            }
+        })).getInstance(KrakenClient.class);
+    }
+}
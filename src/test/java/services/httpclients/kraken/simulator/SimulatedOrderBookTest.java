@@ -0,0 +1,63 @@
+package services.httpclients.kraken.simulator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatedOrderBookTest {
+
+    private SimulatedOrderBook orderBook;
+
+    @BeforeEach
+    void setUp() {
+        KrakenSimulatorSettings settings = KrakenSimulatorSettings.builder()
+                .initialPrice(new BigDecimal("100.0"))
+                .spread(0.02)
+                .tickSize(new BigDecimal("0.1"))
+                .levels(3)
+                .levelVolume(new BigDecimal("1"))
+                .build();
+        orderBook = new SimulatedOrderBook(settings, new SplittableRandom(1));
+    }
+
+    @Test
+    void bookAroundThePrice() {
+        assertEquals(new BigDecimal("101.0"), orderBook.getBestAsk());
+        assertEquals(new BigDecimal("99.0"), orderBook.getBestBid());
+    }
+
+    @Test
+    void marketOrderWalksTheBook() {
+        SimulatedOrderBook.Fill fill = orderBook.marketOrder(true, new BigDecimal("1.5"));
+
+        assertEquals(0, new BigDecimal("1.5").compareTo(fill.getVolumeExec()));
+        // 1 on the best ask and 0.5 on the next level
+        assertEquals(0, new BigDecimal("101.0").add(new BigDecimal("101.1").multiply(new BigDecimal("0.5"))).compareTo(fill.getCost()));
+        assertEquals(new BigDecimal("101.1"), orderBook.getLastPrice());
+        assertEquals(new BigDecimal("101.1"), orderBook.getBestAsk());
+    }
+
+    @Test
+    void marketOrderIsPartlyFilledWhenTheBookRunsOut() {
+        SimulatedOrderBook.Fill fill = orderBook.marketOrder(false, new BigDecimal("5"));
+
+        assertEquals(0, new BigDecimal("3").compareTo(fill.getVolumeExec()));
+        assertEquals(0, new BigDecimal("98.9").compareTo(fill.getAveragePrice()));
+    }
+
+    @Test
+    void moveRefillsTheBook() {
+        orderBook.marketOrder(true, new BigDecimal("3"));
+
+        BigDecimal price = orderBook.move();
+
+        assertEquals(price, orderBook.getPrice());
+        assertTrue(orderBook.getBestAsk().compareTo(price) > 0);
+        assertTrue(orderBook.getBestBid().compareTo(price) < 0);
+        assertEquals(0, new BigDecimal("3").compareTo(orderBook.marketOrder(true, new BigDecimal("3")).getVolumeExec()));
+    }
+}
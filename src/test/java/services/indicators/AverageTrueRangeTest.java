@@ -0,0 +1,47 @@
+package services.indicators;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AverageTrueRangeTest {
+
+    @Test
+    void update() {
+        AverageTrueRange averageTrueRange = new AverageTrueRange(3);
+
+        // no previous close. high - low = 200
+        assertEquals(200, averageTrueRange.update(1200, 1000, 1100));
+        // gap up. high - previous close = 500. (200 + 500) / 2
+        assertEquals(350, averageTrueRange.update(1600, 1500, 1550));
+        // gap down. previous close - low = 650. (200 + 500 + 650) / 3
+        assertEquals(450, averageTrueRange.update(1000, 900, 950));
+        assertTrue(averageTrueRange.isReady());
+        // high - low = 300. (450 * 2 + 300) / 3
+        assertEquals(400, averageTrueRange.update(1200, 900, 1000));
+    }
+
+    @Test
+    void singlePrice() {
+        AverageTrueRange averageTrueRange = new AverageTrueRange(2);
+        assertEquals(0, averageTrueRange.update(1000));
+        assertFalse(averageTrueRange.isReady());
+        // the true range is the change from the previous price
+        assertEquals(150, averageTrueRange.update(700));
+        assertEquals(275, averageTrueRange.update(1100));
+    }
+
+    @Test
+    void reset() {
+        AverageTrueRange averageTrueRange = new AverageTrueRange(2);
+        averageTrueRange.update(1000);
+        averageTrueRange.update(2000);
+        averageTrueRange.reset();
+
+        // no previous close after a reset
+        assertEquals(0, averageTrueRange.update(500));
+        assertFalse(averageTrueRange.isReady());
+    }
+}
@@ -0,0 +1,79 @@
+package services.indicators;
+
+import org.junit.jupiter.api.Test;
+import valueobjects.price.PriceScale;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BollingerBandsTest {
+
+    @Test
+    void update() {
+        BollingerBands bollingerBands = new BollingerBands(4, 2);
+        bollingerBands.update(200);
+        bollingerBands.update(400);
+        bollingerBands.update(400);
+        assertFalse(bollingerBands.isReady());
+
+        // mean 500, deviation sqrt((9 + 1 + 1 + 25) * 100^2 / 4) = 300
+        assertEquals(500, bollingerBands.update(1000));
+        assertTrue(bollingerBands.isReady());
+        assertEquals(300, bollingerBands.getStandardDeviation());
+        assertEquals(500 + 600, bollingerBands.getUpper());
+        assertEquals(500 - 600, bollingerBands.getLower());
+
+        // 200 is evicted. mean 750, deviation sqrt((12.25 + 12.25 + 6.25 + 20.25) * 100^2 / 4) = 357.07
+        assertEquals(750, bollingerBands.update(1200));
+        assertEquals(357, bollingerBands.getStandardDeviation());
+    }
+
+    @Test
+    void matchesFullRecalculation() {
+        Random random = new Random(42);
+        long[] prices = new long[2000];
+        long price = PriceScale.DEFAULT.toFixed(30_000L);
+        for (int i = 0; i < prices.length; i++) {
+            price += Math.round(random.nextGaussian() * PriceScale.DEFAULT.toFixed(300L));
+            prices[i] = price;
+        }
+
+        int period = 20;
+        BollingerBands bollingerBands = new BollingerBands(period, 2);
+        for (int i = 0; i < prices.length; i++) {
+            bollingerBands.update(prices[i]);
+
+            int startingIndex = Math.max(0, i + 1 - period);
+            int count = i + 1 - startingIndex;
+            long sum = 0;
+            for (int j = startingIndex; j <= i; j++) {
+                sum += prices[j];
+            }
+            double mean = (double) sum / count;
+            double squaredDifferences = 0;
+            for (int j = startingIndex; j <= i; j++) {
+                squaredDifferences += (prices[j] - mean) * (prices[j] - mean);
+            }
+            long deviation = Math.round(Math.sqrt(squaredDifferences / count));
+
+            assertEquals(PriceScale.divide(sum, count), bollingerBands.value());
+            // the rolling variance drifts a little from the two pass one because of the doubles
+            assertTrue(Math.abs(deviation - bollingerBands.getStandardDeviation()) <= 1,
+                    "Expected " + deviation + " but was " + bollingerBands.getStandardDeviation() + " at " + i);
+        }
+    }
+
+    @Test
+    void flatPrices() {
+        BollingerBands bollingerBands = new BollingerBands(3, 2);
+        for (int i = 0; i < 10; i++) {
+            bollingerBands.update(PriceScale.DEFAULT.toFixed(0.1));
+        }
+        assertEquals(0, bollingerBands.getStandardDeviation());
+        assertEquals(bollingerBands.value(), bollingerBands.getUpper());
+        assertEquals(bollingerBands.value(), bollingerBands.getLower());
+    }
+}
@@ -0,0 +1,56 @@
+package services.indicators;
+
+import org.junit.jupiter.api.Test;
+import valueobjects.timeframe.Timeframe;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CrossoverDetectorTest {
+
+    @Test
+    void update() {
+        CrossoverDetector crossoverDetector = new CrossoverDetector();
+        // the first values only initialize the detector
+        assertEquals(0, crossoverDetector.update(1, 5));
+        assertTrue(crossoverDetector.isInitialized());
+        assertEquals(-1, crossoverDetector.getSignum());
+
+        // still below
+        assertEquals(0, crossoverDetector.update(2, 5));
+        // crossed above
+        assertEquals(1, crossoverDetector.update(6, 5));
+        // stays above so no new crossover
+        assertEquals(0, crossoverDetector.update(7, 5));
+        // crossed below
+        assertEquals(-1, crossoverDetector.update(4, 5));
+
+        crossoverDetector.reset();
+        assertFalse(crossoverDetector.isInitialized());
+        assertEquals(0, crossoverDetector.update(6, 5));
+    }
+
+    @Test
+    void updateWithSeries() {
+        Timeframe timeframe = new Timeframe(3);
+        timeframe.addTick(BigDecimal.valueOf(0));
+        timeframe.addTick(BigDecimal.valueOf(10));
+
+        Timeframe timeframe2 = new Timeframe(3);
+        timeframe2.addTick(BigDecimal.valueOf(1));
+        timeframe2.addTick(BigDecimal.valueOf(1));
+
+        // same as Timeframe#crossover the first time
+        CrossoverDetector crossoverDetector = new CrossoverDetector();
+        assertEquals(timeframe.crossover(timeframe2), crossoverDetector.update(timeframe, timeframe2));
+        assertEquals(1, crossoverDetector.getSignum());
+
+        // then only the latest values are compared with the previous update
+        timeframe.addTick(BigDecimal.valueOf(0));
+        timeframe2.addTick(BigDecimal.valueOf(1));
+        assertEquals(-1, crossoverDetector.update(timeframe, timeframe2));
+    }
+}
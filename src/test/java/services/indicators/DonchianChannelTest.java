@@ -0,0 +1,75 @@
+package services.indicators;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DonchianChannelTest {
+
+    @Test
+    void update() {
+        DonchianChannel donchianChannel = new DonchianChannel(3);
+        assertEquals(500, donchianChannel.update(600, 400));
+        assertEquals(550, donchianChannel.update(700, 500));
+        assertFalse(donchianChannel.isReady());
+        assertEquals(500, donchianChannel.update(650, 300));
+        assertTrue(donchianChannel.isReady());
+        assertEquals(700, donchianChannel.getUpper());
+        assertEquals(300, donchianChannel.getLower());
+
+        // the first high and low leave the period
+        donchianChannel.update(500, 450);
+        assertEquals(700, donchianChannel.getUpper());
+        assertEquals(300, donchianChannel.getLower());
+        // 700 leaves the period
+        donchianChannel.update(500, 450);
+        assertEquals(650, donchianChannel.getUpper());
+        assertEquals(300, donchianChannel.getLower());
+        donchianChannel.update(500, 450);
+        assertEquals(500, donchianChannel.getUpper());
+        assertEquals(450, donchianChannel.getLower());
+    }
+
+    @Test
+    void matchesFullRecalculation() {
+        Random random = new Random(42);
+        long[] highs = new long[1000];
+        long[] lows = new long[highs.length];
+        for (int i = 0; i < highs.length; i++) {
+            // small range of values so there are plenty of equal highs and lows
+            lows[i] = random.nextInt(20) * 100L;
+            highs[i] = lows[i] + random.nextInt(5) * 100L;
+        }
+
+        int period = 10;
+        DonchianChannel donchianChannel = new DonchianChannel(period);
+        for (int i = 0; i < highs.length; i++) {
+            donchianChannel.update(highs[i], lows[i]);
+
+            long upper = Long.MIN_VALUE;
+            long lower = Long.MAX_VALUE;
+            for (int j = Math.max(0, i + 1 - period); j <= i; j++) {
+                upper = Math.max(upper, highs[j]);
+                lower = Math.min(lower, lows[j]);
+            }
+            assertEquals(upper, donchianChannel.getUpper());
+            assertEquals(lower, donchianChannel.getLower());
+        }
+    }
+
+    @Test
+    void reset() {
+        DonchianChannel donchianChannel = new DonchianChannel(2);
+        donchianChannel.update(1000);
+        donchianChannel.update(2000);
+        donchianChannel.reset();
+
+        assertEquals(500, donchianChannel.update(500));
+        assertEquals(500, donchianChannel.getUpper());
+        assertFalse(donchianChannel.isReady());
+    }
+}
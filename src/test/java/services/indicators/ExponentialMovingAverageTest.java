@@ -0,0 +1,70 @@
+package services.indicators;
+
+import org.junit.jupiter.api.Test;
+import valueobjects.price.PriceScale;
+import valueobjects.timeframe.Tick;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExponentialMovingAverageTest {
+
+    private final PriceScale scale = PriceScale.DEFAULT;
+
+    @Test
+    void update() {
+        ExponentialMovingAverage exponentialMovingAverage = new ExponentialMovingAverage(3);
+        assertEquals(0, exponentialMovingAverage.value());
+
+        // Smoothing Factor (SF) = 2 / (3+1) = 0.5
+        // first value is the initial EMA
+        assertEquals(scale.toFixed(2L), exponentialMovingAverage.update(scale.toFixed(2L)));
+        // 4 * 0.5 + 2 * 0.5 = 3
+        assertEquals(scale.toFixed(3L), exponentialMovingAverage.update(scale.toFixed(4L)));
+        // 6 * 0.5 + 3 * 0.5 = 4.5
+        assertEquals(scale.toFixed(4.5), exponentialMovingAverage.update(scale.toFixed(6L)));
+        assertEquals(scale.toFixed(4.5), exponentialMovingAverage.value());
+    }
+
+    @Test
+    void seed() {
+        LocalDateTime startTime = LocalDateTime.now();
+        List<Tick> history = List.of(
+                new Tick(startTime, BigDecimal.valueOf(2)),
+                new Tick(startTime.plusHours(1), BigDecimal.valueOf(4)),
+                new Tick(startTime.plusHours(2), BigDecimal.valueOf(6)),
+                new Tick(startTime.plusHours(3), BigDecimal.valueOf(8))
+        );
+
+        ExponentialMovingAverage exponentialMovingAverage = new ExponentialMovingAverage(3);
+        assertEquals(scale.toFixed(6.25), exponentialMovingAverage.seed(history));
+
+        // carries on from the seeded value. 12 * 0.5 + 6.25 * 0.5 = 9.125
+        assertEquals(scale.toFixed(9.125), exponentialMovingAverage.update(scale.toFixed(12L)));
+    }
+
+    @Test
+    void updateFixedPoint() {
+        // prices with a scale of 2. Smoothing Factor (SF) = 2 / (2+1)
+        ExponentialMovingAverage exponentialMovingAverage = new ExponentialMovingAverage(2);
+        assertEquals(100, exponentialMovingAverage.update(100));
+        assertFalse(exponentialMovingAverage.isReady());
+        // 1.00 + (2.00 - 1.00) * 2 / 3 = 1.6666.. rounded to 1.67
+        assertEquals(167, exponentialMovingAverage.update(200));
+        assertTrue(exponentialMovingAverage.isReady());
+        // 1.67 + (1.67 - 1.67) * 2 / 3 = 1.67
+        assertEquals(167, exponentialMovingAverage.update(167));
+    }
+
+    @Test
+    void overflow() {
+        // (price - previous) * 2 does not fit in a long
+        assertThrows(ArithmeticException.class, () -> ExponentialMovingAverage.next(0, Long.MAX_VALUE / 2 + 1, 3));
+    }
+}
@@ -0,0 +1,149 @@
+package services.indicators;
+
+import org.junit.jupiter.api.Test;
+import valueobjects.price.PriceScale;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Makes sure the fixed point indicators produce the same crossover signals as the BigDecimal calculations they
+ * replaced. Runs on the historic dataset used by the strategy tester when it is available in the resources and on a
+ * generated price series otherwise.
+ */
+class FixedPointConformanceTest {
+
+    private static final String HISTORIC_DATA_FILENAME = "Bitstamp_BTCGBP_1h.csv";
+    private static final int TIMEFRAME_SIZE = 250;
+    private static final int MAX_TICKS = 2000;
+    // precision of the BigDecimal calculations
+    private static final int REFERENCE_SCALE = 10;
+
+    @Test
+    void goldenCrossSignals() throws IOException {
+        List<BigDecimal> prices = getPrices();
+        PriceScale scale = PriceScale.DEFAULT;
+
+        int signals = 0;
+        for (int i = 2; i <= prices.size(); i++) {
+            // same timeframe the strategy sees, the latest prices up to its capacity
+            List<BigDecimal> timeframe = prices.subList(Math.max(0, i - TIMEFRAME_SIZE), i);
+            long[] fixedTimeframe = timeframe.stream().mapToLong(scale::toFixed).toArray();
+
+            int expected = crossover(movingAverage(timeframe, 50), movingAverage(timeframe, 100));
+            int actual = crossover(series(fixedTimeframe, new SimpleMovingAverage(50)), series(fixedTimeframe, new SimpleMovingAverage(100)));
+
+            assertEquals(expected, actual, "Signal mismatch at tick " + i);
+            signals += Math.abs(expected);
+        }
+        assertTrue(signals > 0);
+    }
+
+    @Test
+    void threeEmaCrossoverSignals() throws IOException {
+        List<BigDecimal> prices = getPrices();
+        PriceScale scale = PriceScale.DEFAULT;
+
+        int signals = 0;
+        for (int i = 2; i <= prices.size(); i++) {
+            List<BigDecimal> timeframe = prices.subList(Math.max(0, i - TIMEFRAME_SIZE), i);
+            long[] fixedTimeframe = timeframe.stream().mapToLong(scale::toFixed).toArray();
+
+            List<BigDecimal> expectedLong = exponentialMovingAverage(timeframe, 55);
+            int expectedShortCrossover = crossover(exponentialMovingAverage(timeframe, 9), expectedLong);
+            int expectedMediumCrossover = crossover(exponentialMovingAverage(timeframe, 21), expectedLong);
+
+            long[] actualLong = series(fixedTimeframe, new ExponentialMovingAverage(55));
+            int actualShortCrossover = crossover(series(fixedTimeframe, new ExponentialMovingAverage(9)), actualLong);
+            int actualMediumCrossover = crossover(series(fixedTimeframe, new ExponentialMovingAverage(21)), actualLong);
+
+            assertEquals(expectedShortCrossover, actualShortCrossover, "Short signal mismatch at tick " + i);
+            assertEquals(expectedMediumCrossover, actualMediumCrossover, "Medium signal mismatch at tick " + i);
+            signals += Math.abs(expectedShortCrossover) + Math.abs(expectedMediumCrossover);
+        }
+        assertTrue(signals > 0);
+    }
+
+    private static List<BigDecimal> movingAverage(List<BigDecimal> prices, int period) {
+        List<BigDecimal> series = new ArrayList<>();
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int i = 0; i < prices.size(); i++) {
+            sum = sum.add(prices.get(i));
+            if (i >= period) {
+                sum = sum.subtract(prices.get(i - period));
+            }
+            series.add(sum.divide(BigDecimal.valueOf(Math.min(i + 1, period)), REFERENCE_SCALE, RoundingMode.HALF_EVEN));
+        }
+        return series;
+    }
+
+    private static List<BigDecimal> exponentialMovingAverage(List<BigDecimal> prices, int period) {
+        List<BigDecimal> series = new ArrayList<>();
+        BigDecimal ema = prices.get(0);
+        for (BigDecimal price : prices) {
+            ema = ema.add(price.subtract(ema).multiply(BigDecimal.valueOf(2)).divide(BigDecimal.valueOf(period + 1), REFERENCE_SCALE, RoundingMode.HALF_EVEN));
+            series.add(ema);
+        }
+        return series;
+    }
+
+    private static long[] series(long[] prices, StreamingIndicator indicator) {
+        long[] series = new long[prices.length];
+        for (int i = 0; i < prices.length; i++) {
+            series[i] = indicator.update(prices[i]);
+        }
+        return series;
+    }
+
+    private static int crossover(List<BigDecimal> a, List<BigDecimal> b) {
+        return crossover(a.get(a.size() - 2).compareTo(b.get(b.size() - 2)), a.get(a.size() - 1).compareTo(b.get(b.size() - 1)));
+    }
+
+    private static int crossover(long[] a, long[] b) {
+        return crossover(Long.compare(a[a.length - 2], b[b.length - 2]), Long.compare(a[a.length - 1], b[b.length - 1]));
+    }
+
+    /**
+     * Same rule as {@link valueobjects.timeframe.Timeframe#crossover}. A crossover happens when the sign changes.
+     */
+    private static int crossover(int previousSignum, int currentSignum) {
+        return currentSignum != previousSignum ? currentSignum : 0;
+    }
+
+    /**
+     * Prices from the historic dataset if it is in the resources or a seeded random walk so the test is repeatable.
+     */
+    private List<BigDecimal> getPrices() throws IOException {
+        List<BigDecimal> prices = new ArrayList<>();
+        InputStream historicData = getClass().getClassLoader().getResourceAsStream(HISTORIC_DATA_FILENAME);
+        if (historicData != null) {
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(historicData))) {
+                String line = br.readLine();
+                while (line != null && prices.size() < MAX_TICKS) {
+                    String[] split = line.split(",");
+                    prices.add(new BigDecimal(split[1]));
+                    line = br.readLine();
+                }
+            }
+            return prices;
+        }
+
+        Random random = new Random(42);
+        long priceInPennies = 3_000_000;
+        for (int i = 0; i < MAX_TICKS; i++) {
+            priceInPennies = Math.max(100, priceInPennies + Math.round(random.nextGaussian() * 30_000));
+            prices.add(BigDecimal.valueOf(priceInPennies, 2));
+        }
+        return prices;
+    }
+}
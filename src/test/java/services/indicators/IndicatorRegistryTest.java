@@ -0,0 +1,123 @@
+package services.indicators;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import valueobjects.timeframe.Tick;
+import valueobjects.timeframe.Timeframe;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class IndicatorRegistryTest {
+
+    private final IndicatorKey shortKey = IndicatorKey.of("XBTGBP", Duration.ofHours(1), IndicatorKey.IndicatorType.SMA, 2);
+    private final IndicatorKey longKey = IndicatorKey.of("XBTGBP", Duration.ofHours(1), IndicatorKey.IndicatorType.SMA, 3);
+
+    private int calculations;
+    private IndicatorRegistry indicatorRegistry;
+
+    @BeforeEach
+    void setUp() {
+        calculations = 0;
+        MovingAverageIndicator countingIndicator = new MovingAverageIndicator() {
+            @Override
+            public Timeframe apply(Timeframe timeframe, Integer period) {
+                calculations++;
+                return super.apply(timeframe, period);
+            }
+        };
+        indicatorRegistry = new IndicatorRegistry(countingIndicator, new ExponentialMovingAverageIndicator());
+    }
+
+    @Test
+    void sharedBetweenOwners() {
+        Timeframe prices = new Timeframe(5);
+        LocalDateTime startTime = LocalDateTime.of(2022, 8, 1, 12, 0);
+        prices.addTick(new Tick(startTime, BigDecimal.valueOf(2)));
+        prices.addTick(new Tick(startTime.plusHours(1), BigDecimal.valueOf(4)));
+
+        // same series for the same prices is only calculated once
+        Timeframe series = indicatorRegistry.get(shortKey, prices, "GoldenCross");
+        assertSame(series, indicatorRegistry.get(IndicatorKey.of("XBTGBP", Duration.ofHours(1), IndicatorKey.IndicatorType.SMA, 2), prices, "Other"));
+        assertEquals(1, calculations);
+
+        // different parameters are a different series
+        indicatorRegistry.get(longKey, prices, "GoldenCross");
+        assertEquals(2, calculations);
+
+        // new ticks are added to the series without calculating it again. (4 + 6) / 2 = 5
+        prices.addTick(new Tick(startTime.plusHours(2), BigDecimal.valueOf(6)));
+        Timeframe updatedSeries = indicatorRegistry.get(shortKey, prices, "Other");
+        assertSame(series, updatedSeries);
+        assertEquals(BigDecimal.valueOf(5), updatedSeries.last().getValue().stripTrailingZeros());
+        assertEquals(2, calculations);
+
+        // other prices, ex. of another period length, are a different series
+        Timeframe otherPrices = new Timeframe(5);
+        otherPrices.addTick(new Tick(startTime.plusHours(5), BigDecimal.valueOf(8)));
+        otherPrices.addTick(new Tick(startTime.plusHours(6), BigDecimal.valueOf(12)));
+        Timeframe otherSeries = indicatorRegistry.get(shortKey, otherPrices, "Other");
+        assertNotSame(series, otherSeries);
+        assertEquals(0, BigDecimal.TEN.compareTo(otherSeries.last().getValue()));
+        assertEquals(3, calculations);
+    }
+
+    @Test
+    void incrementalMatchesFullCalculation() {
+        Timeframe prices = new Timeframe(20);
+        LocalDateTime startTime = LocalDateTime.of(2022, 8, 1, 12, 0);
+        IndicatorKey emaKey = IndicatorKey.of("XBTGBP", Duration.ofHours(1), IndicatorKey.IndicatorType.EMA, 3);
+        for (int i = 0; i < 20; i++) {
+            prices.addTick(new Tick(startTime.plusHours(i), BigDecimal.valueOf((i * 37L) % 23 + 0.5)));
+            Timeframe movingAverage = indicatorRegistry.get(shortKey, prices, "GoldenCross");
+            Timeframe exponentialMovingAverage = indicatorRegistry.get(emaKey, prices, "3EmaCrossover");
+
+            assertEquals(new MovingAverageIndicator().apply(prices, 2).last().getValue(), movingAverage.last().getValue());
+            assertEquals(new ExponentialMovingAverageIndicator().apply(prices, 3).last().getValue(), exponentialMovingAverage.last().getValue());
+        }
+        // calculated only once, on the first tick
+        assertEquals(1, calculations);
+    }
+
+    @Test
+    void recalculatedWhenMoreTicksWereAddedThanThePricesHold() {
+        Timeframe prices = new Timeframe(3);
+        LocalDateTime startTime = LocalDateTime.of(2022, 8, 1, 12, 0);
+        prices.addTick(new Tick(startTime, BigDecimal.valueOf(2)));
+        prices.addTick(new Tick(startTime.plusHours(1), BigDecimal.valueOf(4)));
+        indicatorRegistry.get(shortKey, prices, "GoldenCross");
+
+        // the prices only hold the latest 3 of the 4 ticks added since
+        for (int i = 2; i < 6; i++) {
+            prices.addTick(new Tick(startTime.plusHours(i), BigDecimal.valueOf(i * 2)));
+        }
+        Timeframe series = indicatorRegistry.get(shortKey, prices, "GoldenCross");
+
+        // (8 + 10) / 2 = 9
+        assertEquals(0, BigDecimal.valueOf(9).compareTo(series.last().getValue()));
+        assertEquals(2, calculations);
+    }
+
+    @Test
+    void release() {
+        Timeframe prices = new Timeframe(5);
+        prices.addTick(new Tick(LocalDateTime.now(), BigDecimal.ONE));
+
+        indicatorRegistry.get(shortKey, prices, "GoldenCross");
+        indicatorRegistry.get(longKey, prices, "GoldenCross");
+        indicatorRegistry.get(shortKey, prices, "Other");
+        assertEquals(2, indicatorRegistry.size());
+
+        // the short series is still used by the other owner
+        indicatorRegistry.release("GoldenCross");
+        assertEquals(1, indicatorRegistry.size());
+
+        indicatorRegistry.release("Other");
+        assertEquals(0, indicatorRegistry.size());
+    }
+}
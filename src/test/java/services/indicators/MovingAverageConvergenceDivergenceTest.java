@@ -0,0 +1,64 @@
+package services.indicators;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MovingAverageConvergenceDivergenceTest {
+
+    @Test
+    void matchesFullRecalculation() {
+        long[] prices = new long[80];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = 1_000_000 + (i * 3_700L) % 23_000 + i * 1_000L;
+        }
+
+        MovingAverageConvergenceDivergence macd = new MovingAverageConvergenceDivergence(12, 26, 9);
+        for (int i = 0; i < prices.length; i++) {
+            macd.update(prices[i]);
+
+            long[] macdLine = new long[i + 1];
+            for (int j = 0; j <= i; j++) {
+                macdLine[j] = getAverage(prices, j, 12) - getAverage(prices, j, 26);
+            }
+            long signal = getAverage(macdLine, i, 9);
+
+            assertEquals(macdLine[i], macd.value());
+            assertEquals(signal, macd.getSignal());
+            assertEquals(macdLine[i] - signal, macd.getHistogram());
+            assertEquals(i >= 25, macd.isReady());
+        }
+    }
+
+    @Test
+    void invalidPeriods() {
+        assertThrows(IllegalArgumentException.class, () -> new MovingAverageConvergenceDivergence(26, 12, 9));
+    }
+
+    @Test
+    void reset() {
+        MovingAverageConvergenceDivergence macd = new MovingAverageConvergenceDivergence(2, 3, 2);
+        for (int i = 0; i < 5; i++) {
+            macd.update(i * 100);
+        }
+        assertTrue(macd.isReady());
+
+        macd.reset();
+        assertFalse(macd.isReady());
+        assertEquals(0, macd.update(500));
+    }
+
+    /**
+     * EMA of the values up to the index calculated from scratch.
+     */
+    private long getAverage(long[] values, int index, int period) {
+        long average = values[0];
+        for (int i = 1; i <= index; i++) {
+            average = ExponentialMovingAverage.next(average, values[i], period);
+        }
+        return average;
+    }
+}
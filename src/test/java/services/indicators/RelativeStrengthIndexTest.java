@@ -0,0 +1,83 @@
+package services.indicators;
+
+import org.junit.jupiter.api.Test;
+import valueobjects.price.PriceScale;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RelativeStrengthIndexTest {
+
+    private final PriceScale scale = PriceScale.DEFAULT;
+
+    @Test
+    void matchesFullRecalculation() {
+        long[] prices = new long[100];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = scale.toFixed(BigDecimal.valueOf(100 + (i * 37L) % 23 - (i * 11L) % 17, 1));
+        }
+
+        int period = 14;
+        RelativeStrengthIndex relativeStrengthIndex = new RelativeStrengthIndex(period, scale);
+        for (int i = 0; i < prices.length; i++) {
+            long actual = relativeStrengthIndex.update(prices[i]);
+            if (i < period) {
+                continue;
+            }
+            assertTrue(relativeStrengthIndex.isReady());
+            BigDecimal expected = getRelativeStrengthIndex(prices, i, period);
+            // the ratio is rounded to the scale before it is multiplied by 100
+            assertTrue(expected.subtract(scale.toBigDecimal(actual)).abs().compareTo(new BigDecimal("0.000002")) < 0,
+                    "Expected " + expected + " but was " + scale.toBigDecimal(actual) + " at " + i);
+        }
+    }
+
+    @Test
+    void extremes() {
+        RelativeStrengthIndex relativeStrengthIndex = new RelativeStrengthIndex(3, scale);
+        assertEquals(0, relativeStrengthIndex.update(scale.toFixed(10L)));
+        assertFalse(relativeStrengthIndex.isReady());
+
+        // flat prices
+        assertEquals(scale.toFixed(50L), relativeStrengthIndex.update(scale.toFixed(10L)));
+
+        // only gains
+        relativeStrengthIndex.update(scale.toFixed(11L));
+        assertEquals(scale.toFixed(100L), relativeStrengthIndex.update(scale.toFixed(12L)));
+        assertTrue(relativeStrengthIndex.isReady());
+
+        relativeStrengthIndex.reset();
+        relativeStrengthIndex.update(scale.toFixed(12L));
+        // only losses
+        assertEquals(0, relativeStrengthIndex.update(scale.toFixed(11L)));
+    }
+
+    /**
+     * Wilder's RSI calculated from scratch on the prices up to the index.
+     */
+    private BigDecimal getRelativeStrengthIndex(long[] prices, int index, int period) {
+        BigDecimal averageGain = BigDecimal.ZERO;
+        BigDecimal averageLoss = BigDecimal.ZERO;
+        for (int i = 1; i <= index; i++) {
+            BigDecimal change = scale.toBigDecimal(prices[i] - prices[i - 1]);
+            BigDecimal gain = change.max(BigDecimal.ZERO);
+            BigDecimal loss = change.negate().max(BigDecimal.ZERO);
+            if (i <= period) {
+                averageGain = averageGain.add(gain);
+                averageLoss = averageLoss.add(loss);
+                if (i == period) {
+                    averageGain = averageGain.divide(BigDecimal.valueOf(period), 20, RoundingMode.HALF_EVEN);
+                    averageLoss = averageLoss.divide(BigDecimal.valueOf(period), 20, RoundingMode.HALF_EVEN);
+                }
+            } else {
+                averageGain = averageGain.multiply(BigDecimal.valueOf(period - 1)).add(gain).divide(BigDecimal.valueOf(period), 20, RoundingMode.HALF_EVEN);
+                averageLoss = averageLoss.multiply(BigDecimal.valueOf(period - 1)).add(loss).divide(BigDecimal.valueOf(period), 20, RoundingMode.HALF_EVEN);
+            }
+        }
+        return BigDecimal.valueOf(100).multiply(averageGain).divide(averageGain.add(averageLoss), 20, RoundingMode.HALF_EVEN);
+    }
+}
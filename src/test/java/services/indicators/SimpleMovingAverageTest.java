@@ -0,0 +1,76 @@
+package services.indicators;
+
+import org.junit.jupiter.api.Test;
+import valueobjects.price.PriceScale;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimpleMovingAverageTest {
+
+    private final PriceScale scale = PriceScale.DEFAULT;
+
+    @Test
+    void update() {
+        SimpleMovingAverage movingAverage = new SimpleMovingAverage(3);
+
+        // not enough values for the period yet so the average is on the values available
+        assertEquals(scale.toFixed(2L), movingAverage.update(scale.toFixed(2L)));
+        assertEquals(scale.toFixed(3L), movingAverage.update(scale.toFixed(4L)));
+        assertFalse(movingAverage.isReady());
+
+        // (2 + 4 + 9) / 3 = 5
+        assertEquals(scale.toFixed(5L), movingAverage.update(scale.toFixed(9L)));
+        assertTrue(movingAverage.isReady());
+
+        // 2 is evicted. (4 + 9 + 11) / 3 = 8
+        assertEquals(scale.toFixed(8L), movingAverage.update(scale.toFixed(11L)));
+        assertEquals(scale.toFixed(8L), movingAverage.value());
+    }
+
+    @Test
+    void matchesFullRecalculation() {
+        BigDecimal[] prices = new BigDecimal[50];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = BigDecimal.valueOf((i * 37L) % 23 + 0.5);
+        }
+
+        int period = 7;
+        SimpleMovingAverage movingAverage = new SimpleMovingAverage(period);
+        for (int i = 0; i < prices.length; i++) {
+            BigDecimal sum = BigDecimal.ZERO;
+            int startingIndex = i < period ? 0 : (i + 1 - period);
+            for (int j = startingIndex; j <= i; j++) {
+                sum = sum.add(prices[j]);
+            }
+            BigDecimal expected = sum.divide(BigDecimal.valueOf(i + 1 - startingIndex), scale.getScale(), RoundingMode.HALF_EVEN);
+
+            assertEquals(expected, scale.toBigDecimal(movingAverage.update(scale.toFixed(prices[i]))));
+        }
+    }
+
+    @Test
+    void updateFixedPoint() {
+        // prices with a scale of 2. 2.00, 4.00, 9.00
+        SimpleMovingAverage movingAverage = new SimpleMovingAverage(3);
+        assertEquals(200, movingAverage.update(200));
+        assertEquals(300, movingAverage.update(400));
+        // 15 / 3 = 5.00
+        assertEquals(500, movingAverage.update(900));
+        // (4.00 + 9.00 + 0.01) / 3 = 4.3366.. rounded to 4.34
+        assertEquals(434, movingAverage.update(1));
+    }
+
+    @Test
+    void overflow() {
+        SimpleMovingAverage movingAverage = new SimpleMovingAverage(2);
+        movingAverage.update(Long.MAX_VALUE - 1);
+
+        assertThrows(ArithmeticException.class, () -> movingAverage.update(2));
+    }
+}
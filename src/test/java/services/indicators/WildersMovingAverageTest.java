@@ -0,0 +1,51 @@
+package services.indicators;
+
+import org.junit.jupiter.api.Test;
+import valueobjects.price.PriceScale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WildersMovingAverageTest {
+
+    @Test
+    void update() {
+        WildersMovingAverage average = new WildersMovingAverage(3);
+
+        // simple average while the first period is filled
+        assertEquals(200, average.update(200));
+        assertEquals(300, average.update(400));
+        assertFalse(average.isReady());
+        assertEquals(500, average.update(900));
+        assertTrue(average.isReady());
+
+        // (500 * 2 + 1100) / 3 = 700
+        assertEquals(700, average.update(1100));
+        // (700 * 2 + 100) / 3 = 500
+        assertEquals(500, average.update(100));
+        assertEquals(500, average.value());
+    }
+
+    @Test
+    void roundsHalfEven() {
+        WildersMovingAverage average = new WildersMovingAverage(2);
+        average.update(1);
+        // 3 / 2 = 1.5 -> 2
+        assertEquals(2, average.update(2));
+        // (2 + 3) / 2 = 2.5 -> 2
+        assertEquals(2, average.update(3));
+    }
+
+    @Test
+    void reset() {
+        WildersMovingAverage average = new WildersMovingAverage(2);
+        average.update(PriceScale.DEFAULT.toFixed(10L));
+        average.update(PriceScale.DEFAULT.toFixed(20L));
+        average.reset();
+
+        assertEquals(0, average.value());
+        assertFalse(average.isReady());
+        assertEquals(5, average.update(5));
+    }
+}
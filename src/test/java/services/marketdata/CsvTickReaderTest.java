@@ -0,0 +1,121 @@
+package services.marketdata;
+
+import org.junit.jupiter.api.Test;
+import valueobjects.price.PriceScale;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvTickReaderTest {
+
+    private final List<long[]> ticks = new ArrayList<>();
+
+    @Test
+    void timePrice() throws IOException {
+        CsvTickReader reader = new CsvTickReader(CsvColumnMapping.TIME_PRICE, PriceScale.of(2));
+        long read = reader.read(stream("1640995200,35000.5\r\n1640998800.0,35100\n1641002400,-0.01"), this::add);
+
+        assertEquals(3, read);
+        assertTick(0, 1640995200L, 3500050);
+        assertTick(1, 1640998800L, 3510000);
+        // last line without a line break
+        assertTick(2, 1641002400L, -1);
+    }
+
+    @Test
+    void cryptoDataDownload() throws IOException {
+        String csv = "https://www.CryptoDataDownload.com\n"
+                + "unix,date,symbol,open,high,low,close,Volume BTC,Volume GBP\n"
+                + "1641002400000,2022-01-01 02:00:00,BTC/GBP,34900.1,35010,34800,34999.99,1.5,52499.98\n"
+                + "1640998800,2022-01-01 01:00:00,BTC/GBP,34800,35000,34700,34900.1,2,69800.2\n";
+        CsvTickReader reader = new CsvTickReader(CsvColumnMapping.CRYPTO_DATA_DOWNLOAD, PriceScale.of(2));
+
+        assertEquals(2, reader.read(stream(csv), this::add));
+        // milliseconds are turned into seconds
+        assertTick(0, 1641002400L, 3499999);
+        assertTick(1, 1640998800L, 3490010);
+        assertEquals(0, reader.getSkippedLines());
+    }
+
+    @Test
+    void skipsInvalidLines() throws IOException {
+        CsvTickReader reader = new CsvTickReader(CsvColumnMapping.of(1, 0).withDelimiter(';'), PriceScale.of(2));
+        long read = reader.read(stream("price;time\n10.5;1640995200\n\nabc;1640998800\n11;1641002400;extra\n12\n"), this::add);
+
+        assertEquals(2, read);
+        assertTick(0, 1640995200L, 1050);
+        assertTick(1, 1641002400L, 1100);
+        // the column names, the price that is not a number and the line without a time
+        assertEquals(3, reader.getSkippedLines());
+    }
+
+    @Test
+    void roundsHalfEven() throws IOException {
+        String[] prices = {"1.005", "1.015", "1.0050001", "1.00499999", "2.999", "0.125"};
+        StringBuilder csv = new StringBuilder();
+        for (String price : prices) {
+            csv.append("1640995200,").append(price).append('\n');
+        }
+        new CsvTickReader(CsvColumnMapping.TIME_PRICE, PriceScale.of(2)).read(stream(csv.toString()), this::add);
+
+        for (int i = 0; i < prices.length; i++) {
+            long expected = new BigDecimal(prices[i]).setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+            assertEquals(expected, ticks.get(i)[1], prices[i]);
+        }
+    }
+
+    @Test
+    void linesAcrossBuffers() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            csv.append(1_600_000_000L + i).append(',').append(i).append('.').append(i % 100).append('\n');
+        }
+        // a buffer smaller than a line
+        long read = new CsvTickReader(CsvColumnMapping.TIME_PRICE, PriceScale.DEFAULT, 7).read(stream(csv.toString()), this::add);
+
+        assertEquals(1000, read);
+        for (int i = 0; i < 1000; i++) {
+            assertTick(i, 1_600_000_000L + i, PriceScale.DEFAULT.toFixed(new BigDecimal(i + "." + (i % 100))));
+        }
+    }
+
+    @Test
+    void gzip() throws IOException {
+        Path path = Files.createTempFile("ticks", ".csv.gz");
+        try {
+            try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(path))) {
+                outputStream.write("1640995200,35000.5\n1640998800,35100\n".getBytes(StandardCharsets.US_ASCII));
+            }
+            long read = new CsvTickReader(CsvColumnMapping.TIME_PRICE, PriceScale.of(2)).read(path, this::add);
+
+            assertEquals(2, read);
+            assertTick(1, 1640998800L, 3510000);
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private void add(long time, long price) {
+        ticks.add(new long[]{time, price});
+    }
+
+    private void assertTick(int index, long time, long price) {
+        assertEquals(time, ticks.get(index)[0]);
+        assertEquals(price, ticks.get(index)[1]);
+    }
+
+    private ByteArrayInputStream stream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.US_ASCII));
+    }
+}
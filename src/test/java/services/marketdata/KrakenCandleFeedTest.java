@@ -0,0 +1,87 @@
+package services.marketdata;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import properties.TradeProperties;
+import services.TimeService;
+import services.httpclients.kraken.KrakenClient;
+import services.httpclients.kraken.response.trades.TradeDetails;
+import services.httpclients.kraken.response.trades.Trades;
+import services.httpclients.kraken.response.trades.TradesResponse;
+import valueobjects.timeframe.Tick;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class KrakenCandleFeedTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2022, 1, 1, 0, 0);
+
+    @Mock
+    KrakenClient krakenClient;
+
+    KrakenCandleFeed krakenCandleFeed;
+
+    @BeforeEach
+    void setUp() {
+        krakenClient = mock(KrakenClient.class);
+        TradeProperties tradeProperties = new TradeProperties("XBTGBP", "XXBTZGBP", "ZGBP", "XXBT", BigDecimal.ONE, true, "1:1", 2);
+        krakenCandleFeed = new KrakenCandleFeed(krakenClient, tradeProperties);
+    }
+
+    @Test
+    void getCandles() {
+        // the api does not have to return the candles in order
+        mockCandles(Duration.ofHours(1), candle(2, "12"), candle(0, "10"), candle(1, "11.5"));
+
+        List<Tick> ticks = krakenCandleFeed.getCandles(Duration.ofHours(1));
+
+        assertEquals(List.of(START, START.plusHours(1), START.plusHours(2)), ticks.stream().map(Tick::getTime).collect(Collectors.toList()));
+        // prices in the scale of the asset, 2 decimals
+        assertEquals(1150, ticks.get(1).getPrice());
+    }
+
+    @Test
+    void getCandlesBackToBack() {
+        mockCandles(Duration.ofHours(4), candle(0, "1"), candle(4, "2"), candle(8, "3"), candle(12, "4"));
+        mockCandles(Duration.ofHours(1), candle(9, "5"), candle(10, "6"), candle(11, "7"), candle(12, "8"));
+
+        // the order of the intervals does not matter
+        List<Tick> ticks = krakenCandleFeed.getCandles(List.of(Duration.ofHours(1), Duration.ofHours(4)));
+
+        // the 4 hour candles until the first 1 hour candle, then the 1 hour candles
+        assertEquals(List.of(START, START.plusHours(4), START.plusHours(8), START.plusHours(9), START.plusHours(10), START.plusHours(11), START.plusHours(12)),
+                ticks.stream().map(Tick::getTime).collect(Collectors.toList()));
+        assertEquals(800, ticks.get(6).getPrice());
+    }
+
+    @Test
+    void getCandlesFailed() {
+        when(krakenClient.getHistoricData(eq(Duration.ofHours(1)))).thenReturn(Optional.empty());
+
+        assertThrows(IllegalStateException.class, () -> krakenCandleFeed.getCandles(Duration.ofHours(1)));
+    }
+
+    private void mockCandles(Duration interval, TradeDetails... candles) {
+        TradesResponse tradesResponse = mock(TradesResponse.class);
+        Trades trades = mock(Trades.class);
+        when(trades.getTradeDetails(eq("XXBTZGBP"))).thenReturn(List.of(candles));
+        when(tradesResponse.getResult()).thenReturn(trades);
+        when(krakenClient.getHistoricData(eq(interval))).thenReturn(Optional.of(tradesResponse));
+    }
+
+    private TradeDetails candle(int hours, String closePrice) {
+        return new TradeDetails(closePrice, "1", (double) TimeService.getMilliSeconds(START.plusHours(hours)) / 1000);
+    }
+}
@@ -0,0 +1,201 @@
+package services.marketdata;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import properties.TradeProperties;
+import services.ReplayClock;
+import services.TimeService;
+import services.httpclients.kraken.KrakenClient;
+import services.httpclients.kraken.response.ticker.TickerPair;
+import services.httpclients.kraken.response.ticker.TickerPairResponse;
+import valueobjects.timeframe.Timeframe;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MarketDataHubTest {
+
+    @Mock
+    KrakenClient krakenClient;
+    @Mock
+    ScheduledExecutorService scheduler;
+
+    ReplayClock clock;
+    MarketDataHub marketDataHub;
+
+    @BeforeEach
+    void setUp() {
+        krakenClient = mock(KrakenClient.class);
+        scheduler = mock(ScheduledExecutorService.class);
+        TradeProperties tradeProperties = new TradeProperties("XBTGBP", "XXBTZGBP", "ZGBP", "XXBT", BigDecimal.ONE, true, "1:1", 2);
+        clock = new ReplayClock(TimeService.getMilliSeconds(LocalDateTime.of(2022, 8, 1, 12, 0)));
+        marketDataHub = new MarketDataHub(krakenClient, tradeProperties, clock);
+    }
+
+    @Test
+    void pollsOncePerAsset() {
+        givenPrices(1, 2, 3, 4, 5, 6);
+
+        List<Timeframe> fastPrices = new ArrayList<>();
+        List<Timeframe> slowPrices = new ArrayList<>();
+        marketDataHub.subscribe("Fast", "XBTGBP", Duration.ofSeconds(10), 5, fastPrices::add);
+        marketDataHub.subscribe("Slow", "XBTGBP", Duration.ofSeconds(15), 5, slowPrices::add);
+        marketDataHub.start(scheduler);
+
+        // one poller on the shortest period
+        verify(scheduler, times(1)).scheduleAtFixedRate(any(Runnable.class), anyLong(), eq(10L), eq(TimeUnit.SECONDS));
+
+        pollEvery(Duration.ofSeconds(10), 6);
+
+        // a single request for each poll shared by both strategies
+        verify(krakenClient, times(6)).getTickerInfo(eq("XBTGBP"));
+        // every poll and the polls at 0, 20, 30 and 50 seconds
+        assertEquals(6, fastPrices.size());
+        assertEquals(4, slowPrices.size());
+        // each period has its own series, with the prices of its own polls
+        assertNotSame(fastPrices.get(0), slowPrices.get(0));
+        assertEquals(600, fastPrices.get(0).last().getPrice());
+        assertEquals(600, slowPrices.get(0).last().getPrice());
+        assertEquals(400, slowPrices.get(0).get(2).getPrice());
+    }
+
+    @Test
+    void sharesSeriesOfTheSamePeriod() {
+        givenPrices(1, 2);
+
+        List<Timeframe> goldenCrossPrices = new ArrayList<>();
+        List<Timeframe> emaCrossoverPrices = new ArrayList<>();
+        marketDataHub.subscribe("GoldenCross", "XBTGBP", Duration.ofSeconds(10), 5, goldenCrossPrices::add);
+        marketDataHub.subscribe("3EmaCrossover", "XBTGBP", Duration.ofSeconds(10), 8, emaCrossoverPrices::add);
+        marketDataHub.start(scheduler);
+
+        pollEvery(Duration.ofSeconds(10), 2);
+
+        assertEquals(2, goldenCrossPrices.size());
+        assertSame(goldenCrossPrices.get(0), emaCrossoverPrices.get(0));
+        // big enough for the subscriber that needs the most prices
+        assertEquals(8, goldenCrossPrices.get(0).capacity());
+        assertEquals(2, goldenCrossPrices.get(0).size());
+    }
+
+    @Test
+    void skipsUnchangedPrices() {
+        givenPrices(1, 1, 2);
+
+        List<Timeframe> prices = new ArrayList<>();
+        marketDataHub.subscribe("Strategy", "XBTGBP", Duration.ofSeconds(10), 5, prices::add);
+        marketDataHub.start(scheduler);
+
+        pollEvery(Duration.ofSeconds(10), 3);
+
+        assertEquals(2, prices.size());
+        assertEquals(2, prices.get(0).size());
+    }
+
+    @Test
+    void pollsOnlyWhenSeriesAreDue() {
+        givenPrices(1, 2);
+
+        List<Timeframe> prices = new ArrayList<>();
+        marketDataHub.subscribe("Strategy", "XBTGBP", Duration.ofSeconds(10), 5, prices::add);
+        marketDataHub.start(scheduler);
+
+        marketDataHub.poll("XBTGBP");
+        // half way through the period
+        clock.set(clock.millis() + 5000);
+        marketDataHub.poll("XBTGBP");
+
+        verify(krakenClient, times(1)).getTickerInfo(eq("XBTGBP"));
+        assertEquals(1, prices.size());
+    }
+
+    @Test
+    void failedPollDoesNotShiftThePeriod() {
+        TickerPair tickerPair = mock(TickerPair.class);
+        when(tickerPair.getCurrentPrice()).thenReturn(BigDecimal.ONE, BigDecimal.valueOf(2), BigDecimal.valueOf(3));
+        TickerPairResponse tickerPairResponse = mock(TickerPairResponse.class);
+        when(tickerPairResponse.getResult()).thenReturn(Map.of("XXBTZGBP", tickerPair));
+        when(krakenClient.getTickerInfo(eq("XBTGBP")))
+                .thenReturn(Optional.of(tickerPairResponse))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(tickerPairResponse));
+
+        List<Timeframe> fastPrices = new ArrayList<>();
+        List<Timeframe> slowPrices = new ArrayList<>();
+        marketDataHub.subscribe("Fast", "XBTGBP", Duration.ofSeconds(10), 5, fastPrices::add);
+        marketDataHub.subscribe("Slow", "XBTGBP", Duration.ofSeconds(20), 5, slowPrices::add);
+        marketDataHub.start(scheduler);
+
+        // the poll at 10 seconds fails
+        pollEvery(Duration.ofSeconds(10), 4);
+
+        // both still take the prices of their own period, the slow one at 0 and 20 seconds
+        verify(krakenClient, times(4)).getTickerInfo(eq("XBTGBP"));
+        assertEquals(3, fastPrices.size());
+        assertEquals(2, slowPrices.size());
+    }
+
+    @Test
+    void unsubscribe() {
+        givenPrices(1, 2);
+
+        List<Timeframe> prices = new ArrayList<>();
+        List<String> unsubscribed = new ArrayList<>();
+        marketDataHub.onUnsubscribe(unsubscribed::add);
+        MarketDataHub.Subscription subscription = marketDataHub.subscribe("Strategy", "XBTGBP", Duration.ofSeconds(10), 5, prices::add);
+        marketDataHub.start(scheduler);
+
+        marketDataHub.poll("XBTGBP");
+        marketDataHub.unsubscribe(subscription);
+        marketDataHub.poll("XBTGBP");
+
+        assertEquals(1, prices.size());
+        // the listeners release whatever the strategy was using
+        assertEquals(List.of("Strategy"), unsubscribed);
+        // nobody is interested in the asset anymore so the api is not called
+        verify(krakenClient, times(1)).getTickerInfo(eq("XBTGBP"));
+    }
+
+    // polls once now and then once every period
+    private void pollEvery(Duration period, int polls) {
+        for (int i = 0; i < polls; i++) {
+            if (i > 0) {
+                clock.set(clock.millis() + period.toMillis());
+            }
+            marketDataHub.poll("XBTGBP");
+        }
+    }
+
+    private void givenPrices(int... prices) {
+        List<Optional<TickerPairResponse>> responses = new ArrayList<>();
+        for (int price : prices) {
+            TickerPair tickerPair = mock(TickerPair.class);
+            when(tickerPair.getCurrentPrice()).thenReturn(BigDecimal.valueOf(price));
+            TickerPairResponse response = mock(TickerPairResponse.class);
+            when(response.getResult()).thenReturn(Map.of("XXBTZGBP", tickerPair));
+            responses.add(Optional.of(response));
+        }
+        // one response per call, the last one is repeated
+        int[] calls = {0};
+        when(krakenClient.getTickerInfo(eq("XBTGBP"))).thenAnswer(invocation -> responses.get(Math.min(calls[0]++, responses.size() - 1)));
+    }
+}
@@ -0,0 +1,98 @@
+package services.marketdata;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import valueobjects.price.PriceScale;
+import valueobjects.timeframe.Tick;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TickStoreTest {
+
+    private Path path;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        path = Files.createTempFile("ticks", ".ticks");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    void importCsv() throws IOException {
+        TickStoreImporter importer = new TickStoreImporter(PriceScale.of(2));
+        importer.addCsv(new ByteArrayInputStream("1640995200,35000.5\n1640998800,35100\n1641002400.0,34999.99\n".getBytes()), CsvColumnMapping.TIME_PRICE);
+        importer.write(path);
+
+        TickStore tickStore = TickStore.open(path);
+        assertEquals(3, tickStore.size());
+        assertEquals(2, tickStore.getScale().getScale());
+        assertEquals(1640998800L, tickStore.getTime(1));
+        assertEquals(3510000L, tickStore.getPrice(1));
+
+        Tick tick = tickStore.getTick(2);
+        assertEquals(LocalDateTime.of(2022, 1, 1, 2, 0), tick.getTime());
+        assertEquals(new BigDecimal("34999.99"), tick.getValue());
+    }
+
+    @Test
+    void ticks() throws IOException {
+        // more ticks than the write buffer and the initial capacity of the importer hold
+        int size = 10_000;
+        TickStoreImporter importer = new TickStoreImporter(PriceScale.DEFAULT);
+        for (int i = 0; i < size; i++) {
+            importer.add(1_600_000_000L + i * 3600L, PriceScale.DEFAULT.toFixed((long) i));
+        }
+        importer.write(path);
+
+        TickStore tickStore = TickStore.open(path);
+        assertEquals(size, tickStore.size());
+        assertEquals(1_600_000_000L + (size - 1) * 3600L, tickStore.getTime(size - 1));
+
+        List<Tick> ticks = tickStore.ticks(250, size);
+        assertEquals(size - 250, ticks.size());
+        assertEquals(0, BigDecimal.valueOf(250).compareTo(ticks.get(0).getValue()));
+        assertEquals(0, BigDecimal.valueOf(size - 1).compareTo(ticks.get(ticks.size() - 1).getValue()));
+
+        int count = 0;
+        for (Tick ignored : ticks) {
+            count++;
+        }
+        assertEquals(size - 250, count);
+        assertThrows(IndexOutOfBoundsException.class, () -> ticks.get(size - 250));
+        assertThrows(IndexOutOfBoundsException.class, () -> tickStore.ticks(0, size + 1));
+    }
+
+    @Test
+    void newestFirst() throws IOException {
+        TickStoreImporter importer = new TickStoreImporter(PriceScale.of(2));
+        importer.add(1641002400L, 300);
+        importer.add(1640998800L, 200);
+        importer.add(1640995200L, 100);
+        importer.write(path);
+
+        TickStore tickStore = TickStore.open(path);
+        assertEquals(1640995200L, tickStore.getTime(0));
+        assertEquals(100, tickStore.getPrice(0));
+        assertEquals(300, tickStore.getPrice(2));
+    }
+
+    @Test
+    void invalidFile() throws IOException {
+        Files.write(path, new byte[64]);
+        assertThrows(IllegalArgumentException.class, () -> TickStore.open(path));
+    }
+}
@@ -6,7 +6,7 @@ import database.entities.TradeOrderType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
-import properties.PropertiesService;
+import properties.TradeProperties;
 import properties.TrailingStopExitStrategyProperties;
 import services.strategies.tradingstrategies.TradingStrategy;
 import services.trades.TradeService;
@@ -21,26 +21,30 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class TrailingStopExitStrategyTest {
 
-    @Mock
-    PropertiesService propertiesService;
     @Mock
     TradeService tradeService;
 
+    TrailingStopTracker trailingStopTracker;
     TrailingStopExitStrategy trailingStopExitStrategy;
 
     @BeforeEach
     void setUp() {
         tradeService = mock(TradeService.class);
-        propertiesService = mock(PropertiesService.class);
-        when(propertiesService.loadProperties(eq(TrailingStopExitStrategyProperties.class)))
-                .thenReturn(Optional.of(new TrailingStopExitStrategyProperties(BigDecimal.valueOf(0.2))));
+        TradeProperties tradeProperties = new TradeProperties("XBTGBP", "XXBTZGBP", "ZGBP", "XXBT", BigDecimal.ONE, true, "1:1", 8);
+        TrailingStopExitStrategyProperties properties = new TrailingStopExitStrategyProperties(BigDecimal.valueOf(0.2));
 
-        trailingStopExitStrategy = new TrailingStopExitStrategy(propertiesService, tradeService);
+        trailingStopTracker = new TrailingStopTracker(tradeProperties, properties, tradeService);
+        trailingStopExitStrategy = new TrailingStopExitStrategy(trailingStopTracker);
     }
 
     @Test
@@ -61,12 +65,13 @@ class TrailingStopExitStrategyTest {
         tradeOrder.setPrice(BigDecimal.valueOf(100));
         tradeOrder.setTradingSignal(TradingStrategy.TradingSignal.BUY);
         tradeOrder.setType(TradeOrderType.ENTRY);
+        tradeOrder.setOrderReference(1);
 
         TradeEntity tradeEntity = new TradeEntity();
         tradeEntity.addOrder(tradeOrder);
-        when(tradeService.getById(eq(BigInteger.valueOf(1)))).thenReturn(Optional.of(tradeEntity));
+        when(tradeService.getByEntryOrderReference(eq(1))).thenReturn(Optional.of(tradeEntity));
 
-        Optional<TradingStrategy.TradingSignal> exitSignal = trailingStopExitStrategy.strategy().apply(BigInteger.valueOf(1), trailingStopSignalTriggerTimeframe);
+        Optional<TradingStrategy.TradingSignal> exitSignal = trailingStopExitStrategy.strategy().apply(1, trailingStopSignalTriggerTimeframe);
 
         assertTrue(exitSignal.isPresent());
         assertEquals(TradingStrategy.TradingSignal.SELL, exitSignal.get());
@@ -85,12 +90,13 @@ class TrailingStopExitStrategyTest {
         tradeOrder.setPrice(BigDecimal.valueOf(70));
         tradeOrder.setTradingSignal(TradingStrategy.TradingSignal.SELL);
         tradeOrder.setType(TradeOrderType.ENTRY);
+        tradeOrder.setOrderReference(1);
 
         TradeEntity tradeEntity = new TradeEntity();
         tradeEntity.addOrder(tradeOrder);
-        when(tradeService.getById(eq(BigInteger.valueOf(1)))).thenReturn(Optional.of(tradeEntity));
+        when(tradeService.getByEntryOrderReference(eq(1))).thenReturn(Optional.of(tradeEntity));
 
-        Optional<TradingStrategy.TradingSignal> exitSignal = trailingStopExitStrategy.strategy().apply(BigInteger.valueOf(1), trailingStopSignalTriggerTimeframe);
+        Optional<TradingStrategy.TradingSignal> exitSignal = trailingStopExitStrategy.strategy().apply(1, trailingStopSignalTriggerTimeframe);
 
         assertTrue(exitSignal.isPresent());
         assertEquals(TradingStrategy.TradingSignal.BUY, exitSignal.get());
@@ -108,13 +114,76 @@ class TrailingStopExitStrategyTest {
         tradeOrder.setPrice(BigDecimal.valueOf(70));
         tradeOrder.setTradingSignal(TradingStrategy.TradingSignal.SELL);
         tradeOrder.setType(TradeOrderType.ENTRY);
+        tradeOrder.setOrderReference(1);
 
         TradeEntity tradeEntity = new TradeEntity();
         tradeEntity.addOrder(tradeOrder);
-        when(tradeService.getById(eq(BigInteger.valueOf(1)))).thenReturn(Optional.of(tradeEntity));
+        when(tradeService.getByEntryOrderReference(eq(1))).thenReturn(Optional.of(tradeEntity));
 
-        Optional<TradingStrategy.TradingSignal> exitSignal = trailingStopExitStrategy.strategy().apply(BigInteger.valueOf(1), timeframe);
+        Optional<TradingStrategy.TradingSignal> exitSignal = trailingStopExitStrategy.strategy().apply(1, timeframe);
 
         assertTrue(exitSignal.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void levelStoredOnCheckpoint() {
+        Timeframe timeframe = new Timeframe(2);
+        LocalDateTime startTime = LocalDateTime.now();
+        timeframe.addTick(new Tick(startTime, BigDecimal.valueOf(100)));
+        // the price goes up so the stop of the long trade goes up with it, 120 * 0.8 = 96
+        timeframe.addTick(new Tick(startTime.plusSeconds(10), BigDecimal.valueOf(120)));
+
+        TradeOrderEntity tradeOrder = new TradeOrderEntity();
+        tradeOrder.setTime(startTime);
+        tradeOrder.setPrice(BigDecimal.valueOf(100));
+        tradeOrder.setTradingSignal(TradingStrategy.TradingSignal.BUY);
+        tradeOrder.setType(TradeOrderType.ENTRY);
+        tradeOrder.setOrderReference(1);
+
+        TradeEntity tradeEntity = new TradeEntity();
+        tradeEntity.setId(BigInteger.valueOf(1));
+        tradeEntity.addOrder(tradeOrder);
+        when(tradeService.getByEntryOrderReference(eq(1))).thenReturn(Optional.of(tradeEntity));
+
+        trailingStopExitStrategy.strategy().apply(1, timeframe);
+        // nothing is stored on the tick
+        verify(tradeService, never()).updateTrailingStop(any(), any());
+
+        trailingStopTracker.checkpoint();
+        trailingStopTracker.checkpoint();
+
+        // stored once, the second checkpoint has nothing new to store
+        verify(tradeService, times(1)).updateTrailingStop(any(), any());
+        verify(tradeService).updateTrailingStop(eq(BigInteger.valueOf(1)), argThat(level -> BigDecimal.valueOf(96).compareTo(level) == 0));
+    }
+
+    @Test
+    void levelStoredOnceTheTradeHasAnId() {
+        Timeframe timeframe = new Timeframe(2);
+        LocalDateTime startTime = LocalDateTime.now();
+        timeframe.addTick(new Tick(startTime, BigDecimal.valueOf(100)));
+        timeframe.addTick(new Tick(startTime.plusSeconds(10), BigDecimal.valueOf(120)));
+
+        TradeOrderEntity tradeOrder = new TradeOrderEntity();
+        tradeOrder.setTime(startTime);
+        tradeOrder.setPrice(BigDecimal.valueOf(100));
+        tradeOrder.setTradingSignal(TradingStrategy.TradingSignal.BUY);
+        tradeOrder.setType(TradeOrderType.ENTRY);
+        tradeOrder.setOrderReference(1);
+
+        // journaled but not stored yet
+        TradeEntity tradeEntity = new TradeEntity();
+        tradeEntity.addOrder(tradeOrder);
+        when(tradeService.getByEntryOrderReference(eq(1))).thenReturn(Optional.of(tradeEntity));
+
+        // the stop trails without the id
+        trailingStopExitStrategy.strategy().apply(1, timeframe);
+        trailingStopTracker.checkpoint();
+        verify(tradeService, never()).updateTrailingStop(any(), any());
+
+        tradeEntity.setId(BigInteger.valueOf(1));
+        trailingStopTracker.checkpoint();
+
+        verify(tradeService).updateTrailingStop(eq(BigInteger.valueOf(1)), argThat(level -> BigDecimal.valueOf(96).compareTo(level) == 0));
+    }
+}
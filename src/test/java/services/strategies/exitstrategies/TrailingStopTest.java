@@ -0,0 +1,62 @@
+package services.strategies.exitstrategies;
+
+import org.junit.jupiter.api.Test;
+import services.strategies.tradingstrategies.TradingStrategy;
+import valueobjects.price.PriceScale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrailingStopTest {
+
+    private final PriceScale scale = PriceScale.of(2);
+    // 10%
+    private final long distance = 10;
+
+    @Test
+    void buyTrailsUp() {
+        // entered at 100.00 so the stop starts at 90.00
+        TrailingStop trailingStop = TrailingStop.open(TradingStrategy.TradingSignal.BUY, scale, distance, 10000, 1000);
+        assertEquals(9000, trailingStop.getLevel());
+
+        // price goes up and the stop follows. 120.00 - 10% = 108.00
+        assertFalse(trailingStop.update(2000, 12000));
+        assertEquals(10800, trailingStop.getLevel());
+
+        // price goes down but the stop stays
+        assertFalse(trailingStop.update(3000, 11000));
+        assertEquals(10800, trailingStop.getLevel());
+
+        // prices older than the latest one are ignored
+        assertFalse(trailingStop.update(3000, 10000));
+
+        // price drops below the stop
+        assertTrue(trailingStop.update(4000, 10700));
+        assertEquals(TradingStrategy.TradingSignal.SELL, trailingStop.getExitSignal());
+    }
+
+    @Test
+    void sellTrailsDown() {
+        // entered at 100.00 so the stop starts at 110.00
+        TrailingStop trailingStop = TrailingStop.open(TradingStrategy.TradingSignal.SELL, scale, distance, 10000, 1000);
+        assertEquals(11000, trailingStop.getLevel());
+
+        // 80.00 + 10% = 88.00
+        assertFalse(trailingStop.update(2000, 8000));
+        assertEquals(8800, trailingStop.getLevel());
+
+        // price rises above the stop
+        assertTrue(trailingStop.update(3000, 8900));
+        assertEquals(TradingStrategy.TradingSignal.BUY, trailingStop.getExitSignal());
+    }
+
+    @Test
+    void carriesOnFromStoredLevel() {
+        TrailingStop trailingStop = new TrailingStop(TradingStrategy.TradingSignal.BUY, scale, distance, 10800, 1000);
+
+        assertFalse(trailingStop.update(2000, 11000));
+        assertEquals(10800, trailingStop.getLevel());
+        assertTrue(trailingStop.update(3000, 10000));
+    }
+}
@@ -3,7 +3,9 @@ package services.strategies.tradingstrategies;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import properties.GoldenCrossStrategyProperties;
-import properties.PropertiesService;
+import properties.TradeProperties;
+import services.indicators.ExponentialMovingAverageIndicator;
+import services.indicators.IndicatorRegistry;
 import services.indicators.MovingAverageIndicator;
 import services.strategies.tradingstrategies.TradingStrategy.TradingSignal;
 import valueobjects.timeframe.Tick;
@@ -16,19 +18,18 @@ import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
 
 class GoldenCrossStrategyTest {
 
-    PropertiesService propertiesService;
+    GoldenCrossStrategyProperties properties;
+    TradeProperties tradeProperties;
+    IndicatorRegistry indicatorRegistry;
 
     @BeforeEach
     void setUp() {
-        propertiesService = mock(PropertiesService.class);
-        when(propertiesService.loadProperties(eq(GoldenCrossStrategyProperties.class)))
-                .thenReturn(Optional.of(new GoldenCrossStrategyProperties("PT10S", 2, 5, true, "ExitStrat", 250)));
+        properties = new GoldenCrossStrategyProperties("PT10S", 2, 5, true, "ExitStrat", 250);
+        tradeProperties = new TradeProperties("XBTGBP", "XXBTZGBP", "ZGBP", "XXBT", BigDecimal.ONE, true, "1:1", 8);
+        indicatorRegistry = new IndicatorRegistry(new MovingAverageIndicator(), new ExponentialMovingAverageIndicator());
     }
 
     @Test
@@ -47,7 +48,7 @@ class GoldenCrossStrategyTest {
         sellSignalTimeFrame.addTick(new Tick(startTime.plusSeconds(80), BigDecimal.valueOf(18)));
         sellSignalTimeFrame.addTick(new Tick(startTime.plusSeconds(90), BigDecimal.valueOf(5)));
 
-        Function<Timeframe, Optional<TradingSignal>> strategy = new GoldenCrossStrategy(propertiesService, new MovingAverageIndicator()).strategy();
+        Function<Timeframe, Optional<TradingSignal>> strategy = new GoldenCrossStrategy(properties, tradeProperties, indicatorRegistry).strategy();
         Optional<TradingSignal> buySignal = strategy.apply(sellSignalTimeFrame);
 
         assertTrue(buySignal.isPresent());
@@ -70,7 +71,7 @@ class GoldenCrossStrategyTest {
         buySignalTimeFrame.addTick(new Tick(startTime.plusSeconds(80), BigDecimal.valueOf(4)));
         buySignalTimeFrame.addTick(new Tick(startTime.plusSeconds(90), BigDecimal.valueOf(18)));
 
-        Function<Timeframe, Optional<TradingSignal>> strategy = new GoldenCrossStrategy(propertiesService, new MovingAverageIndicator()).strategy();
+        Function<Timeframe, Optional<TradingSignal>> strategy = new GoldenCrossStrategy(properties, tradeProperties, indicatorRegistry).strategy();
         Optional<TradingSignal> buySignal = strategy.apply(buySignalTimeFrame);
 
         assertTrue(buySignal.isPresent());
@@ -93,7 +94,7 @@ class GoldenCrossStrategyTest {
         buySignalTimeFrame.addTick(new Tick(startTime.plusSeconds(80), BigDecimal.valueOf(4)));
         buySignalTimeFrame.addTick(new Tick(startTime.plusSeconds(90), BigDecimal.valueOf(2)));
 
-        Function<Timeframe, Optional<TradingSignal>> strategy = new GoldenCrossStrategy(propertiesService, new MovingAverageIndicator()).strategy();
+        Function<Timeframe, Optional<TradingSignal>> strategy = new GoldenCrossStrategy(properties, tradeProperties, indicatorRegistry).strategy();
         Optional<TradingSignal> buySignal = strategy.apply(buySignalTimeFrame);
 
         assertTrue(buySignal.isEmpty());
@@ -3,9 +3,11 @@ package services.strategies.tradingstrategies;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
-import properties.PropertiesService;
 import properties.ThreeEmaCrossoverStrategyProperties;
+import properties.TradeProperties;
 import services.indicators.ExponentialMovingAverageIndicator;
+import services.indicators.IndicatorRegistry;
+import services.indicators.MovingAverageIndicator;
 import valueobjects.timeframe.Tick;
 import valueobjects.timeframe.Timeframe;
 
@@ -23,9 +25,6 @@ class ThreeEmaCrossoverStrategyTest {
 
     ThreeEmaCrossoverStrategy threeEmaCrossoverStrategy;
 
-    @Mock
-    PropertiesService propertiesService;
-
     @Mock
     ExponentialMovingAverageIndicator exponentialMovingAverageIndicator;
 
@@ -35,14 +34,13 @@ class ThreeEmaCrossoverStrategyTest {
 
     @BeforeEach
     void setUp() {
-        propertiesService = mock(PropertiesService.class);
         exponentialMovingAverageIndicator = mock(ExponentialMovingAverageIndicator.class);
-        when(propertiesService.loadProperties(eq(ThreeEmaCrossoverStrategyProperties.class)))
-                .thenReturn(Optional.of(
-                        new ThreeEmaCrossoverStrategyProperties("PT1H", shortPeriod, mediumPeriod, longPeriod, true, "ExitStrat", 250)
-                ));
+        ThreeEmaCrossoverStrategyProperties properties =
+                new ThreeEmaCrossoverStrategyProperties("PT1H", shortPeriod, mediumPeriod, longPeriod, true, "ExitStrat", 250);
+        TradeProperties tradeProperties = new TradeProperties("XBTGBP", "XXBTZGBP", "ZGBP", "XXBT", BigDecimal.ONE, true, "1:1", 8);
 
-        threeEmaCrossoverStrategy = new ThreeEmaCrossoverStrategy(propertiesService, exponentialMovingAverageIndicator);
+        IndicatorRegistry indicatorRegistry = new IndicatorRegistry(new MovingAverageIndicator(), exponentialMovingAverageIndicator);
+        threeEmaCrossoverStrategy = new ThreeEmaCrossoverStrategy(properties, tradeProperties, indicatorRegistry);
     }
 
     @Test
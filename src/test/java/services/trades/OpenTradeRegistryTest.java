@@ -0,0 +1,109 @@
+package services.trades;
+
+import database.daos.InMemoryTradeDao;
+import database.entities.TradeEntity;
+import database.entities.TradeOrderEntity;
+import database.entities.TradeOrderStatus;
+import database.entities.TradeOrderType;
+import database.journal.GeneratedIds;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OpenTradeRegistryTest {
+
+    private final InMemoryTradeDao tradeDao = new InMemoryTradeDao();
+    private final OpenTradeRegistry registry = new OpenTradeRegistry(tradeDao);
+
+    @Test
+    void loadsTheOpenTrades() {
+        TradeEntity open = getTrade("GoldenCross", TradeOrderStatus.PENDING);
+        TradeEntity closed = getTrade("GoldenCross", TradeOrderStatus.EXECUTED);
+        closed.setProfit(BigDecimal.ONE);
+        tradeDao.save(open);
+        tradeDao.save(closed);
+
+        assertEquals(List.of(open), registry.getOpenTradesByStrategy("GoldenCross"));
+        assertSame(open, registry.getById(open.getId()).orElseThrow());
+        assertTrue(registry.getById(closed.getId()).isEmpty());
+        assertEquals(List.of(open.getEntryOrder()), registry.getPendingOrders());
+    }
+
+    @Test
+    void updateKeepsOpenTradesAndDropsClosedOnes() {
+        TradeEntity goldenCross = getTrade("GoldenCross", TradeOrderStatus.EXECUTED);
+        TradeEntity threeEma = getTrade("3EmaCrossover", TradeOrderStatus.PENDING);
+        registry.update(goldenCross);
+        registry.update(threeEma);
+
+        assertEquals(List.of(goldenCross), registry.getOpenTradesByStrategy("GoldenCross"));
+        assertEquals(List.of(threeEma.getEntryOrder()), registry.getPendingOrders());
+
+        // closing a trade while going through the open trades
+        for (TradeEntity trade : registry.getOpenTradesByStrategy("GoldenCross")) {
+            trade.setProfit(BigDecimal.ONE);
+            registry.update(trade);
+        }
+        assertTrue(registry.getOpenTradesByStrategy("GoldenCross").isEmpty());
+        assertEquals(List.of(threeEma), registry.getOpenTradesByStrategy("3EmaCrossover"));
+        assertTrue(registry.getOpenTradesByStrategy("Unknown").isEmpty());
+    }
+
+    @Test
+    void findsTradesThatGotTheirIdAfterTheyWereAdded() {
+        // the journal hands the generated ids over once it stored the trade
+        List<Consumer<GeneratedIds>> listeners = new ArrayList<>();
+        InMemoryTradeDao journaledTradeDao = new InMemoryTradeDao() {
+            @Override
+            public void onGeneratedIds(Consumer<GeneratedIds> listener) {
+                listeners.add(listener);
+            }
+        };
+        OpenTradeRegistry registry = new OpenTradeRegistry(journaledTradeDao);
+
+        TradeEntity trade = getTrade("GoldenCross", TradeOrderStatus.PENDING);
+        trade.getEntryOrder().setOrderReference(7);
+        registry.update(trade);
+        assertTrue(registry.getById(BigInteger.TEN).isEmpty());
+
+        listeners.forEach(listener -> listener.accept(new GeneratedIds(7, BigInteger.TEN, Map.of(7, BigInteger.TWO))));
+        assertSame(trade, registry.getById(BigInteger.TEN).orElseThrow());
+        assertEquals(BigInteger.TEN, trade.getId());
+        assertEquals(BigInteger.TWO, trade.getEntryOrder().getId());
+
+        // the same trade read again replaces it
+        TradeEntity reread = getTrade("GoldenCross", TradeOrderStatus.EXECUTED);
+        reread.getEntryOrder().setOrderReference(7);
+        reread.setId(BigInteger.TEN);
+        registry.update(reread);
+        assertEquals(List.of(reread), registry.getOpenTradesByStrategy("GoldenCross"));
+
+        reread.setProfit(BigDecimal.ONE);
+        registry.update(reread);
+        assertTrue(registry.getOpenTradesByStrategy("GoldenCross").isEmpty());
+        assertTrue(registry.getById(BigInteger.TEN).isEmpty());
+    }
+
+    private TradeEntity getTrade(String strategy, TradeOrderStatus entryOrderStatus) {
+        TradeOrderEntity entryOrder = new TradeOrderEntity();
+        entryOrder.setType(TradeOrderType.ENTRY);
+        entryOrder.setStatus(entryOrderStatus);
+
+        TradeEntity trade = new TradeEntity();
+        trade.setEntryStrategy(strategy);
+        trade.setExitStrategy("TrailingStop");
+        trade.setPeriodLength(Duration.ofHours(1));
+        trade.addOrder(entryOrder);
+        return trade;
+    }
+}
@@ -16,6 +16,7 @@ import services.httpclients.kraken.response.balance.BalanceResponse;
 import services.httpclients.kraken.response.balance.BalanceResult;
 
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -43,14 +44,14 @@ class TradeServiceTest {
 
         BigDecimal capitalAtRisk = new BigDecimal("0.2");
         TradeProperties tradeProperties = new TradeProperties("XBTGBP", "XXBTZGBP",
-                "ZGBP", "XXBT", capitalAtRisk, false, "2:1");
+                "ZGBP", "XXBT", capitalAtRisk, false, "2:1", 8);
         when(propertiesService.loadProperties(eq(TradeProperties.class))).thenReturn(Optional.of(tradeProperties));
 
         AccountBalanceResponse accountBalanceResponse = mock(AccountBalanceResponse.class);
         when(accountBalanceResponse.getAccountBalance()).thenReturn(BigDecimal.TEN);
         when(client.getAccountBalance()).thenReturn(Optional.of(accountBalanceResponse));
 
-        tradeService = new TradeService(tradeDao, client, propertiesService);
+        tradeService = new TradeService(tradeDao, new OpenTradeRegistry(tradeDao), client, propertiesService, Clock.systemUTC());
     }
 
     @Test
@@ -0,0 +1,71 @@
+package valueobjects.price;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PriceScaleTest {
+
+    @Test
+    void conversions() {
+        PriceScale scale = PriceScale.of(8);
+        assertEquals(250000000L, scale.toFixed(new BigDecimal("2.5")));
+        assertEquals(250000000L, scale.toFixed(2.5));
+        assertEquals(200000000L, scale.toFixed(2L));
+        assertEquals(new BigDecimal("2.50000000"), scale.toBigDecimal(250000000L));
+        assertEquals(2.5, scale.toDouble(250000000L), 0);
+
+        // extra decimals are rounded HALF_EVEN
+        assertEquals(2L, PriceScale.of(0).toFixed(new BigDecimal("2.5")));
+        assertEquals(4L, PriceScale.of(0).toFixed(new BigDecimal("3.5")));
+
+        assertThrows(IllegalArgumentException.class, () -> PriceScale.of(19));
+        assertThrows(IllegalArgumentException.class, () -> PriceScale.of(-1));
+    }
+
+    @Test
+    void multiply() {
+        PriceScale scale = PriceScale.of(2);
+        // 2.50 * 0.50 = 1.25
+        assertEquals(125, scale.multiply(250, 50));
+        // 0.15 * 0.50 = 0.075 rounded to 0.08
+        assertEquals(8, scale.multiply(15, 50));
+        // 0.05 * 0.50 = 0.025 rounded to 0.02
+        assertEquals(2, scale.multiply(5, 50));
+        assertEquals(-2, scale.multiply(-5, 50));
+
+        // the product does not fit in a long but the result does
+        PriceScale bigScale = PriceScale.of(8);
+        long price = bigScale.toFixed(new BigDecimal("30000000"));
+        long percentage = bigScale.toFixed(new BigDecimal("0.015"));
+        assertEquals(bigScale.toFixed(new BigDecimal("450000")), bigScale.multiply(price, percentage));
+    }
+
+    @Test
+    void fraction() {
+        PriceScale scale = PriceScale.of(2);
+        // 1 / 4 = 0.25
+        assertEquals(25, scale.fraction(1, 4));
+        // 2 / 3 = 0.666.. rounded to 0.67
+        assertEquals(67, scale.fraction(200, 300));
+        // the numerator can not be scaled up in a long but the result fits
+        assertEquals(50, scale.fraction(Long.MAX_VALUE / 2, Long.MAX_VALUE / 2 * 2));
+    }
+
+    @Test
+    void divide() {
+        assertEquals(3, PriceScale.divide(6, 2));
+        // 2.5 -> 2 and 3.5 -> 4
+        assertEquals(2, PriceScale.divide(5, 2));
+        assertEquals(4, PriceScale.divide(7, 2));
+        assertEquals(-2, PriceScale.divide(-5, 2));
+        assertEquals(-4, PriceScale.divide(7, -2));
+        // 10 / 3 = 3.33.. and 20 / 3 = 6.66..
+        assertEquals(3, PriceScale.divide(10, 3));
+        assertEquals(7, PriceScale.divide(20, 3));
+        assertEquals(-7, PriceScale.divide(-20, 3));
+    }
+}
@@ -2,25 +2,101 @@ package valueobjects.timeframe;
 
 import org.junit.jupiter.api.Test;
 
+import services.ReplayClock;
+import services.TimeService;
+import valueobjects.price.PriceScale;
+
 import java.math.BigDecimal;
-import java.util.LinkedList;
+import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class TimeframeTest {
 
+    private final PriceScale scale = PriceScale.DEFAULT;
+
     @Test
     void addTick() {
         Timeframe timeframe = new Timeframe(2);
         // Tickers can be added up to the specified limit
         assertEquals(1, timeframe.addTick(BigDecimal.ONE).size());
         assertEquals(2, timeframe.addTick(BigDecimal.TEN).size());
-        LinkedList<Tick> ticks = timeframe.addTick(BigDecimal.ZERO);
+        Timeframe ticks = timeframe.addTick(BigDecimal.ZERO);
         assertEquals(2, ticks.size());
 
         // The latest values are stored
-        assertEquals(BigDecimal.ZERO, ticks.getLast().getValue());
-        assertEquals(BigDecimal.TEN, ticks.getFirst().getValue());
+        assertEquals(scale.toFixed(BigDecimal.ZERO), ticks.last().getPrice());
+        assertEquals(scale.toFixed(BigDecimal.TEN), ticks.get(0).getPrice());
+    }
+
+    @Test
+    void addTickWithOtherScale() {
+        Timeframe timeframe = new Timeframe(2, PriceScale.of(2));
+        timeframe.addTick(new Tick(LocalDateTime.now(), new BigDecimal("1.005"), PriceScale.of(3)));
+
+        // converted to the scale of the timeframe
+        assertEquals(PriceScale.of(2), timeframe.last().getScale());
+        assertEquals(100, timeframe.last().getPrice());
+    }
+
+    @Test
+    void addTickWithClock() {
+        ReplayClock clock = new ReplayClock();
+        LocalDateTime time = LocalDateTime.of(2022, 1, 1, 10, 0);
+        Timeframe timeframe = new Timeframe(2);
+
+        clock.set(time);
+        timeframe.addTick(BigDecimal.ONE, clock);
+        clock.set(time.plusHours(1));
+        timeframe.addTick(BigDecimal.TEN, clock);
+
+        // the ticks get the time of the clock instead of the time they were added
+        assertEquals(time, timeframe.get(0).getTime());
+        assertEquals(time.plusHours(1), timeframe.last().getTime());
+    }
+
+    @Test
+    void primitiveColumns() {
+        LocalDateTime time = LocalDateTime.of(2022, 1, 1, 10, 0, 0, 123_000_000);
+        Timeframe timeframe = new Timeframe(2);
+        timeframe.addTick(new Tick(time, BigDecimal.ONE));
+        timeframe.addTick(new Tick(time.plusSeconds(1), BigDecimal.TEN));
+        timeframe.addTick(new Tick(time.plusSeconds(2), BigDecimal.ZERO));
+
+        // read without building ticks, the oldest tick was overwritten
+        assertEquals(scale.toFixed(BigDecimal.TEN), timeframe.getPrice(0));
+        assertEquals(scale.toFixed(BigDecimal.ZERO), timeframe.lastPrice());
+        assertEquals(TimeService.getMilliSeconds(time.plusSeconds(1)), timeframe.getTime(0));
+        // the ticks built on demand keep the milliseconds
+        assertEquals(time.plusSeconds(2), timeframe.last().getTime());
+        assertThrows(IndexOutOfBoundsException.class, () -> timeframe.getPrice(2));
+    }
+
+    @Test
+    void views() {
+        Timeframe timeframe = new Timeframe(3);
+        timeframe.addTick(BigDecimal.ONE);
+        timeframe.addTick(BigDecimal.TEN);
+        timeframe.addTick(BigDecimal.ZERO);
+        // wraps around the storage. ONE is removed
+        timeframe.addTick(BigDecimal.valueOf(2));
+
+        Timeframe subframe = timeframe.subframe(2);
+        assertEquals(2, subframe.size());
+        assertEquals(scale.toFixed(BigDecimal.TEN), subframe.get(0).getPrice());
+        assertEquals(scale.toFixed(BigDecimal.ZERO), subframe.last().getPrice());
+
+        Timeframe lastTicks = timeframe.last(2);
+        assertEquals(scale.toFixed(BigDecimal.ZERO), lastTicks.get(0).getPrice());
+        assertEquals(scale.toFixed(BigDecimal.valueOf(2)), lastTicks.last().getPrice());
+
+        Timeframe window = timeframe.window(1, 2);
+        assertEquals(1, window.size());
+        assertEquals(scale.toFixed(BigDecimal.ZERO), window.last().getPrice());
+
+        // views are read only
+        assertThrows(UnsupportedOperationException.class, () -> window.addTick(BigDecimal.ONE));
     }
 
     @Test